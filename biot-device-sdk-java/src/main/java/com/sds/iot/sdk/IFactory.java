@@ -1,16 +1,27 @@
 
 package com.sds.iot.sdk;
 
+import java.util.zip.Deflater;
+
+import com.sds.iot.sdk.message.compress.CompositeDataCompressor;
+import com.sds.iot.sdk.message.compress.DeflateDataCompressor;
 import com.sds.iot.sdk.message.compress.IDataCompressor;
+import com.sds.iot.sdk.message.compress.Lz4DataCompressor;
 import com.sds.iot.sdk.message.compress.ZstdDataCompressor;
+import com.sds.iot.sdk.message.compress.ZstdDictionaryRegistry;
 import com.sds.iot.sdk.message.encrypt.IDataEncryptor;
 import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
 import com.sds.iot.sdk.message.encrypt.ItaAesDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.BinaryHeaderFormatConverter;
 import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
 import com.sds.iot.sdk.message.headerformat.IHeaderFormatConverter;
 import com.sds.iot.sdk.protocol.IProtocol;
+import com.sds.iot.sdk.protocol.mqtt.Mqtt5Protocol;
+import com.sds.iot.sdk.protocol.mqtt.MqttAsyncProtocol;
 import com.sds.iot.sdk.protocol.mqtt.MqttProtocol;
 import com.sds.iot.sdk.protocol.mqtt.MqttProtocolConfig;
+import com.sds.iot.sdk.protocol.websocket.WebSocketProtocol;
+import com.sds.iot.sdk.protocol.websocket.WebSocketProtocolConfig;
 
 /**
  * 이 인터페이스 클래스는 프로토콜 및 헤더 타입 등의 확장이 필요한 경우 호출되는 함수를 정의합니다.
@@ -29,13 +40,15 @@ interface IFactory {
 	/**
 	 * 헤더 포맷 생성
 	 * @param headerType
-	 * 	      Delimiter 헤더 타입만 지원
-	 *        : e.g. "D" (Delimiter)
+	 * 	      Delimiter, Binary 헤더 타입 지원
+	 *        : e.g. "D" (Delimiter), "B" (Binary)
 	 * @return 변환된 헤더 포맷 
 	 */
 	default IHeaderFormatConverter createHeaderFormatConverter(String headerType) {
 		if ("D".equals(headerType)) {
 			return new DelimiterHeaderFormatConverter();
+		} else if ("B".equals(headerType)) {
+			return new BinaryHeaderFormatConverter();
 		} else {
 			throw new IllegalArgumentException("Unsupported headerType");
 		}
@@ -46,7 +59,33 @@ interface IFactory {
 	 * @return
 	 */
 	default IDataCompressor createDataCompressor(IotClientConfig cfg) {
-		return new ZstdDataCompressor(cfg.getCompressUseBytes());
+		ZstdDictionaryRegistry dictionaries = cfg.getCompressDictionaries();
+		if (IotClientConfig.COMPRESS_TYPE_ZSTD.equals(cfg.getCompressType())) {
+			if (dictionaries == null && cfg.getCompressDictTrainSamples() > 0) {
+				// 학습된 사전을 조회, activate 할 수 있도록 설정에 보관
+				dictionaries = new ZstdDictionaryRegistry(cfg.getCompressDictTrainSamples(), cfg.getCompressDictSize(),
+						cfg.getCompressLevel());
+				cfg.setCompressDictionaries(dictionaries);
+			}
+			return new ZstdDataCompressor(cfg.getCompressUseBytes(), cfg.getCompressLevel(), cfg.getCompressSkipPercent(),
+					dictionaries, cfg.getMaxDecompressBytes());
+		}
+
+		IDataCompressor outbound;
+		if (IotClientConfig.COMPRESS_TYPE_LZ4.equals(cfg.getCompressType())) {
+			outbound = new Lz4DataCompressor(cfg.getCompressUseBytes(), cfg.getMaxDecompressBytes());
+		} else {
+			int level = Math.min(Math.max(cfg.getCompressLevel(), Deflater.BEST_SPEED), Deflater.BEST_COMPRESSION);
+			outbound = new DeflateDataCompressor(cfg.getCompressUseBytes(), level, cfg.getMaxDecompressBytes());
+		}
+		try {
+			// 서버가 보내는 Zstd 메시지 압축해제
+			return new CompositeDataCompressor(outbound, new ZstdDataCompressor(cfg.getCompressUseBytes(),
+					ZstdDataCompressor.DEFAULT_COMPRESS_LEVEL, 0, dictionaries, cfg.getMaxDecompressBytes()));
+		} catch (LinkageError e) {
+			// zstd 네이티브 라이브러리를 사용할 수 없는 환경
+			return outbound;
+		}
 	}
 
 	/**
@@ -70,12 +109,18 @@ interface IFactory {
 	 * 
 	 * @param protocolType
 	 * 	      MQTT 프로토콜 지원
-	 *        : e.g. "MQTT" (MQTT Client)
+	 *        : e.g. "MQTT" (MQTT Client), "MQTT_ASYNC" (MQTT Async Client), "MQTT5" (MQTT v5 Client), "WEBS" (WebSocket Client)
 	 * @return 생성된 프로토콜
 	 */
 	default IProtocol createProtocol(String protocolType) {
 		if ("MQTT".equals(protocolType)) {
 			return new MqttProtocol();
+		} else if ("MQTT_ASYNC".equals(protocolType)) {
+			return new MqttAsyncProtocol();
+		} else if ("MQTT5".equals(protocolType)) {
+			return new Mqtt5Protocol();
+		} else if ("WEBS".equals(protocolType)) {
+			return new WebSocketProtocol();
 		} else {
 			throw new IllegalArgumentException("Unsupported protocolType : " + protocolType);
 		}
@@ -89,9 +134,13 @@ interface IFactory {
 	 * @see IotClientConfig
 	 */
 	default void initProtocolCfg(IotClientConfig cfg) {
-		if ("MQTT".equals(cfg.getProtocolType())) {
+		if ("MQTT".equals(cfg.getProtocolType()) || "MQTT_ASYNC".equals(cfg.getProtocolType())
+				|| "MQTT5".equals(cfg.getProtocolType())) {
 			cfg.initProtocolCfgFromProperties(new MqttProtocolConfig());
 			return;
+		} else if ("WEBS".equals(cfg.getProtocolType())) {
+			cfg.initProtocolCfgFromProperties(new WebSocketProtocolConfig());
+			return;
 		} else {
 			throw new IllegalArgumentException("Unsupported protocolType : " + cfg.getProtocolType());
 		}
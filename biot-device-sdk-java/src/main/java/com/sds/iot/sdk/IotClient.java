@@ -2,6 +2,7 @@
 package com.sds.iot.sdk;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +28,7 @@ import com.sds.iot.sdk.message.PredefinedMessageSupport;
  * <li>파일 업로드 URI 요청</li>
  * <li>파일 업로드 완료 전송</li>
  * </ul>
+ * 각 요청 기능은 응답으로 완료되는 CompletableFuture 를 리턴하는 비동기(xxxAsync) 메서드도 제공합니다.
  * 
  * @author SDS
  */
@@ -661,4 +663,208 @@ public class IotClient extends IotCoreClient {
 		return retStatus;
 	}
 
+	/* ======================================================================================= */
+	/* 비동기 요청. 응답 타임아웃 시 TimeoutException 으로, 전송 실패 시 IotException 으로 예외 완료된다. */
+
+	/**
+	 * 요청 메시지를 전송하고, 응답 메시지의 상태 코드로 완료되는 CompletableFuture 를 리턴합니다.
+	 */
+	private CompletableFuture<Integer> callForResCodeAsync(IotMessage msg, String failLog) {
+		return this.callAsync(msg).thenApply(resMsg -> {
+			if (!resMsg.getResCode().startsWith("2")) {
+				LOGGER.warn("{} ({})", failLog, resMsg.getResMsg());
+			}
+			return Integer.parseInt(resMsg.getResCode());
+		});
+	}
+
+	/**
+	 * Root 사물의 속성 데이터를 서버로 전송. (비동기 결과 확인)
+	 * 
+	 * @param msgCode
+	 *        null 설정 시, 기본 메시지코드 "Basic-AttrGroup" 이 사용됨
+	 * @param dataStr
+	 * 		  약속된 포맷을 가진 스트링형 데이터
+	 * @return 응답메시지의 응답 상태 코드값으로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<Integer> sendAttributesAsync(String msgCode, String dataStr) {
+		return sendAttributesAsync(msgCode, dataStr, null);
+	}
+
+	/**
+	 * Root 사물의 속성 데이터를 서버로 전송. (비동기 결과 확인)
+	 * 
+	 * @param msgCode
+	 *        null 설정 시, 기본 메시지코드 "Basic-AttrGroup" 이 사용됨
+	 * @param dataStr
+	 * 		  약속된 포맷을 가진 스트링형 데이터
+	 * @param dataFormat 메시지 데이터의 포맷
+	 * @return 응답메시지의 응답 상태 코드값으로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<Integer> sendAttributesAsync(String msgCode, String dataStr, String dataFormat) {
+		IotMessage msg = PredefinedMessageSupport.createSendAttributesMessage(null, msgCode, dataStr, dataFormat);
+		return callForResCodeAsync(msg, "FAIL TO SEND ATTRIBUTES!");
+	}
+
+	/**
+	 * Leaf 사물의 속성 데이터를 서버로 전송. (비동기 결과 확인)
+	 * 
+	 * @param leafThingName
+	 *        End-node name(= Leaf thing name).
+	 * @param msgCode
+	 *        null 설정 시, 기본 메시지코드 "Basic-AttrGroup" 이 사용됨
+	 * @param dataStr
+	 * 약속된 포맷을 가진 스트링형 데이터
+	 * @return 응답메시지의 응답 상태 코드값으로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<Integer> sendAttributesAsyncForLeaf(String leafThingName, String msgCode, String dataStr) {
+		return sendAttributesAsyncForLeaf(leafThingName, msgCode, dataStr, null);
+	}
+
+	/**
+	 * Leaf 사물의 속성 데이터를 서버로 전송. (비동기 결과 확인)
+	 * 
+	 * @param leafThingName
+	 *        End-node name(= Leaf thing name).
+	 * @param msgCode
+	 *        null 설정 시, 기본 메시지코드 "Basic-AttrGroup" 이 사용됨
+	 * @param dataStr
+	 * 약속된 포맷을 가진 스트링형 데이터
+	 * @param dataFormat
+	 * 메시지 데이터의 포맷
+	 * @return 응답메시지의 응답 상태 코드값으로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<Integer> sendAttributesAsyncForLeaf(String leafThingName, String msgCode, String dataStr,
+			String dataFormat) {
+		IotMessage msg = PredefinedMessageSupport.createSendAttributesMessage(leafThingName, msgCode, dataStr, dataFormat);
+		return callForResCodeAsync(msg, "FAIL TO SEND ATTRIBUTES!");
+	}
+
+	/**
+	 * 사물 활성화 요청 (비동기)
+	 * 
+	 * @param modelName
+	 *        IoT에 등록된 사물의 모델명
+	 * @param uniqueNum
+	 *        IoT에 등록된 사물의 고유 번호
+	 * @param thingNickName
+	 *        IoT에 등록된 사물의 별명 (null 가능)
+	 * @return 응답메시지의 응답 상태 코드값으로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<Integer> activateThingAsync(String modelName, String uniqueNum, String thingNickName) {
+		IotMessage msg = PredefinedMessageSupport.createActivateThingMessage(modelName, uniqueNum, thingNickName);
+		return callForResCodeAsync(msg, "CANNOT ACTIVATE THING!");
+	}
+
+	/**
+	 * Leaf 사물 활성화 요청 (비동기)
+	 *
+	 * @param parentThingName
+	 * 		  IoT에 등록된 Leaf 사물의 부모 사물명
+	 * @param modelName
+	 *        IoT에 등록된 Leaf 사물의 모델명
+	 * @param uniqueNum
+	 *        IoT에 등록된 Leaf 사물의 고유 번호
+	 * @return 응답메시지의 응답 상태 코드값으로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<Integer> activateThingForLeafAsync(String parentThingName, String modelName, String uniqueNum) {
+		IotMessage msg = PredefinedMessageSupport.createRegisterLeafThingMessage(parentThingName, modelName, uniqueNum, null);
+		return callForResCodeAsync(msg, "CANNOT ACTIVATE LEAF THING!");
+	}
+
+	/**
+	 * Leaf 사물 등록/활성화 요청 (비동기)
+	 * 
+	 * @param parentThingName
+	 * 		  IoT에 등록된 Leaf 사물의 부모 사물명
+	 * @param modelName
+	 *        IoT에 등록된 Leaf 사물의 모델명
+	 * @param uniqueNum
+	 *        IoT에 등록된 Leaf 사물의 고유 번호
+	 * @param thingNickName
+	 *        IoT에 등록된 Leaf 사물의 별명 (null 가능)
+	 * @return 응답메시지의 응답 상태 코드값으로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<Integer> registerLeafThingAsync(String parentThingName, String modelName, String uniqueNum,
+			String thingNickName) {
+		IotMessage msg = PredefinedMessageSupport.createRegisterLeafThingMessage(parentThingName, modelName, uniqueNum,
+				thingNickName);
+		return callForResCodeAsync(msg, "CANNOT REGISTER LEAF THING!");
+	}
+
+	/**
+	 * 능동형 펌웨어 최신 버전 요청 (모델/펌웨어타입 단건, 비동기)
+	 * 
+	 * @param modelName
+	 *        IoT에 등록된 사물의 모델명
+	 * @param firmwareType
+	 *        IoT에 등록된 펌웨어 타입
+	 * @return Latest firmware information 으로 완료되는 CompletableFuture. (응답이 실패인 경우 null 로 완료)
+	 */
+	public CompletableFuture<Map<String, String>> requestFirmwareLatestVersionAsync(String modelName, String firmwareType) {
+		IotMessage msg = PredefinedMessageSupport.createRequestFirmwareVersionMessage(modelName, firmwareType);
+		return this.callAsync(msg).thenApply(resMsg -> {
+			if (resMsg.getResCode().startsWith("2") && resMsg.getData() != null) {
+				return PredefinedMessageSupport.parseFirmwareVersionResponseMessage(resMsg);
+			}
+			LOGGER.warn("CANNOT GET LATEST FIRMWARE VERSION!");
+			return null;
+		});
+	}
+
+	/**
+	 * 펌웨어 업그레이드 완료 전송 (비동기)
+	 * 
+	 * @return 응답메시지의 응답 상태 코드값으로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<Integer> requestFirmwareUpgradeCompleteAsync(String firmwareType, String version) {
+		IotMessage msg = PredefinedMessageSupport.createFirmwareUpgradeCompleteMessage(firmwareType, version);
+		return callForResCodeAsync(msg, "CANNOT SEND FIRMWARE UPGRADE COMPLETE MESSAGE!");
+	}
+
+	/**
+	 * 펌웨어 싸인 데이터 요청 (비동기)
+	 * 
+	 * @param fileUri 싸인 데이터 요청 URI
+	 * @return 스트링형 싸인 데이터로 완료되는 CompletableFuture. (응답이 실패인 경우 null 로 완료)
+	 */
+	public CompletableFuture<String> requestFirmwareSignDataAsync(String fileUri) {
+		IotMessage msg = PredefinedMessageSupport.createRequestFirmwareSignMessage(fileUri);
+		return this.callAsync(msg).thenApply(resMsg -> {
+			if (resMsg.getResCode().startsWith("2") && resMsg.getData() != null) {
+				return PredefinedMessageSupport.parseFirmwareSignResponseMessage(resMsg);
+			}
+			LOGGER.warn("CANNOT GET FIRMWARE SIGN!");
+			return null;
+		});
+	}
+
+	/**
+	 * 파일 업로드 URI 요청 (비동기)
+	 * 
+	 * @return 업로드 URI 로 완료되는 CompletableFuture. (응답이 실패인 경우 null 로 완료)
+	 */
+	public CompletableFuture<String> requestFileUploadUriAsync() {
+		IotMessage msg = PredefinedMessageSupport.createRequestFileUploadUriMessage();
+		return this.callAsync(msg).thenApply(resMsg -> {
+			if (resMsg.getResCode().startsWith("2") && resMsg.getData() != null) {
+				return PredefinedMessageSupport.parseFileUploadUriResponseMessage(resMsg);
+			}
+			LOGGER.warn("CANNOT GET FILE UPLOAD URI!");
+			return null;
+		});
+	}
+
+	/**
+	 * 파일 업로드 완료 전송 (비동기)
+	 * 
+	 * @param fileName 업로드한 파일 네임
+	 * @param fileUri 파일 업로드에 사용된 URI
+	 * @return 응답메시지의 응답 상태 코드값으로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<Integer> requestFileUploadCompleteAsync(String fileName, String fileUri) {
+		IotMessage msg = PredefinedMessageSupport.createFileUploadCompleteMessage(fileName, fileUri);
+		return callForResCodeAsync(msg, "CANNOT SEND FILE UPLOAD COMPLETE MESSAGE!");
+	}
+
 }
@@ -7,7 +7,13 @@ import java.util.Properties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.sds.iot.sdk.message.DefaultMsgIdGenerator;
+import com.sds.iot.sdk.message.IMsgIdGenerator;
+import com.sds.iot.sdk.message.compress.ZstdDataCompressor;
+import com.sds.iot.sdk.message.compress.ZstdDictionaryRegistry;
 import com.sds.iot.sdk.protocol.IProtocolConfig;
+import com.sds.iot.sdk.protocol.JournalConfig;
+import com.sds.iot.sdk.protocol.OutboundOverflowPolicy;
 import com.sds.iot.sdk.protocol.RetryConfig;
 import com.sds.iot.sdk.protocol.tls.SslProperties;
 import com.sds.iot.sdk.util.ConfigFileUtil;
@@ -22,6 +28,13 @@ import com.sds.iot.sdk.util.ConfigFileUtil;
 public class IotClientConfig {
 	private static final Logger		LOGGER						= LoggerFactory.getLogger(IotClientConfig.class);
 
+	/** Zstd 압축 */
+	public static final String		COMPRESS_TYPE_ZSTD			= "Z";
+	/** LZ4 압축 */
+	public static final String		COMPRESS_TYPE_LZ4			= "L";
+	/** Deflate 압축 */
+	public static final String		COMPRESS_TYPE_DEFLATE		= "D";
+
 	/* ============================================================= */
 
 	private final String			siteId;
@@ -63,6 +76,60 @@ public class IotClientConfig {
 	 */
 	private int						compressUseBytes			= 0;
 
+	/**
+	 * Compression method of sending messages. default 'Z'.
+	 * "Z" : Zstd, "L" : LZ4 (fastest, lower ratio), "D" : Deflate (JDK, no native library)
+	 * Received messages are decompressed by the compress type of each message. ("Z" is always supported)
+	 */
+	private String					compressType				= COMPRESS_TYPE_ZSTD;
+
+	/**
+	 * Compress message data before encryption. default 'false'.
+	 * Encrypted data is incompressible, so when both encType and compressUseBytes are used,
+	 * compressing the plain data first saves bandwidth. The server must support this pipeline.
+	 * (encType of message : "C" + compressType + encType, e.g. "CZ3")
+	 */
+	private boolean					compressBeforeEncrypt		= false;
+
+	/**
+	 * Zstd compression level. default 3.
+	 * Lower levels are faster, higher levels compress better.
+	 */
+	private int						compressLevel				= ZstdDataCompressor.DEFAULT_COMPRESS_LEVEL;
+
+	/**
+	 * Skip compression of a msgCode whose recent compressed size is N% or more of the data size. default '0' (= Always compress).
+	 * e.g. if compressSkipPercent=90, msgCodes saving less than 10% are sent uncompressed.
+	 * (They are still compressed once in a while to measure the ratio again.)
+	 */
+	private int						compressSkipPercent			= 0;
+
+	/**
+	 * Number of samples per msgCode to train a zstd dictionary. default '0' (= No dictionary).
+	 * Small JSON data (hundreds of bytes) hardly compresses without a dictionary.
+	 * Plain data of compressed messages is sampled, and after N samples a dictionary is trained for the msgCode.
+	 * The trained dictionary is used after it is registered to the server and activated. (see compressDictionaries)
+	 * (encType of message : "ZD" + dictionary id + encType, e.g. "ZD1a2b3c4d0")
+	 */
+	private int						compressDictTrainSamples	= 0;
+
+	/**
+	 * Max size of a trained zstd dictionary. (unit: bytes) default 4096.
+	 */
+	private int						compressDictSize			= ZstdDictionaryRegistry.DEFAULT_DICT_SIZE;
+
+	/**
+	 * Zstd dictionaries to load, export and activate. default 'null'.
+	 * Created by the client if null and compressDictTrainSamples is set.
+	 */
+	private ZstdDictionaryRegistry	compressDictionaries		= null;
+
+	/**
+	 * Max size of decompressed message data. (unit: bytes) default 64MB.
+	 * A received message whose data decompresses to more than this is rejected instead of being loaded into memory.
+	 */
+	private int						maxDecompressBytes			= ZstdDataCompressor.DEFAULT_MAX_DECOMPRESS_BYTES;
+
 	private String					httpProxyIp					= System.getProperty("http.proxyHost");
 	private String					httpProxyPort				= System.getProperty("http.proxyPort");
 
@@ -78,8 +145,48 @@ public class IotClientConfig {
 	 */
 	private int						defaultSyncResponseTimeout	= 5;
 
+	/**
+	 * Number of threads handling received messages. default 0.
+	 * if inboundDispatchThreads=0, received messages are handled in the protocol's receiving thread.
+	 * if inboundDispatchThreads=N, received messages are handled in N threads (ordered per leaf thing),
+	 * and response messages are handled in a separate thread.
+	 */
+	private int						inboundDispatchThreads		= 0;
+
+	/** Queue capacity of each inbound dispatch thread. default 1000. */
+	private int						inboundQueueCapacity		= 1000;
+
+	/**
+	 * Capacity of the outbound send queue. default 0.
+	 * if outboundQueueCapacity=0, send() publishes the message in the caller's thread.
+	 * if outboundQueueCapacity=N, send() puts the message into the queue and a publisher thread sends it.
+	 */
+	private int						outboundQueueCapacity		= 0;
+
+	/** Behavior of send() when the outbound queue is full. default BLOCK. */
+	private OutboundOverflowPolicy	outboundOverflowPolicy		= OutboundOverflowPolicy.BLOCK;
+
+	/** Max time the publisher thread waits to collect a batch of messages. (unit: milliseconds) default 0. */
+	private long					outboundLingerMillis		= 0L;
+
+	/** Max number of messages the publisher thread takes from the queue at once. default 100. */
+	private int						outboundBatchSize			= 100;
+
+	/**
+	 * Number of connections to the server for this thing. default 1.
+	 * if connectionStripes=N (N > 1), outbound messages are distributed over N connections by leaf thing name,
+	 * and messages of the same leaf thing are always sent through the same connection (ordered per leaf thing).
+	 */
+	private int						connectionStripes			= 1;
+
 	private RetryConfig				retryCfg					= new RetryConfig();
 
+	/** Outbound journal (store-and-forward while disconnected). disabled if 'journal.dir' is not set. */
+	private JournalConfig			journalCfg					= new JournalConfig();
+
+	/** msgId generator. default 'DefaultMsgIdGenerator'. (random prefix + counter) */
+	private IMsgIdGenerator			msgIdGenerator				= new DefaultMsgIdGenerator();
+
 	/* ============================================================= */
 
 	private SslProperties			sslProperties				= null;
@@ -160,10 +267,24 @@ public class IotClientConfig {
 		ConfigFileUtil.invokeSetterIfExists(props, "", this, "headerType", String.class);
 		ConfigFileUtil.invokeSetterIfExists(props, "", this, "encType", String.class);
 		ConfigFileUtil.invokeSetterIfExists(props, "", this, "compressUseBytes", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "compressType", String.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "compressBeforeEncrypt", boolean.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "compressLevel", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "compressSkipPercent", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "compressDictTrainSamples", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "compressDictSize", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "maxDecompressBytes", int.class);
 		ConfigFileUtil.invokeSetterIfExists(props, "", this, "httpProxyIp", String.class);
 		ConfigFileUtil.invokeSetterIfExists(props, "", this, "httpProxyPort", String.class);
 		ConfigFileUtil.invokeSetterIfExists(props, "", this, "keepAliveInterval", int.class);
 		ConfigFileUtil.invokeSetterIfExists(props, "", this, "defaultSyncResponseTimeout", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "inboundDispatchThreads", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "inboundQueueCapacity", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "outboundQueueCapacity", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "outboundOverflowPolicy", String.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "outboundLingerMillis", long.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "outboundBatchSize", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "", this, "connectionStripes", int.class);
 
 		// retry config
 		ConfigFileUtil.invokeSetterIfExists(props, "retry.", this.retryCfg, "connectRetryMaxCount", int.class);
@@ -171,6 +292,14 @@ public class IotClientConfig {
 		ConfigFileUtil.invokeSetterIfExists(props, "retry.", this.retryCfg, "connectRetryMaxDelay", long.class);
 		ConfigFileUtil.invokeSetterIfExists(props, "retry.", this.retryCfg, "connectRetryDelayRandomRange", int.class);
 
+		// journal config
+		ConfigFileUtil.invokeSetterIfExists(props, "journal.", this.journalCfg, "dir", String.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "journal.", this.journalCfg, "segmentBytes", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "journal.", this.journalCfg, "maxBytes", long.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "journal.", this.journalCfg, "maxAgeSeconds", long.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "journal.", this.journalCfg, "fsyncPolicy", String.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "journal.", this.journalCfg, "replayRate", int.class);
+
 		// ssl config
 		this.sslProperties = new SslProperties(props); // 내부 Properties 객체가 동일
 
@@ -275,7 +404,7 @@ public class IotClientConfig {
 	/**
 	 *  B.IoT와 연결할 프로토콜 타입을 설정합니다.
 	 * @param protocolType
-	 *        : e.g. "MQTT"
+	 *        : e.g. "MQTT", "MQTT_ASYNC", "MQTT5", "WEBS"
 	 */
 	public void setProtocolType(String protocolType) {
 		this.protocolType = protocolType.toUpperCase(Locale.getDefault());
@@ -284,7 +413,7 @@ public class IotClientConfig {
 	/**
 	 * B.IoT 송수신 메시지 헤더 타입을 획득합니다.
 	 * @return 헤더 타입
-	 *        : e.g. "D"
+	 *        : e.g. "D" (Delimiter), "B" (Binary)
 	 */
 	public String getHeaderType() {
 		return headerType;
@@ -293,7 +422,7 @@ public class IotClientConfig {
 	/**
 	 * B.IoT 송수신 메시지 헤더 타입을 설정합니다.
 	 * @param headerType 메시지 헤더 타입
-	 *        : e.g. "D"
+	 *        : e.g. "D" (Delimiter), "B" (Binary)
 	 */
 	public void setHeaderType(String headerType) {
 		this.headerType = headerType.toUpperCase(Locale.getDefault());
@@ -354,6 +483,196 @@ public class IotClientConfig {
 		this.compressUseBytes = compressUseBytes;
 	}
 
+	/**
+	 * 전송 메시지 압축 방식을 획득합니다.
+	 * @return compressType
+	 */
+	public String getCompressType() {
+		return compressType;
+	}
+
+	/**
+	 * <pre>
+	 * 전송 메시지 압축 방식을 설정합니다.
+	 * "Z" : Zstd (기본값), "L" : LZ4 (압축률은 낮지만 CPU 사용량이 가장 적음), "D" : Deflate (JDK 내장, 네이티브 라이브러리 불필요)
+	 * 수신 메시지는 메시지의 압축 타입에 따라 압축해제합니다. ("Z" 는 항상 지원)
+	 * </pre>
+	 * 
+	 * @param compressType
+	 *        압축 방식
+	 */
+	public void setCompressType(String compressType) {
+		String type = compressType.toUpperCase(Locale.getDefault());
+		if (!COMPRESS_TYPE_ZSTD.equals(type) && !COMPRESS_TYPE_LZ4.equals(type) && !COMPRESS_TYPE_DEFLATE.equals(type)) {
+			throw new IllegalArgumentException("Unsupported compressType : " + compressType);
+		}
+		this.compressType = type;
+	}
+
+	/**
+	 * 암호화 전에 압축하는지 여부를 획득합니다.
+	 * @return compressBeforeEncrypt
+	 */
+	public boolean isCompressBeforeEncrypt() {
+		return compressBeforeEncrypt;
+	}
+
+	/**
+	 * <pre>
+	 * 메시지 데이터를 암호화 전에 압축할지 설정합니다. (서버에서 지원하는 경우에만 사용)
+	 * 암호화된 데이터는 압축되지 않으므로, 암호화(encType)와 압축(compressUseBytes)을 함께 사용하는 경우 전송량이 줄어듭니다.
+	 * 메시지의 encType 은 "C" + 압축타입 + 암호화타입 (e.g. "CZ3") 으로 전송됩니다.
+	 * </pre>
+	 * 
+	 * @param compressBeforeEncrypt
+	 *        암호화 전 압축 여부
+	 */
+	public void setCompressBeforeEncrypt(boolean compressBeforeEncrypt) {
+		this.compressBeforeEncrypt = compressBeforeEncrypt;
+	}
+
+	/**
+	 * 압축 레벨을 획득합니다.
+	 * @return compressLevel
+	 */
+	public int getCompressLevel() {
+		return compressLevel;
+	}
+
+	/**
+	 * 압축 레벨을 설정합니다. (낮을수록 빠르고, 높을수록 압축률이 좋음)
+	 * Deflate 는 1 ~ 9 범위로 제한하여 사용하고, LZ4 는 사용하지 않습니다.
+	 * 
+	 * @param compressLevel
+	 *        Zstd 압축 레벨 (1 ~ 22)
+	 */
+	public void setCompressLevel(int compressLevel) {
+		this.compressLevel = compressLevel;
+	}
+
+	/**
+	 * 압축을 생략하는 압축률 기준을 획득합니다.
+	 * @return compressSkipPercent
+	 */
+	public int getCompressSkipPercent() {
+		return compressSkipPercent;
+	}
+
+	/**
+	 * <pre>
+	 * msgCode 별 최근 압축률(압축 후 크기 / 원본 크기)이 기준(%) 이상이면 압축하지 않고 전송합니다. (0: 항상 압축)
+	 * 압축을 생략하는 동안에도 가끔 압축하여 압축률을 다시 측정합니다.
+	 * </pre>
+	 * 
+	 * @param compressSkipPercent
+	 *        압축 생략 기준 (0 ~ 100)
+	 */
+	public void setCompressSkipPercent(int compressSkipPercent) {
+		if (compressSkipPercent < 0 || compressSkipPercent > 100) {
+			throw new IllegalArgumentException("compressSkipPercent must be 0 ~ 100 : " + compressSkipPercent);
+		}
+		this.compressSkipPercent = compressSkipPercent;
+	}
+
+	/**
+	 * 압축 사전 학습에 사용하는 msgCode 별 샘플 수를 획득합니다.
+	 * @return compressDictTrainSamples
+	 */
+	public int getCompressDictTrainSamples() {
+		return compressDictTrainSamples;
+	}
+
+	/**
+	 * <pre>
+	 * 압축 사전 학습에 사용하는 msgCode 별 샘플 수를 설정합니다. (0: 사전 미사용)
+	 * 압축하는 메시지의 평문 데이터를 msgCode 별로 수집하여, 샘플 수가 채워지면 사전을 학습합니다.
+	 * 학습된 사전은 서버에 등록한 후 activate 해야 압축에 사용합니다. (encType : "ZD" + 사전 ID + 암호화타입)
+	 * </pre>
+	 * 
+	 * @see #getCompressDictionaries()
+	 * 
+	 * @param compressDictTrainSamples
+	 *        msgCode 별 샘플 수
+	 */
+	public void setCompressDictTrainSamples(int compressDictTrainSamples) {
+		if (compressDictTrainSamples < 0) {
+			throw new IllegalArgumentException("compressDictTrainSamples must not be negative : " + compressDictTrainSamples);
+		}
+		this.compressDictTrainSamples = compressDictTrainSamples;
+	}
+
+	/**
+	 * 학습할 압축 사전의 최대 크기를 획득합니다.
+	 * @return compressDictSize
+	 */
+	public int getCompressDictSize() {
+		return compressDictSize;
+	}
+
+	/**
+	 * 학습할 압축 사전의 최대 크기(bytes)를 설정합니다.
+	 * 
+	 * @param compressDictSize
+	 *        사전 최대 크기
+	 */
+	public void setCompressDictSize(int compressDictSize) {
+		if (compressDictSize <= 0) {
+			throw new IllegalArgumentException("compressDictSize must be positive : " + compressDictSize);
+		}
+		this.compressDictSize = compressDictSize;
+	}
+
+	/**
+	 * <pre>
+	 * Zstd 압축 사전을 획득합니다.
+	 * 학습된 사전 조회(getTrainedDictionaryIds, getDictionary), 서버 등록 후 사용 시작(activate)에 사용합니다.
+	 * 설정하지 않고 compressDictTrainSamples 만 설정한 경우 클라이언트 초기화 시 생성됩니다.
+	 * </pre>
+	 * 
+	 * @return compressDictionaries (사전 미사용 시 null)
+	 */
+	public ZstdDictionaryRegistry getCompressDictionaries() {
+		return compressDictionaries;
+	}
+
+	/**
+	 * <pre>
+	 * Zstd 압축 사전을 설정합니다.
+	 * 미리 등록(register)한 사전으로 처음부터 압축하거나, 서버가 보내는 사전 압축 메시지를 압축 해제할 때 사용합니다.
+	 * compressDictTrainSamples 를 설정하려면 같은 학습 설정으로 생성한 사전이어야 합니다.
+	 * </pre>
+	 * 
+	 * @param compressDictionaries
+	 *        압축 사전 (null: 사전 미사용)
+	 */
+	public void setCompressDictionaries(ZstdDictionaryRegistry compressDictionaries) {
+		this.compressDictionaries = compressDictionaries;
+	}
+
+	/**
+	 * 압축해제 데이터 최대 크기를 획득합니다.
+	 * @return maxDecompressBytes
+	 */
+	public int getMaxDecompressBytes() {
+		return maxDecompressBytes;
+	}
+
+	/**
+	 * <pre>
+	 * 수신 메시지의 압축해제 데이터 최대 크기(bytes)를 설정합니다.
+	 * 압축해제한 크기가 이 값을 넘으면 메모리에 올리지 않고 오류 처리합니다.
+	 * </pre>
+	 * 
+	 * @param maxDecompressBytes
+	 *        압축해제 데이터 최대 크기
+	 */
+	public void setMaxDecompressBytes(int maxDecompressBytes) {
+		if (maxDecompressBytes <= 0) {
+			throw new IllegalArgumentException("maxDecompressBytes must be positive : " + maxDecompressBytes);
+		}
+		this.maxDecompressBytes = maxDecompressBytes;
+	}
+
 	/**
 	 * 프록시 IP를 획득합니다.
 	 * @return httpProxyIp
@@ -430,6 +749,185 @@ public class IotClientConfig {
 		this.defaultSyncResponseTimeout = defaultSyncResponseTimeout;
 	}
 
+	/**
+	 * 수신 메시지 처리 스레드 수를 획득합니다.
+	 * default 0. (프로토콜 수신 스레드에서 처리)
+	 * 
+	 * @return inboundDispatchThreads
+	 */
+	public int getInboundDispatchThreads() {
+		return inboundDispatchThreads;
+	}
+
+	/**
+	 * 수신 메시지 처리 스레드 수를 설정합니다.
+	 * 0 보다 크면 수신 메시지를 별도 스레드에서 처리하며, 같은 Leaf 사물의 메시지는 수신 순서대로 처리됩니다.
+	 * 응답 메시지는 이 값과 별도로 하나의 스레드에서 처리됩니다.
+	 * 
+	 * @param inboundDispatchThreads
+	 *        수신 메시지 처리 스레드 수 (0: 프로토콜 수신 스레드에서 처리)
+	 */
+	public void setInboundDispatchThreads(int inboundDispatchThreads) {
+		if (inboundDispatchThreads < 0) {
+			throw new IllegalArgumentException("inboundDispatchThreads must not be negative : " + inboundDispatchThreads);
+		}
+		this.inboundDispatchThreads = inboundDispatchThreads;
+	}
+
+	/**
+	 * 수신 메시지 처리 스레드별 큐 크기를 획득합니다.
+	 * default 1000.
+	 * 
+	 * @return inboundQueueCapacity
+	 */
+	public int getInboundQueueCapacity() {
+		return inboundQueueCapacity;
+	}
+
+	/**
+	 * 수신 메시지 처리 스레드별 큐 크기를 설정합니다.
+	 * 큐가 가득 차면 프로토콜 수신 스레드가 대기합니다.
+	 * 
+	 * @param inboundQueueCapacity
+	 *        큐 크기
+	 */
+	public void setInboundQueueCapacity(int inboundQueueCapacity) {
+		if (inboundQueueCapacity <= 0) {
+			throw new IllegalArgumentException("inboundQueueCapacity must be positive : " + inboundQueueCapacity);
+		}
+		this.inboundQueueCapacity = inboundQueueCapacity;
+	}
+
+	/**
+	 * 송신 큐 크기를 획득합니다.
+	 * default 0. (send() 호출 스레드에서 전송)
+	 * 
+	 * @return outboundQueueCapacity
+	 */
+	public int getOutboundQueueCapacity() {
+		return outboundQueueCapacity;
+	}
+
+	/**
+	 * 송신 큐 크기를 설정합니다.
+	 * 0 보다 크면 send() 는 메시지를 큐에 넣고 바로 리턴하며, 송신 스레드에서 순서대로 전송합니다.
+	 * 
+	 * @param outboundQueueCapacity
+	 *        송신 큐 크기 (0: send() 호출 스레드에서 전송)
+	 */
+	public void setOutboundQueueCapacity(int outboundQueueCapacity) {
+		if (outboundQueueCapacity < 0) {
+			throw new IllegalArgumentException("outboundQueueCapacity must not be negative : " + outboundQueueCapacity);
+		}
+		this.outboundQueueCapacity = outboundQueueCapacity;
+	}
+
+	/**
+	 * 송신 큐가 가득 찬 경우의 처리 방식을 획득합니다.
+	 * default BLOCK.
+	 * 
+	 * @return outboundOverflowPolicy
+	 */
+	public OutboundOverflowPolicy getOutboundOverflowPolicy() {
+		return outboundOverflowPolicy;
+	}
+
+	/**
+	 * 송신 큐가 가득 찬 경우의 처리 방식을 설정합니다.
+	 * 
+	 * @param outboundOverflowPolicy
+	 *        BLOCK (대기), DROP_OLDEST (가장 오래된 메시지 버림), FAIL_FAST (send() 실패)
+	 */
+	public void setOutboundOverflowPolicy(OutboundOverflowPolicy outboundOverflowPolicy) {
+		if (outboundOverflowPolicy == null) {
+			throw new IllegalArgumentException("outboundOverflowPolicy must not be null");
+		}
+		this.outboundOverflowPolicy = outboundOverflowPolicy;
+	}
+
+	/**
+	 * 송신 큐가 가득 찬 경우의 처리 방식을 설정합니다. (설정 파일용)
+	 * 
+	 * @param outboundOverflowPolicy
+	 *        "BLOCK", "DROP_OLDEST", "FAIL_FAST"
+	 */
+	public void setOutboundOverflowPolicy(String outboundOverflowPolicy) {
+		setOutboundOverflowPolicy(OutboundOverflowPolicy.valueOf(outboundOverflowPolicy.trim()));
+	}
+
+	/**
+	 * 송신 스레드가 메시지를 모으기 위해 기다리는 최대 시간을 획득합니다.
+	 * default 0.
+	 * 
+	 * @return outboundLingerMillis
+	 */
+	public long getOutboundLingerMillis() {
+		return outboundLingerMillis;
+	}
+
+	/**
+	 * 송신 스레드가 메시지를 모으기 위해 기다리는 최대 시간을 설정합니다.
+	 * 0 보다 크면 outboundBatchSize 만큼 모이거나 이 시간이 지날 때까지 기다렸다가 이어서 전송합니다.
+	 * 
+	 * @param outboundLingerMillis
+	 *        대기 시간 (밀리초, 0: 기다리지 않음)
+	 */
+	public void setOutboundLingerMillis(long outboundLingerMillis) {
+		if (outboundLingerMillis < 0) {
+			throw new IllegalArgumentException("outboundLingerMillis must not be negative : " + outboundLingerMillis);
+		}
+		this.outboundLingerMillis = outboundLingerMillis;
+	}
+
+	/**
+	 * 송신 스레드가 큐에서 한 번에 꺼내는 최대 메시지 수를 획득합니다.
+	 * default 100.
+	 * 
+	 * @return outboundBatchSize
+	 */
+	public int getOutboundBatchSize() {
+		return outboundBatchSize;
+	}
+
+	/**
+	 * 송신 스레드가 큐에서 한 번에 꺼내는 최대 메시지 수를 설정합니다.
+	 * 
+	 * @param outboundBatchSize
+	 *        최대 메시지 수
+	 */
+	public void setOutboundBatchSize(int outboundBatchSize) {
+		if (outboundBatchSize <= 0) {
+			throw new IllegalArgumentException("outboundBatchSize must be positive : " + outboundBatchSize);
+		}
+		this.outboundBatchSize = outboundBatchSize;
+	}
+
+	/**
+	 * 서버와 맺는 연결 수를 획득합니다.
+	 * default 1.
+	 * 
+	 * @return connectionStripes
+	 */
+	public int getConnectionStripes() {
+		return connectionStripes;
+	}
+
+	/**
+	 * 서버와 맺는 연결 수를 설정합니다.
+	 * 1 보다 크면 같은 사물로 여러 개의 연결을 맺고, 전송 메시지를 하위 사물명 기준으로 나누어 전송합니다.
+	 * 같은 하위 사물의 메시지는 항상 같은 연결로 전송되므로 하위 사물별 전송 순서는 유지됩니다.
+	 * 서버가 한 사물의 다중 연결을 허용해야 합니다.
+	 * 
+	 * @param connectionStripes
+	 *        연결 수 (1 이상)
+	 */
+	public void setConnectionStripes(int connectionStripes) {
+		if (connectionStripes < 1) {
+			throw new IllegalArgumentException("connectionStripes must be positive : " + connectionStripes);
+		}
+		this.connectionStripes = connectionStripes;
+	}
+
 	/* ============================================================= */
 
 	/**
@@ -451,6 +949,43 @@ public class IotClientConfig {
 		this.retryCfg = retryCfg;
 	}
 
+	/**
+	 * 송신 저널 설정값을 획득합니다.
+	 * @return journalCfg
+	 */
+	public JournalConfig getJournalCfg() {
+		return journalCfg;
+	}
+
+	/**
+	 * 송신 저널 설정값을 설정합니다.
+	 * @param journalCfg 송신 저널 설정값 (저장 디렉토리, 보관 기간 등등)
+	 */
+	public void setJournalCfg(JournalConfig journalCfg) {
+		this.journalCfg = journalCfg == null ? new JournalConfig() : journalCfg;
+	}
+
+	/**
+	 * msgId 생성기를 획득합니다.
+	 * @return msgIdGenerator
+	 */
+	public IMsgIdGenerator getMsgIdGenerator() {
+		return msgIdGenerator;
+	}
+
+	/**
+	 * msgId 생성기를 설정합니다.
+	 * 생성되는 msgId 는 클라이언트 내에서 (재연결 이후에도) 유일해야 합니다.
+	 * 
+	 * @param msgIdGenerator msgId 생성기
+	 */
+	public void setMsgIdGenerator(IMsgIdGenerator msgIdGenerator) {
+		if (msgIdGenerator == null) {
+			throw new IllegalArgumentException("msgIdGenerator is null");
+		}
+		this.msgIdGenerator = msgIdGenerator;
+	}
+
 	/**
 	 * 프로토콜 관련 설정값을 획득합니다.
 	 * @return
@@ -542,6 +1077,39 @@ public class IotClientConfig {
 		builder.append("compressUseBytes=");
 		builder.append(compressUseBytes);
 		builder.append("\n");
+		if (!COMPRESS_TYPE_ZSTD.equals(compressType)) {
+			builder.append("compressType=");
+			builder.append(compressType);
+			builder.append("\n");
+		}
+		if (compressBeforeEncrypt) {
+			builder.append("compressBeforeEncrypt=");
+			builder.append(compressBeforeEncrypt);
+			builder.append("\n");
+		}
+		if (compressLevel != ZstdDataCompressor.DEFAULT_COMPRESS_LEVEL) {
+			builder.append("compressLevel=");
+			builder.append(compressLevel);
+			builder.append("\n");
+		}
+		if (compressSkipPercent > 0) {
+			builder.append("compressSkipPercent=");
+			builder.append(compressSkipPercent);
+			builder.append("\n");
+		}
+		if (compressDictTrainSamples > 0) {
+			builder.append("compressDictTrainSamples=");
+			builder.append(compressDictTrainSamples);
+			builder.append("\n");
+			builder.append("compressDictSize=");
+			builder.append(compressDictSize);
+			builder.append("\n");
+		}
+		if (maxDecompressBytes != ZstdDataCompressor.DEFAULT_MAX_DECOMPRESS_BYTES) {
+			builder.append("maxDecompressBytes=");
+			builder.append(maxDecompressBytes);
+			builder.append("\n");
+		}
 		builder.append("encType=");
 		builder.append(encType);
 		builder.append("\n");
@@ -561,9 +1129,32 @@ public class IotClientConfig {
 		builder.append("defaultSyncResponseTimeout=");
 		builder.append(defaultSyncResponseTimeout);
 		builder.append("\n");
+		builder.append("inboundDispatchThreads=");
+		builder.append(inboundDispatchThreads);
+		builder.append("\n");
+		if (outboundQueueCapacity > 0) {
+			builder.append("outboundQueueCapacity=");
+			builder.append(outboundQueueCapacity);
+			builder.append(", outboundOverflowPolicy=");
+			builder.append(outboundOverflowPolicy);
+			builder.append(", outboundLingerMillis=");
+			builder.append(outboundLingerMillis);
+			builder.append("\n");
+		}
+		if (connectionStripes > 1) {
+			builder.append("connectionStripes=");
+			builder.append(connectionStripes);
+			builder.append("\n");
+		}
 		builder.append("retryCfg=[\n");
 		builder.append(retryCfg);
 		builder.append("\n]");
+		if (journalCfg.isEnabled()) {
+			builder.append("\n");
+			builder.append("journalCfg=[\n");
+			builder.append(journalCfg);
+			builder.append("\n]");
+		}
 		if (protocolCfg != null) {
 			builder.append("\n");
 			builder.append("protocolCfg=[\n");
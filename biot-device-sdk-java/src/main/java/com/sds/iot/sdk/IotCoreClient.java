@@ -1,6 +1,10 @@
 
 package com.sds.iot.sdk;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,12 +15,17 @@ import com.sds.iot.sdk.exception.IotException;
 import com.sds.iot.sdk.message.IotMessage;
 import com.sds.iot.sdk.message.MessageConverter;
 import com.sds.iot.sdk.message.compress.IDataCompressor;
+import com.sds.iot.sdk.message.compress.ZstdDictionaryRegistry;
 import com.sds.iot.sdk.message.encrypt.IDataEncryptor;
 import com.sds.iot.sdk.message.headerformat.IHeaderFormatConverter;
+import com.sds.iot.sdk.protocol.ConnectionState;
+import com.sds.iot.sdk.protocol.IConnectionStateListener;
 import com.sds.iot.sdk.protocol.IProtocol;
 import com.sds.iot.sdk.protocol.IProtocolConfig;
 import com.sds.iot.sdk.protocol.IotTransport;
 import com.sds.iot.sdk.protocol.RetryConfig;
+import com.sds.iot.sdk.protocol.StageMetrics;
+import com.sds.iot.sdk.protocol.StripedProtocol;
 
 /**
  * 이 클래스는 IoT 서버와 연결하여 아래와 같은 기능들을 제공하는 코어 클라이언트 입니다.
@@ -37,6 +46,9 @@ public class IotCoreClient {
 	private IotTransport			transport		= null;
 	private ICustomMessageListener	customListener	= null;
 
+	/** connect() 이전에 등록된 연결 상태 리스너 (transport 생성 시 등록) */
+	private final List<IConnectionStateListener>	stateListeners	= new CopyOnWriteArrayList<>();
+
 	/* ======================================================================================= */
 
 	/**
@@ -123,9 +135,6 @@ public class IotCoreClient {
 			// 서버 연결
 			transport.connect(auth, cfg);
 
-			// 응답 콜백 타임아웃 체크 스레드 생성
-			transport.startResponseCallbackTimeoutCheckThread();
-
 			// 메시지 전송이 필요한 사물 인증 프로세스 진행
 			transport.processDeviceAuth();
 
@@ -150,6 +159,15 @@ public class IotCoreClient {
 			return;
 		}
 		IProtocol protocol = getFactory().createProtocol(cfg.getProtocolType());
+		if (cfg.getConnectionStripes() > 1) {
+			// 같은 사물로 여러 연결을 맺고 Leaf 사물별로 나누어 전송
+			IProtocol[] stripes = new IProtocol[cfg.getConnectionStripes()];
+			stripes[0] = protocol;
+			for (int i = 1; i < stripes.length; i++) {
+				stripes[i] = getFactory().createProtocol(cfg.getProtocolType());
+			}
+			protocol = new StripedProtocol(stripes);
+		}
 
 		getFactory().initProtocolCfg(cfg);
 
@@ -160,9 +178,13 @@ public class IotCoreClient {
 		IDataEncryptor dataEncryptor = getFactory().createDataEncryptor(cfg.getEncType());
 		dataEncryptor.setAuth(auth);
 
-		MessageConverter converter = new MessageConverter(headerFormatConverter, dataCompressor, dataEncryptor);
+		MessageConverter converter = new MessageConverter(headerFormatConverter, dataCompressor, dataEncryptor,
+				cfg.isCompressBeforeEncrypt());
 
 		this.transport = new IotTransport(protocol, converter, customListener);
+		for (IConnectionStateListener listener : stateListeners) {
+			this.transport.addConnectionStateListener(listener);
+		}
 	}
 
 	protected void printStartLog() {
@@ -227,6 +249,40 @@ public class IotCoreClient {
 		transport.disconnect();
 	}
 
+	/**
+	 * 서버와의 연결 상태를 획득합니다.
+	 * 
+	 * @return 연결 상태 (DISCONNECTED, CONNECTING, AUTHENTICATING, READY)
+	 */
+	public ConnectionState getConnectionState() {
+		return transport == null ? ConnectionState.DISCONNECTED : transport.getConnectionState();
+	}
+
+	/**
+	 * 서버와의 연결 상태 변경 시 통지받을 리스너를 등록합니다.
+	 * 연결이 끊긴 후의 재연결은 별도 스레드에서 수행되므로, 이 리스너로 재연결 완료(READY) 여부를 확인할 수 있습니다.
+	 * 
+	 * @param listener 연결 상태 변경 리스너
+	 */
+	public void addConnectionStateListener(IConnectionStateListener listener) {
+		stateListeners.add(listener);
+		if (transport != null) {
+			transport.addConnectionStateListener(listener);
+		}
+	}
+
+	/**
+	 * 연결 상태 변경 리스너를 삭제합니다.
+	 * 
+	 * @param listener 연결 상태 변경 리스너
+	 */
+	public void removeConnectionStateListener(IConnectionStateListener listener) {
+		stateListeners.remove(listener);
+		if (transport != null) {
+			transport.removeConnectionStateListener(listener);
+		}
+	}
+
 	/* ======================================================================================= */
 
 	/**
@@ -279,4 +335,65 @@ public class IotCoreClient {
 		return syncCall(msg, cfg.getDefaultSyncResponseTimeout());
 	}
 
+	/**
+	 * 요청 메시지를 전송하고, 응답 메시지를 받으면 완료되는 CompletableFuture 를 리턴합니다.
+	 * 호출 스레드가 blocking 되지 않으므로, 적은 수의 스레드로 많은 요청을 동시에 처리해야 하는 경우 사용합니다.
+	 * 응답 타임아웃 시 TimeoutException 으로, 전송 실패 시 IotException 으로 예외 완료됩니다.
+	 * 
+	 * @param msg B.IoT메시지
+	 * @param timeoutSeconds 타임 아웃 시간 (초 단위)
+	 * @return 응답 메시지로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<IotMessage> callAsync(IotMessage msg, int timeoutSeconds) {
+		return transport.callAsync(msg, timeoutSeconds * 1000L);
+	}
+
+	/**
+	 * 요청 메시지를 전송하고, 응답 메시지를 받으면 완료되는 CompletableFuture 를 리턴합니다.
+	 * 응답 타임아웃은 defaultSyncResponseTimeout 설정값을 사용합니다.
+	 * 
+	 * @param msg B.IoT메시지
+	 * @return 응답 메시지로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<IotMessage> callAsync(IotMessage msg) {
+		return callAsync(msg, cfg.getDefaultSyncResponseTimeout());
+	}
+
+	/**
+	 * 수신 메시지 처리 현황을 획득합니다.
+	 * 
+	 * @return 큐 대기 메시지 수, 메시지 처리 시간 등
+	 */
+	public StageMetrics getInboundMetrics() {
+		return transport.getInboundMetrics();
+	}
+
+	/**
+	 * 송신 처리 현황을 획득합니다. (outboundQueueCapacity 설정 시)
+	 * 
+	 * @return 큐 대기 메시지 수, 큐 대기 시간을 포함한 전송 시간 등
+	 */
+	public StageMetrics getOutboundMetrics() {
+		return transport.getOutboundMetrics();
+	}
+
+	/**
+	 * 송신 저널에 저장되어 재전송을 기다리는 메시지 수를 획득합니다.
+	 *
+	 * @return 재전송 대기 메시지 수 (송신 저널을 사용하지 않으면 0)
+	 */
+	public long getJournalPendingCount() {
+		return transport.getJournalPendingCount();
+	}
+
+	/**
+	 * Zstd 압축 사전을 획득합니다. 학습된 사전을 서버에 등록한 후 activate 할 때 사용합니다.
+	 *
+	 * @return 압축 사전 (사전을 사용하지 않으면 null)
+	 * @see IotClientConfig#setCompressDictTrainSamples(int)
+	 */
+	public ZstdDictionaryRegistry getCompressDictionaries() {
+		return cfg.getCompressDictionaries();
+	}
+
 }
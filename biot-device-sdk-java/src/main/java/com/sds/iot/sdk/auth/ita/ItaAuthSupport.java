@@ -159,7 +159,8 @@ class ItaAuthSupport {
 	static void changeServerAddr(IotClientConfig cfg, Map<String, Object> resultMap) {
 		StringBuilder sb = new StringBuilder();
 		boolean ssl = Boolean.valueOf((String) resultMap.get("isSsl"));
-		if ("MQTT".equals(cfg.getProtocolType())) {
+		if ("MQTT".equals(cfg.getProtocolType()) || "MQTT_ASYNC".equals(cfg.getProtocolType())
+				|| "MQTT5".equals(cfg.getProtocolType())) {
 			if (ssl) {
 				sb.append("ssl://");
 			} else {
@@ -0,0 +1,93 @@
+
+package com.sds.iot.sdk.message;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 이 클래스는 msgId 생성의 기본 구현체입니다.
+ *
+ * 클라이언트마다 한 번 생성한 64bit 랜덤 prefix 와 64bit 증가 카운터를 조합하여
+ * UUID 형식(8-4-4-4-12, 소문자 16진수)의 msgId 를 생성합니다.
+ *
+ * UUID.randomUUID() 와 달리 메시지마다 SecureRandom 을 사용하지 않으므로
+ * 여러 스레드가 동시에 메시지를 보내도 경합이 없습니다.
+ * 카운터는 인스턴스가 살아있는 동안 계속 증가하므로 재연결 이후에도 중복되지 않습니다.
+ *
+ * @author SDS
+ */
+public class DefaultMsgIdGenerator implements IMsgIdGenerator {
+
+	private static final char[]	HEX_DIGITS	= "0123456789abcdef".toCharArray();
+	private static final byte[]	HEX_VALUES	= new byte[128];
+
+	static {
+		Arrays.fill(HEX_VALUES, (byte) -1);
+		for (int i = 0; i < HEX_DIGITS.length; i++) {
+			HEX_VALUES[HEX_DIGITS[i]] = (byte) i;
+		}
+	}
+
+	/** msgId 중 prefix 부분의 길이 ("xxxxxxxx-xxxx-xxxx-") */
+	private static final int	PREFIX_LENGTH	= 19;
+
+	private final long			prefix;
+	private final String		prefixStr;
+	private final AtomicLong	counter;
+
+	public DefaultMsgIdGenerator() {
+		SecureRandom random = new SecureRandom();
+		this.prefix = random.nextLong();
+		this.prefixStr = toUuidString(prefix, 0L).substring(0, PREFIX_LENGTH);
+		this.counter = new AtomicLong(random.nextLong() >>> 16);
+	}
+
+	@Override
+	public String nextMsgId() {
+		return toUuidString(prefix, counter.getAndIncrement());
+	}
+
+	/**
+	 * 이 생성기가 만든 msgId 이면 카운터 값을 그대로 correlation id 로 반환합니다.
+	 */
+	@Override
+	public long toCorrelationId(String msgId) {
+		if (msgId == null || msgId.length() != 36) {
+			return -1L;
+		}
+		String p = this.prefixStr;
+		for (int i = 0; i < PREFIX_LENGTH; i++) {
+			if (msgId.charAt(i) != p.charAt(i)) {
+				return -1L;
+			}
+		}
+		if (msgId.charAt(23) != '-') {
+			return -1L;
+		}
+		long value = 0;
+		int invalid = 0;
+		for (int i = PREFIX_LENGTH; i < 36; i++) {
+			if (i != 23) {
+				char c = msgId.charAt(i);
+				int digit = c < HEX_VALUES.length ? HEX_VALUES[c] : -1;
+				invalid |= digit;
+				value = (value << 4) | (digit & 0xF);
+			}
+		}
+		return invalid < 0 || value < 0 ? -1L : value;
+	}
+
+	static String toUuidString(long msb, long lsb) {
+		char[] chars = new char[36];
+		int pos = 0;
+		for (int i = 0; i < 32; i++) {
+			if (i == 8 || i == 12 || i == 16 || i == 20) {
+				chars[pos++] = '-';
+			}
+			long v = i < 16 ? msb >>> ((15 - i) * 4) : lsb >>> ((31 - i) * 4);
+			chars[pos++] = HEX_DIGITS[(int) (v & 0xF)];
+		}
+		return new String(chars);
+	}
+}
@@ -0,0 +1,33 @@
+
+package com.sds.iot.sdk.message;
+
+/**
+ * 이 인터페이스는 송신 메시지의 msgId 생성 방법을 정의합니다.
+ *
+ * msgId 는 요청/응답 메시지를 연결하는 키로 사용되므로 클라이언트 내에서 (재연결 이후에도) 유일해야 합니다.
+ * 기본 구현체는 DefaultMsgIdGenerator 입니다.
+ *
+ * @author SDS
+ */
+public interface IMsgIdGenerator {
+
+	/**
+	 * 새 msgId 를 생성합니다.
+	 *
+	 * @return msgId
+	 */
+	String nextMsgId();
+
+	/**
+	 * msgId 를 숫자 correlation id 로 변환합니다.
+	 * 이 생성기가 만든 msgId 는 문자열 비교 없이 숫자 키로 응답 콜백을 찾을 수 있습니다.
+	 *
+	 * @param msgId
+	 *        msgId
+	 * @return 0 이상의 correlation id. 이 생성기가 만든 msgId 가 아니면 -1
+	 */
+	default long toCorrelationId(String msgId) {
+		return -1L;
+	}
+
+}
@@ -1,9 +1,9 @@
 
 package com.sds.iot.sdk.message;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
-import java.util.UUID;
 
 import com.sds.iot.sdk.IotClientConfig;
 
@@ -31,7 +31,7 @@ public class IotMessage {
 
 	private String	msgCode		= IotMessageCodeEnum.ATTRGROUP_REQ.getMsgCode();
 
-	/** thingName : 미 설정시 자동으로 random UUID 값으로 설정 */
+	/** msgId : 미 설정시 자동으로 IotClient 설정의 msgIdGenerator 로 생성 */
 	private String	msgId		= null;
 
 	private long	msgDate		= 0;
@@ -45,6 +45,15 @@ public class IotMessage {
 
 	private byte[]	data		= null;
 
+	/** data 배열 중 실제 데이터부가 시작되는 위치 (수신 payload 를 복사 없이 참조하는 경우 0 이 아닐 수 있음) */
+	private int		dataOffset	= 0;
+
+	/** data 배열 중 실제 데이터부의 길이 */
+	private int		dataLength	= 0;
+
+	/** 전송 QoS (헤더에 포함되지 않음) : -1 이면 프로토콜 설정의 기본값 사용 */
+	private int		qos			= -1;
+
 	public IotMessage() {
 		super();
 	}
@@ -60,7 +69,7 @@ public class IotMessage {
 			tId = tpId; // 2.8 이하 호환을 위해 필요
 		}
 		if (msgId == null) {
-			msgId = UUID.randomUUID().toString();
+			msgId = cfg.getMsgIdGenerator().nextMsgId();
 		}
 	}
 
@@ -184,12 +193,91 @@ public class IotMessage {
 		this.authToken = authToken;
 	}
 
+	/**
+	 * @return 전송 QoS. -1 이면 프로토콜 설정의 기본값 사용
+	 */
+	public int getQos() {
+		return qos;
+	}
+
+	/**
+	 * 이 메시지의 전송 QoS 를 지정합니다. (MQTT 프로토콜에서만 사용)
+	 * QoS0 은 서버 응답(PUBACK)을 기다리지 않으므로 빠르지만, 연결이 끊기면 유실될 수 있습니다.
+	 * 
+	 * @param qos
+	 *        0, 1 또는 -1 (프로토콜 설정의 기본값 사용)
+	 */
+	public void setQos(int qos) {
+		if (qos < -1 || qos > 1) {
+			throw new IllegalArgumentException("Unsupported qos : " + qos);
+		}
+		this.qos = qos;
+	}
+
+	/**
+	 * 데이터부를 byte[] 로 반환합니다.
+	 * 데이터부가 수신 payload 의 일부를 참조하고 있는 경우, 최초 호출 시 한 번만 복사합니다.
+	 * 
+	 * @return 데이터부
+	 */
 	public byte[] getData() {
+		if (data != null && (dataOffset != 0 || dataLength != data.length)) {
+			this.data = Arrays.copyOfRange(data, dataOffset, dataOffset + dataLength);
+			this.dataOffset = 0;
+		}
 		return data;
 	}
 
 	public void setData(byte[] data) {
 		this.data = data;
+		this.dataOffset = 0;
+		this.dataLength = data == null ? 0 : data.length;
+	}
+
+	/**
+	 * 주어진 배열의 일부를 복사하지 않고 데이터부로 참조합니다.
+	 * (수신 메시지 파싱 시, 원본 payload 를 그대로 참조하기 위해 사용)
+	 * 
+	 * @param data
+	 *        데이터부를 포함하는 배열
+	 * @param offset
+	 *        데이터부 시작 위치
+	 * @param length
+	 *        데이터부 길이
+	 */
+	public void setData(byte[] data, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > data.length) {
+			throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", data.length=" + data.length);
+		}
+		this.data = data;
+		this.dataOffset = offset;
+		this.dataLength = length;
+	}
+
+	/**
+	 * @return 데이터부 존재 여부 (true/false)
+	 */
+	public boolean hasData() {
+		return data != null;
+	}
+
+	/**
+	 * @return 데이터부 길이 (데이터가 없으면 0)
+	 */
+	public int getDataLength() {
+		return data == null ? 0 : dataLength;
+	}
+
+	/**
+	 * 데이터부를 복사 없이 읽기 전용 ByteBuffer 로 반환합니다.
+	 * 
+	 * @return 데이터부 (데이터가 없으면 null)
+	 */
+	public ByteBuffer getDataBuffer() {
+		if (data == null) {
+			return null;
+		}
+		return ByteBuffer.wrap(data, dataOffset, dataLength).slice().asReadOnlyBuffer();
 	}
 
 	public String getDataString() {
@@ -200,25 +288,26 @@ public class IotMessage {
 		// IF STRING CONV NOT AVAILABLE DATA FORMAT (OR COMPORESS / ENCRYPTED DATA..), 
 		// BASE64 ENCODE.
 		if (isStringData()) {
-			return new String(data, Charset.defaultCharset());
+			return new String(data, dataOffset, dataLength, Charset.defaultCharset());
 		} else {
 			//return java.util.Base64.getEncoder().encodeToString(data);
-			return org.apache.commons.codec.binary.Base64.encodeBase64String(data);
+			return org.apache.commons.codec.binary.Base64.encodeBase64String(getData());
 		}
 	}
 
 	public void setDataString(String dataStr) {
 		if (dataStr == null) {
-			this.data = null;
+			setData(null);
+			return;
 		}
 
 		// IF STRING CONV NOT AVAILABLE DATA FORMAT (OR COMPORESS / ENCRYPTED DATA..), 
 		// BASE64 DECODE.
 		if (isStringData()) {
-			this.data = dataStr.getBytes(Charset.defaultCharset());
+			setData(dataStr.getBytes(Charset.defaultCharset()));
 		} else {
 			//this.data = java.util.Base64.getDecoder().decode(dataStr);
-			this.data = org.apache.commons.codec.binary.Base64.decodeBase64(dataStr);
+			setData(org.apache.commons.codec.binary.Base64.decodeBase64(dataStr));
 		}
 	}
 
@@ -253,7 +342,7 @@ public class IotMessage {
 		if (encType != null)
 			builder.append("encType=").append(encType).append(", ");
 
-		builder.append("dataLength=").append(data == null ? 0 : data.length);
+		builder.append("dataLength=").append(getDataLength());
 		builder.append("]");
 		return builder.toString();
 	}
@@ -291,12 +380,12 @@ public class IotMessage {
 		if (authToken != null)
 			builder.append("authToken=").append(authToken).append(", ");
 		if (data != null) {
-			builder.append("dataLength=").append(data.length).append(", ");
+			builder.append("dataLength=").append(dataLength).append(", ");
 			builder.append("data=");
 			if (encType == null || encType.isEmpty() || "0".equals(encType)) {
-				builder.append(new String(data, Charset.defaultCharset()));
+				builder.append(new String(data, dataOffset, dataLength, Charset.defaultCharset()));
 			} else {
-				builder.append(Arrays.toString(data));
+				builder.append(Arrays.toString(getData()));
 			}
 		}
 		builder.append("]");
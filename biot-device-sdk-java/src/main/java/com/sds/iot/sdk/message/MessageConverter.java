@@ -1,6 +1,8 @@
 
 package com.sds.iot.sdk.message;
 
+import java.nio.ByteBuffer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,17 +17,37 @@ import com.sds.iot.sdk.message.headerformat.IHeaderFormatConverter;
  *
  */
 public class MessageConverter {
-	private static final Logger		LOGGER	= LoggerFactory.getLogger(MessageConverter.class);
+	private static final Logger		LOGGER					= LoggerFactory.getLogger(MessageConverter.class);
+
+	/** 암호화 전에 압축한 경우 encType 앞쪽에 붙이는 문자 (e.g. "CZ3" : 압축 후 암호화) */
+	public static final String		COMPRESS_FIRST_PREFIX	= "C";
 
 	private IHeaderFormatConverter	headerFormatConverter;
 	private IDataCompressor			dataCompressor;
 	private IDataEncryptor			dataEncryptor;
+	private boolean					compressBeforeEncrypt;
 
 	public MessageConverter(IHeaderFormatConverter headerFormatConverter, IDataCompressor dataCompressor,
 			IDataEncryptor dataEncryptor) {
+		this(headerFormatConverter, dataCompressor, dataEncryptor, false);
+	}
+
+	/**
+	 * @param headerFormatConverter
+	 *        헤더 포맷 변환
+	 * @param dataCompressor
+	 *        데이터 압축
+	 * @param dataEncryptor
+	 *        데이터 암호화
+	 * @param compressBeforeEncrypt
+	 *        true 이면 암호화할 메시지는 압축 후 암호화 (encType "C" + 압축타입 + 암호화타입)
+	 */
+	public MessageConverter(IHeaderFormatConverter headerFormatConverter, IDataCompressor dataCompressor,
+			IDataEncryptor dataEncryptor, boolean compressBeforeEncrypt) {
 		this.headerFormatConverter = headerFormatConverter;
 		this.dataCompressor = dataCompressor;
 		this.dataEncryptor = dataEncryptor;
+		this.compressBeforeEncrypt = compressBeforeEncrypt;
 	}
 
 	/**
@@ -36,6 +58,50 @@ public class MessageConverter {
 	 */
 	public byte[] convertToBytes(IotMessage msg) {
 
+		// 데이터부 암호화/압축
+		encodeData(msg);
+
+		// 헤더포맷 변환
+		return headerFormatConverter.convertToBytes(msg);
+	}
+
+	/**
+	 * 메시지를 ByteBuffer 로 변환.
+	 * 헤더와 데이터부를 중간 byte[] 생성 없이 주어진 버퍼에 바로 기록합니다.
+	 * 전송 후 payload 를 보관하지 않는 경로에서 버퍼를 재사용할 때 사용합니다. (paho 는 payload 배열을 보관하므로 convertToBytes 사용)
+	 * 주어진 버퍼가 null 이면 convertToBytes() 결과를 감싸서 반환하고, 남은 공간이 부족하면 정확한 크기의 heap 버퍼를 새로 할당합니다.
+	 * 
+	 * @param msg
+	 *        메시지
+	 * @param buf
+	 *        재사용할 버퍼 (null 가능)
+	 * @return 메시지가 기록된 버퍼. position 은 기록이 끝난 위치.
+	 */
+	public ByteBuffer convertToBuffer(IotMessage msg, ByteBuffer buf) {
+
+		// 데이터부 암호화/압축
+		encodeData(msg);
+
+		// 헤더포맷 변환
+		if (buf == null) {
+			byte[] bytes = headerFormatConverter.convertToBytes(msg);
+			ByteBuffer target = ByteBuffer.wrap(bytes);
+			target.position(bytes.length);
+			return target;
+		}
+		int encodedLength = headerFormatConverter.getEncodedLength(msg);
+		ByteBuffer target = buf.remaining() >= encodedLength ? buf : ByteBuffer.allocate(encodedLength);
+		headerFormatConverter.convertToBuffer(msg, target);
+		return target;
+	}
+
+	private void encodeData(IotMessage msg) {
+
+		if (compressBeforeEncrypt && dataEncryptor.needEncrypt(msg) && dataCompressor.needCompress(msg)) {
+			encodeDataCompressFirst(msg);
+			return;
+		}
+
 		// 데이터부 암호화
 		if (dataEncryptor.needEncrypt(msg)) {
 			LOGGER.info("****** ENCRYPT SENDING DATA : encType={}", dataEncryptor.getEncType());
@@ -47,14 +113,23 @@ public class MessageConverter {
 		// 데이터부 압축
 		if (dataCompressor.needCompress(msg)) {
 			LOGGER.info("****** COMPRESS SENDING DATA : type={}", dataCompressor.getCompressType());
-			byte[] compData = dataCompressor.compress(msg.getData());
-			// 압축이 수행된 경우 메시지의 encType 앞쪽에 Z를 붙인다.
-			msg.setEncType(dataCompressor.getCompressType() + msg.getEncType());
+			byte[] compData = dataCompressor.compress(msg, msg.getData());
+			// 압축이 수행된 경우 메시지의 encType 앞쪽에 Z를 붙인다. (사전 압축은 "ZD" + 사전 ID)
+			msg.setEncType(dataCompressor.getCompressType(compData) + msg.getEncType());
 			msg.setData(compData);
 		}
+	}
 
-		// 헤더포맷 변환
-		return headerFormatConverter.convertToBytes(msg);
+	/**
+	 * 압축한 데이터를 암호화. 암호화된 데이터는 압축되지 않으므로 평문을 먼저 압축합니다.
+	 */
+	private void encodeDataCompressFirst(IotMessage msg) {
+		LOGGER.info("****** COMPRESS AND ENCRYPT SENDING DATA : type={}, encType={}", dataCompressor.getCompressType(),
+				dataEncryptor.getEncType());
+		byte[] compData = dataCompressor.compress(msg, msg.getData());
+		byte[] encData = dataEncryptor.encrypt(compData);
+		msg.setEncType(COMPRESS_FIRST_PREFIX + dataCompressor.getCompressType(compData) + dataEncryptor.getEncType());
+		msg.setData(encData);
 	}
 
 	/**
@@ -69,12 +144,29 @@ public class MessageConverter {
 		// 헤더포맷 파싱 
 		IotMessage msg = headerFormatConverter.convertFromBytes(bytes);
 
+		// 압축 후 암호화된 데이터부 : 복호화 후 압축해제
+		if (msg.hasData() && msg.getEncType().startsWith(COMPRESS_FIRST_PREFIX)
+				&& dataCompressor.isCompressType(msg.getEncType().substring(COMPRESS_FIRST_PREFIX.length()))) {
+			LOGGER.info("****** DECRYPT AND DECOMPRESS RECEIVED DATA : encType={}", msg.getEncType());
+			String compEncType = msg.getEncType().substring(COMPRESS_FIRST_PREFIX.length());
+			msg.setEncType(compEncType.substring(dataCompressor.getCompressTypeLength(compEncType)));
+			byte[] decData = msg.getData();
+			if (dataEncryptor.needDecrypt(msg)) {
+				decData = dataEncryptor.decrypt(decData);
+			}
+			msg.setEncType(compEncType);
+			decData = dataCompressor.decompress(msg, decData);
+			msg.setEncType("0");
+			msg.setData(decData);
+			return msg;
+		}
+
 		// 데이터부 압축해제
 		if (dataCompressor.needDecompress(msg)) {
 			LOGGER.info("****** DECOMPRESS RECEIVED DATA : type={}", dataCompressor.getCompressType());
-			byte[] decData = dataCompressor.decompress(msg.getData());
-			// 압축을 해제한 경우 메시지의 encType 앞쪽에 Z를 제거한다.
-			msg.setEncType(msg.getEncType().substring(1));
+			byte[] decData = dataCompressor.decompress(msg, msg.getData());
+			// 압축을 해제한 경우 메시지의 encType 앞쪽에 Z를 제거한다. (사전 압축은 "ZD" + 사전 ID)
+			msg.setEncType(msg.getEncType().substring(dataCompressor.getCompressTypeLength(msg.getEncType())));
 			msg.setData(decData);
 		}
 
@@ -0,0 +1,92 @@
+
+package com.sds.iot.sdk.message.compress;
+
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 이 클래스는 전송 메시지는 하나의 압축 방식으로 압축하고, 수신 메시지는 encType 의 압축 타입에 맞는 방식으로 압축해제합니다.
+ *
+ * 클라이언트가 Zstd 가 아닌 압축 방식(LZ4, Deflate)을 사용하더라도 서버가 보내는 Zstd 메시지를 처리할 수 있습니다.
+ *
+ * @author SDS
+ */
+public class CompositeDataCompressor implements IDataCompressor {
+
+	private final IDataCompressor	outbound;
+	private final IDataCompressor[]	inbound;
+
+	/**
+	 * @param outbound
+	 *        전송 메시지 압축 (수신 메시지 압축해제에도 사용)
+	 * @param others
+	 *        수신 메시지 압축해제에만 사용하는 압축 방식
+	 */
+	public CompositeDataCompressor(IDataCompressor outbound, IDataCompressor... others) {
+		this.outbound = outbound;
+		this.inbound = new IDataCompressor[others.length + 1];
+		this.inbound[0] = outbound;
+		System.arraycopy(others, 0, this.inbound, 1, others.length);
+	}
+
+	@Override
+	public String getCompressType() {
+		return outbound.getCompressType();
+	}
+
+	@Override
+	public byte[] compress(byte[] plainData) {
+		return outbound.compress(plainData);
+	}
+
+	@Override
+	public byte[] decompress(byte[] encryptedData) {
+		return outbound.decompress(encryptedData);
+	}
+
+	@Override
+	public byte[] compress(IotMessage msg, byte[] plainData) {
+		return outbound.compress(msg, plainData);
+	}
+
+	@Override
+	public String getCompressType(byte[] compData) {
+		return outbound.getCompressType(compData);
+	}
+
+	@Override
+	public boolean needCompress(IotMessage msg) {
+		return outbound.needCompress(msg);
+	}
+
+	@Override
+	public boolean isCompressType(String encType) {
+		return find(encType) != null;
+	}
+
+	@Override
+	public byte[] decompress(IotMessage msg, byte[] compData) {
+		return get(msg.getEncType()).decompress(msg, compData);
+	}
+
+	@Override
+	public int getCompressTypeLength(String encType) {
+		return get(encType).getCompressTypeLength(encType);
+	}
+
+	private IDataCompressor find(String encType) {
+		for (IDataCompressor compressor : inbound) {
+			if (compressor.isCompressType(encType)) {
+				return compressor;
+			}
+		}
+		return null;
+	}
+
+	private IDataCompressor get(String encType) {
+		IDataCompressor compressor = find(encType);
+		if (compressor == null) {
+			throw new IllegalStateException("Unsupported compress type : encType=" + encType);
+		}
+		return compressor;
+	}
+}
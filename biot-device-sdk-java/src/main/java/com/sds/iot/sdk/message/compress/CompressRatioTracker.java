@@ -0,0 +1,100 @@
+
+package com.sds.iot.sdk.message.compress;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 이 클래스는 msgCode 별 최근 압축률을 기록하고, 압축 효과가 없는 msgCode 의 압축 생략 여부를 판단합니다.
+ *
+ * 압축률(압축 후 크기 / 원본 크기)은 최근 메시지에 가중치를 둔 이동 평균이며, 일정 수 이상 기록된 후
+ * 기준 이상이면 압축을 생략합니다. 데이터 특성이 바뀔 수 있으므로 생략 중에도 PROBE_INTERVAL 건마다 한 번씩 압축하여 다시 측정합니다.
+ *
+ * @author SDS
+ */
+final class CompressRatioTracker {
+	/** 생략 판단 전 최소 기록 수 */
+	static final int				MIN_SAMPLES		= 8;
+	/** 생략 중 다시 측정하는 간격 */
+	static final int				PROBE_INTERVAL	= 32;
+
+	private final int				skipPermille;
+	private final Map<String, Stat>	stats			= new ConcurrentHashMap<>();
+
+	/**
+	 * @param skipPercent
+	 *        압축률이 이 값(%) 이상이면 압축 생략 (1 ~ 100)
+	 */
+	CompressRatioTracker(int skipPercent) {
+		if (skipPercent <= 0 || skipPercent > 100) {
+			throw new IllegalArgumentException("skipPercent must be 1 ~ 100 : " + skipPercent);
+		}
+		this.skipPermille = skipPercent * 10;
+	}
+
+	/**
+	 * @param msgCode
+	 *        메시지 코드
+	 * @return 압축을 생략해야 하면 true
+	 */
+	boolean shouldSkip(String msgCode) {
+		Stat stat = stats.get(key(msgCode));
+		if (stat == null) {
+			return false;
+		}
+		synchronized (stat) {
+			if (stat.samples < MIN_SAMPLES || stat.ratioPermille < skipPermille) {
+				return false;
+			}
+			return ++stat.skipped % PROBE_INTERVAL != 0;
+		}
+	}
+
+	/**
+	 * 압축 결과를 기록합니다.
+	 *
+	 * @param msgCode
+	 *        메시지 코드
+	 * @param plainLength
+	 *        원본 크기
+	 * @param compLength
+	 *        압축 후 크기
+	 */
+	void record(String msgCode, int plainLength, int compLength) {
+		if (plainLength <= 0) {
+			return;
+		}
+		int ratio = (int) Math.min(2_000L, compLength * 1_000L / plainLength);
+		Stat stat = stats.computeIfAbsent(key(msgCode), k -> new Stat());
+		synchronized (stat) {
+			// 이동 평균 (최근 값 가중치 1/8)
+			stat.ratioPermille = stat.samples == 0 ? ratio : stat.ratioPermille + (ratio - stat.ratioPermille) / 8;
+			stat.samples++;
+		}
+	}
+
+	/**
+	 * @param msgCode
+	 *        메시지 코드
+	 * @return 최근 압축률 (‰). 기록이 없으면 -1
+	 */
+	int getRatioPermille(String msgCode) {
+		Stat stat = stats.get(key(msgCode));
+		if (stat == null) {
+			return -1;
+		}
+		synchronized (stat) {
+			return stat.ratioPermille;
+		}
+	}
+
+	private static String key(String msgCode) {
+		return msgCode == null ? "" : msgCode;
+	}
+
+	private static final class Stat {
+		private int		ratioPermille	= 0;
+		private int		samples			= 0;
+		private long	skipped			= 0;
+	}
+}
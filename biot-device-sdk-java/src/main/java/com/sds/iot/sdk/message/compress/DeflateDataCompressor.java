@@ -0,0 +1,141 @@
+
+package com.sds.iot.sdk.message.compress;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 이 클래스는 JDK 의 Deflate(zlib 형식)로 메시지 데이터를 압축합니다. (compressType "D")
+ *
+ * 네이티브 라이브러리(zstd-jni)를 사용할 수 없는 환경에서 사용합니다.
+ * 압축해제한 크기가 maxDecompressBytes 를 넘으면 압축해제하지 않습니다.
+ * Deflater, Inflater 는 스레드별로 재사용합니다.
+ *
+ * @author SDS
+ */
+public class DeflateDataCompressor implements IDataCompressor {
+
+	/** 스레드별 Deflater (레벨별) */
+	private static final ThreadLocal<Deflater[]>	DEFLATERS	= ThreadLocal
+			.withInitial(() -> new Deflater[Deflater.BEST_COMPRESSION + 1]);
+	private static final ThreadLocal<Inflater>		INFLATER	= ThreadLocal.withInitial(Inflater::new);
+
+	private final int								compressUseBytes;
+	private final int								compressLevel;
+
+	/** 압축해제 데이터 최대 크기 */
+	private final int								maxDecompressBytes;
+
+	/**
+	 * @param compressUseBytes
+	 *        압축할 최소 데이터 크기
+	 * @param compressLevel
+	 *        압축 레벨 (1 ~ 9)
+	 */
+	public DeflateDataCompressor(int compressUseBytes, int compressLevel) {
+		this(compressUseBytes, compressLevel, ZstdDataCompressor.DEFAULT_MAX_DECOMPRESS_BYTES);
+	}
+
+	/**
+	 * @param compressUseBytes
+	 *        압축할 최소 데이터 크기
+	 * @param compressLevel
+	 *        압축 레벨 (1 ~ 9)
+	 * @param maxDecompressBytes
+	 *        압축해제 데이터 최대 크기 (bytes)
+	 */
+	public DeflateDataCompressor(int compressUseBytes, int compressLevel, int maxDecompressBytes) {
+		if (compressUseBytes < 0) {
+			throw new IllegalArgumentException("Invalid compressUseBytes.");
+		}
+		if (compressLevel < Deflater.BEST_SPEED || compressLevel > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Invalid compressLevel : " + compressLevel);
+		}
+		if (maxDecompressBytes <= 0) {
+			throw new IllegalArgumentException("Invalid maxDecompressBytes : " + maxDecompressBytes);
+		}
+		this.compressUseBytes = compressUseBytes;
+		this.compressLevel = compressLevel;
+		this.maxDecompressBytes = maxDecompressBytes;
+	}
+
+	@Override
+	public String getCompressType() {
+		return "D";
+	}
+
+	@Override
+	public byte[] compress(byte[] plainData) {
+		Deflater[] deflaters = DEFLATERS.get();
+		Deflater deflater = deflaters[compressLevel];
+		if (deflater == null) {
+			deflater = new Deflater(compressLevel);
+			deflaters[compressLevel] = deflater;
+		}
+		deflater.reset();
+		deflater.setInput(plainData);
+		deflater.finish();
+
+		// zlib 최대 크기 : 원본 + 16KB 블록당 5 bytes + 헤더/체크섬
+		byte[] dst = new byte[plainData.length + (plainData.length >>> 12) + 64];
+		int size = 0;
+		while (!deflater.finished()) {
+			if (size == dst.length) {
+				dst = Arrays.copyOf(dst, dst.length * 2);
+			}
+			size += deflater.deflate(dst, size, dst.length - size);
+		}
+		return Arrays.copyOf(dst, size);
+	}
+
+	@Override
+	public byte[] decompress(byte[] encryptedData) {
+		Inflater inflater = INFLATER.get();
+		inflater.reset();
+		inflater.setInput(encryptedData);
+
+		// maxDecompressBytes 를 넘는지 알 수 있도록 최대 1 byte 더 압축해제
+		long limit = (long) maxDecompressBytes + 1;
+		byte[] dst = new byte[(int) Math.min(Math.max(256L, encryptedData.length * 4L), limit)];
+		int size = 0;
+		try {
+			while (!inflater.finished()) {
+				if (size == dst.length) {
+					checkDecompressSize(size);
+					dst = Arrays.copyOf(dst, (int) Math.min(dst.length * 2L, limit));
+				}
+				int n = inflater.inflate(dst, size, dst.length - size);
+				if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IllegalStateException("Truncated deflate data.");
+				}
+				size += n;
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Malformed deflate data.", e);
+		}
+		checkDecompressSize(size);
+		return Arrays.copyOf(dst, size);
+	}
+
+	private void checkDecompressSize(long size) {
+		if (size > maxDecompressBytes) {
+			throw new IllegalStateException(
+					"Decompressed data is too large : size=" + size + ", maxDecompressBytes=" + maxDecompressBytes);
+		}
+	}
+
+	/**
+	 * 인증, keep-alive 메시지는 압축 수행 제외.
+	 */
+	@Override
+	public boolean needCompress(IotMessage msg) {
+		if (isNoCompressMessage(msg)) {
+			return false;
+		}
+		return (msg.getData() != null && compressUseBytes != 0 && msg.getData().length >= compressUseBytes);
+	}
+}
@@ -16,6 +16,49 @@ public interface IDataCompressor {
 
 	byte[] decompress(byte[] encryptedData);
 
+	/**
+	 * 메시지 데이터 압축. 메시지별로 압축 방식(사전 등)이 다른 경우 재정의합니다.
+	 * @param msg
+	 *        메시지
+	 * @param plainData
+	 *        압축할 데이터
+	 * @return 압축된 데이터
+	 */
+	default byte[] compress(IotMessage msg, byte[] plainData) {
+		return compress(plainData);
+	}
+
+	/**
+	 * 압축된 데이터의 압축 타입. 메시지의 encType 앞쪽에 붙습니다.
+	 * @param compData
+	 *        compress(IotMessage, byte[]) 로 압축된 데이터
+	 * @return 압축 타입 (e.g. "Z")
+	 */
+	default String getCompressType(byte[] compData) {
+		return getCompressType();
+	}
+
+	/**
+	 * 수신 메시지 데이터 압축해제.
+	 * @param msg
+	 *        메시지 (encType 에 압축 타입 포함)
+	 * @param compData
+	 *        압축된 데이터
+	 * @return 압축해제된 데이터
+	 */
+	default byte[] decompress(IotMessage msg, byte[] compData) {
+		return decompress(compData);
+	}
+
+	/**
+	 * @param encType
+	 *        압축 타입으로 시작하는 encType
+	 * @return encType 중 압축 타입 부분의 길이
+	 */
+	default int getCompressTypeLength(String encType) {
+		return getCompressType().length();
+	}
+
     /**
 	 * 데이터 압축 필요 여부 확인
 	 * @param msg
@@ -59,10 +102,19 @@ public interface IDataCompressor {
 	 * @return 데이터 압축 해제 필요 여부 (true/false)
 	 */
 	default boolean needDecompress(IotMessage msg) {
-		if (msg.getData() == null) {
+		if (!msg.hasData()) {
 			return false;
 		}
-		return msg.getEncType().startsWith(this.getCompressType());
+		return isCompressType(msg.getEncType());
+	}
+
+	/**
+	 * @param encType
+	 *        수신 메시지의 encType
+	 * @return 이 압축 방식으로 압축된 encType 이면 true
+	 */
+	default boolean isCompressType(String encType) {
+		return encType.startsWith(this.getCompressType());
 	}
 
 }
@@ -0,0 +1,278 @@
+
+package com.sds.iot.sdk.message.compress;
+
+import java.util.Arrays;
+
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 이 클래스는 LZ4 블록 형식으로 메시지 데이터를 압축합니다. (compressType "L")
+ *
+ * Zstd 보다 압축률은 낮지만 압축/해제 CPU 사용량이 적어, 전송량보다 CPU 가 부족한 장비의 고빈도 전송에 적합합니다.
+ * 네이티브 라이브러리 없이 Java 로 구현하였으며, 압축 데이터는 원본 크기(4 bytes, little-endian) + LZ4 블록입니다.
+ * (lz4-java 의 LZ4CompressorWithLength / LZ4DecompressorWithLength 와 같은 형식)
+ * 원본 크기가 maxDecompressBytes 보다 크면 압축해제하지 않습니다.
+ *
+ * @author SDS
+ */
+public class Lz4DataCompressor implements IDataCompressor {
+
+	private static final int				MIN_MATCH			= 4;
+	/** 마지막 match 는 블록 끝에서 12 bytes 이전에 시작 */
+	private static final int				MF_LIMIT			= 12;
+	/** 마지막 5 bytes 는 항상 literal */
+	private static final int				LAST_LITERALS		= 5;
+	private static final int				MAX_DISTANCE		= 65_535;
+	private static final int				HASH_LOG			= 12;
+	/** match 를 찾지 못하면 탐색 간격을 늘림 (압축되지 않는 데이터) */
+	private static final int				SKIP_TRIGGER		= 6;
+	private static final int				LENGTH_BYTES		= 4;
+
+	/** 스레드별 hash table (위치 + 1, 0: 없음) */
+	private static final ThreadLocal<int[]>	HASH_TABLE			= ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+	private final int						compressUseBytes;
+
+	/** 압축해제 데이터 최대 크기 */
+	private final int						maxDecompressBytes;
+
+	/**
+	 * @param compressUseBytes
+	 *        압축할 최소 데이터 크기
+	 */
+	public Lz4DataCompressor(int compressUseBytes) {
+		this(compressUseBytes, ZstdDataCompressor.DEFAULT_MAX_DECOMPRESS_BYTES);
+	}
+
+	/**
+	 * @param compressUseBytes
+	 *        압축할 최소 데이터 크기
+	 * @param maxDecompressBytes
+	 *        압축해제 데이터 최대 크기 (bytes)
+	 */
+	public Lz4DataCompressor(int compressUseBytes, int maxDecompressBytes) {
+		if (compressUseBytes < 0) {
+			throw new IllegalArgumentException("Invalid compressUseBytes.");
+		}
+		if (maxDecompressBytes <= 0) {
+			throw new IllegalArgumentException("Invalid maxDecompressBytes : " + maxDecompressBytes);
+		}
+		this.compressUseBytes = compressUseBytes;
+		this.maxDecompressBytes = maxDecompressBytes;
+	}
+
+	@Override
+	public String getCompressType() {
+		return "L";
+	}
+
+	@Override
+	public byte[] compress(byte[] plainData) {
+		byte[] dst = new byte[LENGTH_BYTES + maxCompressedLength(plainData.length)];
+		writeIntLE(dst, 0, plainData.length);
+		int end = compressBlock(plainData, dst, LENGTH_BYTES);
+		return Arrays.copyOf(dst, end);
+	}
+
+	@Override
+	public byte[] decompress(byte[] encryptedData) {
+		if (encryptedData.length < LENGTH_BYTES + 1) {
+			throw new IllegalStateException("Invalid lz4 data : length=" + encryptedData.length);
+		}
+		int originalSize = readInt(encryptedData, 0);
+		long blockLength = encryptedData.length - LENGTH_BYTES;
+		if (originalSize < 0 || originalSize > blockLength * 255) {
+			throw new IllegalStateException("Invalid lz4 original size : " + originalSize);
+		}
+		if (originalSize > maxDecompressBytes) {
+			throw new IllegalStateException("Decompressed data is too large : size=" + originalSize
+					+ ", maxDecompressBytes=" + maxDecompressBytes);
+		}
+		byte[] dst = new byte[originalSize];
+		try {
+			decompressBlock(encryptedData, LENGTH_BYTES, encryptedData.length, dst);
+		} catch (IndexOutOfBoundsException e) {
+			throw new IllegalStateException("Malformed lz4 data.", e);
+		}
+		return dst;
+	}
+
+	/**
+	 * 인증, keep-alive 메시지는 압축 수행 제외.
+	 */
+	@Override
+	public boolean needCompress(IotMessage msg) {
+		if (isNoCompressMessage(msg)) {
+			return false;
+		}
+		return (msg.getData() != null && compressUseBytes != 0 && msg.getData().length >= compressUseBytes);
+	}
+
+	/* ======================================================================================= */
+
+	static int maxCompressedLength(int length) {
+		return length + length / 255 + 16;
+	}
+
+	/**
+	 * @return dst 에 기록이 끝난 위치
+	 */
+	static int compressBlock(byte[] src, byte[] dst, int dstOff) {
+		int srcLen = src.length;
+		int op = dstOff;
+		int anchor = 0;
+
+		if (srcLen >= MF_LIMIT + 1) {
+			int[] table = HASH_TABLE.get();
+			Arrays.fill(table, 0);
+			int matchLimit = srcLen - LAST_LITERALS;
+			int ipLimit = srcLen - MF_LIMIT;
+			int ip = 0;
+			int searchCount = 1 << SKIP_TRIGGER;
+
+			while (ip < ipLimit) {
+				int seq = readInt(src, ip);
+				int h = hash(seq);
+				int ref = table[h] - 1;
+				table[h] = ip + 1;
+				if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != seq) {
+					ip += searchCount++ >>> SKIP_TRIGGER;
+					continue;
+				}
+				searchCount = 1 << SKIP_TRIGGER;
+
+				// match 를 앞쪽으로 확장
+				while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+					ip--;
+					ref--;
+				}
+				int len = MIN_MATCH;
+				while (ip + len < matchLimit && src[ip + len] == src[ref + len]) {
+					len++;
+				}
+
+				op = writeSequence(src, anchor, ip - anchor, ip - ref, len, dst, op);
+				ip += len;
+				anchor = ip;
+				if (ip - 2 < ipLimit && ip >= 2) {
+					table[hash(readInt(src, ip - 2))] = ip - 2 + 1;
+				}
+			}
+		}
+
+		// 마지막 literal
+		int litLen = srcLen - anchor;
+		int token = op++;
+		op = writeLength(dst, token, op, litLen, 4);
+		System.arraycopy(src, anchor, dst, op, litLen);
+		return op + litLen;
+	}
+
+	private static int writeSequence(byte[] src, int anchor, int litLen, int offset, int matchLen, byte[] dst,
+			int op) {
+		int token = op++;
+		op = writeLength(dst, token, op, litLen, 4);
+		System.arraycopy(src, anchor, dst, op, litLen);
+		op += litLen;
+		dst[op++] = (byte) offset;
+		dst[op++] = (byte) (offset >>> 8);
+		int ml = matchLen - MIN_MATCH;
+		if (ml >= 15) {
+			dst[token] |= 15;
+			ml -= 15;
+			while (ml >= 255) {
+				dst[op++] = (byte) 255;
+				ml -= 255;
+			}
+			dst[op++] = (byte) ml;
+		} else {
+			dst[token] |= ml;
+		}
+		return op;
+	}
+
+	private static int writeLength(byte[] dst, int token, int op, int len, int shift) {
+		if (len >= 15) {
+			dst[token] = (byte) (15 << shift);
+			len -= 15;
+			while (len >= 255) {
+				dst[op++] = (byte) 255;
+				len -= 255;
+			}
+			dst[op++] = (byte) len;
+		} else {
+			dst[token] = (byte) (len << shift);
+		}
+		return op;
+	}
+
+	static void decompressBlock(byte[] src, int ip, int srcEnd, byte[] dst) {
+		int op = 0;
+		while (true) {
+			int token = src[ip++] & 0xff;
+
+			int litLen = token >>> 4;
+			if (litLen == 15) {
+				int b;
+				do {
+					b = src[ip++] & 0xff;
+					litLen += b;
+				} while (b == 255);
+			}
+			if (ip + litLen > srcEnd || op + litLen > dst.length) {
+				throw new IllegalStateException("Malformed lz4 data : literal overflow");
+			}
+			System.arraycopy(src, ip, dst, op, litLen);
+			ip += litLen;
+			op += litLen;
+			if (ip == srcEnd) {
+				break;
+			}
+
+			int offset = (src[ip++] & 0xff) | ((src[ip++] & 0xff) << 8);
+			if (offset == 0 || offset > op) {
+				throw new IllegalStateException("Malformed lz4 data : offset=" + offset);
+			}
+			int matchLen = token & 15;
+			if (matchLen == 15) {
+				int b;
+				do {
+					b = src[ip++] & 0xff;
+					matchLen += b;
+				} while (b == 255);
+			}
+			matchLen += MIN_MATCH;
+			if (op + matchLen > dst.length) {
+				throw new IllegalStateException("Malformed lz4 data : match overflow");
+			}
+			int ref = op - offset;
+			if (offset >= matchLen) {
+				System.arraycopy(dst, ref, dst, op, matchLen);
+				op += matchLen;
+			} else {
+				// 겹치는 match 는 한 byte 씩 복사
+				for (int i = 0; i < matchLen; i++) {
+					dst[op++] = dst[ref++];
+				}
+			}
+		}
+		if (op != dst.length) {
+			throw new IllegalStateException("Malformed lz4 data : size=" + op + ", expected=" + dst.length);
+		}
+	}
+
+	private static int hash(int seq) {
+		return (seq * -1640531535) >>> (32 - HASH_LOG);
+	}
+
+	private static int readInt(byte[] b, int i) {
+		return (b[i] & 0xff) | ((b[i + 1] & 0xff) << 8) | ((b[i + 2] & 0xff) << 16) | ((b[i + 3] & 0xff) << 24);
+	}
+
+	private static void writeIntLE(byte[] b, int i, int v) {
+		b[i] = (byte) v;
+		b[i + 1] = (byte) (v >>> 8);
+		b[i + 2] = (byte) (v >>> 16);
+		b[i + 3] = (byte) (v >>> 24);
+	}
+}
@@ -1,29 +1,119 @@
 
 package com.sds.iot.sdk.message.compress;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdInputStream;
 import com.sds.iot.sdk.message.IotMessage;
 
 /**
  * 이 클래스는 메시지 데이터 압축 관련 함수를 제공합니다.
  * 
+ * 압축 출력 버퍼(compressBound 크기)는 스레드별로 재사용하고, 압축된 크기만큼만 새 배열로 복사합니다.
+ * compressSkipPercent 를 설정하면 최근 압축률이 낮은 msgCode 는 압축을 생략합니다.
+ * 원본 크기(content size)가 없는 프레임은 스트리밍으로 압축해제하고, 원본이 maxDecompressBytes 보다 크면 압축해제하지 않습니다.
+ * 
  * @author SDS
  */
 public class ZstdDataCompressor implements IDataCompressor {
 
+	/** Zstd 기본 압축 레벨 */
+	public static final int					DEFAULT_COMPRESS_LEVEL			= 3;
+
+	/** 압축해제 데이터 기본 최대 크기 (64MB) */
+	public static final int					DEFAULT_MAX_DECOMPRESS_BYTES	= 64 * 1024 * 1024;
+
+	/** 원본 크기를 알 수 없는 프레임의 스트리밍 압축해제 단위 */
+	private static final int				STREAM_CHUNK_SIZE				= 64 * 1024;
+
+	/** 스레드별로 재사용하는 압축 출력 버퍼의 최대 크기. 이보다 큰 데이터는 매번 할당 */
+	private static final int				MAX_SCRATCH_SIZE				= 64 * 1024;
+	private static final ThreadLocal<byte[]>	SCRATCH						= new ThreadLocal<>();
+
 	/**
 	 * 메시지의 데이터부가 해당 바이트 크기 이상인 경우 압축 수행합니다.
 	 * <li>디폴트 설정 0 byte (=압축 미적용)</li>
 	 * <li>모든 데이터 압축 적용시 1 byte 설정</li>
 	 * <li>1MB 이상 데이터 압축 적용시 1_048_576 bytes 설정</li>
 	 */
-	private final int compressUseBytes;
+	private final int						compressUseBytes;
+
+	private final int						compressLevel;
+
+	/** msgCode 별 압축 사전 (null: 사전 미사용) */
+	private final ZstdDictionaryRegistry	dictionaries;
+
+	/** msgCode 별 압축률 (null: 항상 압축) */
+	private final CompressRatioTracker		ratioTracker;
+
+	/** 압축해제 데이터 최대 크기 */
+	private final int						maxDecompressBytes;
 
 	public ZstdDataCompressor(int compressUseBytes) {
+		this(compressUseBytes, null);
+	}
+
+	/**
+	 * @param compressUseBytes
+	 *        압축할 최소 데이터 크기
+	 * @param dictionaries
+	 *        압축 사전 (null: 사전 미사용)
+	 */
+	public ZstdDataCompressor(int compressUseBytes, ZstdDictionaryRegistry dictionaries) {
+		this(compressUseBytes, DEFAULT_COMPRESS_LEVEL, 0, dictionaries);
+	}
+
+	/**
+	 * @param compressUseBytes
+	 *        압축할 최소 데이터 크기
+	 * @param compressLevel
+	 *        압축 레벨 (Zstd.minCompressionLevel() ~ Zstd.maxCompressionLevel(), 사전 압축은 사전 등록 시의 레벨 사용)
+	 * @param compressSkipPercent
+	 *        최근 압축률(압축 후 크기 / 원본 크기)이 이 값(%) 이상인 msgCode 는 압축 생략 (0: 항상 압축)
+	 * @param dictionaries
+	 *        압축 사전 (null: 사전 미사용)
+	 */
+	public ZstdDataCompressor(int compressUseBytes, int compressLevel, int compressSkipPercent,
+			ZstdDictionaryRegistry dictionaries) {
+		this(compressUseBytes, compressLevel, compressSkipPercent, dictionaries, DEFAULT_MAX_DECOMPRESS_BYTES);
+	}
+
+	/**
+	 * @param compressUseBytes
+	 *        압축할 최소 데이터 크기
+	 * @param compressLevel
+	 *        압축 레벨 (Zstd.minCompressionLevel() ~ Zstd.maxCompressionLevel(), 사전 압축은 사전 등록 시의 레벨 사용)
+	 * @param compressSkipPercent
+	 *        최근 압축률(압축 후 크기 / 원본 크기)이 이 값(%) 이상인 msgCode 는 압축 생략 (0: 항상 압축)
+	 * @param dictionaries
+	 *        압축 사전 (null: 사전 미사용)
+	 * @param maxDecompressBytes
+	 *        압축해제 데이터 최대 크기 (bytes)
+	 */
+	public ZstdDataCompressor(int compressUseBytes, int compressLevel, int compressSkipPercent,
+			ZstdDictionaryRegistry dictionaries, int maxDecompressBytes) {
 		if (compressUseBytes < 0) {
 			throw new IllegalArgumentException("Invalid compressUseBytes.");
 		}
+		if (compressLevel < Zstd.minCompressionLevel() || compressLevel > Zstd.maxCompressionLevel()) {
+			throw new IllegalArgumentException("Invalid compressLevel : " + compressLevel);
+		}
+		if (maxDecompressBytes <= 0) {
+			throw new IllegalArgumentException("Invalid maxDecompressBytes : " + maxDecompressBytes);
+		}
 		this.compressUseBytes = compressUseBytes;
+		this.compressLevel = compressLevel;
+		this.ratioTracker = compressSkipPercent > 0 ? new CompressRatioTracker(compressSkipPercent) : null;
+		this.dictionaries = dictionaries;
+		this.maxDecompressBytes = maxDecompressBytes;
 	}
 
 	@Override
@@ -33,26 +123,268 @@ public class ZstdDataCompressor implements IDataCompressor {
 
 	@Override
 	public byte[] compress(byte[] plainData) {
-		return Zstd.compress(plainData);
+		byte[] dst = getOutputBuffer(plainData.length);
+		long size = Zstd.compressByteArray(dst, 0, dst.length, plainData, 0, plainData.length, compressLevel);
+		return copyResult(dst, size);
+	}
+
+	private static byte[] compress(byte[] plainData, ZstdDictCompress dict) {
+		byte[] dst = getOutputBuffer(plainData.length);
+		long size = Zstd.compressFastDict(dst, 0, plainData, 0, plainData.length, dict);
+		return copyResult(dst, size);
+	}
+
+	private static byte[] getOutputBuffer(int plainLength) {
+		int bound = (int) Zstd.compressBound(plainLength);
+		if (bound > MAX_SCRATCH_SIZE) {
+			return new byte[bound];
+		}
+		return getScratch(bound);
+	}
+
+	private static byte[] getScratch(int size) {
+		byte[] scratch = SCRATCH.get();
+		if (scratch == null || scratch.length < size) {
+			scratch = new byte[Math.max(size, 1024)];
+			SCRATCH.set(scratch);
+		}
+		return scratch;
+	}
+
+	private static byte[] copyResult(byte[] dst, long size) {
+		if (Zstd.isError(size)) {
+			throw new IllegalStateException("Fail to compress : " + Zstd.getErrorName(size));
+		}
+		return Arrays.copyOf(dst, (int) size);
+	}
+
+	/**
+	 * direct ByteBuffer 압축. src 의 position ~ limit 을 압축하여 dst 의 position 부터 기록하고, 두 버퍼의 position 을 이동합니다.
+	 * 
+	 * @param src
+	 *        원본 데이터 (direct)
+	 * @param dst
+	 *        압축 데이터를 기록할 버퍼 (direct, Zstd.compressBound(src.remaining()) 이상 남은 공간 권장)
+	 * @return 압축된 크기
+	 */
+	public int compress(ByteBuffer src, ByteBuffer dst) {
+		return Zstd.compress(dst, src, compressLevel);
+	}
+
+	/**
+	 * direct ByteBuffer 압축해제. src 의 position ~ limit 을 압축해제하여 dst 의 position 부터 기록하고, 두 버퍼의 position 을 이동합니다.
+	 * 
+	 * @param src
+	 *        압축된 데이터 (direct)
+	 * @param dst
+	 *        원본 데이터를 기록할 버퍼 (direct)
+	 * @return 압축해제된 크기
+	 */
+	public int decompress(ByteBuffer src, ByteBuffer dst) {
+		return Zstd.decompress(dst, src);
 	}
 
 	@Override
 	public byte[] decompress(byte[] encryptedData) {
-		// the original size of a compressed buffer (if known)
-		int originalSize = (int) Zstd.decompressedSize(encryptedData);
+		return decompress(encryptedData, (ZstdDictDecompress) null);
+	}
 
-		return Zstd.decompress(encryptedData, originalSize);
+	private byte[] decompress(byte[] compData, ZstdDictDecompress dict) {
+		// the original size of a compressed buffer (0: unknown or empty)
+		long originalSize = Zstd.decompressedSize(compData);
+		checkDecompressSize(originalSize);
+		if (originalSize == 0) {
+			return decompressStream(compData, dict);
+		}
+		return dict == null ? Zstd.decompress(compData, (int) originalSize)
+				: Zstd.decompress(compData, dict, (int) originalSize);
+	}
+
+	/**
+	 * content size 가 없는 프레임(스트리밍 압축 등)을 STREAM_CHUNK_SIZE 단위로 압축해제합니다.
+	 * 전체 크기를 모르므로 chunk 를 모은 후 한 번만 복사합니다. (배열을 2배씩 늘려 복사하는 것보다 최대 메모리 사용량이 적음)
+	 */
+	private byte[] decompressStream(byte[] compData, ZstdDictDecompress dict) {
+		List<byte[]> chunks = new ArrayList<>();
+		byte[] chunk = new byte[Math.min(Math.max(compData.length * 4, 1024), STREAM_CHUNK_SIZE)];
+		int pos = 0;
+		long total = 0;
+		try (ZstdInputStream in = openStream(compData, dict)) {
+			int n;
+			while ((n = in.read(chunk, pos, chunk.length - pos)) >= 0) {
+				pos += n;
+				total += n;
+				checkDecompressSize(total);
+				if (pos == chunk.length) {
+					chunks.add(chunk);
+					chunk = new byte[STREAM_CHUNK_SIZE];
+					pos = 0;
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Fail to decompress : " + e.getMessage(), e);
+		}
+		if (chunks.isEmpty()) {
+			return Arrays.copyOf(chunk, pos);
+		}
+
+		byte[] result = new byte[(int) total];
+		int offset = 0;
+		for (byte[] c : chunks) {
+			System.arraycopy(c, 0, result, offset, c.length);
+			offset += c.length;
+		}
+		System.arraycopy(chunk, 0, result, offset, pos);
+		return result;
+	}
+
+	/**
+	 * 압축 데이터를 dst 의 position 부터 압축해제하고, dst 의 position 을 이동합니다.
+	 * 결과 배열을 할당하지 않으므로 pool 에서 빌린 버퍼(heap, direct)를 재사용하여 큰 메시지를 처리할 수 있습니다.
+	 * 
+	 * @param compData
+	 *        압축된 데이터 (사전 압축 데이터는 decompress(IotMessage, byte[]) 사용)
+	 * @param dst
+	 *        원본 데이터를 기록할 버퍼
+	 * @return 압축해제된 크기
+	 * @throws IllegalStateException
+	 *         원본이 dst 의 남은 공간이나 maxDecompressBytes 보다 큰 경우
+	 */
+	public int decompress(byte[] compData, ByteBuffer dst) {
+		long originalSize = Zstd.decompressedSize(compData);
+		checkDecompressSize(originalSize);
+		if (originalSize > dst.remaining()) {
+			throw new IllegalStateException("Not enough buffer : size=" + originalSize + ", remaining=" + dst.remaining());
+		}
+		if (originalSize > 0 && dst.hasArray()) {
+			long size = Zstd.decompressByteArray(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining(),
+					compData, 0, compData.length);
+			if (Zstd.isError(size)) {
+				throw new IllegalStateException("Fail to decompress : " + Zstd.getErrorName(size));
+			}
+			dst.position(dst.position() + (int) size);
+			return (int) size;
+		}
+
+		int start = dst.position();
+		try (ZstdInputStream in = openStream(compData, null)) {
+			byte[] buf = dst.hasArray() ? null : getScratch(STREAM_CHUNK_SIZE);
+			while (true) {
+				if (!dst.hasRemaining()) {
+					if (in.read() >= 0) {
+						throw new IllegalStateException("Not enough buffer : capacity=" + (dst.position() - start));
+					}
+					break;
+				}
+				int n = dst.hasArray() ? in.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining())
+						: in.read(buf, 0, Math.min(buf.length, dst.remaining()));
+				if (n < 0) {
+					break;
+				}
+				checkDecompressSize(dst.position() - start + (long) n);
+				if (dst.hasArray()) {
+					dst.position(dst.position() + n);
+				} else {
+					dst.put(buf, 0, n);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Fail to decompress : " + e.getMessage(), e);
+		}
+		return dst.position() - start;
+	}
+
+	private static ZstdInputStream openStream(byte[] compData, ZstdDictDecompress dict) throws IOException {
+		ZstdInputStream in = new ZstdInputStream(new ByteArrayInputStream(compData));
+		if (dict != null) {
+			in.setDict(dict);
+		}
+		return in;
+	}
+
+	private void checkDecompressSize(long size) {
+		if (size > maxDecompressBytes) {
+			throw new IllegalStateException(
+					"Decompressed data is too large : size=" + size + ", maxDecompressBytes=" + maxDecompressBytes);
+		}
+	}
+
+	/**
+	 * msgCode 에 등록된 사전이 있으면 사전으로 압축합니다.
+	 * 암호화된 데이터는 사전으로 압축되지 않으므로 평문(encType "0")만 사전을 사용하고 학습 샘플로 수집합니다.
+	 */
+	@Override
+	public byte[] compress(IotMessage msg, byte[] plainData) {
+		ZstdDictCompress dict = null;
+		if (dictionaries != null && "0".equals(msg.getEncType())) {
+			dict = dictionaries.getCompressDict(msg.getMsgCode(), plainData);
+		}
+		byte[] compData = dict == null ? compress(plainData) : compress(plainData, dict);
+		if (ratioTracker != null) {
+			ratioTracker.record(msg.getMsgCode(), plainData.length, compData.length);
+		}
+		return compData;
+	}
+
+	/**
+	 * @return 사전으로 압축한 경우 "ZD" + 사전 ID, 아니면 "Z"
+	 */
+	@Override
+	public String getCompressType(byte[] compData) {
+		if (dictionaries == null) {
+			return getCompressType();
+		}
+		int dictId = (int) Zstd.getDictIdFromFrame(compData);
+		return dictId == 0 ? getCompressType() : ZstdDictionaryRegistry.DICT_COMPRESS_TYPE + ZstdDictionaryRegistry.toHex(dictId);
+	}
+
+	@Override
+	public byte[] decompress(IotMessage msg, byte[] compData) {
+		String encType = msg.getEncType();
+		if (!encType.startsWith(ZstdDictionaryRegistry.DICT_COMPRESS_TYPE)) {
+			return decompress(compData);
+		}
+		int dictId = parseDictId(encType);
+		ZstdDictDecompress dict = dictionaries == null ? null : dictionaries.getDecompressDict(dictId);
+		if (dict == null) {
+			throw new IllegalStateException("Unknown zstd dictionary : " + ZstdDictionaryRegistry.toHex(dictId));
+		}
+		return decompress(compData, dict);
+	}
+
+	@Override
+	public int getCompressTypeLength(String encType) {
+		if (encType.startsWith(ZstdDictionaryRegistry.DICT_COMPRESS_TYPE)) {
+			return ZstdDictionaryRegistry.DICT_COMPRESS_TYPE.length() + ZstdDictionaryRegistry.DICT_ID_LENGTH;
+		}
+		return getCompressType().length();
+	}
+
+	private static int parseDictId(String encType) {
+		int start = ZstdDictionaryRegistry.DICT_COMPRESS_TYPE.length();
+		try {
+			return (int) Long.parseLong(encType.substring(start, start + ZstdDictionaryRegistry.DICT_ID_LENGTH), 16);
+		} catch (NumberFormatException | IndexOutOfBoundsException e) {
+			throw new IllegalStateException("Invalid zstd dictionary encType : " + encType, e);
+		}
 	}
 
 	/**
 	 * 인증, keep-alive 메시지는 압축 수행 제외.
+	 * 최근 압축률이 낮은 msgCode 도 압축 수행 제외. (사전 학습 샘플을 수집 중인 msgCode 는 제외하지 않음)
 	 */
 	@Override
 	public boolean needCompress(IotMessage msg) {
 		if (isNoCompressMessage(msg)) {
 			return false;
 		}
-		return (msg.getData() != null && compressUseBytes !=0 && msg.getData().length >= compressUseBytes);
+		if (!(msg.getData() != null && compressUseBytes != 0 && msg.getData().length >= compressUseBytes)) {
+			return false;
+		}
+		if (ratioTracker == null || (dictionaries != null && dictionaries.isSampling(msg.getMsgCode()))) {
+			return true;
+		}
+		return !ratioTracker.shouldSkip(msg.getMsgCode());
 	}
 
 }
@@ -0,0 +1,211 @@
+
+package com.sds.iot.sdk.message.compress;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+
+/**
+ * 이 클래스는 Zstd 압축 사전을 사전 ID, msgCode 별로 관리합니다.
+ *
+ * 수백 byte 의 작은 JSON 데이터는 사전 없이는 거의 압축되지 않으므로, 같은 msgCode 의 메시지로 학습한 사전을 사용합니다.
+ * 사전으로 압축한 메시지의 encType 은 "ZD" + 사전 ID (16진수 8자리) + 암호화타입 (e.g. "ZD1a2b3c4d0") 이며,
+ * 수신 측(서버)에도 같은 사전이 등록되어 있어야 압축을 해제할 수 있습니다.
+ *
+ * trainSamples 가 0 보다 크면 사전이 없는 msgCode 의 전송 데이터를 수집하여 사전을 학습합니다.
+ * 서버가 아직 모르는 사전으로 압축하지 않도록, 학습된 사전은 activate(String) 을 호출하기 전까지 압축에 사용하지 않습니다.
+ * (getTrainedDictionaryIds() 로 학습된 사전을 확인하고, getDictionary(int) 로 조회하여 서버에 등록한 후 activate 합니다)
+ *
+ * @author SDS
+ */
+public class ZstdDictionaryRegistry {
+	private static final Logger					LOGGER				= LoggerFactory.getLogger(ZstdDictionaryRegistry.class);
+
+	/** 사전 압축 타입 ("ZD" + 사전 ID 16진수 8자리) */
+	public static final String					DICT_COMPRESS_TYPE	= "ZD";
+	static final int							DICT_ID_LENGTH		= 8;
+
+	public static final int						DEFAULT_DICT_SIZE	= 4096;
+
+	private final Map<Integer, Dictionary>		byId				= new ConcurrentHashMap<>();
+	private final Map<String, Dictionary>		byMsgCode			= new ConcurrentHashMap<>();
+	/** 학습을 마치고 activate 를 기다리는 사전 */
+	private final Map<String, Dictionary>		trained				= new ConcurrentHashMap<>();
+	private final ZstdDictionaryTrainer			trainer;
+	private final int							compressLevel;
+
+	/**
+	 * 학습 없이 등록한 사전만 사용합니다.
+	 */
+	public ZstdDictionaryRegistry() {
+		this(0, DEFAULT_DICT_SIZE);
+	}
+
+	/**
+	 * @param trainSamples
+	 *        msgCode 별 학습에 사용할 샘플 수 (0: 학습하지 않음)
+	 * @param dictSize
+	 *        학습할 사전 최대 크기 (bytes)
+	 */
+	public ZstdDictionaryRegistry(int trainSamples, int dictSize) {
+		this(trainSamples, dictSize, ZstdDataCompressor.DEFAULT_COMPRESS_LEVEL);
+	}
+
+	/**
+	 * @param trainSamples
+	 *        msgCode 별 학습에 사용할 샘플 수 (0: 학습하지 않음)
+	 * @param dictSize
+	 *        학습할 사전 최대 크기 (bytes)
+	 * @param compressLevel
+	 *        사전 압축 레벨
+	 */
+	public ZstdDictionaryRegistry(int trainSamples, int dictSize, int compressLevel) {
+		this.trainer = trainSamples > 0 ? new ZstdDictionaryTrainer(trainSamples, dictSize) : null;
+		this.compressLevel = compressLevel;
+	}
+
+	/**
+	 * 압축 해제에 사용할 사전을 등록합니다.
+	 *
+	 * @param dict
+	 *        Zstd 사전
+	 * @return 사전 ID
+	 * @throws IllegalArgumentException
+	 *         Zstd 사전 형식이 아닌 경우
+	 */
+	public int register(byte[] dict) {
+		int dictId = (int) Zstd.getDictIdFromDict(dict);
+		if (dictId == 0) {
+			throw new IllegalArgumentException("Not a zstd dictionary.");
+		}
+		Dictionary registered = byId.computeIfAbsent(dictId, id -> new Dictionary(id, dict.clone(), compressLevel));
+		return registered.id;
+	}
+
+	/**
+	 * msgCode 의 메시지를 압축할 사전을 등록합니다. (압축 해제에도 사용)
+	 * 등록한 사전은 바로 압축에 사용하므로, 서버에도 등록된 사전이어야 합니다.
+	 *
+	 * @param msgCode
+	 *        메시지 코드
+	 * @param dict
+	 *        Zstd 사전
+	 * @return 사전 ID
+	 */
+	public int register(String msgCode, byte[] dict) {
+		int dictId = register(dict);
+		byMsgCode.put(msgCode, byId.get(dictId));
+		trained.remove(msgCode);
+		return dictId;
+	}
+
+	/**
+	 * 학습된 사전을 msgCode 의 메시지 압축에 사용하기 시작합니다.
+	 * 서버에 사전(getDictionary(int))을 등록한 후 호출해야 합니다.
+	 *
+	 * @param msgCode
+	 *        메시지 코드
+	 * @return 사전 ID. 학습된 사전이 없으면 0
+	 */
+	public int activate(String msgCode) {
+		Dictionary dict = trained.remove(msgCode);
+		if (dict == null) {
+			return getDictionaryId(msgCode);
+		}
+		byMsgCode.put(msgCode, dict);
+		LOGGER.info("****** ZSTD DICTIONARY ACTIVATED : msgCode={}, dictId={}", msgCode, toHex(dict.id));
+		return dict.id;
+	}
+
+	/**
+	 * @return 학습을 마치고 activate 를 기다리는 사전의 msgCode 별 사전 ID
+	 */
+	public Map<String, Integer> getTrainedDictionaryIds() {
+		Map<String, Integer> ids = new HashMap<>();
+		for (Map.Entry<String, Dictionary> e : trained.entrySet()) {
+			ids.put(e.getKey(), e.getValue().id);
+		}
+		return ids;
+	}
+
+	/**
+	 * @param dictId
+	 *        사전 ID
+	 * @return 사전. 등록되지 않은 경우 null
+	 */
+	public byte[] getDictionary(int dictId) {
+		Dictionary dict = byId.get(dictId);
+		return dict == null ? null : dict.bytes.clone();
+	}
+
+	/**
+	 * @param msgCode
+	 *        메시지 코드
+	 * @return msgCode 의 압축에 사용하는 사전 ID. 없으면 0 (activate 전의 학습된 사전 포함하지 않음)
+	 */
+	public int getDictionaryId(String msgCode) {
+		Dictionary dict = byMsgCode.get(msgCode);
+		return dict == null ? 0 : dict.id;
+	}
+
+	/**
+	 * msgCode 의 압축 사전. 사전이 없으면 학습 샘플로 수집합니다.
+	 * 학습된 사전은 압축 해제에는 바로 사용할 수 있지만, 압축에는 activate 후에 사용합니다.
+	 */
+	ZstdDictCompress getCompressDict(String msgCode, byte[] plainData) {
+		if (msgCode == null) {
+			return null;
+		}
+		Dictionary dict = byMsgCode.get(msgCode);
+		if (dict != null) {
+			return dict.compress;
+		}
+		if (trainer != null) {
+			byte[] trainedDict = trainer.addSample(msgCode, plainData);
+			if (trainedDict != null) {
+				int dictId = register(trainedDict);
+				trained.put(msgCode, byId.get(dictId));
+				LOGGER.info("****** ZSTD DICTIONARY TRAINED : msgCode={}, dictId={}, size={} (activate after registering to server)",
+						msgCode, toHex(dictId), trainedDict.length);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return msgCode 의 사전 학습 샘플을 수집 중이면 true
+	 */
+	boolean isSampling(String msgCode) {
+		return trainer != null && msgCode != null && !byMsgCode.containsKey(msgCode) && trainer.isSampling(msgCode);
+	}
+
+	ZstdDictDecompress getDecompressDict(int dictId) {
+		Dictionary dict = byId.get(dictId);
+		return dict == null ? null : dict.decompress;
+	}
+
+	static String toHex(int dictId) {
+		return String.format("%08x", dictId);
+	}
+
+	private static final class Dictionary {
+		private final int					id;
+		private final byte[]				bytes;
+		private final ZstdDictCompress		compress;
+		private final ZstdDictDecompress	decompress;
+
+		private Dictionary(int id, byte[] bytes, int compressLevel) {
+			this.id = id;
+			this.bytes = bytes;
+			this.compress = new ZstdDictCompress(bytes, compressLevel);
+			this.decompress = new ZstdDictDecompress(bytes);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+
+package com.sds.iot.sdk.message.compress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+
+/**
+ * 이 클래스는 전송 메시지 데이터를 msgCode 별로 수집하여 Zstd 압축 사전을 학습합니다.
+ *
+ * msgCode 별로 정해진 수의 샘플이 모이면 한 번 학습하고, 이후 해당 msgCode 의 샘플은 수집하지 않습니다.
+ * 학습은 마지막 샘플을 추가한 스레드에서 수행합니다. (수백 byte 샘플 수백 개 기준 수 ms)
+ *
+ * @author SDS
+ */
+final class ZstdDictionaryTrainer {
+	private static final Logger			LOGGER	= LoggerFactory.getLogger(ZstdDictionaryTrainer.class);
+
+	private final int					trainSamples;
+	private final int					dictSize;
+	private final Map<String, Samples>	samples	= new ConcurrentHashMap<>();
+
+	/**
+	 * @param trainSamples
+	 *        msgCode 별 학습에 사용할 샘플 수
+	 * @param dictSize
+	 *        사전 최대 크기 (bytes)
+	 */
+	ZstdDictionaryTrainer(int trainSamples, int dictSize) {
+		if (trainSamples <= 0) {
+			throw new IllegalArgumentException("trainSamples must be positive : " + trainSamples);
+		}
+		if (dictSize <= 0) {
+			throw new IllegalArgumentException("dictSize must be positive : " + dictSize);
+		}
+		this.trainSamples = trainSamples;
+		this.dictSize = dictSize;
+	}
+
+	/**
+	 * 샘플을 추가하고, 샘플 수가 채워지면 사전을 학습합니다.
+	 *
+	 * @param msgCode
+	 *        메시지 코드
+	 * @param data
+	 *        압축 전 데이터
+	 * @return 학습된 사전. 아직 학습하지 않았거나 이미 학습한(또는 실패한) msgCode 인 경우 null
+	 */
+	byte[] addSample(String msgCode, byte[] data) {
+		Samples s = samples.computeIfAbsent(msgCode, k -> new Samples());
+		synchronized (s) {
+			if (s.done) {
+				return null;
+			}
+			s.list.add(data.clone());
+			s.totalBytes += data.length;
+			if (s.list.size() < trainSamples) {
+				return null;
+			}
+			s.done = true;
+			try {
+				return train(s);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Fail to train zstd dictionary : msgCode={}, samples={}, bytes={}", msgCode, s.list.size(),
+						s.totalBytes, e);
+				return null;
+			} finally {
+				s.list = null;
+			}
+		}
+	}
+
+	/**
+	 * @param msgCode
+	 *        메시지 코드
+	 * @return 아직 샘플을 수집 중이면 true
+	 */
+	boolean isSampling(String msgCode) {
+		Samples s = samples.get(msgCode);
+		if (s == null) {
+			return true;
+		}
+		synchronized (s) {
+			return !s.done;
+		}
+	}
+
+	private byte[] train(Samples s) {
+		ZstdDictTrainer trainer = new ZstdDictTrainer(s.totalBytes, dictSize);
+		for (byte[] sample : s.list) {
+			trainer.addSample(sample);
+		}
+		return trainer.trainSamples();
+	}
+
+	private static final class Samples {
+		private List<byte[]>	list		= new ArrayList<>();
+		private int				totalBytes	= 0;
+		private boolean			done		= false;
+	}
+}
@@ -91,7 +91,7 @@ public interface IDataEncryptor {
 	 * @return 메시지 복호화 필요 여부 (true/false)
 	 */
 	default boolean needDecrypt(IotMessage msg) {
-		if (msg.getData() == null) {
+		if (!msg.hasData()) {
 			return false;
 		}
 		return !"0".equals(msg.getEncType());
@@ -0,0 +1,392 @@
+
+package com.sds.iot.sdk.message.headerformat;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 이 클래스는 메시지의 헤더 포맷(Binary인 경우) 변환 시 호출되는 함수를 정의합니다.
+ *
+ * Delimiter 포맷과 같은 항목을 같은 순서로 전송하되,
+ * 길이는 varint 로, 자주 쓰이는 값(msgType, encType, msgCode 등)은 1 byte 코드로,
+ * msgDate 는 8 byte 정수로 전송하여 헤더 크기를 줄입니다.
+ *
+ * <pre>
+ * marker(1) | flags(1)
+ * | version(T) | msgType(T) | funcType(T) | sId(S) | tpId(S) | tId(S, flags 에 따라 생략)
+ * | msgCode(T) | msgId(S 또는 UUID 16 byte) | msgDate(8) | resCode(T) | resMsg(S) | dataFormat(T)
+ * | severity(S) | encType(T) | authToken(S)
+ * | data-length(V) | data
+ *
+ * V : varint (unsigned LEB128)
+ * S : 문자열. V(UTF-8 byte 길이 + 1) + bytes. 0 은 null
+ * T : 토큰. 1 byte 코드. 0 은 null, 1~ 는 미리 정의된 값, 0xFF 는 S 형식의 문자열이 뒤따름
+ * </pre>
+ *
+ * 토큰 테이블은 서버와 공유하는 값이므로 새 값은 항상 뒤쪽에 추가해야 합니다.
+ *
+ * @author SDS
+ */
+public class BinaryHeaderFormatConverter implements IHeaderFormatConverter {
+	private static final Logger		LOGGER					= LoggerFactory.getLogger(BinaryHeaderFormatConverter.class);
+
+	/** 포맷 식별자 (상위 4bit : 'B' 포맷, 하위 4bit : 포맷 버전) */
+	static final byte				FORMAT_MARKER			= (byte) 0xB1;
+
+	/** tId 가 tpId 와 같아서 생략된 경우 */
+	static final int				FLAG_LEAF_SAME_AS_THING	= 0x01;
+	/** msgId 가 UUID 형식이어서 16 byte 로 전송된 경우 */
+	static final int				FLAG_MSG_ID_UUID		= 0x02;
+
+	static final int				TOKEN_NULL				= 0x00;
+	static final int				TOKEN_LITERAL			= 0xFF;
+
+	static final String[]			VERSION_TOKENS			= { "003" };
+	static final String[]			MSG_TYPE_TOKENS			= { "N", "Q", "A" };
+	static final String[]			FUNC_TYPE_TOKENS		= { "0", "" };
+	static final String[]			MSG_CODE_TOKENS			= { "Basic-AttrGroup", "Basic-Provisioning",
+			"MSGAUTH00000", "MSGAUTH00002", "MSGBA0030001", "MSGBA0110001", "MSGBA0110003", "MSGBA0420001",
+			"MSGBA0420003", "MSGBA0420004", "MSGBA0420005", "MSGBA0420007", "MSGBA0410001", "MSGBA0410017",
+			"MSGBA0300001", "MSGBA0300003", "MSGBA0300007", "MSGBA0300027", "MSGBA0300029" };
+	static final String[]			RES_CODE_TOKENS			= { "", "200" };
+	static final String[]			DATA_FORMAT_TOKENS		= { "", "application/json", "application/xml",
+			"application/x-delimiter", "application/octet-stream" };
+	static final String[]			ENC_TYPE_TOKENS			= { "0", "3", "Z0", "Z3", "CZ3" };
+
+	private static final int		UUID_LENGTH				= 36;
+	private static final char[]		HEX_DIGITS				= "0123456789abcdef".toCharArray();
+
+	@Override
+	public byte[] convertToBytes(IotMessage msg) {
+		byte[] allBytes = new byte[getEncodedLength(msg)];
+		convertToBuffer(msg, ByteBuffer.wrap(allBytes));
+		return allBytes;
+	}
+
+	@Override
+	public int getEncodedLength(IotMessage msg) {
+		int flags = getFlags(msg);
+
+		int len = 2; // marker, flags
+		len += getTokenLength(VERSION_TOKENS, msg.getVersion());
+		len += getTokenLength(MSG_TYPE_TOKENS, msg.getMsgType());
+		len += getTokenLength(FUNC_TYPE_TOKENS, msg.getFuncType());
+		len += getStringLength(msg.getSiteId());
+		len += getStringLength(msg.getThingName());
+		if ((flags & FLAG_LEAF_SAME_AS_THING) == 0) {
+			len += getStringLength(msg.getEndNode());
+		}
+		len += getTokenLength(MSG_CODE_TOKENS, msg.getMsgCode());
+		len += (flags & FLAG_MSG_ID_UUID) != 0 ? 16 : getStringLength(msg.getMsgId());
+		len += 8; // msgDate
+		len += getTokenLength(RES_CODE_TOKENS, msg.getResCode());
+		len += getStringLength(msg.getResMsg());
+		len += getTokenLength(DATA_FORMAT_TOKENS, msg.getDataFormat());
+		len += getStringLength(msg.getSeverity());
+		len += getTokenLength(ENC_TYPE_TOKENS, msg.getEncType());
+		len += getStringLength(msg.getAuthToken());
+
+		int bodyLength = msg.getDataLength();
+		len += getVarIntLength(msg.hasData() ? bodyLength + 1 : 0);
+		return len + bodyLength;
+	}
+
+	@Override
+	public void convertToBuffer(IotMessage msg, ByteBuffer buf) {
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("[CONV] convertToBytes   - before [{}]", msg.toStringFull());
+		}
+		int flags = getFlags(msg);
+
+		buf.put(FORMAT_MARKER);
+		buf.put((byte) flags);
+		putToken(buf, VERSION_TOKENS, msg.getVersion());
+		putToken(buf, MSG_TYPE_TOKENS, msg.getMsgType());
+		putToken(buf, FUNC_TYPE_TOKENS, msg.getFuncType());
+		putString(buf, msg.getSiteId());
+		putString(buf, msg.getThingName());
+		if ((flags & FLAG_LEAF_SAME_AS_THING) == 0) {
+			putString(buf, msg.getEndNode());
+		}
+		putToken(buf, MSG_CODE_TOKENS, msg.getMsgCode());
+		if ((flags & FLAG_MSG_ID_UUID) != 0) {
+			putUuid(buf, msg.getMsgId());
+		} else {
+			putString(buf, msg.getMsgId());
+		}
+		buf.putLong(msg.getMsgDate());
+		putToken(buf, RES_CODE_TOKENS, msg.getResCode());
+		putString(buf, msg.getResMsg());
+		putToken(buf, DATA_FORMAT_TOKENS, msg.getDataFormat());
+		putString(buf, msg.getSeverity());
+		putToken(buf, ENC_TYPE_TOKENS, msg.getEncType());
+		putString(buf, msg.getAuthToken());
+
+		if (msg.hasData()) {
+			putVarInt(buf, msg.getDataLength() + 1);
+			buf.put(msg.getDataBuffer());
+		} else {
+			putVarInt(buf, 0);
+		}
+	}
+
+	@Override
+	public IotMessage convertFromBytes(byte[] bytes) throws IllegalStateException {
+		if (bytes.length == 0 || bytes[0] != FORMAT_MARKER) {
+			throw new IllegalStateException("Cannot parse IotMessage! (not a binary header format)");
+		}
+
+		ByteBuffer buf = ByteBuffer.wrap(bytes);
+		IotMessage msg = new IotMessage();
+		try {
+			buf.get(); // marker
+			int flags = buf.get() & 0xFF;
+
+			msg.setVersion(getToken(buf, VERSION_TOKENS));
+			msg.setMsgType(getToken(buf, MSG_TYPE_TOKENS));
+			msg.setFuncType(getToken(buf, FUNC_TYPE_TOKENS));
+			msg.setSiteId(getString(buf));
+			msg.setThingName(getString(buf));
+			if ((flags & FLAG_LEAF_SAME_AS_THING) != 0) {
+				msg.setLeafThingName(msg.getThingName());
+			} else {
+				msg.setLeafThingName(getString(buf));
+			}
+			msg.setMsgCode(getToken(buf, MSG_CODE_TOKENS));
+			msg.setMsgId((flags & FLAG_MSG_ID_UUID) != 0 ? getUuid(buf) : getString(buf));
+			msg.setMsgDate(buf.getLong());
+			msg.setResCode(getToken(buf, RES_CODE_TOKENS));
+			msg.setResMsg(getString(buf));
+			msg.setDataFormat(getToken(buf, DATA_FORMAT_TOKENS));
+			msg.setSeverity(getString(buf));
+			msg.setEncType(getToken(buf, ENC_TYPE_TOKENS));
+			msg.setAuthToken(getString(buf));
+
+			// body : 원본 payload 를 복사하지 않고 참조
+			int bodySize = getVarInt(buf) - 1;
+			if (bodySize >= 0) {
+				if (bodySize != buf.remaining()) {
+					LOGGER.error("bodySize={} / bytes.length={} / startPos={}", bodySize, bytes.length, buf.position());
+				}
+				msg.setData(bytes, buf.position(), buf.remaining());
+			} else {
+				LOGGER.trace("[CONV] No body data");
+			}
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IllegalStateException("Cannot parse IotMessage! (truncated)", e);
+		}
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("[CONV] convertFromBytes - after  [{}]", msg.toStringFull());
+		}
+
+		return msg;
+	}
+
+	private static int getFlags(IotMessage msg) {
+		int flags = 0;
+		if (msg.getEndNode() != null && msg.getEndNode().equals(msg.getThingName())) {
+			flags |= FLAG_LEAF_SAME_AS_THING;
+		}
+		if (isUuid(msg.getMsgId())) {
+			flags |= FLAG_MSG_ID_UUID;
+		}
+		return flags;
+	}
+
+	// ----------------------------------------------------------------
+	// token
+
+	private static int findToken(String[] tokens, String value) {
+		for (int i = 0; i < tokens.length; i++) {
+			if (tokens[i].equals(value)) {
+				return i + 1;
+			}
+		}
+		return TOKEN_LITERAL;
+	}
+
+	private static int getTokenLength(String[] tokens, String value) {
+		if (value == null) {
+			return 1;
+		}
+		return findToken(tokens, value) == TOKEN_LITERAL ? 1 + getStringLength(value) : 1;
+	}
+
+	private static void putToken(ByteBuffer buf, String[] tokens, String value) {
+		if (value == null) {
+			buf.put((byte) TOKEN_NULL);
+			return;
+		}
+		int code = findToken(tokens, value);
+		buf.put((byte) code);
+		if (code == TOKEN_LITERAL) {
+			putString(buf, value);
+		}
+	}
+
+	private static String getToken(ByteBuffer buf, String[] tokens) {
+		int code = buf.get() & 0xFF;
+		if (code == TOKEN_NULL) {
+			return null;
+		} else if (code == TOKEN_LITERAL) {
+			return getString(buf);
+		} else if (code <= tokens.length) {
+			return tokens[code - 1];
+		} else {
+			throw new IllegalStateException("Cannot parse IotMessage! (unknown token " + code + ")");
+		}
+	}
+
+	// ----------------------------------------------------------------
+	// string
+
+	private static int getStringLength(String value) {
+		if (value == null) {
+			return 1;
+		}
+		int len = getUtf8Length(value);
+		return getVarIntLength(len + 1) + len;
+	}
+
+	private static int getUtf8Length(String value) {
+		int len = value.length();
+		for (int i = 0; i < len; i++) {
+			if (value.charAt(i) >= 0x80) {
+				return value.getBytes(StandardCharsets.UTF_8).length;
+			}
+		}
+		return len;
+	}
+
+	private static void putString(ByteBuffer buf, String value) {
+		if (value == null) {
+			putVarInt(buf, 0);
+			return;
+		}
+		int len = getUtf8Length(value);
+		putVarInt(buf, len + 1);
+		if (len == value.length()) {
+			// ASCII 문자열은 byte 로 바로 기록
+			for (int i = 0; i < len; i++) {
+				buf.put((byte) value.charAt(i));
+			}
+		} else {
+			buf.put(value.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static String getString(ByteBuffer buf) {
+		int len = getVarInt(buf) - 1;
+		if (len < 0) {
+			return null;
+		}
+		if (len > buf.remaining()) {
+			throw new IllegalStateException("Cannot parse IotMessage! (invalid length " + len + ")");
+		}
+		String value = new String(buf.array(), buf.arrayOffset() + buf.position(), len, StandardCharsets.UTF_8);
+		buf.position(buf.position() + len);
+		return value;
+	}
+
+	// ----------------------------------------------------------------
+	// varint
+
+	static int getVarIntLength(int value) {
+		int len = 1;
+		int v = value >>> 7;
+		while (v != 0) {
+			len++;
+			v >>>= 7;
+		}
+		return len;
+	}
+
+	static void putVarInt(ByteBuffer buf, int value) {
+		int v = value;
+		while ((v & ~0x7F) != 0) {
+			buf.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		buf.put((byte) v);
+	}
+
+	static int getVarInt(ByteBuffer buf) {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = buf.get() & 0xFF;
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalStateException("Cannot parse IotMessage! (invalid varint)");
+	}
+
+	// ----------------------------------------------------------------
+	// uuid (msgId)
+
+	/**
+	 * 소문자 16진수의 표준 UUID 문자열인지 확인합니다.
+	 * (디코딩 시 같은 문자열로 복원되는 경우에만 16 byte 로 전송)
+	 */
+	private static boolean isUuid(String value) {
+		if (value == null || value.length() != UUID_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < UUID_LENGTH; i++) {
+			char c = value.charAt(i);
+			if (i == 8 || i == 13 || i == 18 || i == 23) {
+				if (c != '-') {
+					return false;
+				}
+			} else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void putUuid(ByteBuffer buf, String value) {
+		long msb = 0;
+		long lsb = 0;
+		int n = 0;
+		for (int i = 0; i < UUID_LENGTH; i++) {
+			char c = value.charAt(i);
+			if (c == '-') {
+				continue;
+			}
+			int digit = c <= '9' ? c - '0' : c - 'a' + 10;
+			if (n < 16) {
+				msb = (msb << 4) | digit;
+			} else {
+				lsb = (lsb << 4) | digit;
+			}
+			n++;
+		}
+		buf.putLong(msb);
+		buf.putLong(lsb);
+	}
+
+	private static String getUuid(ByteBuffer buf) {
+		long msb = buf.getLong();
+		long lsb = buf.getLong();
+		char[] chars = new char[UUID_LENGTH];
+		int pos = 0;
+		for (int i = 0; i < 32; i++) {
+			if (i == 8 || i == 12 || i == 16 || i == 20) {
+				chars[pos++] = '-';
+			}
+			long v = i < 16 ? msb >>> ((15 - i) * 4) : lsb >>> ((31 - i) * 4);
+			chars[pos++] = HEX_DIGITS[(int) (v & 0xF)];
+		}
+		return new String(chars);
+	}
+
+}
@@ -1,8 +1,12 @@
 
 package com.sds.iot.sdk.message.headerformat;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,151 +21,279 @@ import com.sds.iot.sdk.message.IotMessage;
 public class DelimiterHeaderFormatConverter implements IHeaderFormatConverter {
 	private static final Logger	LOGGER				= LoggerFactory.getLogger(DelimiterHeaderFormatConverter.class);
 
-	private static final String	HEADER_DELIMITER_S	= "|";
 	private static final byte	HEADER_DELIMITER	= '|';
 
+	private static final Charset	DEFAULT_CHARSET		= Charset.defaultCharset();
+
+	/** 디폴트 charset 이 ASCII 문자를 1 byte 로 인코딩하는지 여부 (대부분의 환경에서 true) */
+	private static final boolean	ASCII_COMPATIBLE	= isAsciiCompatible(DEFAULT_CHARSET);
+
+	/** 수신 메시지마다 반복되는 헤더 항목 값. 파싱 시 새 String 을 만들지 않고 재사용한다. */
+	private static final String[]	KNOWN_ITEMS				= { "003", "N", "Q", "A", "0", "200", "application/json" };
+	private static final byte[][]	KNOWN_ITEM_BYTES		= toBytes(KNOWN_ITEMS);
+	private static final int		MAX_KNOWN_ITEM_LENGTH	= 16;
+
+	/** 헤더 template 을 캐시하는 msgType */
+	private static final String[]	TEMPLATE_MSG_TYPES		= { "N", "Q", "A" };
+
+	/** 헤더 template 캐시의 최대 tId 개수. 초과 시 캐시를 비우고 다시 채운다. */
+	private static final int		MAX_TEMPLATE_CACHE_SIZE	= 10000;
+
+	/** tId 별 헤더 template (TEMPLATE_MSG_TYPES 순서의 배열) */
+	private final ConcurrentMap<String, HeaderTemplate[]>	templates	= new ConcurrentHashMap<>();
+
 	//version|msgType|funcType|sId|tpId|tId
 	//|msgCode|msgId|msgDate|resCode|resMsg|dataFormat
 	//|severity|encType|authToken
 	//|data-length
 	//|data
 
-	private static void appendHeader(StringBuilder sb, Object obj) {
-		if (obj != null) {
-			sb.append(obj);	
-		}
-		sb.append(HEADER_DELIMITER_S);
-	}
-	
 	@Override
 	public byte[] convertToBytes(IotMessage msg) {
+		// 정확한 크기의 배열 하나만 할당하여 헤더와 바디를 바로 기록한다.
+		byte[] allBytes = new byte[getEncodedLength(msg)];
+		convertToBuffer(msg, ByteBuffer.wrap(allBytes));
+		return allBytes;
+	}
+
+	@Override
+	public int getEncodedLength(IotMessage msg) {
+		HeaderTemplate template = getTemplate(msg);
+		byte[] bodyBytes = msg.getData();
+		int bodyLength = bodyBytes == null ? 0 : bodyBytes.length;
+
+		int len = template.prefix.length;
+		len += getEncodedLength(msg.getMsgCode()) + 1;
+		len += getEncodedLength(msg.getMsgId()) + 1;
+		len += getDigitCount(msg.getMsgDate()) + 1;
+		len += getEncodedLength(msg.getResCode()) + 1;
+		len += getEncodedLength(msg.getResMsg()) + 1;
+		len += getEncodedLength(msg.getDataFormat()) + 1;
+		len += getEncodedLength(msg.getSeverity()) + 1;
+		len += getEncodedLength(msg.getEncType()) + 1;
+		len += getEncodedLength(msg.getAuthToken()) + 1;
+		len += getDigitCount(bodyLength) + 1;
+		return len + bodyLength;
+	}
+
+	@Override
+	public void convertToBuffer(IotMessage msg, ByteBuffer buf) {
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug("[CONV] convertToBytes   - before [{}]", msg.toStringFull());
 		}
-		
-		// create header bytes 
-		StringBuilder sb = new StringBuilder();
-		appendHeader(sb, msg.getVersion());
-		appendHeader(sb, msg.getMsgType());
-		appendHeader(sb, msg.getFuncType());
-		appendHeader(sb, msg.getSiteId());
-		appendHeader(sb, msg.getThingName());
-		appendHeader(sb, msg.getEndNode());
-		appendHeader(sb, msg.getMsgCode());
-		appendHeader(sb, msg.getMsgId());
-		appendHeader(sb, msg.getMsgDate());
-		appendHeader(sb, msg.getResCode());
-		appendHeader(sb, msg.getResMsg());
-		appendHeader(sb, msg.getDataFormat());
-		appendHeader(sb, msg.getSeverity());
-		appendHeader(sb, msg.getEncType());
-		appendHeader(sb, msg.getAuthToken());
+		int startPos = buf.position();
+		HeaderTemplate template = getTemplate(msg);
+
+		// 메시지를 보내는 대상(tId)별로 고정된 앞부분은 미리 인코딩해 둔 byte 를 그대로 복사하고,
+		// 메시지마다 달라질 수 있는 나머지 항목은 매번 기록한다.
+		buf.put(template.prefix);
+		putHeader(buf, msg.getMsgCode());
+		putHeader(buf, msg.getMsgId());
+		putHeader(buf, msg.getMsgDate());
+		putHeader(buf, msg.getResCode());
+		putHeader(buf, msg.getResMsg());
+		putHeader(buf, msg.getDataFormat());
+		putHeader(buf, msg.getSeverity());
+		putHeader(buf, msg.getEncType());
+		putHeader(buf, msg.getAuthToken());
 
 		// delimiter format 의 경우 body length 를 함께 보냄 
 		byte[] bodyBytes = msg.getData();
-		appendHeader(sb, bodyBytes == null ? 0 : bodyBytes.length);
+		putHeader(buf, bodyBytes == null ? 0 : bodyBytes.length);
 
-		byte[] headerBytes = sb.toString().getBytes(Charset.defaultCharset());
-
-		// headerBytes + bodyBytes
-		byte[] allBytes;
-		if (bodyBytes == null) {
-			allBytes = headerBytes;
-		} else {
-			allBytes = new byte[headerBytes.length + bodyBytes.length];
-			System.arraycopy(headerBytes, 0, allBytes, 0, headerBytes.length);
-			System.arraycopy(bodyBytes, 0, allBytes, headerBytes.length, bodyBytes.length);
+		if (bodyBytes != null) {
+			buf.put(bodyBytes);
 		}
-		if (LOGGER.isDebugEnabled()) {
-			LOGGER.trace("[CONV] convertToBytes   - after  [{}]", new String(allBytes, Charset.defaultCharset()));
+
+		if (LOGGER.isTraceEnabled()) {
+			ByteBuffer written = buf.duplicate();
+			written.flip();
+			written.position(startPos);
+			LOGGER.trace("[CONV] convertToBytes   - after  [{}]", DEFAULT_CHARSET.decode(written));
 		}
-		return allBytes;
 	}
 
-	@Override
-	public IotMessage convertFromBytes(byte[] bytes) throws IllegalStateException {
-		if (LOGGER.isDebugEnabled()) {
-			LOGGER.trace("[CONV] convertFromBytes - before [{}]", new String(bytes, Charset.defaultCharset()));
+	/**
+	 * 메시지의 고정 헤더 항목에 대한 template 을 반환합니다.
+	 * (msgType, tId) 별로 캐시하며, 설정 변경 등으로 template 을 만든 항목(version, funcType, sId, tpId) 값이
+	 * 메시지와 다르면 새로 만들어 교체합니다. 메시지마다 달라지는 항목은 template 에 포함하지 않습니다.
+	 */
+	private HeaderTemplate getTemplate(IotMessage msg) {
+		int slot = getTemplateSlot(msg.getMsgType());
+		String leafThingName = msg.getEndNode();
+		if (slot < 0 || leafThingName == null) {
+			return new HeaderTemplate(msg);
 		}
 
-		int startPos;
-		int endPos;
-		IotMessage msg = new IotMessage();
-
-		startPos = 0;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setVersion(getNextHeaderItem(bytes, startPos, endPos));
-
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setMsgType(getNextHeaderItem(bytes, startPos, endPos));
-
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setFuncType(getNextHeaderItem(bytes, startPos, endPos));
-
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setSiteId(getNextHeaderItem(bytes, startPos, endPos));
+		HeaderTemplate[] slots = templates.get(leafThingName);
+		if (slots == null) {
+			if (templates.size() >= MAX_TEMPLATE_CACHE_SIZE) {
+				LOGGER.debug("[CONV] header template cache is full. clear. (size={})", templates.size());
+				templates.clear();
+			}
+			slots = templates.computeIfAbsent(leafThingName, k -> new HeaderTemplate[TEMPLATE_MSG_TYPES.length]);
+		}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setThingName(getNextHeaderItem(bytes, startPos, endPos));
+		// 배열 원소의 동시 갱신은 허용 (HeaderTemplate 은 불변이므로 늦게 보이더라도 다시 만들 뿐)
+		HeaderTemplate template = slots[slot];
+		if (template == null || !template.matches(msg)) {
+			template = new HeaderTemplate(msg);
+			slots[slot] = template;
+		}
+		return template;
+	}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setLeafThingName(getNextHeaderItem(bytes, startPos, endPos));
+	private static int getTemplateSlot(String msgType) {
+		for (int i = 0; i < TEMPLATE_MSG_TYPES.length; i++) {
+			if (TEMPLATE_MSG_TYPES[i].equals(msgType)) {
+				return i;
+			}
+		}
+		return -1;
+	}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setMsgCode(getNextHeaderItem(bytes, startPos, endPos));
+	/**
+	 * 미리 인코딩해 둔 고정 헤더 항목.
+	 * <pre>
+	 * prefix : version|msgType|funcType|sId|tpId|tId|
+	 * </pre>
+	 * msgType, tId 는 캐시의 key 이므로 나머지 항목만 비교합니다.
+	 * (설정에서 가져온 같은 String 인스턴스이므로 대부분 참조 비교로 끝남)
+	 */
+	private static final class HeaderTemplate {
+		private final String	version;
+		private final String	funcType;
+		private final String	siteId;
+		private final String	thingName;
+
+		private final byte[]	prefix;
+
+		HeaderTemplate(IotMessage msg) {
+			this.version = msg.getVersion();
+			this.funcType = msg.getFuncType();
+			this.siteId = msg.getSiteId();
+			this.thingName = msg.getThingName();
+
+			this.prefix = encode(version, msg.getMsgType(), funcType, siteId, thingName, msg.getEndNode());
+		}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setMsgId(getNextHeaderItem(bytes, startPos, endPos));
+		boolean matches(IotMessage msg) {
+			return same(version, msg.getVersion()) && same(funcType, msg.getFuncType())
+					&& same(siteId, msg.getSiteId()) && same(thingName, msg.getThingName());
+		}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setMsgDate(Long.parseLong(getNextHeaderItem(bytes, startPos, endPos)));
+		private static boolean same(String a, String b) {
+			return a == b || (a != null && a.equals(b));
+		}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setResCode(getNextHeaderItem(bytes, startPos, endPos));
+		private static byte[] encode(String... items) {
+			int len = items.length;
+			for (String item : items) {
+				len += getEncodedLength(item);
+			}
+			ByteBuffer buf = ByteBuffer.allocate(len);
+			for (String item : items) {
+				putHeader(buf, item);
+			}
+			return buf.array();
+		}
+	}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setResMsg(getNextHeaderItem(bytes, startPos, endPos));
+	/**
+	 * 헤더 항목 하나(문자열)를 구분자와 함께 기록합니다.
+	 * ASCII 문자는 byte 로 바로 기록하고, 그 외의 문자가 포함된 경우에만 디폴트 charset 으로 인코딩합니다.
+	 */
+	private static void putHeader(ByteBuffer buf, String item) {
+		if (item != null) {
+			int len = item.length();
+			for (int i = 0; i < len; i++) {
+				char c = item.charAt(i);
+				if (c >= 0x80 || !ASCII_COMPATIBLE) {
+					buf.put(item.substring(i).getBytes(DEFAULT_CHARSET));
+					break;
+				}
+				buf.put((byte) c);
+			}
+		}
+		buf.put(HEADER_DELIMITER);
+	}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setDataFormat(getNextHeaderItem(bytes, startPos, endPos));
+	/**
+	 * 헤더 항목 하나(숫자)를 10진수 문자열 형태로 구분자와 함께 기록합니다.
+	 */
+	private static void putHeader(ByteBuffer buf, long item) {
+		if (item < 0) {
+			buf.put((byte) '-');
+		}
+		int digits = getDigitCount(item) - (item < 0 ? 1 : 0);
+		int pos = buf.position();
+		long v = item;
+		for (int i = digits - 1; i >= 0; i--) {
+			buf.put(pos + i, (byte) ('0' + Math.abs(v % 10)));
+			v /= 10;
+		}
+		buf.position(pos + digits);
+		buf.put(HEADER_DELIMITER);
+	}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setSeverity(getNextHeaderItem(bytes, startPos, endPos));
+	private static int getEncodedLength(String item) {
+		if (item == null) {
+			return 0;
+		}
+		int len = item.length();
+		for (int i = 0; i < len; i++) {
+			if (item.charAt(i) >= 0x80 || !ASCII_COMPATIBLE) {
+				return i + item.substring(i).getBytes(DEFAULT_CHARSET).length;
+			}
+		}
+		return len;
+	}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setEncType(getNextHeaderItem(bytes, startPos, endPos));
+	private static int getDigitCount(long value) {
+		int count = value < 0 ? 2 : 1;
+		long v = value;
+		while (v >= 10 || v <= -10) {
+			v /= 10;
+			count++;
+		}
+		return count;
+	}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		msg.setAuthToken(getNextHeaderItem(bytes, startPos, endPos));
+	@Override
+	public IotMessage convertFromBytes(byte[] bytes) throws IllegalStateException {
+		if (LOGGER.isTraceEnabled()) {
+			LOGGER.trace("[CONV] convertFromBytes - before [{}]", new String(bytes, DEFAULT_CHARSET));
+		}
 
-		startPos = endPos + 1;
-		endPos = getNextHeaderItemEndPosition(bytes, startPos);
-		int bodySize = Integer.parseInt(getNextHeaderItem(bytes, startPos, endPos));
+		// payload 를 한 번만 스캔하면서 헤더 항목을 순서대로 읽는다.
+		HeaderReader reader = new HeaderReader(bytes);
+		IotMessage msg = new IotMessage();
 
-		// body
-		startPos = endPos + 1;
+		msg.setVersion(reader.nextString());
+		msg.setMsgType(reader.nextString());
+		msg.setFuncType(reader.nextString());
+		msg.setSiteId(reader.nextString());
+		msg.setThingName(reader.nextString());
+		msg.setLeafThingName(reader.nextString());
+		msg.setMsgCode(reader.nextString());
+		msg.setMsgId(reader.nextString());
+		msg.setMsgDate(reader.nextLong());
+		msg.setResCode(reader.nextString());
+		msg.setResMsg(reader.nextString());
+		msg.setDataFormat(reader.nextString());
+		msg.setSeverity(reader.nextString());
+		msg.setEncType(reader.nextString());
+		msg.setAuthToken(reader.nextString());
+		long bodySize = reader.nextLong();
+
+		// body : 원본 payload 를 복사하지 않고 참조
+		int startPos = reader.pos;
 		if (bodySize != bytes.length - startPos) {
 			LOGGER.error("bodySize={} / bytes.length={} / startPos={}", bodySize, bytes.length, startPos);
 		}
 		if (startPos < bytes.length) {
 
-			byte[] bodyBytes = Arrays.copyOfRange(bytes, startPos, bytes.length);
-
-			msg.setData(bodyBytes);
+			msg.setData(bytes, startPos, bytes.length - startPos);
 
 		} else {
 			LOGGER.trace("[CONV] No body data");
@@ -176,22 +308,106 @@ public class DelimiterHeaderFormatConverter implements IHeaderFormatConverter {
 		return msg;
 	}
 
-	private static int getNextHeaderItemEndPosition(byte[] bytes, int startPos) {
-		int endPos = -1;
-		for (int i = startPos; i < bytes.length; i++) {
-			if (bytes[i] == HEADER_DELIMITER) {
-				endPos = i;
-				break;
-			}
+	/**
+	 * 수신 payload 의 헤더 항목을 앞에서부터 순서대로 읽는 커서.
+	 * 숫자 항목은 String 생성 없이 byte 에서 바로 파싱하고,
+	 * 자주 사용되는 짧은 항목(version, msgType 등)은 미리 만들어 둔 String 을 재사용한다.
+	 */
+	private static final class HeaderReader {
+		private final byte[]	bytes;
+		private int				pos	= 0;
+
+		HeaderReader(byte[] bytes) {
+			this.bytes = bytes;
 		}
-		if (endPos == -1) {
+
+		private int nextDelimiter() {
+			for (int i = pos; i < bytes.length; i++) {
+				if (bytes[i] == HEADER_DELIMITER) {
+					return i;
+				}
+			}
 			throw new IllegalStateException("Cannot parse IotMessage!");
 		}
-		return endPos;
+
+		String nextString() {
+			int endPos = nextDelimiter();
+			String item = toString(bytes, pos, endPos);
+			pos = endPos + 1;
+			return item;
+		}
+
+		/**
+		 * Long.parseLong 과 같은 규칙으로 숫자를 읽는다. (부호만 있거나 범위를 넘으면 오류)
+		 * 범위가 더 넓은 음수로 누적하여 Long.MIN_VALUE 까지 처리한다.
+		 */
+		long nextLong() {
+			int endPos = nextDelimiter();
+			int i = pos;
+			boolean negative = false;
+			if (i < endPos && (bytes[i] == '-' || bytes[i] == '+')) {
+				negative = bytes[i] == '-';
+				i++;
+			}
+			if (i == endPos) {
+				throw new IllegalStateException("Cannot parse IotMessage! (empty number)");
+			}
+			long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+			long multmin = limit / 10;
+			long value = 0;
+			for (; i < endPos; i++) {
+				int digit = bytes[i] - '0';
+				if (digit < 0 || digit > 9) {
+					throw new IllegalStateException("Cannot parse IotMessage! (invalid number)");
+				}
+				if (value < multmin || value * 10 < limit + digit) {
+					throw new IllegalStateException("Cannot parse IotMessage! (number overflow)");
+				}
+				value = value * 10 - digit;
+			}
+			pos = endPos + 1;
+			return negative ? value : -value;
+		}
+
+		private static String toString(byte[] bytes, int startPos, int endPos) {
+			int len = endPos - startPos;
+			if (len == 0) {
+				return "";
+			}
+			if (len <= MAX_KNOWN_ITEM_LENGTH) {
+				for (int i = 0; i < KNOWN_ITEM_BYTES.length; i++) {
+					if (regionEquals(bytes, startPos, len, KNOWN_ITEM_BYTES[i])) {
+						return KNOWN_ITEMS[i];
+					}
+				}
+			}
+			return new String(bytes, startPos, len, DEFAULT_CHARSET);
+		}
+
+		private static boolean regionEquals(byte[] bytes, int startPos, int len, byte[] other) {
+			if (other.length != len) {
+				return false;
+			}
+			for (int i = 0; i < len; i++) {
+				if (bytes[startPos + i] != other[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static byte[][] toBytes(String[] items) {
+		byte[][] result = new byte[items.length][];
+		for (int i = 0; i < items.length; i++) {
+			result[i] = items[i].getBytes(DEFAULT_CHARSET);
+		}
+		return result;
 	}
 
-	private static String getNextHeaderItem(byte[] bytes, int startPos, int endPos) {
-		return new String(Arrays.copyOfRange(bytes, startPos, endPos), Charset.defaultCharset());
+	private static boolean isAsciiCompatible(Charset charset) {
+		String sample = "azAZ09|-_.:/+";
+		return Arrays.equals(sample.getBytes(charset), sample.getBytes(StandardCharsets.US_ASCII));
 	}
 
 }
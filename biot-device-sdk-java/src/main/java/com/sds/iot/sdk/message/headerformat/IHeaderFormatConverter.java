@@ -1,6 +1,8 @@
 
 package com.sds.iot.sdk.message.headerformat;
 
+import java.nio.ByteBuffer;
+
 import com.sds.iot.sdk.message.IotMessage;
 
 /**
@@ -31,4 +33,32 @@ public interface IHeaderFormatConverter {
 	 */
 	IotMessage convertFromBytes(byte[] bytes) throws IllegalStateException;
 
+	/**
+	 * 헤더 포맷 변환 시 필요한 전체 바이트 수(헤더 + 바디)를 계산합니다.
+	 * 미리 할당된 버퍼의 크기를 확인하거나, 정확한 크기의 버퍼를 할당할 때 사용합니다.
+	 * 
+	 * @param msg
+	 *        메시지
+	 * @return 변환 결과의 바이트 수
+	 */
+	default int getEncodedLength(IotMessage msg) {
+		return convertToBytes(msg).length;
+	}
+
+	/**
+	 * convert IotMessage to ByteBuffer (Specified header format).
+	 * 헤더와 바디를 주어진 버퍼의 현재 position 부터 바로 기록합니다. (중간 String/byte[] 생성 없음)
+	 * 기록이 끝나면 버퍼의 position 은 기록한 바이트 수만큼 증가합니다.
+	 * 
+	 * @param msg
+	 *        메시지
+	 * @param buf
+	 *        기록할 버퍼. remaining 이 getEncodedLength() 이상이어야 함
+	 * @throws java.nio.BufferOverflowException
+	 *         버퍼의 남은 공간이 부족한 경우
+	 */
+	default void convertToBuffer(IotMessage msg, ByteBuffer buf) {
+		buf.put(convertToBytes(msg));
+	}
+
 }
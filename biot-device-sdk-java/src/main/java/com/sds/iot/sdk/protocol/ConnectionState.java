@@ -0,0 +1,27 @@
+
+package com.sds.iot.sdk.protocol;
+
+/**
+ * 서버와의 연결 상태를 정의합니다.
+ *
+ * <pre>
+ * DISCONNECTED -> CONNECTING -> AUTHENTICATING -> READY
+ *      ^                                            |
+ *      +---------------- (연결 끊김) -----------------+
+ * </pre>
+ *
+ * @author SDS
+ */
+public enum ConnectionState {
+	/** 연결되지 않은 상태 (최초 상태, 연결이 끊긴 후 재연결 대기 중, 또는 disconnect() 이후) */
+	DISCONNECTED,
+
+	/** 서버 연결 시도 중 (재시도 포함) */
+	CONNECTING,
+
+	/** 서버와 연결되었고, 디바이스 인증 진행 중 */
+	AUTHENTICATING,
+
+	/** 디바이스 인증이 완료되어 메시지를 송수신할 수 있는 상태 */
+	READY
+}
@@ -0,0 +1,23 @@
+
+package com.sds.iot.sdk.protocol;
+
+/**
+ * 이 인터페이스 클래스는 서버와의 연결 상태 변경을 통지받기 위한 리스너입니다.
+ *
+ * 상태를 변경한 스레드(연결을 요청한 스레드, 재연결 스레드 등)에서 호출되므로, 오래 걸리는 작업을 수행하면 안 됩니다.
+ *
+ * @author SDS
+ */
+public interface IConnectionStateListener {
+
+	/**
+	 * 연결 상태가 변경되었을 때 호출됩니다.
+	 *
+	 * @param previous
+	 *        이전 상태
+	 * @param current
+	 *        현재 상태
+	 */
+	void onStateChanged(ConnectionState previous, ConnectionState current);
+
+}
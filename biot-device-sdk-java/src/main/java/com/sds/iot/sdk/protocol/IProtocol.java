@@ -1,6 +1,8 @@
 
 package com.sds.iot.sdk.protocol;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.sds.iot.sdk.IotClientConfig;
 import com.sds.iot.sdk.auth.IAuth;
 import com.sds.iot.sdk.message.IotMessage;
@@ -34,6 +36,22 @@ public interface IProtocol {
 	 */
 	void init(IotClientConfig cfg, MessageConverter converter, ITransportListener transport, IAuth auth);
 
+	/**
+	 * 같은 사물로 여러 개의 연결을 맺을 때(StripedProtocol) 이 연결의 순번을 설정합니다. init() 전에 한 번 호출됨.
+	 * 순번이 0 인 연결만 서버 메시지를 수신(구독)하고, 나머지 연결은 전송만 합니다.
+	 * 기본 구현은 순번 0 만 지원합니다.
+	 * 
+	 * @param stripe
+	 *        연결 순번 (0 부터)
+	 * @throws UnsupportedOperationException
+	 *         다중 연결을 지원하지 않는 프로토콜인 경우
+	 */
+	default void setStripe(int stripe) {
+		if (stripe != 0) {
+			throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support connection stripes");
+		}
+	}
+
 	/**
 	 * 서버로 연결
 	 */
@@ -55,6 +73,37 @@ public interface IProtocol {
 	 */
 	void send(IotMessage msg) throws Exception;
 
+	/**
+	 * 서버로 메시지 전송. 서버가 메시지를 받으면(예: MQTT PUBACK) 완료되는 CompletableFuture 를 리턴합니다.
+	 * 기본 구현은 send() 가 리턴되면 완료되며, 비동기 전송을 지원하는 프로토콜은 전송 완료를 기다리지 않고 바로 리턴합니다.
+	 * 
+	 * @param msg
+	 *        메시지
+	 * @return 전송 결과로 완료되는 CompletableFuture. 전송에 실패하면 예외로 완료됨
+	 */
+	default CompletableFuture<Void> sendAsync(IotMessage msg) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		try {
+			send(msg);
+			future.complete(null);
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * 전송 실패 원인이 일시적인 전송 한도 초과(예: MQTT in-flight 메시지 수 초과)인지 확인합니다.
+	 * true 인 경우 송신 스레드는 잠시 후 같은 메시지를 다시 전송합니다.
+	 * 
+	 * @param e
+	 *        send() 에서 발생한 예외
+	 * @return 잠시 후 다시 전송할 수 있으면 true
+	 */
+	default boolean isBackpressure(Throwable e) {
+		return false;
+	}
+
 	/**
 	 * 서버와 연결 여부. 단, 인증이 완료되지 않아도 connected 상태는 true 일 수 있음.
 	 * 
@@ -0,0 +1,203 @@
+
+package com.sds.iot.sdk.protocol;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 이 클래스는 수신 메시지 처리를 프로토콜 수신 스레드(예: Paho 콜백 스레드)에서 분리하여 작업 스레드에서 수행합니다.
+ *
+ * 메시지는 Leaf 사물명(없으면 Root 사물) 별로 같은 lane 에 배정되므로, 같은 사물의 메시지는 수신 순서대로 처리됩니다.
+ * 응답(A) 메시지는 별도의 응답 lane 에서 처리하므로, 사용자 리스너가 오래 걸리는 작업(펌웨어 업그레이드 등)을 하거나
+ * 리스너 안에서 syncCall() 로 응답을 기다리는 중에도 응답 콜백은 계속 처리됩니다.
+ *
+ * lane 의 큐가 가득 차면 수신 스레드가 대기하므로, 프로토콜 수준에서 수신 속도가 조절됩니다.
+ * 종료(shutdown) 이후 작업 스레드가 끝난 lane 에 들어온 메시지는 수신 스레드가 직접 처리하므로, 종료 중에 수신된 메시지도 유실되지 않습니다.
+ *
+ * @author SDS
+ */
+final class InboundDispatcher {
+	private static final Logger			LOGGER	= LoggerFactory.getLogger(InboundDispatcher.class);
+
+	/** lane 종료 표시 */
+	private static final IotMessage		STOP				= new IotMessage();
+
+	/** 큐 대기 중 작업 스레드 종료 여부를 확인하는 간격 */
+	private static final long			POLL_INTERVAL_MILLIS	= 100L;
+
+	private final Lane					responseLane;
+	private final Lane[]				messageLanes;
+	private final Consumer<IotMessage>	handler;
+	private final StageMetrics			metrics;
+
+	private volatile boolean			running				= true;
+
+	/**
+	 * @param threadCount
+	 *        N/Q 메시지 처리 스레드 수 (응답 처리 스레드 1개는 별도)
+	 * @param queueCapacity
+	 *        lane 별 큐 크기
+	 * @param handler
+	 *        메시지 처리
+	 * @param metrics
+	 *        처리 현황
+	 */
+	InboundDispatcher(int threadCount, int queueCapacity, Consumer<IotMessage> handler, StageMetrics metrics) {
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException("threadCount must be positive : " + threadCount);
+		}
+		this.handler = handler;
+		this.metrics = metrics;
+		this.responseLane = new Lane("biot-inboundDispatcher-res", queueCapacity);
+		this.messageLanes = new Lane[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			messageLanes[i] = new Lane("biot-inboundDispatcher-" + i, queueCapacity);
+		}
+		metrics.setQueueDepthSupplier(this::getQueueDepth);
+
+		responseLane.start();
+		for (Lane lane : messageLanes) {
+			lane.start();
+		}
+	}
+
+	/**
+	 * 메시지를 처리할 lane 에 넣습니다. 큐가 가득 찬 경우 자리가 생길 때까지 대기합니다.
+	 * lane 의 작업 스레드가 이미 종료된 경우에는 큐에 남은 메시지와 함께 호출 스레드에서 처리합니다.
+	 *
+	 * @param msg
+	 *        수신 메시지
+	 */
+	void dispatch(IotMessage msg) {
+		Lane lane = laneFor(msg);
+		try {
+			// 큐에 넣은 후 종료 여부를 확인하므로, 작업 스레드가 마지막으로 큐를 비운 뒤에 들어온 메시지도 처리됨
+			while (!lane.queue.offer(msg, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+				lane.drainIfExited();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			metrics.recordRejected();
+			LOGGER.warn("Interrupted while dispatching a message. msgId={}", msg.getMsgId());
+			return;
+		}
+		lane.drainIfExited();
+	}
+
+	private Lane laneFor(IotMessage msg) {
+		if ("A".equals(msg.getMsgType())) {
+			return responseLane;
+		}
+		if (messageLanes.length == 1) {
+			return messageLanes[0];
+		}
+		String key = msg.getEndNode();
+		int h = key == null ? 0 : key.hashCode();
+		h ^= (h >>> 16);
+		return messageLanes[(h & 0x7fffffff) % messageLanes.length];
+	}
+
+	private void process(IotMessage msg) {
+		long start = System.nanoTime();
+		try {
+			handler.accept(msg);
+		} catch (Throwable e) {
+			LOGGER.error("FAIL TO HANDLE RECEIVED MESSAGE. msgId={} : {}", msg.getMsgId(), e.toString(), e);
+		}
+		metrics.recordProcessed(System.nanoTime() - start);
+	}
+
+	int getQueueDepth() {
+		int depth = responseLane.queue.size();
+		for (Lane lane : messageLanes) {
+			depth += lane.queue.size();
+		}
+		return depth;
+	}
+
+	/**
+	 * 작업 스레드를 종료합니다. 이미 큐에 들어온 메시지는 처리한 후 종료되며, 종료를 기다리지는 않습니다.
+	 * (큐가 가득 차서 종료 표시를 넣지 못해도 작업 스레드는 큐가 빈 것을 확인하고 종료됨)
+	 */
+	void shutdown() {
+		running = false;
+		responseLane.stop();
+		for (Lane lane : messageLanes) {
+			lane.stop();
+		}
+	}
+
+	/**
+	 * 하나의 작업 스레드와 큐. 큐에 들어온 순서대로 처리한다.
+	 */
+	private final class Lane implements Runnable {
+		private final String					threadName;
+		private final BlockingQueue<IotMessage>	queue;
+
+		/** 작업 스레드 종료 여부. true 가 된 이후 큐에 들어온 메시지는 dispatch() 호출 스레드가 처리 */
+		private volatile boolean				exited	= false;
+
+		Lane(String threadName, int queueCapacity) {
+			this.threadName = threadName;
+			this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		}
+
+		void start() {
+			Thread t = new Thread(this, threadName);
+			t.setDaemon(true);
+			t.start();
+		}
+
+		void stop() {
+			// 대기 중인 작업 스레드를 깨우기 위한 표시. 큐가 가득 차 넣지 못한 경우에는 poll 간격 후 종료 여부를 확인
+			queue.offer(STOP);
+		}
+
+		void drainIfExited() {
+			if (exited) {
+				drain();
+			}
+		}
+
+		private void drain() {
+			IotMessage msg;
+			while ((msg = queue.poll()) != null) {
+				if (msg != STOP) {
+					process(msg);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			LOGGER.debug("start inbound dispatch thread!");
+			try {
+				while (true) {
+					IotMessage msg = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+					if (msg == null || msg == STOP) {
+						if (!running) {
+							break;
+						}
+						continue;
+					}
+					process(msg);
+				}
+			} catch (InterruptedException e) {
+				LOGGER.debug("interruped : {}", e.toString());
+				Thread.currentThread().interrupt();
+			} finally {
+				// 종료 표시를 먼저 한 후 남은 메시지를 처리. 이후에 들어온 메시지는 dispatch() 에서 처리됨
+				exited = true;
+				drain();
+			}
+			LOGGER.debug("stop inbound dispatch thread");
+		}
+	}
+}
@@ -1,11 +1,19 @@
 
 package com.sds.iot.sdk.protocol;
 
-import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,21 +42,62 @@ public final class IotTransport implements ITransportListener {
 	private IAuth									auth;
 	private IotClientConfig							cfg;
 
-	/** key:msgId, value:callback */
-	private final Map<String, IResponseCallback>	callbackRepo					= new ConcurrentHashMap<>();
+	/** key:msgId, value:응답 대기 정보 (콜백, 타임아웃) */
+	private final ResponseCallbackRepo<PendingResponse>	callbackRepo			= new ResponseCallbackRepo<>();
+
+	/** 연결이 끊긴 후 재연결을 시작하기 전 대기 시간 */
+	private static final long						RECONNECT_DELAY_MILLIS			= 1000L;
+
+	// 아래 상태값은 수신 스레드, 재연결 스레드, keep-alive 스레드 등에서 읽으므로 volatile
 
 	/** 서버에서 인증 성공 여부 */
-	private boolean									authorized						= false;
+	private volatile boolean						authorized						= false;
 
 	/** 마지막에 서버로부터 메시지를 받은 시각 */
-	private long									lastMessageReceived				= 0L;
+	private volatile long							lastMessageReceived				= 0L;
 
 	/** 이 값은 서버와의 연결이 한번 성공하면 true 가 되며, 명시적으로 disconnect() 를 수행하는 경우에만 false 가 된다. */
-	private boolean									autoConnectRetry				= false;
+	private volatile boolean						autoConnectRetry				= false;
+
+	/** 연결 상태 */
+	private final AtomicReference<ConnectionState>	state							= new AtomicReference<>(
+			ConnectionState.DISCONNECTED);
+	private final List<IConnectionStateListener>	stateListeners					= new CopyOnWriteArrayList<>();
+
+	/** 재연결 스레드 (연결이 끊겼을 때 생성) */
+	private ScheduledExecutorService				reconnectExecutor				= null;
+	private boolean									reconnectScheduled				= false;
 
-	private Runnable								responseCallbackCheckRunnable	= null;
 	private Runnable								keepAliveMessageSendRunable		= null;
 
+	/**
+	 * 응답 타임아웃 처리 스레드. timeoutAction 과 callAsync() 후속 작업이 wheel 스레드(다른 클라이언트의 타임아웃 처리)를
+	 * 지연시키지 않도록 클라이언트별로 분리하며, 유휴 상태가 지속되면 스레드는 종료된다.
+	 */
+	private final ThreadPoolExecutor				timeoutExecutor					= newTimeoutExecutor();
+
+	/** 수신 메시지 처리 스레드 (inboundDispatchThreads 설정이 0 이면 null) */
+	private volatile InboundDispatcher				inboundDispatcher				= null;
+	private final StageMetrics						inboundMetrics					= new StageMetrics("inbound");
+
+	/** 송신 스레드 (outboundQueueCapacity 설정이 0 이면 null) */
+	private volatile OutboundPublisher				outboundPublisher				= null;
+	private final StageMetrics						outboundMetrics					= new StageMetrics("outbound");
+
+	/** 송신 스레드 종료 시 큐에 남은 메시지 전송을 기다리는 최대 시간 */
+	private static final long						OUTBOUND_FLUSH_TIMEOUT_MILLIS	= 1000L;
+
+	/** in-flight 한도로 전송하지 못한 경우 다시 전송하기 전 대기 시간 (최소, 최대) */
+	private static final long						BACKPRESSURE_MIN_WAIT_NANOS		= TimeUnit.MICROSECONDS.toNanos(500);
+	private static final long						BACKPRESSURE_MAX_WAIT_NANOS		= TimeUnit.MILLISECONDS.toNanos(50);
+
+	/** 저널 메시지 재전송 실패(in-flight 한도 제외) 시 다시 전송하기 전 대기 시간 (시도마다 2배) 과 최대 시도 횟수 */
+	private static final long						REPLAY_RETRY_WAIT_MILLIS		= 500L;
+	private static final int						REPLAY_MAX_ATTEMPTS				= 5;
+
+	/** 송신 저널 (journalCfg.dir 설정이 없으면 null) */
+	private volatile OutboundJournal				journal							= null;
+
 	/**
 	 * @param protocol
 	 * @param converter
@@ -71,11 +120,31 @@ public final class IotTransport implements ITransportListener {
 	public void connect(IAuth auth, IotClientConfig cfg) {
 		this.auth = auth;
 		this.cfg = cfg;
+		this.callbackRepo.setMsgIdGenerator(cfg.getMsgIdGenerator());
 
 		tryToGetCredential(cfg.getRetryCfg(), auth);
 
 		this.autoConnectRetry = true;
 
+		if (cfg.getInboundDispatchThreads() > 0 && this.inboundDispatcher == null) {
+			this.inboundDispatcher = new InboundDispatcher(cfg.getInboundDispatchThreads(), cfg.getInboundQueueCapacity(),
+					this::handleMessage, inboundMetrics);
+		}
+
+		if (cfg.getOutboundQueueCapacity() > 0 && this.outboundPublisher == null) {
+			this.outboundPublisher = new OutboundPublisher(cfg.getOutboundQueueCapacity(), cfg.getOutboundOverflowPolicy(),
+					cfg.getOutboundLingerMillis(), cfg.getOutboundBatchSize(), msg -> publish(msg, true), outboundMetrics);
+		}
+
+		if (cfg.getJournalCfg().isEnabled() && this.journal == null) {
+			try {
+				this.journal = new OutboundJournal(cfg.getJournalCfg());
+			} catch (IOException e) {
+				LOGGER.error("FAIL TO OPEN OUTBOUND JOURNAL. messages will not be stored while disconnected : {}",
+						e.toString());
+			}
+		}
+
 		connectInternal();
 
 	}
@@ -112,6 +181,7 @@ public final class IotTransport implements ITransportListener {
 			return;
 		}
 		LOGGER.info("TRY TO CONNECT... <{}>", cfg.toStringShort());
+		changeState(ConnectionState.CONNECTING);
 
 		protocol.init(cfg, converter, this, auth);
 
@@ -145,18 +215,13 @@ public final class IotTransport implements ITransportListener {
 	}
 
 	/**
-	 * 응답 콜백 타임아웃 체크 스레드 생성하고 시작.
-	 * 한번 생성된 스레드는 명시적으로 disconnect() 를 호출하거나, 인터럽트 발생 전까지는 종료되지 않는다.
+	 * 응답 콜백 타임아웃은 공유 {@link ResponseTimeoutWheel} 에서 처리하므로 별도 스레드를 시작하지 않습니다.
+	 *
+	 * @deprecated 호출할 필요 없음 (아무 동작도 하지 않음)
 	 */
+	@Deprecated
 	public void startResponseCallbackTimeoutCheckThread() {
-		if (this.responseCallbackCheckRunnable != null) {
-			LOGGER.debug("Response callback timeout check thread is already started.");
-			return;
-		}
-		// 체크 주기는 최소 200ms. ~ 최대 2000ms. 사이 값 권장  
-		this.responseCallbackCheckRunnable = new ResponseCallbackCheckRunnable(this, callbackRepo, 500L);
-		Thread t = new Thread(responseCallbackCheckRunnable, "biot-resCallbackTimeoutChecker");
-		t.start();
+		LOGGER.debug("Response callback timeouts are handled by the shared timeout wheel.");
 	}
 
 	/**
@@ -180,22 +245,72 @@ public final class IotTransport implements ITransportListener {
 	/**
 	 * 서버와의 연결 해제.
 	 * 자동 연결 재시도 기능이 off 되며,
-	 * response callback check 스레드와 keep alive message send 스레드가 종료된다.
+	 * keep alive message send 스레드가 종료되고, 응답을 기다리던 요청은 모두 timeoutAction 을 수행한다.
 	 */
 	public void disconnect() {
-		this.responseCallbackCheckRunnable = null;
 		this.keepAliveMessageSendRunable = null;
 		this.autoConnectRetry = false;
-		// 참고: autoConnectRetry 값이 false 인 경우, response callback check 스레드와 keep alive message send 스레드가 종료됨.
+		// 참고: autoConnectRetry 값이 false 인 경우, keep alive message send 스레드가 종료됨.
 
 		LOGGER.info("DISCONNECT!");
 
+		// 연결을 끊기 전에 송신 큐에 남은 메시지 전송
+		OutboundPublisher publisher = this.outboundPublisher;
+		if (publisher != null) {
+			this.outboundPublisher = null;
+			publisher.shutdown(OUTBOUND_FLUSH_TIMEOUT_MILLIS);
+		}
+
+		synchronized (this) {
+			if (reconnectExecutor != null) {
+				reconnectExecutor.shutdownNow();
+				reconnectExecutor = null;
+				reconnectScheduled = false;
+			}
+		}
+
 		try {
 			protocol.disconnect();
 		} catch (Exception e) {
 			LOGGER.debug("EXCEPTION WHILE DISCONNECTING : {}", e.toString());
 		}
 
+		InboundDispatcher dispatcher = this.inboundDispatcher;
+		if (dispatcher != null) {
+			this.inboundDispatcher = null;
+			dispatcher.shutdown();
+		}
+
+		OutboundJournal journal = this.journal;
+		if (journal != null) {
+			this.journal = null;
+			journal.close();
+		}
+
+		this.authorized = false;
+		changeState(ConnectionState.DISCONNECTED);
+
+		clearPendingResponses();
+	}
+
+	/**
+	 * 응답을 받지 못한 요청 정보가 남아 있는데, 명시적으로 연결을 끊은 경우의 처리를 수행합니다.
+	 */
+	private void clearPendingResponses() {
+		callbackRepo.forEach((msgId, pending) -> {
+			if (!pending.cancel()) {
+				return; // 그 사이에 응답을 받았거나 타임아웃 처리된 경우
+			}
+			callbackRepo.remove(msgId, pending);
+
+			IResponseCallback callback = pending.callback;
+			IotTransportSupport.printRecvFailLog(msgId,
+					"No more wait response. " + (callback.getTimeout() / 1000) + " sec.");
+			LOGGER.warn("No more wait response. [{}] : created={}, timeout={}, type={}", msgId,
+					IotTransportSupport.formatDefaultLocale("HH:mm:ss", callback.getCreateTime()), callback.getTimeout(),
+					callback.getClass().getSimpleName());
+			runTimeoutAction(msgId, callback);
+		});
 	}
 
 	/* ======================================================================================= */
@@ -248,15 +363,89 @@ public final class IotTransport implements ITransportListener {
 		return this.autoConnectRetry;
 	}
 
+	/**
+	 * @return 현재 연결 상태
+	 */
+	public ConnectionState getConnectionState() {
+		return this.state.get();
+	}
+
+	/**
+	 * 연결 상태 변경 리스너를 등록합니다.
+	 * 
+	 * @param listener
+	 *        연결 상태 변경 리스너
+	 */
+	public void addConnectionStateListener(IConnectionStateListener listener) {
+		this.stateListeners.add(listener);
+	}
+
+	/**
+	 * 연결 상태 변경 리스너를 삭제합니다.
+	 * 
+	 * @param listener
+	 *        연결 상태 변경 리스너
+	 */
+	public void removeConnectionStateListener(IConnectionStateListener listener) {
+		this.stateListeners.remove(listener);
+	}
+
+	private void changeState(ConnectionState newState) {
+		ConnectionState oldState = this.state.getAndSet(newState);
+		if (oldState == newState) {
+			return;
+		}
+		LOGGER.debug("CONNECTION STATE CHANGED : {} -> {} <{}>", oldState, newState,
+				cfg == null ? "" : cfg.toStringShort());
+		for (IConnectionStateListener listener : stateListeners) {
+			try {
+				listener.onStateChanged(oldState, newState);
+			} catch (Exception e) {
+				LOGGER.error("EXCEPTION OCCURRED 'onStateChanged' : {}", e.toString(), e);
+			}
+		}
+	}
+
+	/**
+	 * @return 수신 메시지 처리 현황 (큐 대기 메시지 수, 처리 시간 등)
+	 */
+	public StageMetrics getInboundMetrics() {
+		return this.inboundMetrics;
+	}
+
+	/**
+	 * @return 송신 처리 현황 (큐 대기 메시지 수, 큐 대기 시간을 포함한 전송 시간 등)
+	 */
+	public StageMetrics getOutboundMetrics() {
+		return this.outboundMetrics;
+	}
+
+	/**
+	 * @return 송신 저널에 저장되어 재전송을 기다리는 메시지 수 (송신 저널을 사용하지 않으면 0)
+	 */
+	public long getJournalPendingCount() {
+		OutboundJournal journal = this.journal;
+		return journal == null ? 0L : journal.getPendingCount();
+	}
+
+	OutboundJournal getJournal() {
+		return this.journal;
+	}
+
 	/* ======================================================================================= */
 
 	/**
 	 * 메시지를 서버로 전송합니다.
 	 * 단, 요청(Q) 타입의 메시지는 전송할 수 없습니다.
 	 * 
+	 * 송신 큐를 사용하는 경우(outboundQueueCapacity > 0), 메시지를 큐에 넣고 바로 리턴하며 송신 스레드에서 전송합니다.
+	 * 
+	 * 송신 저널을 사용하는 경우, 연결이 끊겼거나 전송에 실패한 메시지는 저널에 저장되고
+	 * 디바이스 인증이 끝난 후 저장된 순서대로 재전송됩니다. 이 경우에도 true 를 리턴합니다.
+	 * 
 	 * @param msg
 	 *        메시지
-	 * @return 메시지 전송 여부 (true/false)
+	 * @return 메시지 전송 (또는 송신 저널 저장) 여부 (true/false)
 	 */
 	public boolean send(IotMessage msg) {
 		if ("Q".equals(msg.getMsgType())) {
@@ -266,19 +455,187 @@ public final class IotTransport implements ITransportListener {
 		msg.setDefault(cfg);
 		msg.setAuthToken(auth.getAuthToken());
 
+		OutboundJournal journal = this.journal;
+		if (journal != null) {
+			// 재전송할 메시지가 남아 있으면 순서 유지를 위해 저널 뒤에 저장
+			if (state.get() != ConnectionState.READY || !isConnected()) {
+				return storeToJournal(journal, msg, "NOT CONNECTED");
+			}
+			OutboundJournal.AppendResult result = journal.appendIfBacklogged(msg);
+			if (result != OutboundJournal.AppendResult.NOT_BACKLOGGED) {
+				return onStoredToJournal(result == OutboundJournal.AppendResult.STORED, msg, "REPLAY PENDING");
+			}
+		}
+
 		if (!isConnected()) {
 			IotTransportSupport.printSendFailLog(msg, "NOT CONNECTED", null);
 			return false;
 		}
 
-		try {
-			IotTransportSupport.printSendLog(msg);
-			protocol.send(msg);
-			return true;
-		} catch (Exception e) {
-			IotTransportSupport.printSendFailLog(msg, "FAIL TO SEND : " + e.toString(), e);
+		OutboundPublisher publisher = this.outboundPublisher;
+		if (publisher != null) {
+			return publisher.enqueue(msg);
+		}
+		return publish(msg, false);
+	}
+
+	/**
+	 * 메시지를 프로토콜로 전송합니다. 전송에 실패하면 송신 저널에 저장하거나 실패 로그를 남깁니다.
+	 * 
+	 * @param waitOnBackpressure
+	 *        in-flight 한도로 전송하지 못한 경우 연결이 유지되는 동안 잠시 후 다시 전송할지 여부 (송신 스레드에서만 true)
+	 */
+	private boolean publish(IotMessage msg, boolean waitOnBackpressure) {
+		// 전송 중 인코딩(암호화/압축)으로 메시지가 바뀌므로, 다시 전송하거나 저널에 저장할 때를 위해 원래 값을 보관
+		byte[] data = msg.getData();
+		String encType = msg.getEncType();
+		long waitNanos = BACKPRESSURE_MIN_WAIT_NANOS;
+
+		IotTransportSupport.printSendLog(msg);
+		while (true) {
+			try {
+				protocol.send(msg);
+				return true;
+			} catch (Exception e) {
+				msg.setData(data);
+				msg.setEncType(encType);
+
+				if (waitOnBackpressure && protocol.isBackpressure(e) && autoConnectRetry && isConnected()) {
+					LOGGER.trace("wait for in-flight messages : {}", e.toString());
+					LockSupport.parkNanos(waitNanos);
+					waitNanos = Math.min(waitNanos * 2, BACKPRESSURE_MAX_WAIT_NANOS);
+					continue;
+				}
+				OutboundJournal journal = this.journal;
+				if (journal != null) {
+					LOGGER.warn("FAIL TO SEND : {}", e.toString());
+					return storeToJournal(journal, msg, "FAIL TO SEND");
+				}
+				IotTransportSupport.printSendFailLog(msg, "FAIL TO SEND : " + e.toString(), e);
+				return false;
+			}
+		}
+	}
+
+	private boolean storeToJournal(OutboundJournal journal, IotMessage msg, String reason) {
+		return onStoredToJournal(journal.append(msg), msg, reason);
+	}
+
+	/**
+	 * 저널 저장 결과를 기록합니다. 연결된 상태에서 저장한 경우(전송 실패, 재전송 대기) 재전송 중이 아니면 재전송을 시작하여,
+	 * 다음 재연결까지 저널에 남지 않도록 합니다.
+	 */
+	private boolean onStoredToJournal(boolean stored, IotMessage msg, String reason) {
+		if (!stored) {
+			IotTransportSupport.printSendFailLog(msg, reason + " (FAIL TO STORE IN JOURNAL)", null);
 			return false;
 		}
+		IotTransportSupport.printStoreLog(msg, reason);
+		if (autoConnectRetry && state.get() == ConnectionState.READY && isConnected()) {
+			startJournalReplay();
+		}
+		return true;
+	}
+
+	/**
+	 * 송신 저널에 저장된 메시지를 별도 스레드에서 저장된 순서대로 재전송합니다.
+	 * (디바이스 인증 완료 시, 연결된 상태에서 저널에 저장한 경우 호출. 이미 재전송 중이면 아무것도 하지 않음)
+	 * 재전송 중에 연결이 끊기면 중단하고, 다음 인증 완료 시 이어서 재전송합니다.
+	 */
+	private void startJournalReplay() {
+		OutboundJournal journal = this.journal;
+		if (journal == null || !journal.startReplay()) {
+			return;
+		}
+		Thread t = new Thread(() -> replayJournal(journal), "biot-journalReplay");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	private void replayJournal(OutboundJournal journal) {
+		int replayRate = cfg.getJournalCfg().getReplayRate();
+		long intervalNanos = replayRate > 0 ? TimeUnit.SECONDS.toNanos(1) / replayRate : 0L;
+		long nextSendTime = System.nanoTime();
+		long droppedBefore = journal.getDroppedCount();
+		int replayed = 0;
+
+		LOGGER.info("REPLAY OUTBOUND JOURNAL... (pending={}, rate={}/sec) <{}>", journal.getPendingCount(), replayRate,
+				cfg.toStringShort());
+		while (true) {
+			if (!autoConnectRetry || state.get() != ConnectionState.READY || !isConnected()) {
+				journal.stopReplay();
+				LOGGER.info("STOP REPLAYING OUTBOUND JOURNAL (NOT CONNECTED). replayed={}, pending={}", replayed,
+						journal.getPendingCount());
+				return;
+			}
+			IotMessage msg = journal.nextForReplay();
+			if (msg == null) {
+				break;
+			}
+
+			if (intervalNanos > 0) {
+				long waitNanos = nextSendTime - System.nanoTime();
+				if (waitNanos > 0) {
+					LockSupport.parkNanos(waitNanos);
+				}
+				nextSendTime = Math.max(nextSendTime, System.nanoTime() - intervalNanos) + intervalNanos;
+			}
+
+			// 인증 토큰은 재연결 시 바뀜
+			msg.setAuthToken(auth.getAuthToken());
+			if (!replayMessage(msg)) {
+				journal.stopReplay();
+				LOGGER.info("STOP REPLAYING OUTBOUND JOURNAL (NOT CONNECTED). replayed={}, pending={}", replayed,
+						journal.getPendingCount());
+				return;
+			}
+			journal.commit();
+			replayed++;
+		}
+		LOGGER.info("OUTBOUND JOURNAL REPLAYED. replayed={}, dropped={} <{}>", replayed,
+				journal.getDroppedCount() - droppedBefore, cfg.toStringShort());
+	}
+
+	/**
+	 * 저널 메시지 하나를 재전송합니다. in-flight 한도로 전송하지 못하면 잠시 후 같은 메시지를 다시 전송하고,
+	 * 그 외의 오류는 연결이 유지되는 동안 대기 시간을 늘려가며 REPLAY_MAX_ATTEMPTS 번까지 다시 전송합니다.
+	 * 
+	 * @return 전송했거나 재전송을 포기하여 버린 경우 true, 연결이 끊겨 재전송을 중단해야 하는 경우 false
+	 */
+	private boolean replayMessage(IotMessage msg) {
+		byte[] data = msg.getData();
+		String encType = msg.getEncType();
+		long waitNanos = BACKPRESSURE_MIN_WAIT_NANOS;
+		int attempts = 0;
+
+		IotTransportSupport.printSendLog(msg);
+		while (true) {
+			try {
+				protocol.send(msg);
+				return true;
+			} catch (Exception e) {
+				msg.setData(data);
+				msg.setEncType(encType);
+
+				if (!autoConnectRetry || state.get() != ConnectionState.READY || !isConnected()) {
+					LOGGER.warn("FAIL TO REPLAY : {}", e.toString());
+					return false;
+				}
+				if (protocol.isBackpressure(e)) {
+					LOGGER.trace("wait for in-flight messages : {}", e.toString());
+					LockSupport.parkNanos(waitNanos);
+					waitNanos = Math.min(waitNanos * 2, BACKPRESSURE_MAX_WAIT_NANOS);
+					continue;
+				}
+				if (++attempts >= REPLAY_MAX_ATTEMPTS) {
+					IotTransportSupport.printSendFailLog(msg, "FAIL TO REPLAY (DROPPED) : " + e.toString(), e);
+					return true;
+				}
+				long retryMillis = REPLAY_RETRY_WAIT_MILLIS << (attempts - 1);
+				LOGGER.warn("FAIL TO REPLAY. retry after {} ms : {}", retryMillis, e.toString());
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryMillis));
+			}
+		}
 	}
 
 	/**
@@ -293,6 +650,27 @@ public final class IotTransport implements ITransportListener {
 	 * @return 작업 호출 여부 (응답 이후, true/false)
 	 */
 	public boolean call(IotMessage msg, IResponseCallback responseCallback) {
+		if (!registerCall(msg, responseCallback)) {
+			return false;
+		}
+
+		try {
+			IotTransportSupport.printSendLog(msg);
+			protocol.send(msg);
+			return true;
+		} catch (Exception e) {
+			IotTransportSupport.printSendFailLog(msg, "FAIL TO CALL : " + e.toString(), e);
+			return false;
+		}
+
+	}
+
+	/**
+	 * 요청 메시지의 헤더를 설정하고, 응답 대기 정보를 저장합니다.
+	 * 
+	 * @return 연결되지 않은 경우 false
+	 */
+	private boolean registerCall(IotMessage msg, IResponseCallback responseCallback) {
 		msg.setMsgType("Q");
 		msg.setDefault(cfg);
 		msg.setAuthToken(auth.getAuthToken());
@@ -302,30 +680,71 @@ public final class IotTransport implements ITransportListener {
 			return false;
 		}
 
-		if (callbackRepo.containsKey(msg.getMsgId())) {
+		PendingResponse pending = new PendingResponse(this, msg.getMsgId(), responseCallback);
+		PendingResponse previous = callbackRepo.put(msg.getMsgId(), pending);
+		if (previous != null) {
+			previous.cancel();
 			LOGGER.warn("store callback. (overwrite previous callback. msgId={})", msg.getMsgId());
 		}
-		if (callbackRepo.size() >= 10 && LOGGER.isDebugEnabled()) {
+		if (LOGGER.isDebugEnabled() && callbackRepo.size() >= 10) {
 			LOGGER.debug("store callbak. (waiting callbacks={})", callbackRepo.size());
 		}
 
-		callbackRepo.put(msg.getMsgId(), responseCallback);
+		ResponseTimeoutWheel.getInstance().schedule(pending,
+				responseCallback.getCreateTime() + responseCallback.getTimeout() - System.currentTimeMillis(), timeoutExecutor);
+		return true;
+	}
 
-		try {
-			IotTransportSupport.printSendLog(msg);
-			protocol.send(msg);
-			return true;
-		} catch (Exception e) {
-			IotTransportSupport.printSendFailLog(msg, "FAIL TO CALL : " + e.toString(), e);
-			return false;
+	/**
+	 * 요청 메시지를 전송하고, 응답 메시지를 받으면 완료되는 CompletableFuture 를 리턴합니다.
+	 * 호출 스레드는 blocking 되지 않으므로 적은 수의 스레드로도 많은 요청을 동시에 처리할 수 있습니다.
+	 * 
+	 * 응답 타임아웃 시 {@link TimeoutException} 으로, 전송 실패 시 {@link IotException} 으로 예외 완료됩니다.
+	 * 단, 후속 작업(thenApply 등)은 메시지 수신 스레드에서 실행될 수 있으므로 오래 걸리는 작업은 thenApplyAsync 등을 사용해야 합니다.
+	 * 
+	 * @param msg
+	 *        메시지
+	 * @param timeoutMillis
+	 *        응답 타임아웃 (밀리초)
+	 * @return 응답 메시지로 완료되는 CompletableFuture
+	 */
+	public CompletableFuture<IotMessage> callAsync(IotMessage msg, long timeoutMillis) {
+		FutureCallback cb = new FutureCallback();
+		cb.setTimeout(timeoutMillis);
+
+		if (!registerCall(msg, cb)) {
+			cb.future.completeExceptionally(
+					new IotException("503", "Fail to send request message. msgId=" + msg.getMsgId()));
+			return cb.future;
 		}
 
+		// 비동기 전송을 지원하는 프로토콜은 전송 완료를 기다리지 않음. 전송에 실패하면 응답 타임아웃을 기다리지 않고 바로 예외 완료
+		IotTransportSupport.printSendLog(msg);
+		protocol.sendAsync(msg).whenComplete((v, e) -> {
+			if (e != null) {
+				IotTransportSupport.printSendFailLog(msg, "FAIL TO CALL : " + e.toString(), e);
+				discardPendingResponse(msg.getMsgId(), cb);
+				cb.future.completeExceptionally(
+						new IotException("503", "Fail to send request message. msgId=" + msg.getMsgId(), e));
+			}
+		});
+		return cb.future;
+	}
+
+	/**
+	 * 전송하지 못한 요청의 응답 대기 정보를 삭제합니다.
+	 */
+	private void discardPendingResponse(String msgId, IResponseCallback callback) {
+		PendingResponse pending = callbackRepo.get(msgId);
+		if (pending != null && pending.callback == callback && pending.cancel()) {
+			callbackRepo.remove(msgId, pending);
+		}
 	}
 
 	/**
 	 * 송신한 요청 메시지에 대한 응답 메시지를 수신하여 리턴 값으로 받고자 할 때 사용합니다.
 	 * 서버에서 응답을 늦게 줄 수 있거나, 성능에 유의해야 하는 경우,
-	 * syncCall() 이 아닌 call() 메서드의 사용을 권장합니다.
+	 * syncCall() 이 아닌 callAsync() 또는 call() 메서드의 사용을 권장합니다.
 	 * 
 	 * @param msg
 	 *        메시지
@@ -334,60 +753,92 @@ public final class IotTransport implements ITransportListener {
 	 * @return return null if response timed out.
 	 */
 	public IotMessage syncCall(IotMessage msg, int timeoutSeconds) {
-		msg.setMsgType("Q");
-		msg.setDefault(cfg);
-		msg.setAuthToken(auth.getAuthToken());
-
-		if (!isConnected()) {
-			IotTransportSupport.printSendFailLog(msg, "NOT CONNECTED", null);
-			return null;
-		}
-
-		BlockingQueue<IotMessage> queue = new ArrayBlockingQueue<>(1);
-		SyncCallback cb = new SyncCallback(queue);
-		long timeoutMillis = timeoutSeconds * 1000L;
-		cb.setTimeout(timeoutMillis);
-
-		// 송신
-		boolean result = call(msg, cb);
-		if (!result) {
-			return null;
-		}
+		CompletableFuture<IotMessage> future = callAsync(msg, timeoutSeconds * 1000L);
 
 		// 수신대기
-		IotMessage resMsg = null;
 		try {
-			resMsg = (IotMessage) queue.poll(timeoutSeconds, TimeUnit.SECONDS);
+			return future.get(timeoutSeconds, TimeUnit.SECONDS);
 		} catch (InterruptedException e) {
 			LOGGER.warn("InterruptedException : {}", e.toString());
+		} catch (ExecutionException | TimeoutException e) {
+			// 전송 실패 또는 지정한 시간 내에 응답을 받지 못한, 응답 타임아웃 케이스
+			LOGGER.trace("syncCall failed : {}", e.toString());
 		}
-
-		// resMsg == null 인 경우, 지정한 시간 내에 응답을 받지 못한, 응답 타임아웃 케이스
-		return resMsg;
+		return null;
 	}
 
 	/**
-	 * 이 클래스는 동기화 통신 시 콜백에 대해 정의합니다.
+	 * 이 클래스는 응답 메시지로 CompletableFuture 를 완료하는 콜백입니다.
 	 * 
 	 * @author SDS
 	 */
-	static class SyncCallback extends AbstractCallback {
-		private final BlockingQueue<IotMessage> queue;
+	static final class FutureCallback extends AbstractCallback {
+		private final CompletableFuture<IotMessage> future = new CompletableFuture<>();
 
-		public SyncCallback(BlockingQueue<IotMessage> queue) {
-			this.queue = queue;
+		@Override
+		public void action(IotMessage resMsg) {
+			future.complete(resMsg);
 		}
 
 		@Override
-		public void action(IotMessage resMomMessage) throws Exception {
-			LOGGER.trace("SyncCallback action");
-			queue.put(resMomMessage);
+		public void timeoutAction() {
+			// ResponseTimeoutWheel 에서 타임아웃 시 또는 disconnect() 시 호출됨
+			future.completeExceptionally(new TimeoutException("Response timed out. (" + getTimeout() + " ms)"));
+		}
+	}
+
+	/**
+	 * 응답을 기다리는 요청 정보.
+	 * 응답을 받으면 취소되고, 응답을 받지 못한 채 타임아웃이 지나면 {@link ResponseTimeoutWheel} 에서 만료 처리된다.
+	 */
+	static final class PendingResponse extends ResponseTimeoutWheel.Timeout {
+		private final IotTransport		transport;
+		private final String			msgId;
+		private final IResponseCallback	callback;
+
+		PendingResponse(IotTransport transport, String msgId, IResponseCallback callback) {
+			this.transport = transport;
+			this.msgId = msgId;
+			this.callback = callback;
 		}
 
 		@Override
-		public void timeoutAction() {
-			// CorrelationInfoRepo 에서 checkTimeout() 타임아웃 시 호출됨
-			LOGGER.trace("SyncCallback timeoutAction");
+		void expire() {
+			transport.onResponseTimeout(this);
+		}
+	}
+
+	/**
+	 * 지정된 타임아웃 이내에 응답을 받지 못한 요청 정보를 삭제하고, timeoutAction 을 수행합니다.
+	 */
+	private void onResponseTimeout(PendingResponse pending) {
+		// 만료 처리 여부는 cancel() 과의 경쟁으로 이미 결정됨. (같은 msgId 로 다시 등록된 요청은 삭제하지 않음)
+		callbackRepo.remove(pending.msgId, pending);
+
+		IResponseCallback callback = pending.callback;
+		IotTransportSupport.printRecvFailLog(pending.msgId,
+				"Response timed out. " + (callback.getTimeout() / 1000) + " sec.");
+		LOGGER.warn("Response timed out. [{}] : created={}, timeout={}, type={}", pending.msgId,
+				IotTransportSupport.formatDefaultLocale("HH:mm:ss", callback.getCreateTime()), callback.getTimeout(),
+				callback.getClass().getSimpleName());
+		runTimeoutAction(pending.msgId, callback);
+	}
+
+	private static ThreadPoolExecutor newTimeoutExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			Thread t = new Thread(r, "biot-responseTimeout");
+			t.setDaemon(true);
+			return t;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static void runTimeoutAction(String msgId, IResponseCallback callback) {
+		try {
+			callback.timeoutAction();
+		} catch (Throwable e) {
+			LOGGER.error("callback timeout action error. [" + msgId + "] ", e);
 		}
 	}
 
@@ -398,18 +849,40 @@ public final class IotTransport implements ITransportListener {
 
 		this.lastMessageReceived = System.currentTimeMillis();
 
+		InboundDispatcher dispatcher = this.inboundDispatcher;
+		if (dispatcher != null) {
+			dispatcher.dispatch(msg);
+			return;
+		}
+
+		long start = System.nanoTime();
+		try {
+			handleMessage(msg);
+		} finally {
+			inboundMetrics.recordProcessed(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * 수신 메시지 처리. (응답 콜백 또는 사용자 리스너 호출)
+	 * inboundDispatchThreads 설정에 따라 수신 스레드 또는 수신 메시지 처리 스레드에서 호출된다.
+	 */
+	private void handleMessage(IotMessage msg) {
+
 		IotTransportSupport.printRecvLog(msg);
 
 		// A 타입 메시지 수신
 		if ("A".equals(msg.getMsgType())) {
-			IResponseCallback cb = callbackRepo.remove(msg.getMsgId());
-			if (cb == null) {
+			PendingResponse pending = callbackRepo.remove(msg.getMsgId());
+			if (pending == null || !pending.cancel()) {
 				LOGGER.warn("Answer type message received. but no callback action found. It can be timed out and removed.");
 				// return;
 				throw new IllegalStateException("Cannot found a callback object for msgId=" + msg.getMsgId() + " ("
 						+ IotTransportSupport.formatDefaultLocale("yyyy-MM-dd HH:mm:ss", msg.getMsgDate()) + ")");
 			}
 
+			IResponseCallback cb = pending.callback;
+
 			// 콜백이 수행되기 전까지 소요된 시간 출력
 			IotTransportSupport.printElapsed(cb, msg.getMsgId());
 
@@ -450,27 +923,81 @@ public final class IotTransport implements ITransportListener {
 
 	@Override
 	public void onMessageSent(Throwable e) {
-		LOGGER.trace("onMessageSent");
+		if (e == null) {
+			LOGGER.trace("onMessageSent");
+		} else {
+			LOGGER.debug("onMessageSent (failed) : {}", e.toString());
+		}
 
 	}
 
+	/**
+	 * 연결이 끊긴 경우 재연결 스레드에서 재연결을 수행하도록 예약하고 바로 리턴합니다.
+	 * (프로토콜의 콜백 스레드에서 재연결, 인증 응답 대기 등을 하지 않음)
+	 */
 	@Override
 	public void onConnectionLost(String cause) {
 		LOGGER.info("onConnectionLost : {}", cause);
 
 		this.authorized = false;
-		
-		try {
-			Thread.sleep(1000);
-		} catch (InterruptedException e1) {
-			LOGGER.trace("{}", e1.getMessage());
+		changeState(ConnectionState.DISCONNECTED);
+
+		scheduleReconnect(RECONNECT_DELAY_MILLIS);
+	}
+
+	private synchronized void scheduleReconnect(long delayMillis) {
+		if (!autoConnectRetry || reconnectScheduled) {
+			return;
+		}
+		if (reconnectExecutor == null) {
+			reconnectExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "biot-reconnector");
+				t.setDaemon(true);
+				return t;
+			});
 		}
+		reconnectScheduled = true;
+		reconnectExecutor.schedule(this::reconnect, delayMillis, TimeUnit.MILLISECONDS);
+	}
 
-		// RECONNECT
-		// 단, 중간에 연결이 끊기고 reconnect 시에는 프로토콜에 따라 별도 스레드에서 동작할 수 있음.
-		connectInternal();
-		// IoT Core 재기동 될 수 있기 때문에 인증도 다시 받는 구조로 수정.
-		processDeviceAuth();
+	/**
+	 * 재연결 스레드에서 서버 연결과 디바이스 인증을 수행합니다.
+	 * 재시도 후에도 실패하면, 클라이언트 오류가 아닌 경우 최대 재시도 간격 이후 다시 시도합니다.
+	 */
+	private void reconnect() {
+		synchronized (this) {
+			reconnectScheduled = false;
+		}
+		if (!autoConnectRetry || (isAuthorized() && state.get() == ConnectionState.READY)) {
+			return;
+		}
+
+		try {
+			// RECONNECT
+			connectInternal();
+			// IoT Core 재기동 될 수 있기 때문에 인증도 다시 받는 구조로 수정.
+			processDeviceAuth();
+
+		} catch (Exception e) {
+			if (!autoConnectRetry) {
+				return;
+			}
+			LOGGER.error("FAIL TO RECONNECT <{}> : {}", cfg.toStringShort(), e.toString());
+
+			this.authorized = false;
+			changeState(ConnectionState.DISCONNECTED);
+			try {
+				protocol.disconnect();
+			} catch (Exception e1) {
+				LOGGER.debug("EXCEPTION WHILE DISCONNECTING : {}", e1.toString());
+			}
+
+			if (e instanceof IotException && ((IotException) e).isClientError()) {
+				LOGGER.error("STOP RECONNECTING (CLIENT PROBLEM) <{}>", cfg.toStringShort());
+				return;
+			}
+			scheduleReconnect(cfg.getRetryCfg().getConnectRetryMaxDelay());
+		}
 	}
 
 	/**
@@ -480,6 +1007,7 @@ public final class IotTransport implements ITransportListener {
 		// IoTCoreClient에 있었던 함수를 여기로 이동했음.
 		// 메시지 전송이 필요한 디바이이스 인증 프로세스
 		LOGGER.info("AUTHORIZATION... <{}> [{}]", cfg.toStringShort(), auth.getAuthTypeName());
+		changeState(ConnectionState.AUTHENTICATING);
 		int seq;
 		for (seq = 1; seq <= 2; seq++) {
 			IotMessage msg = auth.makeDeviceAuthMessage(seq);
@@ -514,5 +1042,8 @@ public final class IotTransport implements ITransportListener {
 
 			setAuthorized(true);
 		}
+		changeState(ConnectionState.READY);
+
+		startJournalReplay();
 	}
 }
@@ -36,7 +36,7 @@ public class IotTransportSupport {
 	}
 
 	private static int getDataLength(IotMessage msg) {
-		return msg.getData() == null ? 0 : msg.getData().length;
+		return msg.getDataLength();
 	}
 
     /**
@@ -73,6 +73,18 @@ public class IotTransportSupport {
 		}
 	}
 
+	/**
+	 * 전송하지 못한 메시지를 송신 저널에 저장한 경우 로깅
+	 * @param msg
+	 *        메시지
+	 * @param reason
+	 *        저장 사유
+	 */
+	static void printStoreLog(IotMessage msg, String reason) {
+		LOGGER.info("<= STORE {}: msgId={}, msgType={}, msgCode={}{}, dataLength={} : {}", getEndNode(msg), msg.getMsgId(),
+				msg.getMsgType(), msg.getMsgCode(), getResCode(msg), getDataLength(msg), reason);
+	}
+
 	/**
 	 * 서버 응답 로깅
 	 * @param msg
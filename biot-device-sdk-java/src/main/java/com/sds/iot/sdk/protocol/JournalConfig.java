@@ -0,0 +1,156 @@
+
+package com.sds.iot.sdk.protocol;
+
+/**
+ * 이 클래스는 송신 저널(연결이 끊긴 동안 송신 메시지를 디스크에 저장하고, 재연결 후 재전송)의 설정값을 제공합니다.
+ * dir 이 설정되지 않으면 송신 저널을 사용하지 않습니다.
+ * 저널 파일에는 암호화 전의 메시지 데이터가 평문으로 저장되므로, dir 은 디바이스 프로세스만 접근할 수 있는 디렉토리로 설정해야 합니다.
+ *
+ * @author SDS
+ *
+ */
+public class JournalConfig {
+
+	/** 저장할 때마다 디스크에 기록하지 않음 (OS 에 맡김) */
+	public static final String	FSYNC_NONE		= "NONE";
+	/** 세그먼트 파일을 다 채우거나 닫을 때 디스크에 기록 */
+	public static final String	FSYNC_SEGMENT	= "SEGMENT";
+	/** 메시지를 저장할 때마다 디스크에 기록 */
+	public static final String	FSYNC_ALWAYS	= "ALWAYS";
+
+	/* OUTBOUND JOURNAL ============================================================= */
+
+	private String				dir				= null;
+	private int					segmentBytes	= 8 * 1024 * 1024;
+	private long				maxBytes		= 256L * 1024 * 1024;
+	private long				maxAgeSeconds	= 7L * 24 * 60 * 60;
+	private String				fsyncPolicy		= FSYNC_SEGMENT;
+	private int					replayRate		= 200;
+
+	/**
+	 * @return 저널 사용 여부
+	 */
+	public boolean isEnabled() {
+		return dir != null && !dir.isEmpty();
+	}
+
+	/**
+	 * @return 세그먼트 파일 저장 디렉토리
+	 */
+	public String getDir() {
+		return dir;
+	}
+
+	/**
+	 * default is null. (송신 저널 사용 안함)
+	 *
+	 * @param dir
+	 *        세그먼트 파일 저장 디렉토리. 사물(클라이언트)마다 다른 디렉토리를 사용해야 함
+	 */
+	public void setDir(String dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * @return 세그먼트 파일 크기 (byte)
+	 */
+	public int getSegmentBytes() {
+		return segmentBytes;
+	}
+
+	/**
+	 * default 8MB. 메시지 하나의 크기는 이 값보다 작아야 합니다.
+	 *
+	 * @param segmentBytes
+	 *        세그먼트 파일 크기 (byte)
+	 */
+	public void setSegmentBytes(int segmentBytes) {
+		if (segmentBytes < 4096) {
+			throw new IllegalArgumentException("segmentBytes must be 4096 or more : " + segmentBytes);
+		}
+		this.segmentBytes = segmentBytes;
+	}
+
+	/**
+	 * @return 저널 최대 크기 (byte)
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * default 256MB. 초과하면 가장 오래된 세그먼트 파일의 메시지부터 버립니다.
+	 *
+	 * @param maxBytes
+	 *        저널 최대 크기 (byte)
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @return 메시지 최대 보관 시간 (초)
+	 */
+	public long getMaxAgeSeconds() {
+		return maxAgeSeconds;
+	}
+
+	/**
+	 * default 604,800sec (=7days).
+	 * 보관 시간이 지난 메시지는 재전송하지 않고 버립니다. 0 이하이면 시간 제한 없음.
+	 *
+	 * @param maxAgeSeconds
+	 *        메시지 최대 보관 시간 (초)
+	 */
+	public void setMaxAgeSeconds(long maxAgeSeconds) {
+		this.maxAgeSeconds = maxAgeSeconds;
+	}
+
+	/**
+	 * @return 디스크 기록 정책
+	 */
+	public String getFsyncPolicy() {
+		return fsyncPolicy;
+	}
+
+	/**
+	 * default "SEGMENT".
+	 *
+	 * @param fsyncPolicy
+	 *        디스크 기록 정책 ("NONE", "SEGMENT", "ALWAYS")
+	 */
+	public void setFsyncPolicy(String fsyncPolicy) {
+		if (!FSYNC_NONE.equals(fsyncPolicy) && !FSYNC_SEGMENT.equals(fsyncPolicy) && !FSYNC_ALWAYS.equals(fsyncPolicy)) {
+			throw new IllegalArgumentException("Invalid fsyncPolicy : " + fsyncPolicy);
+		}
+		this.fsyncPolicy = fsyncPolicy;
+	}
+
+	/**
+	 * @return 재전송 속도 (초당 메시지 수)
+	 */
+	public int getReplayRate() {
+		return replayRate;
+	}
+
+	/**
+	 * default 200 msg/sec.
+	 * 재연결 직후 저장된 메시지를 한꺼번에 보내서 서버에 부담을 주지 않도록 재전송 속도를 제한합니다. 0 이하이면 제한 없음.
+	 *
+	 * @param replayRate
+	 *        재전송 속도 (초당 메시지 수)
+	 */
+	public void setReplayRate(int replayRate) {
+		this.replayRate = replayRate;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("  dir=").append(dir).append("\n  segmentBytes=").append(segmentBytes).append("\n  maxBytes=")
+				.append(maxBytes).append("\n  maxAgeSeconds=").append(maxAgeSeconds).append("\n  fsyncPolicy=")
+				.append(fsyncPolicy).append("\n  replayRate=").append(replayRate);
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,491 @@
+
+package com.sds.iot.sdk.protocol;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.headerformat.BinaryHeaderFormatConverter;
+import com.sds.iot.sdk.message.headerformat.IHeaderFormatConverter;
+
+/**
+ * 이 클래스는 서버로 보내지 못한 송신 메시지를 디스크에 저장하고, 저장한 순서대로 꺼낼 수 있도록 합니다. (store-and-forward)
+ *
+ * 메시지는 고정 크기의 세그먼트 파일에 memory-mapped 방식으로 이어서 기록(append-only)하며,
+ * 세그먼트 파일이 가득 차면 새 세그먼트 파일을 만듭니다. 모두 재전송한 세그먼트 파일은 삭제합니다.
+ * 어디까지 재전송했는지는 세그먼트 헤더에 기록되므로, 프로세스가 재시작되어도 재전송하지 않은 메시지부터 다시 보냅니다.
+ * (재전송 직후 종료된 경우, 마지막 메시지는 한번 더 전송될 수 있음)
+ *
+ * 메시지는 암호화/압축 전의 상태로 Binary 헤더 포맷으로 저장합니다. 따라서 저널 파일에는 메시지 데이터가 평문으로 남으므로,
+ * 저널 디렉토리는 디바이스 프로세스만 접근할 수 있도록 권한을 설정해야 합니다.
+ * 인증 토큰은 저장하지 않으며, 재연결 시 인증 토큰과 암호화 키가 바뀌므로 재전송할 때 현재 세션의 값으로 다시 인코딩하여 전송합니다.
+ *
+ * <pre>
+ * segment : magic(4) | readOffset(4) | record | record | ... | 0(4)
+ * record  : length(4) | crc32(4) | storedTime(8) | message(length)
+ * </pre>
+ *
+ * @author SDS
+ */
+final class OutboundJournal implements Closeable {
+	private static final Logger				LOGGER				= LoggerFactory.getLogger(OutboundJournal.class);
+
+	/** {@link #appendIfBacklogged(IotMessage)} 결과 */
+	enum AppendResult {
+		/** 재전송할 메시지가 없어 저장하지 않음 */
+		NOT_BACKLOGGED,
+		/** 저장함 */
+		STORED,
+		/** 저장하지 못함 (저널이 닫혔거나 메시지가 세그먼트보다 크거나 디스크 오류) */
+		FAILED
+	}
+
+	private static final String				SEGMENT_PREFIX		= "journal-";
+	private static final String				SEGMENT_SUFFIX		= ".seg";
+
+	/** "BJN1" */
+	private static final int				SEGMENT_MAGIC		= 0x424A4E31;
+	/** magic(4) + readOffset(4) */
+	static final int						SEGMENT_HEADER_SIZE	= 8;
+	/** length(4) + crc32(4) + storedTime(8) */
+	static final int						RECORD_HEADER_SIZE	= 16;
+
+	private final File						dir;
+	private final int						segmentBytes;
+	private final long						maxBytes;
+	private final long						maxAgeMillis;
+	private final String					fsyncPolicy;
+
+	private final IHeaderFormatConverter	codec				= new BinaryHeaderFormatConverter();
+
+	/** 오래된 순서. 마지막 세그먼트에 이어서 기록한다. */
+	private final ArrayDeque<Segment>		segments			= new ArrayDeque<>();
+	private long							nextSeq				= 0L;
+
+	private long							pendingCount		= 0L;
+	private long							droppedCount		= 0L;
+
+	/** 재전송 중 여부. 재전송 중에는 새 메시지도 저널에 저장해야 순서가 유지된다. */
+	private boolean							replaying			= false;
+
+	/** nextForReplay() 로 꺼낸 메시지의 위치 (commit() 시 확인) */
+	private Segment							peekedSegment		= null;
+	private int								peekedOffset		= -1;
+
+	private boolean							closed				= false;
+
+	/**
+	 * 저장 디렉토리의 세그먼트 파일을 읽어서, 재전송하지 않은 메시지를 복구합니다.
+	 *
+	 * @param cfg
+	 *        저널 설정
+	 * @throws IOException
+	 *         디렉토리를 만들 수 없거나, 세그먼트 파일을 읽을 수 없는 경우
+	 */
+	OutboundJournal(JournalConfig cfg) throws IOException {
+		this.dir = new File(cfg.getDir());
+		this.segmentBytes = cfg.getSegmentBytes();
+		this.maxBytes = cfg.getMaxBytes();
+		this.maxAgeMillis = cfg.getMaxAgeSeconds() * 1000L;
+		this.fsyncPolicy = cfg.getFsyncPolicy();
+
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create journal directory : " + dir.getAbsolutePath());
+		}
+		recover();
+	}
+
+	private void recover() throws IOException {
+		File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+		if (files == null) {
+			throw new IOException("Cannot list journal directory : " + dir.getAbsolutePath());
+		}
+		// 파일명의 순번은 고정 길이이므로 이름 순서가 기록 순서
+		Arrays.sort(files);
+		for (File file : files) {
+			long seq;
+			try {
+				String name = file.getName();
+				seq = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+			} catch (NumberFormatException e) {
+				continue;
+			}
+			nextSeq = Math.max(nextSeq, seq + 1);
+
+			Segment seg = Segment.open(file);
+			if (seg == null) {
+				LOGGER.warn("Invalid journal segment is deleted : {}", file.getName());
+				deleteFile(file);
+			} else if (seg.count == 0) {
+				deleteFile(file);
+			} else {
+				segments.addLast(seg);
+				pendingCount += seg.count;
+			}
+		}
+		if (pendingCount > 0) {
+			LOGGER.info("JOURNAL RECOVERED : {} messages in {} segments <{}>", pendingCount, segments.size(),
+					dir.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * 재전송 중이거나 재전송할 메시지가 남아 있는 경우에만 메시지를 저널 끝에 저장합니다.
+	 * 확인과 저장을 한 번에 하므로, 확인한 직후 재전송이 끝나 저장한 메시지가 재전송되지 않는 경우가 없습니다.
+	 *
+	 * @param msg
+	 *        송신 메시지 (암호화/압축 전)
+	 * @return 저장하지 않은 경우 NOT_BACKLOGGED (바로 전송해야 함), 그 외에는 저장 결과
+	 */
+	synchronized AppendResult appendIfBacklogged(IotMessage msg) {
+		if (!isBacklogged()) {
+			return AppendResult.NOT_BACKLOGGED;
+		}
+		return append(msg) ? AppendResult.STORED : AppendResult.FAILED;
+	}
+
+	/**
+	 * 메시지를 저널 끝에 저장합니다. 인증 토큰은 빼고 저장합니다.
+	 *
+	 * @param msg
+	 *        송신 메시지 (암호화/압축 전)
+	 * @return 저장 여부. 저널이 닫혔거나 메시지가 세그먼트보다 크거나 디스크 오류인 경우 false
+	 */
+	synchronized boolean append(IotMessage msg) {
+		if (closed) {
+			return false;
+		}
+		String authToken = msg.getAuthToken();
+		msg.setAuthToken(null);
+		try {
+			return appendRecord(msg);
+		} finally {
+			msg.setAuthToken(authToken);
+		}
+	}
+
+	private boolean appendRecord(IotMessage msg) {
+		int length = codec.getEncodedLength(msg);
+		int recordSize = RECORD_HEADER_SIZE + length;
+		if (recordSize > segmentBytes - SEGMENT_HEADER_SIZE - 4) {
+			LOGGER.warn("Message is too large to store in journal. msgId={}, size={}", msg.getMsgId(), recordSize);
+			return false;
+		}
+
+		long now = System.currentTimeMillis();
+		Segment seg = segments.peekLast();
+		if (seg == null || seg.remaining() < recordSize) {
+			if (seg != null && !JournalConfig.FSYNC_NONE.equals(fsyncPolicy)) {
+				seg.buf.force();
+			}
+			retain(now);
+			try {
+				seg = Segment.create(new File(dir, segmentFileName(nextSeq)), segmentBytes);
+			} catch (IOException e) {
+				LOGGER.error("FAIL TO CREATE JOURNAL SEGMENT : {}", e.toString());
+				return false;
+			}
+			nextSeq++;
+			segments.addLast(seg);
+		}
+
+		seg.write(codec, msg, length, now);
+		if (JournalConfig.FSYNC_ALWAYS.equals(fsyncPolicy)) {
+			seg.buf.force();
+		}
+		pendingCount++;
+		return true;
+	}
+
+	/**
+	 * 새 세그먼트를 만들기 전에 보관 기간, 최대 크기를 넘는 오래된 세그먼트를 삭제합니다.
+	 */
+	private void retain(long now) {
+		while (!segments.isEmpty()) {
+			Segment head = segments.peekFirst();
+			boolean expired = maxAgeMillis > 0 && now - head.lastStoredTime > maxAgeMillis;
+			boolean full = (long) (segments.size() + 1) * segmentBytes > maxBytes;
+			if (!expired && !full) {
+				break;
+			}
+			if (head.count > 0) {
+				LOGGER.warn("JOURNAL SEGMENT DROPPED ({}) : {} messages are not sent. <{}>", expired ? "EXPIRED" : "FULL",
+						head.count, head.file.getName());
+			}
+			dropHead();
+		}
+	}
+
+	private void dropHead() {
+		Segment head = segments.pollFirst();
+		pendingCount -= head.count;
+		droppedCount += head.count;
+		head.count = 0;
+		deleteFile(head.file);
+	}
+
+	/**
+	 * 재전송을 시작합니다. 재전송이 끝날 때까지 새 메시지도 저널에 저장해야 합니다. ({@link #isBacklogged()})
+	 *
+	 * @return 재전송할 메시지가 있고, 이미 재전송 중이 아니면 true
+	 */
+	synchronized boolean startReplay() {
+		if (replaying || pendingCount == 0 || closed) {
+			return false;
+		}
+		replaying = true;
+		return true;
+	}
+
+	/**
+	 * 재전송을 중단합니다. (다음 연결 시 이어서 재전송)
+	 */
+	synchronized void stopReplay() {
+		replaying = false;
+		peekedSegment = null;
+	}
+
+	/**
+	 * @return 재전송 중이거나 재전송할 메시지가 남아 있으면 true. 이 경우 새 메시지는 바로 보내지 않고 저널에 저장해야 순서가 유지됨
+	 */
+	synchronized boolean isBacklogged() {
+		return replaying || pendingCount > 0;
+	}
+
+	/**
+	 * 재전송할 다음 메시지를 꺼냅니다. 전송 후에는 {@link #commit()} 을 호출해야 다음 메시지를 꺼낼 수 있습니다.
+	 * 보관 기간이 지난 메시지는 버리며, 더 이상 메시지가 없으면 재전송 상태를 끝내고 null 을 리턴합니다.
+	 *
+	 * @return 재전송할 메시지 (암호화/압축 전, 저장 당시의 인증 토큰)
+	 */
+	synchronized IotMessage nextForReplay() {
+		long now = System.currentTimeMillis();
+		while (!closed) {
+			Segment seg = segments.peekFirst();
+			if (seg == null) {
+				break;
+			}
+			if (seg.count == 0) {
+				if (seg == segments.peekLast()) {
+					break;
+				}
+				segments.pollFirst();
+				deleteFile(seg.file);
+				continue;
+			}
+
+			int offset = seg.readOffset;
+			long storedTime = seg.buf.getLong(offset + 8);
+			if (maxAgeMillis > 0 && now - storedTime > maxAgeMillis) {
+				LOGGER.debug("Expired message in journal is dropped. stored={}", storedTime);
+				discard(seg);
+				continue;
+			}
+
+			byte[] bytes = new byte[seg.buf.getInt(offset)];
+			ByteBuffer dup = seg.buf.duplicate();
+			dup.position(offset + RECORD_HEADER_SIZE);
+			dup.get(bytes);
+			try {
+				IotMessage msg = codec.convertFromBytes(bytes);
+				peekedSegment = seg;
+				peekedOffset = offset;
+				return msg;
+			} catch (IllegalStateException e) {
+				LOGGER.warn("Invalid message in journal is dropped : {}", e.toString());
+				discard(seg);
+			}
+		}
+		replaying = false;
+		peekedSegment = null;
+		return null;
+	}
+
+	private void discard(Segment seg) {
+		seg.advance();
+		pendingCount--;
+		droppedCount++;
+	}
+
+	/**
+	 * {@link #nextForReplay()} 로 꺼낸 메시지를 전송 완료 처리합니다.
+	 * 그 사이에 최대 크기 초과로 해당 세그먼트가 삭제된 경우에는 아무것도 하지 않습니다.
+	 */
+	synchronized void commit() {
+		Segment seg = peekedSegment;
+		peekedSegment = null;
+		if (seg == null || seg != segments.peekFirst() || seg.readOffset != peekedOffset) {
+			return;
+		}
+		seg.advance();
+		pendingCount--;
+		if (seg.count == 0 && seg != segments.peekLast()) {
+			segments.pollFirst();
+			deleteFile(seg.file);
+		}
+	}
+
+	/**
+	 * @return 재전송하지 않은 메시지 수
+	 */
+	synchronized long getPendingCount() {
+		return pendingCount;
+	}
+
+	/**
+	 * @return 보관 기간, 최대 크기 초과 등으로 재전송하지 않고 버린 메시지 수
+	 */
+	synchronized long getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * 세그먼트를 디스크에 기록하고 저널을 닫습니다. 재전송하지 않은 메시지는 다음에 저널을 열 때 복구됩니다.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		replaying = false;
+		for (Segment seg : segments) {
+			if (!JournalConfig.FSYNC_NONE.equals(fsyncPolicy)) {
+				seg.buf.force();
+			}
+		}
+		// 매핑은 GC 시 해제됨
+		segments.clear();
+	}
+
+	private static String segmentFileName(long seq) {
+		return String.format("%s%020d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX);
+	}
+
+	private static void deleteFile(File file) {
+		if (!file.delete() && file.exists()) {
+			LOGGER.warn("Cannot delete journal segment : {}", file.getAbsolutePath());
+		}
+	}
+
+	private static int checksum(ByteBuffer buf, int offset, int length) {
+		ByteBuffer dup = buf.duplicate();
+		dup.limit(offset + length);
+		dup.position(offset);
+		CRC32 crc = new CRC32();
+		crc.update(dup);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * 하나의 세그먼트 파일
+	 */
+	private static final class Segment {
+		final File				file;
+		final MappedByteBuffer	buf;
+
+		/** 다음에 재전송할 레코드 위치 */
+		int						readOffset	= SEGMENT_HEADER_SIZE;
+		/** 다음 레코드를 기록할 위치 */
+		int						writeOffset	= SEGMENT_HEADER_SIZE;
+		/** 재전송하지 않은 레코드 수 */
+		int						count		= 0;
+		long					lastStoredTime;
+
+		private Segment(File file, MappedByteBuffer buf) {
+			this.file = file;
+			this.buf = buf;
+			this.lastStoredTime = System.currentTimeMillis();
+		}
+
+		static Segment create(File file, int capacity) throws IOException {
+			MappedByteBuffer buf;
+			try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				// 매핑은 채널을 닫아도 유지됨
+				buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			}
+			buf.putInt(0, SEGMENT_MAGIC);
+			buf.putInt(4, SEGMENT_HEADER_SIZE);
+			return new Segment(file, buf);
+		}
+
+		/**
+		 * @return 세그먼트 파일이 올바르지 않으면 null
+		 */
+		static Segment open(File file) throws IOException {
+			MappedByteBuffer buf;
+			try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				long size = ch.size();
+				if (size < SEGMENT_HEADER_SIZE + 4 || size > Integer.MAX_VALUE) {
+					return null;
+				}
+				buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			}
+			if (buf.getInt(0) != SEGMENT_MAGIC) {
+				return null;
+			}
+			Segment seg = new Segment(file, buf);
+			int savedReadOffset = buf.getInt(4);
+
+			// 마지막으로 온전히 기록된 레코드까지 확인 (기록 도중 종료된 레코드는 버림)
+			int limit = buf.capacity();
+			int offset = SEGMENT_HEADER_SIZE;
+			while (offset + RECORD_HEADER_SIZE <= limit - 4) {
+				int length = buf.getInt(offset);
+				if (length <= 0 || offset + RECORD_HEADER_SIZE + length > limit - 4
+						|| buf.getInt(offset + 4) != checksum(buf, offset + RECORD_HEADER_SIZE, length)) {
+					break;
+				}
+				if (offset >= savedReadOffset) {
+					seg.count++;
+				}
+				seg.lastStoredTime = buf.getLong(offset + 8);
+				offset += RECORD_HEADER_SIZE + length;
+			}
+			seg.writeOffset = offset;
+			seg.readOffset = Math.max(SEGMENT_HEADER_SIZE, Math.min(savedReadOffset, offset));
+			buf.putInt(offset, 0);
+			return seg;
+		}
+
+		int remaining() {
+			// 마지막 레코드 뒤의 종료 표시(0) 공간 제외
+			return buf.capacity() - writeOffset - 4;
+		}
+
+		void write(IHeaderFormatConverter codec, IotMessage msg, int length, long storedTime) {
+			int offset = writeOffset;
+			ByteBuffer dup = buf.duplicate();
+			dup.position(offset + RECORD_HEADER_SIZE);
+			codec.convertToBuffer(msg, dup);
+
+			buf.putInt(offset + RECORD_HEADER_SIZE + length, 0);
+			buf.putLong(offset + 8, storedTime);
+			buf.putInt(offset + 4, checksum(buf, offset + RECORD_HEADER_SIZE, length));
+			// 길이는 마지막에 기록 (길이가 0 이면 레코드 없음)
+			buf.putInt(offset, length);
+
+			writeOffset = offset + RECORD_HEADER_SIZE + length;
+			lastStoredTime = storedTime;
+			count++;
+		}
+
+		void advance() {
+			readOffset += RECORD_HEADER_SIZE + buf.getInt(readOffset);
+			buf.putInt(4, readOffset);
+			count--;
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.sds.iot.sdk.protocol;
+
+/**
+ * 송신 큐가 가득 찼을 때 send() 의 처리 방식을 정의합니다.
+ *
+ * @author SDS
+ */
+public enum OutboundOverflowPolicy {
+	/** 큐에 자리가 생길 때까지 send() 호출 스레드가 대기 */
+	BLOCK,
+
+	/** 큐에서 가장 오래된 메시지를 버리고 새 메시지를 넣음 */
+	DROP_OLDEST,
+
+	/** 새 메시지를 넣지 않고 send() 가 바로 false 를 리턴 */
+	FAIL_FAST
+}
@@ -0,0 +1,258 @@
+
+package com.sds.iot.sdk.protocol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 이 클래스는 송신 메시지를 큐에 넣고, 하나의 송신 스레드에서 큐의 메시지를 꺼내어 전송합니다.
+ *
+ * send() 를 호출한 스레드는 큐에 넣기만 하므로, 여러 센서 스레드에서 동시에 전송해도 서로 기다리지 않고
+ * 메시지 변환(암호화/압축)과 프로토콜 전송은 송신 스레드에서 순서대로 수행됩니다.
+ * 큐가 가득 찬 경우의 처리는 {@link OutboundOverflowPolicy} 에 따릅니다.
+ *
+ * lingerMillis 가 0 보다 크면 첫 메시지를 꺼낸 후 batchSize 만큼 모이거나 lingerMillis 가 지날 때까지 기다렸다가
+ * 모인 메시지를 이어서 전송합니다. (송신 스레드의 깨어나는 횟수와 큐 잠금 횟수가 줄어듦)
+ *
+ * @author SDS
+ */
+final class OutboundPublisher {
+	private static final Logger				LOGGER					= LoggerFactory.getLogger(OutboundPublisher.class);
+
+	/** 송신 스레드 종료 표시 */
+	private static final Entry				STOP					= new Entry(null);
+
+	/** 큐 대기 중 송신 스레드 종료 여부를 확인하는 간격 */
+	private static final long				POLL_INTERVAL_MILLIS	= 100L;
+
+	private final BlockingQueue<Entry>		queue;
+	private final OutboundOverflowPolicy	overflowPolicy;
+	private final long						lingerNanos;
+	private final int						batchSize;
+	private final Consumer<IotMessage>		publisher;
+	private final StageMetrics				metrics;
+	private final Thread					thread;
+
+	private volatile boolean				running					= true;
+
+	/** 송신 스레드 종료 여부. true 가 된 이후 큐에 들어온 메시지는 enqueue() 호출 스레드가 전송 */
+	private volatile boolean				exited					= false;
+
+	/**
+	 * @param queueCapacity
+	 *        송신 큐 크기
+	 * @param overflowPolicy
+	 *        큐가 가득 찬 경우의 처리 방식
+	 * @param lingerMillis
+	 *        메시지를 모으기 위해 기다리는 최대 시간 (0: 기다리지 않음)
+	 * @param batchSize
+	 *        한 번에 꺼내는 최대 메시지 수
+	 * @param publisher
+	 *        메시지 전송 (송신 스레드에서 호출)
+	 * @param metrics
+	 *        처리 현황
+	 */
+	OutboundPublisher(int queueCapacity, OutboundOverflowPolicy overflowPolicy, long lingerMillis, int batchSize,
+			Consumer<IotMessage> publisher, StageMetrics metrics) {
+		if (queueCapacity <= 0) {
+			throw new IllegalArgumentException("queueCapacity must be positive : " + queueCapacity);
+		}
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.overflowPolicy = overflowPolicy;
+		this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+		this.batchSize = Math.max(1, batchSize);
+		this.publisher = publisher;
+		this.metrics = metrics;
+		metrics.setQueueDepthSupplier(queue::size);
+
+		this.thread = new Thread(this::run, "biot-outboundPublisher");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * 메시지를 송신 큐에 넣습니다.
+	 * 송신 스레드가 이미 종료된 경우에는 큐에 남은 메시지와 함께 호출 스레드에서 전송합니다.
+	 *
+	 * @param msg
+	 *        송신 메시지
+	 * @return 큐에 넣었으면 true. FAIL_FAST 정책에서 큐가 가득 찬 경우, 또는 대기 중 인터럽트된 경우 false
+	 */
+	boolean enqueue(IotMessage msg) {
+		boolean queued = offer(new Entry(msg));
+		// 큐에 넣은 후 종료 여부를 확인하므로, 송신 스레드가 마지막으로 큐를 비운 뒤에 들어온 메시지도 전송됨
+		drainIfExited();
+		return queued;
+	}
+
+	private boolean offer(Entry entry) {
+		IotMessage msg = entry.msg;
+		switch (overflowPolicy) {
+			case DROP_OLDEST:
+				while (!queue.offer(entry)) {
+					Entry dropped = queue.poll();
+					if (dropped != null && dropped != STOP) {
+						metrics.recordRejected();
+						IotTransportSupport.printSendFailLog(dropped.msg, "OUTBOUND QUEUE FULL (DROP OLDEST)", null);
+					}
+				}
+				return true;
+
+			case FAIL_FAST:
+				// 송신 스레드가 종료되어 큐가 비워지지 않는 경우에는 남은 메시지를 전송한 후 다시 넣음
+				if (!queue.offer(entry) && !(exited && drainAndOffer(entry))) {
+					metrics.recordRejected();
+					IotTransportSupport.printSendFailLog(msg, "OUTBOUND QUEUE FULL", null);
+					return false;
+				}
+				return true;
+
+			case BLOCK:
+			default:
+				try {
+					// 송신 스레드가 종료되어 큐가 비워지지 않는 경우에도 계속 기다리지 않도록 poll 간격마다 종료 여부를 확인
+					while (!queue.offer(entry, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+						drainIfExited();
+					}
+					return true;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					metrics.recordRejected();
+					IotTransportSupport.printSendFailLog(msg, "INTERRUPTED WHILE WAITING FOR OUTBOUND QUEUE", null);
+					return false;
+				}
+		}
+	}
+
+	private boolean drainAndOffer(Entry entry) {
+		drain();
+		return queue.offer(entry);
+	}
+
+	private void drainIfExited() {
+		if (exited) {
+			drain();
+		}
+	}
+
+	private void drain() {
+		Entry entry;
+		while ((entry = queue.poll()) != null) {
+			if (entry != STOP) {
+				process(entry);
+			}
+		}
+	}
+
+	private void run() {
+		LOGGER.debug("start outbound publisher thread!");
+		List<Entry> batch = new ArrayList<>(batchSize);
+		try {
+			while (true) {
+				Entry first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null || first == STOP) {
+					if (!running) {
+						break;
+					}
+					continue;
+				}
+				batch.add(first);
+				collect(batch);
+
+				for (Entry entry : batch) {
+					if (entry != STOP) {
+						process(entry);
+					}
+				}
+				boolean stop = batch.contains(STOP);
+				batch.clear();
+				if (stop || (!running && queue.isEmpty())) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			LOGGER.debug("interruped : {}", e.toString());
+			Thread.currentThread().interrupt();
+		} finally {
+			// 종료 표시를 먼저 한 후 남은 메시지를 전송. 이후에 들어온 메시지는 enqueue() 에서 전송됨
+			exited = true;
+			drain();
+		}
+		LOGGER.debug("stop outbound publisher thread");
+	}
+
+	/**
+	 * 첫 메시지 이후 batchSize 만큼 메시지를 모읍니다. linger 설정이 없으면 이미 큐에 있는 메시지만 꺼냅니다.
+	 */
+	private void collect(List<Entry> batch) throws InterruptedException {
+		queue.drainTo(batch, batchSize - batch.size());
+		if (lingerNanos <= 0) {
+			return;
+		}
+		long deadline = System.nanoTime() + lingerNanos;
+		while (batch.size() < batchSize && running) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				break;
+			}
+			Entry entry = queue.poll(remaining, TimeUnit.NANOSECONDS);
+			if (entry == null) {
+				break;
+			}
+			batch.add(entry);
+			if (entry == STOP) {
+				break;
+			}
+			queue.drainTo(batch, batchSize - batch.size());
+		}
+	}
+
+	private void process(Entry entry) {
+		try {
+			publisher.accept(entry.msg);
+		} catch (Throwable e) {
+			LOGGER.error("FAIL TO PUBLISH MESSAGE. msgId={} : {}", entry.msg.getMsgId(), e.toString(), e);
+		}
+		// 큐 대기 시간 포함
+		metrics.recordProcessed(System.nanoTime() - entry.enqueuedNanos);
+	}
+
+	/**
+	 * 송신 스레드를 종료합니다. 이미 큐에 들어온 메시지는 전송한 후 종료되며, 최대 waitMillis 만큼 종료를 기다립니다.
+	 *
+	 * @param waitMillis
+	 *        종료 대기 시간 (밀리초)
+	 */
+	void shutdown(long waitMillis) {
+		running = false;
+		// 대기 중인 송신 스레드를 깨우기 위한 표시. 큐가 가득 찬 경우에는 남은 메시지를 모두 전송한 후 running 값을 보고 종료
+		queue.offer(STOP);
+		try {
+			thread.join(waitMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 송신 메시지와 큐에 넣은 시각
+	 */
+	private static final class Entry {
+		final IotMessage	msg;
+		final long			enqueuedNanos;
+
+		Entry(IotMessage msg) {
+			this.msg = msg;
+			this.enqueuedNanos = System.nanoTime();
+		}
+	}
+}
@@ -0,0 +1,285 @@
+package com.sds.iot.sdk.protocol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import com.sds.iot.sdk.message.IMsgIdGenerator;
+
+/**
+ * 이 클래스는 응답을 기다리는 요청의 정보(콜백 등)를 msgId 별로 보관합니다.
+ *
+ * SDK 가 생성한 msgId 는 {@link IMsgIdGenerator#toCorrelationId(String)} 로 얻은 숫자 키를 사용하여
+ * long 키 테이블에 보관하므로, 요청/응답마다 36자 문자열의 해시 계산과 비교, 엔트리 객체 생성이 필요 없습니다.
+ * 그 외의 msgId (사용자가 직접 지정한 msgId 등)는 문자열 키 맵에 보관합니다.
+ *
+ * @author SDS
+ */
+final class ResponseCallbackRepo<V> {
+
+	/** 세그먼트 개수 (2의 거듭제곱). 연속된 correlation id 가 세그먼트에 고르게 분산된다. */
+	private static final int						SEGMENT_SHIFT	= 4;
+	private static final int						SEGMENT_COUNT	= 1 << SEGMENT_SHIFT;
+
+	private final Segment<V>[]						segments;
+
+	/** key:msgId, value:callback (숫자 키로 변환할 수 없는 msgId) */
+	private final Map<String, V>					fallbackRepo	= new ConcurrentHashMap<>();
+
+	private volatile IMsgIdGenerator				msgIdGenerator	= null;
+
+	ResponseCallbackRepo() {
+		// generic 배열은 생성할 수 없으므로 wildcard 배열을 생성하여 변환 (배열은 이 클래스 밖으로 노출되지 않음)
+		@SuppressWarnings("unchecked")
+		Segment<V>[] array = (Segment<V>[]) new Segment<?>[SEGMENT_COUNT];
+		segments = array;
+		for (int i = 0; i < SEGMENT_COUNT; i++) {
+			segments[i] = new Segment<>();
+		}
+	}
+
+	/**
+	 * msgId 를 숫자 키로 변환할 때 사용할 생성기를 설정합니다.
+	 *
+	 * @param msgIdGenerator
+	 */
+	void setMsgIdGenerator(IMsgIdGenerator msgIdGenerator) {
+		this.msgIdGenerator = msgIdGenerator;
+	}
+
+	private long toCorrelationId(String msgId) {
+		IMsgIdGenerator generator = this.msgIdGenerator;
+		return generator == null ? -1L : generator.toCorrelationId(msgId);
+	}
+
+	private Segment<V> segmentFor(long correlationId) {
+		return segments[(int) (correlationId & (SEGMENT_COUNT - 1))];
+	}
+
+	V put(String msgId, V callback) {
+		long correlationId = toCorrelationId(msgId);
+		if (correlationId < 0) {
+			return fallbackRepo.put(msgId, callback);
+		}
+		return segmentFor(correlationId).put(correlationId, msgId, callback);
+	}
+
+	V get(String msgId) {
+		long correlationId = toCorrelationId(msgId);
+		if (correlationId < 0) {
+			return fallbackRepo.get(msgId);
+		}
+		return segmentFor(correlationId).get(correlationId);
+	}
+
+	boolean containsKey(String msgId) {
+		return get(msgId) != null;
+	}
+
+	V remove(String msgId) {
+		long correlationId = toCorrelationId(msgId);
+		if (correlationId < 0) {
+			return fallbackRepo.remove(msgId);
+		}
+		return segmentFor(correlationId).remove(correlationId, null);
+	}
+
+	/**
+	 * 주어진 값이 보관되어 있는 경우에만 삭제합니다.
+	 *
+	 * @return 삭제 여부
+	 */
+	boolean remove(String msgId, V value) {
+		long correlationId = toCorrelationId(msgId);
+		if (correlationId < 0) {
+			return fallbackRepo.remove(msgId, value);
+		}
+		return segmentFor(correlationId).remove(correlationId, value) != null;
+	}
+
+	int size() {
+		int size = fallbackRepo.size();
+		for (Segment<V> segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * 보관 중인 콜백을 순회합니다.
+	 * 순회 시점의 스냅샷을 대상으로 하므로, action 에서 remove() 를 호출해도 됩니다.
+	 *
+	 * @param action
+	 *        (msgId, callback)
+	 */
+	void forEach(BiConsumer<String, V> action) {
+		List<String> msgIds = new ArrayList<>();
+		List<V> callbacks = new ArrayList<>();
+		for (Segment<V> segment : segments) {
+			segment.collect(msgIds, callbacks);
+		}
+		for (Entry<String, V> entry : fallbackRepo.entrySet()) {
+			msgIds.add(entry.getKey());
+			callbacks.add(entry.getValue());
+		}
+		for (int i = 0; i < msgIds.size(); i++) {
+			action.accept(msgIds.get(i), callbacks.get(i));
+		}
+	}
+
+	/**
+	 * correlation id 를 키로 하는 direct-mapped 링 테이블.
+	 *
+	 * correlation id 는 연속된 카운터 값이므로 해시 없이 (id / SEGMENT_COUNT) 를 그대로 슬롯 위치로 사용한다.
+	 * 응답 대기 중인 요청들의 id 범위가 테이블 크기보다 작으면 충돌이 없고, 요청 순서대로 인접한 슬롯을 사용하므로
+	 * 탐색(probing) 없이 한 번에 찾는다.
+	 * 오래된 요청이 남아 있어 충돌이 생기면 테이블을 키우고, 최대 크기에 도달한 경우에만 overflow 맵에 보관한다.
+	 */
+	@SuppressWarnings("unchecked")
+	private static final class Segment<V> {
+		private static final int					INITIAL_CAPACITY	= 64;
+		private static final int					MAX_CAPACITY		= 1 << 14;
+		private static final long					EMPTY				= -1L;
+
+		private long[]								keys;
+		private String[]							msgIds;
+		private V[]									values;
+		private int									size				= 0;
+
+		/** 테이블 크기를 넘는 범위의 id (드물게 발생) */
+		private final Map<Long, Object[]>			overflow			= new HashMap<>();
+
+		Segment() {
+			allocate(INITIAL_CAPACITY);
+		}
+
+		private void allocate(int capacity) {
+			keys = new long[capacity];
+			Arrays.fill(keys, EMPTY);
+			msgIds = new String[capacity];
+			values = (V[]) new Object[capacity];
+		}
+
+		private int indexFor(long key) {
+			return (int) (key >>> SEGMENT_SHIFT) & (keys.length - 1);
+		}
+
+		synchronized V put(long key, String msgId, V value) {
+			// 이미 overflow 에 있는 id 이면 그대로 갱신 (한 id 는 테이블과 overflow 중 한 곳에만 존재)
+			if (!overflow.isEmpty() && overflow.containsKey(key)) {
+				Object[] old = overflow.put(key, new Object[] { msgId, value });
+				return (V) old[1];
+			}
+
+			int i = indexFor(key);
+			while (keys[i] != EMPTY && keys[i] != key && keys.length < MAX_CAPACITY) {
+				resize(keys.length * 2);
+				i = indexFor(key);
+			}
+			if (keys[i] == EMPTY || keys[i] == key) {
+				V old = keys[i] == key ? values[i] : null;
+				if (old == null) {
+					size++;
+				}
+				keys[i] = key;
+				msgIds[i] = msgId;
+				values[i] = value;
+				return old;
+			}
+			Object[] old = overflow.put(key, new Object[] { msgId, value });
+			if (old == null) {
+				size++;
+				return null;
+			}
+			return (V) old[1];
+		}
+
+		synchronized V get(long key) {
+			int i = indexFor(key);
+			if (keys[i] == key) {
+				return values[i];
+			}
+			if (!overflow.isEmpty()) {
+				Object[] entry = overflow.get(key);
+				return entry == null ? null : (V) entry[1];
+			}
+			return null;
+		}
+
+		/**
+		 * @param expected
+		 *        null 이 아니면, 보관된 값이 같은 경우에만 삭제
+		 */
+		synchronized V remove(long key, V expected) {
+			int i = indexFor(key);
+			if (keys[i] == key) {
+				if (expected != null && values[i] != expected) {
+					return null;
+				}
+				V old = values[i];
+				keys[i] = EMPTY;
+				msgIds[i] = null;
+				values[i] = null;
+				size--;
+				return old;
+			}
+			if (!overflow.isEmpty()) {
+				Object[] entry = overflow.get(key);
+				if (entry != null && (expected == null || entry[1] == expected)) {
+					overflow.remove(key);
+					size--;
+					return (V) entry[1];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * 테이블을 키운다. 새 테이블에서도 위치가 겹치는 항목은 overflow 로 옮긴다.
+		 */
+		private void resize(int capacity) {
+			long[] oldKeys = keys;
+			String[] oldMsgIds = msgIds;
+			V[] oldValues = values;
+			allocate(capacity);
+			for (int j = 0; j < oldKeys.length; j++) {
+				if (oldKeys[j] != EMPTY) {
+					int i = indexFor(oldKeys[j]);
+					if (keys[i] == EMPTY) {
+						keys[i] = oldKeys[j];
+						msgIds[i] = oldMsgIds[j];
+						values[i] = oldValues[j];
+					} else {
+						overflow.put(oldKeys[j], new Object[] { oldMsgIds[j], oldValues[j] });
+					}
+				}
+			}
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		synchronized void collect(List<String> msgIdList, List<V> callbackList) {
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] != EMPTY) {
+					msgIdList.add(msgIds[i]);
+					callbackList.add(values[i]);
+				}
+			}
+			for (Object[] entry : overflow.values()) {
+				msgIdList.add((String) entry[0]);
+				callbackList.add((V) entry[1]);
+			}
+		}
+	}
+}
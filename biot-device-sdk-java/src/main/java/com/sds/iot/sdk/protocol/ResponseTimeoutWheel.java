@@ -0,0 +1,284 @@
+
+package com.sds.iot.sdk.protocol;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 이 클래스는 응답 콜백의 타임아웃을 처리하는 hashed timer wheel 입니다.
+ *
+ * 타임아웃 등록/취소는 큐에 넣기만 하므로 O(1) 이며, 만료 처리는 tick 마다 해당 bucket 만 확인합니다.
+ * (전체 응답 대기 목록을 주기적으로 순회하지 않음)
+ * JVM 내의 모든 클라이언트가 하나의 데몬 스레드를 공유합니다.
+ *
+ * 만료된 타임아웃의 {@link Timeout#expire()} 는 등록 시 지정한 executor 에서 실행되므로,
+ * 사용자 timeoutAction 이 오래 걸리더라도 wheel 스레드(다른 클라이언트의 타임아웃 처리)는 지연되지 않습니다.
+ *
+ * @author SDS
+ */
+final class ResponseTimeoutWheel {
+	private static final Logger					LOGGER				= LoggerFactory.getLogger(ResponseTimeoutWheel.class);
+
+	/** tick 간격. 타임아웃은 최대 이 시간만큼 늦게 처리될 수 있음 */
+	private static final long					DEFAULT_TICK_MILLIS	= 50L;
+
+	/** bucket 개수 (2의 거듭제곱). tick 간격 x bucket 개수 보다 긴 타임아웃은 wheel 을 여러 바퀴 돈 후 만료 */
+	private static final int					DEFAULT_WHEEL_SIZE	= 512;
+
+	/** tick 마다 새로 등록된 타임아웃을 bucket 으로 옮기는 최대 개수 (등록이 몰리는 경우 tick 지연 방지) */
+	private static final int					MAX_TRANSFER_COUNT	= 100_000;
+
+	private static final ResponseTimeoutWheel	INSTANCE			= new ResponseTimeoutWheel("biot-responseTimeoutWheel",
+			DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+
+	private final String						threadName;
+	private final long							tickNanos;
+	private final Timeout[]						buckets;
+	private final int							mask;
+
+	/** 새로 등록된 타임아웃 (wheel 스레드에서 bucket 으로 옮김) */
+	private final Queue<Timeout>				pendingTimeouts		= new ConcurrentLinkedQueue<>();
+
+	/** 취소된 타임아웃 (wheel 스레드에서 bucket 에서 제거) */
+	private final Queue<Timeout>				cancelledTimeouts	= new ConcurrentLinkedQueue<>();
+
+	private final long							startTime			= System.nanoTime();
+	private long								tick				= 0;
+
+	private volatile Thread						workerThread		= null;
+
+	/**
+	 * 응답 콜백 타임아웃 처리에 사용하는 공유 wheel 을 반환합니다.
+	 *
+	 * @return 공유 wheel
+	 */
+	static ResponseTimeoutWheel getInstance() {
+		return INSTANCE;
+	}
+
+	ResponseTimeoutWheel(String threadName, long tickMillis, int wheelSize) {
+		if (Integer.bitCount(wheelSize) != 1) {
+			throw new IllegalArgumentException("wheelSize must be a power of 2 : " + wheelSize);
+		}
+		this.threadName = threadName;
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+		this.buckets = new Timeout[wheelSize];
+		this.mask = wheelSize - 1;
+	}
+
+	/**
+	 * 타임아웃을 등록합니다.
+	 *
+	 * @param timeout
+	 *        등록할 타임아웃 (한 번만 등록 가능)
+	 * @param delayMillis
+	 *        지금부터 만료까지의 시간 (밀리초)
+	 * @param executor
+	 *        만료 시 {@link Timeout#expire()} 를 실행할 executor
+	 */
+	void schedule(Timeout timeout, long delayMillis, Executor executor) {
+		startIfNecessary();
+		timeout.wheel = this;
+		timeout.executor = executor;
+		timeout.deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, delayMillis));
+		pendingTimeouts.add(timeout);
+	}
+
+	private void startIfNecessary() {
+		if (workerThread != null) {
+			return;
+		}
+		synchronized (this) {
+			if (workerThread == null) {
+				Thread t = new Thread(this::run, threadName);
+				t.setDaemon(true);
+				t.start();
+				workerThread = t;
+			}
+		}
+	}
+
+	private void run() {
+		LOGGER.debug("start response timeout wheel thread!");
+
+		while (!Thread.currentThread().isInterrupted()) {
+			long now = waitForNextTick();
+
+			processCancelledTimeouts();
+			transferPendingTimeouts();
+			expireTimeouts(buckets[(int) (tick & mask)], now);
+
+			tick++;
+		}
+
+		LOGGER.debug("stop response timeout wheel thread");
+	}
+
+	/**
+	 * 다음 tick 시각까지 대기합니다.
+	 *
+	 * @return 현재 시각 (startTime 기준, 나노초)
+	 */
+	private long waitForNextTick() {
+		long deadline = tickNanos * (tick + 1);
+		while (true) {
+			long now = System.nanoTime() - startTime;
+			long sleepNanos = deadline - now;
+			if (sleepNanos <= 0) {
+				return now;
+			}
+			LockSupport.parkNanos(this, sleepNanos);
+		}
+	}
+
+	private void transferPendingTimeouts() {
+		for (int i = 0; i < MAX_TRANSFER_COUNT; i++) {
+			Timeout timeout = pendingTimeouts.poll();
+			if (timeout == null) {
+				break;
+			}
+			if (timeout.state == Timeout.ST_CANCELLED) {
+				continue;
+			}
+			long calculated = timeout.deadline / tickNanos;
+			timeout.remainingRounds = (calculated - tick) / buckets.length;
+
+			// 이미 지난 시각이면 현재 tick 에서 만료
+			long ticks = Math.max(calculated, tick);
+			addToBucket((int) (ticks & mask), timeout);
+		}
+	}
+
+	private void processCancelledTimeouts() {
+		while (true) {
+			Timeout timeout = cancelledTimeouts.poll();
+			if (timeout == null) {
+				break;
+			}
+			removeFromBucket(timeout);
+		}
+	}
+
+	private void expireTimeouts(Timeout head, long now) {
+		Timeout timeout = head;
+		while (timeout != null) {
+			Timeout next = timeout.next;
+			if (timeout.remainingRounds <= 0) {
+				if (timeout.deadline <= now) {
+					removeFromBucket(timeout);
+					timeout.expireInternal();
+				}
+			} else {
+				timeout.remainingRounds--;
+			}
+			timeout = next;
+		}
+	}
+
+	private void addToBucket(int index, Timeout timeout) {
+		timeout.bucket = index;
+		timeout.prev = null;
+		timeout.next = buckets[index];
+		if (buckets[index] != null) {
+			buckets[index].prev = timeout;
+		}
+		buckets[index] = timeout;
+	}
+
+	private void removeFromBucket(Timeout timeout) {
+		if (timeout.bucket < 0) {
+			return; // 아직 bucket 으로 옮겨지지 않았거나 이미 제거됨
+		}
+		if (timeout.prev != null) {
+			timeout.prev.next = timeout.next;
+		} else {
+			buckets[timeout.bucket] = timeout.next;
+		}
+		if (timeout.next != null) {
+			timeout.next.prev = timeout.prev;
+		}
+		timeout.prev = null;
+		timeout.next = null;
+		timeout.bucket = -1;
+	}
+
+	/**
+	 * wheel 에 등록되는 타임아웃.
+	 * 등록 후 만료 시각이 지나면 {@link #expire()} 가 한 번 호출되며, 그 전에 {@link #cancel()} 하면 호출되지 않는다.
+	 */
+	abstract static class Timeout {
+		private static final int								ST_INIT		= 0;
+		private static final int								ST_CANCELLED	= 1;
+		private static final int								ST_EXPIRED	= 2;
+
+		private static final AtomicIntegerFieldUpdater<Timeout>	STATE		= AtomicIntegerFieldUpdater
+				.newUpdater(Timeout.class, "state");
+
+		private volatile int									state		= ST_INIT;
+
+		private volatile ResponseTimeoutWheel					wheel;
+
+		/** 만료 처리 executor (등록 시 큐를 통해 wheel 스레드로 전달) */
+		private Executor										executor;
+
+		// 아래 필드는 wheel 스레드에서만 접근 (deadline 은 등록 시 큐를 통해 전달)
+		private long											deadline;
+		private long											remainingRounds;
+		private int												bucket		= -1;
+		private Timeout											prev;
+		private Timeout											next;
+
+		/**
+		 * 타임아웃을 취소합니다.
+		 *
+		 * @return 취소 여부. 이미 만료되었거나 취소된 경우 false
+		 */
+		boolean cancel() {
+			if (!STATE.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+				return false;
+			}
+			ResponseTimeoutWheel w = this.wheel;
+			if (w != null) {
+				w.cancelledTimeouts.add(this);
+			}
+			return true;
+		}
+
+		boolean isCancelled() {
+			return state == ST_CANCELLED;
+		}
+
+		private void expireInternal() {
+			if (!STATE.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+				return;
+			}
+			try {
+				executor.execute(this::runExpire);
+			} catch (RejectedExecutionException e) {
+				LOGGER.warn("timeout executor rejected. expire on wheel thread : {}", e.toString());
+				runExpire();
+			}
+		}
+
+		private void runExpire() {
+			try {
+				expire();
+			} catch (Throwable e) {
+				LOGGER.error("timeout expire error.", e);
+			}
+		}
+
+		/**
+		 * 만료 시 등록할 때 지정한 executor 에서 호출됩니다.
+		 */
+		abstract void expire();
+	}
+}
@@ -0,0 +1,96 @@
+
+package com.sds.iot.sdk.protocol;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 이 클래스는 메시지 처리 단계(수신 디스패치 등)의 처리 현황을 제공합니다.
+ *
+ * 값은 누적값이며, 여러 스레드에서 동시에 갱신되므로 조회 시점에 따라 서로 약간 어긋날 수 있습니다.
+ *
+ * @author SDS
+ */
+public final class StageMetrics {
+	private final String				name;
+
+	private final LongAdder				processedCount	= new LongAdder();
+	private final LongAdder				rejectedCount	= new LongAdder();
+	private final LongAdder				totalLatency	= new LongAdder();
+	private final LongAccumulator		maxLatency		= new LongAccumulator(Long::max, 0L);
+
+	private volatile IntSupplier		queueDepth		= () -> 0;
+
+	StageMetrics(String name) {
+		this.name = name;
+	}
+
+	void setQueueDepthSupplier(IntSupplier queueDepth) {
+		this.queueDepth = queueDepth == null ? () -> 0 : queueDepth;
+	}
+
+	/**
+	 * @param latencyNanos
+	 *        처리 소요 시간 (나노초)
+	 */
+	void recordProcessed(long latencyNanos) {
+		processedCount.increment();
+		totalLatency.add(latencyNanos);
+		maxLatency.accumulate(latencyNanos);
+	}
+
+	void recordRejected() {
+		rejectedCount.increment();
+	}
+
+	/**
+	 * @return 단계 이름
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return 현재 처리 대기 중인 메시지 수
+	 */
+	public int getQueueDepth() {
+		return queueDepth.getAsInt();
+	}
+
+	/**
+	 * @return 처리한 메시지 수
+	 */
+	public long getProcessedCount() {
+		return processedCount.sum();
+	}
+
+	/**
+	 * @return 처리하지 못하고 버린 메시지 수
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	/**
+	 * @return 메시지당 평균 처리 시간 (마이크로초)
+	 */
+	public long getAverageLatencyMicros() {
+		long count = processedCount.sum();
+		return count == 0 ? 0L : TimeUnit.NANOSECONDS.toMicros(totalLatency.sum() / count);
+	}
+
+	/**
+	 * @return 최대 처리 시간 (마이크로초)
+	 */
+	public long getMaxLatencyMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(maxLatency.get());
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[queueDepth=%d, processed=%d, rejected=%d, avgLatency=%dus, maxLatency=%dus]", name,
+				getQueueDepth(), getProcessedCount(), getRejectedCount(), getAverageLatencyMicros(), getMaxLatencyMicros());
+	}
+}
@@ -0,0 +1,127 @@
+
+package com.sds.iot.sdk.protocol;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.IAuth;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+
+/**
+ * 이 클래스는 같은 사물로 여러 개의 연결을 맺고, 전송 메시지를 연결들에 나누어 전송합니다.
+ *
+ * 메시지는 Leaf 사물명(없으면 Root 사물) 별로 같은 연결에 배정되므로, 같은 사물의 메시지는 전송 순서가 유지됩니다.
+ * 서버 메시지(요청, 응답)는 첫 번째 연결로만 수신하고, 모든 연결의 이벤트는 하나의 IotTransport 로 전달되므로
+ * 어느 연결로 전송한 요청이든 응답 콜백은 같은 ResponseCallbackRepo 에서 처리됩니다.
+ *
+ * 일부 연결만 끊긴 경우에도 연결 끊김으로 처리하며, 재연결 시에는 끊긴 연결만 다시 초기화하고 연결합니다.
+ *
+ * @author SDS
+ */
+public class StripedProtocol implements IProtocol {
+	private static final Logger		LOGGER	= LoggerFactory.getLogger(StripedProtocol.class);
+
+	private final IProtocol[]		stripes;
+
+	/**
+	 * @param stripes
+	 *        연결별 프로토콜 객체. 순서대로 연결 순번(0 부터)이 설정됨
+	 * @throws UnsupportedOperationException
+	 *         다중 연결을 지원하지 않는 프로토콜인 경우
+	 */
+	public StripedProtocol(IProtocol... stripes) {
+		if (stripes.length == 0) {
+			throw new IllegalArgumentException("stripes must not be empty");
+		}
+		this.stripes = stripes.clone();
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i].setStripe(i);
+		}
+	}
+
+	/**
+	 * @return 연결 수
+	 */
+	public int getStripeCount() {
+		return stripes.length;
+	}
+
+	/**
+	 * 끊긴 연결만 초기화합니다. (연결된 연결은 그대로 사용)
+	 */
+	@Override
+	public void init(IotClientConfig cfg, MessageConverter converter, ITransportListener transport, IAuth auth) {
+		for (IProtocol stripe : stripes) {
+			if (!stripe.isConnected()) {
+				stripe.init(cfg, converter, transport, auth);
+			}
+		}
+	}
+
+	/**
+	 * 끊긴 연결만 서버로 연결합니다.
+	 */
+	@Override
+	public void connect() {
+		for (int i = 0; i < stripes.length; i++) {
+			if (!stripes[i].isConnected()) {
+				LOGGER.debug("Connect stripe {}/{}", i, stripes.length);
+				stripes[i].connect();
+			}
+		}
+	}
+
+	@Override
+	public void disconnect() {
+		for (IProtocol stripe : stripes) {
+			stripe.disconnect();
+		}
+	}
+
+	@Override
+	public void send(IotMessage msg) throws Exception {
+		stripeFor(msg).send(msg);
+	}
+
+	@Override
+	public CompletableFuture<Void> sendAsync(IotMessage msg) {
+		return stripeFor(msg).sendAsync(msg);
+	}
+
+	@Override
+	public boolean isBackpressure(Throwable e) {
+		for (IProtocol stripe : stripes) {
+			if (stripe.isBackpressure(e)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return 모든 연결이 연결되어 있으면 true
+	 */
+	@Override
+	public boolean isConnected() {
+		for (IProtocol stripe : stripes) {
+			if (!stripe.isConnected()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	IProtocol stripeFor(IotMessage msg) {
+		if (stripes.length == 1) {
+			return stripes[0];
+		}
+		String key = msg.getEndNode() != null ? msg.getEndNode() : msg.getThingName();
+		int h = key == null ? 0 : key.hashCode();
+		h ^= (h >>> 16);
+		return stripes[(h & 0x7fffffff) % stripes.length];
+	}
+}
@@ -0,0 +1,469 @@
+
+package com.sds.iot.sdk.protocol.mqtt;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.eclipse.paho.client.mqttv3.MqttClientPersistence;
+import org.eclipse.paho.client.mqttv3.MqttPersistable;
+import org.eclipse.paho.client.mqttv3.MqttPersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 이 클래스는 paho 의 in-flight 메시지 상태(QoS1 PUBLISH 등)를 memory-mapped 링 파일 하나에 저장합니다.
+ *
+ * paho 의 파일 persistence 는 메시지마다 작은 파일을 만들고 지우므로, SD 카드 등 느린 저장장치에서는 전송마다 큰 지연이 생깁니다.
+ * 이 클래스는 고정 크기 파일의 끝(tail)에 레코드를 이어서 기록하고, 삭제는 레코드의 상태 바이트만 바꿉니다.
+ * 가장 오래된 레코드(head)부터 삭제된 레코드를 건너뛰어 공간을 회수하며, 파일 끝에 닿으면 처음으로 돌아가 기록합니다.
+ * 오래된 레코드가 남아 있어 공간이 부족하면 남아 있는 레코드를 파일 앞쪽으로 모아서 다시 기록합니다.
+ *
+ * 기록할 때마다 디스크에 기록(fsync)하지 않으므로 프로세스가 비정상 종료되어도 상태는 유지되지만,
+ * 전원이 꺼지는 경우에는 마지막 상태 일부가 유실될 수 있습니다. (close() 시 디스크에 기록)
+ *
+ * <pre>
+ * file   : magic(4) | head(4) | tail(4) | record | record | ... | 0(4, 파일 끝으로 건너뜀)
+ * record : length(4) | state(1) | crc32(4) | keyLength(2) | headerLength(4) | key | header | payload
+ * </pre>
+ *
+ * @author SDS
+ */
+final class MappedFileMqttPersistence implements MqttClientPersistence {
+	private static final Logger				LOGGER				= LoggerFactory.getLogger(MappedFileMqttPersistence.class);
+
+	static final String						FILE_SUFFIX			= ".mqp";
+
+	/** "BMP1" */
+	private static final int				FILE_MAGIC			= 0x424D5031;
+	/** magic(4) + head(4) + tail(4) */
+	static final int						FILE_HEADER_SIZE	= 12;
+	/** length(4) + state(1) + crc32(4) + keyLength(2) + headerLength(4) */
+	static final int						RECORD_HEADER_SIZE	= 15;
+
+	private static final byte				DEAD				= 0;
+	private static final byte				LIVE				= 1;
+
+	private final File						dir;
+	private final int						fileSize;
+
+	private FileChannel						channel;
+	private FileLock						lock;
+	private MappedByteBuffer				buf;
+
+	/** key : 살아 있는 레코드 위치 */
+	private final Map<String, Integer>		index				= new HashMap<>();
+	private int								head;
+	private int								tail;
+
+	/**
+	 * @param dir
+	 *        파일 저장 디렉토리
+	 * @param fileSize
+	 *        새로 만드는 파일의 크기 (기존 파일은 그 크기를 그대로 사용)
+	 */
+	MappedFileMqttPersistence(String dir, int fileSize) {
+		if (fileSize < FILE_HEADER_SIZE + RECORD_HEADER_SIZE * 2) {
+			throw new IllegalArgumentException("persistenceFileSize is too small : " + fileSize);
+		}
+		this.dir = new File(dir);
+		this.fileSize = fileSize;
+	}
+
+	/**
+	 * "{clientId}-{serverURI}.mqp" 파일을 열고 저장된 레코드를 복구합니다. 다른 프로세스가 사용 중이면 실패합니다.
+	 */
+	@Override
+	public synchronized void open(String clientId, String serverURI) throws MqttPersistenceException {
+		if (buf != null) {
+			return;
+		}
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new MqttPersistenceException(new IOException("Cannot create persistence directory : " + dir.getAbsolutePath()));
+		}
+		File file = new File(dir, fileName(clientId, serverURI));
+		try {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			try {
+				lock = channel.tryLock();
+			} catch (OverlappingFileLockException e) {
+				lock = null;
+			}
+			if (lock == null) {
+				closeChannel();
+				throw new MqttPersistenceException(MqttPersistenceException.REASON_CODE_PERSISTENCE_IN_USE);
+			}
+
+			long size = channel.size();
+			boolean valid = size >= FILE_HEADER_SIZE + RECORD_HEADER_SIZE * 2 && size <= Integer.MAX_VALUE
+					&& readMagic() == FILE_MAGIC;
+			buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, valid ? size : fileSize);
+			if (valid) {
+				recover();
+			} else {
+				format();
+			}
+			LOGGER.debug("[MQTT] Persistence opened : {} (records={})", file.getAbsolutePath(), index.size());
+		} catch (IOException e) {
+			closeChannel();
+			throw new MqttPersistenceException(e);
+		}
+	}
+
+	private int readMagic() throws IOException {
+		ByteBuffer magic = ByteBuffer.allocate(4);
+		channel.read(magic, 0);
+		return magic.getInt(0);
+	}
+
+	static String fileName(String clientId, String serverURI) {
+		StringBuilder name = new StringBuilder();
+		for (char c : (clientId + "-" + serverURI).toCharArray()) {
+			name.append(Character.isLetterOrDigit(c) || c == '.' || c == '-' ? c : '_');
+		}
+		return name.append(FILE_SUFFIX).toString();
+	}
+
+	private void format() {
+		index.clear();
+		buf.putInt(0, FILE_MAGIC);
+		setHeadAndTail(FILE_HEADER_SIZE, FILE_HEADER_SIZE);
+	}
+
+	/**
+	 * head 부터 tail 까지 온전히 기록된 레코드를 읽어서 index 를 만듭니다. (기록 도중 종료된 레코드는 버림)
+	 */
+	private void recover() {
+		int capacity = buf.capacity();
+		head = buf.getInt(4);
+		tail = buf.getInt(8);
+		if (head < FILE_HEADER_SIZE || head > capacity || tail < FILE_HEADER_SIZE || tail > capacity) {
+			LOGGER.warn("[MQTT] Invalid persistence file header is reset. (head={}, tail={})", head, tail);
+			format();
+			return;
+		}
+		boolean wrapped = false;
+		int pos = head;
+		while (pos != tail) {
+			if (isWrap(pos)) {
+				if (wrapped) {
+					LOGGER.warn("[MQTT] Persistence file is corrupted and reset.");
+					format();
+					return;
+				}
+				wrapped = true;
+				pos = FILE_HEADER_SIZE;
+				continue;
+			}
+			int length = buf.getInt(pos);
+			if (length < RECORD_HEADER_SIZE || length > capacity - pos || buf.getInt(pos + 5) != checksum(pos, length)) {
+				LOGGER.warn("[MQTT] Persistence records after {} are discarded.", pos);
+				tail = pos;
+				break;
+			}
+			if (buf.get(pos + 4) == LIVE) {
+				Integer old = index.put(readKey(pos), pos);
+				if (old != null) {
+					buf.put(old + 4, DEAD);
+				}
+			}
+			pos += length;
+		}
+		setHeadAndTail(head, tail);
+		advanceHead();
+	}
+
+	/**
+	 * 레코드를 tail 에 기록합니다. 같은 key 의 이전 레코드는 새 레코드를 기록한 후 삭제합니다.
+	 */
+	@Override
+	public synchronized void put(String key, MqttPersistable persistable) throws MqttPersistenceException {
+		checkOpen();
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		int headerLength = persistable.getHeaderLength();
+		int payloadLength = persistable.getPayloadLength();
+		int length = RECORD_HEADER_SIZE + keyBytes.length + headerLength + payloadLength;
+
+		int pos = reserve(length);
+		if (pos < 0) {
+			compact();
+			pos = reserve(length);
+			if (pos < 0) {
+				throw new MqttPersistenceException(new IOException(
+						"Persistence file is full. (record=" + length + ", live records=" + index.size() + ")"));
+			}
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(keyBytes);
+		ByteBuffer record = buf.duplicate();
+		record.position(pos + RECORD_HEADER_SIZE);
+		record.put(keyBytes);
+		if (headerLength > 0) {
+			record.put(persistable.getHeaderBytes(), persistable.getHeaderOffset(), headerLength);
+			crc.update(persistable.getHeaderBytes(), persistable.getHeaderOffset(), headerLength);
+		}
+		if (payloadLength > 0) {
+			record.put(persistable.getPayloadBytes(), persistable.getPayloadOffset(), payloadLength);
+			crc.update(persistable.getPayloadBytes(), persistable.getPayloadOffset(), payloadLength);
+		}
+		buf.putInt(pos, length);
+		buf.put(pos + 4, LIVE);
+		buf.putInt(pos + 5, (int) crc.getValue());
+		buf.putShort(pos + 9, (short) keyBytes.length);
+		buf.putInt(pos + 11, headerLength);
+
+		// 새 레코드가 온전히 기록된 후 tail 이동
+		tail = pos + length;
+		buf.putInt(8, tail);
+
+		Integer old = index.put(key, pos);
+		if (old != null) {
+			buf.put(old + 4, DEAD);
+			advanceHead();
+		}
+	}
+
+	/**
+	 * @return 기록할 위치. 공간이 부족하면 -1
+	 */
+	private int reserve(int length) {
+		if (head == tail && head != FILE_HEADER_SIZE) {
+			// 비어 있으면 처음부터 기록
+			setHeadAndTail(FILE_HEADER_SIZE, FILE_HEADER_SIZE);
+		}
+		int capacity = buf.capacity();
+		if (tail >= head) {
+			if (capacity - tail >= length) {
+				return tail;
+			}
+			// 파일 끝에 공간이 부족하면 처음으로 돌아감. head 와 겹치지 않아야 함
+			if (FILE_HEADER_SIZE + length < head) {
+				if (capacity - tail >= 4) {
+					buf.putInt(tail, 0);
+				}
+				tail = FILE_HEADER_SIZE;
+				return tail;
+			}
+			return -1;
+		}
+		return tail + length < head ? tail : -1;
+	}
+
+	/**
+	 * 살아 있는 레코드를 파일 앞쪽으로 모아서 다시 기록합니다.
+	 */
+	private void compact() {
+		List<byte[]> records = new ArrayList<>(index.size());
+		int pos = head;
+		while (pos != tail) {
+			if (isWrap(pos)) {
+				pos = FILE_HEADER_SIZE;
+				continue;
+			}
+			int length = buf.getInt(pos);
+			if (buf.get(pos + 4) == LIVE) {
+				byte[] record = new byte[length];
+				ByteBuffer src = buf.duplicate();
+				src.position(pos);
+				src.get(record);
+				records.add(record);
+			}
+			pos += length;
+		}
+
+		index.clear();
+		pos = FILE_HEADER_SIZE;
+		for (byte[] record : records) {
+			ByteBuffer dst = buf.duplicate();
+			dst.position(pos);
+			dst.put(record);
+			index.put(readKey(pos), pos);
+			pos += record.length;
+		}
+		setHeadAndTail(FILE_HEADER_SIZE, pos);
+		LOGGER.debug("[MQTT] Persistence compacted. (records={}, used={})", records.size(), pos - FILE_HEADER_SIZE);
+	}
+
+	/**
+	 * head 의 삭제된 레코드를 건너뛰어 공간을 회수합니다.
+	 */
+	private void advanceHead() {
+		while (head != tail) {
+			if (isWrap(head)) {
+				head = FILE_HEADER_SIZE;
+				continue;
+			}
+			if (buf.get(head + 4) == LIVE) {
+				break;
+			}
+			head += buf.getInt(head);
+		}
+		buf.putInt(4, head);
+	}
+
+	private boolean isWrap(int pos) {
+		return buf.capacity() - pos < 4 || buf.getInt(pos) == 0;
+	}
+
+	private void setHeadAndTail(int head, int tail) {
+		this.head = head;
+		this.tail = tail;
+		buf.putInt(4, head);
+		buf.putInt(8, tail);
+	}
+
+	private String readKey(int pos) {
+		byte[] key = new byte[buf.getShort(pos + 9) & 0xFFFF];
+		ByteBuffer src = buf.duplicate();
+		src.position(pos + RECORD_HEADER_SIZE);
+		src.get(key);
+		return new String(key, StandardCharsets.UTF_8);
+	}
+
+	private int checksum(int pos, int length) {
+		ByteBuffer data = buf.duplicate();
+		data.position(pos + RECORD_HEADER_SIZE);
+		data.limit(pos + length);
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		return (int) crc.getValue();
+	}
+
+	@Override
+	public synchronized MqttPersistable get(String key) throws MqttPersistenceException {
+		checkOpen();
+		Integer pos = index.get(key);
+		if (pos == null) {
+			return null;
+		}
+		int length = buf.getInt(pos);
+		int keyLength = buf.getShort(pos + 9) & 0xFFFF;
+		byte[] header = new byte[buf.getInt(pos + 11)];
+		byte[] payload = new byte[length - RECORD_HEADER_SIZE - keyLength - header.length];
+		ByteBuffer src = buf.duplicate();
+		src.position(pos + RECORD_HEADER_SIZE + keyLength);
+		src.get(header);
+		src.get(payload);
+		return new Record(header, payload);
+	}
+
+	@Override
+	public synchronized void remove(String key) throws MqttPersistenceException {
+		checkOpen();
+		Integer pos = index.remove(key);
+		if (pos != null) {
+			buf.put(pos + 4, DEAD);
+			advanceHead();
+		}
+	}
+
+	@Override
+	public synchronized Enumeration<String> keys() throws MqttPersistenceException {
+		checkOpen();
+		return Collections.enumeration(new ArrayList<>(index.keySet()));
+	}
+
+	@Override
+	public synchronized void clear() throws MqttPersistenceException {
+		checkOpen();
+		format();
+	}
+
+	@Override
+	public synchronized boolean containsKey(String key) throws MqttPersistenceException {
+		checkOpen();
+		return index.containsKey(key);
+	}
+
+	/**
+	 * 디스크에 기록하고 파일을 닫습니다.
+	 */
+	@Override
+	public synchronized void close() throws MqttPersistenceException {
+		if (buf == null) {
+			return;
+		}
+		buf.force();
+		buf = null;
+		index.clear();
+		closeChannel();
+	}
+
+	private void closeChannel() {
+		try {
+			if (lock != null) {
+				lock.release();
+			}
+			if (channel != null) {
+				channel.close();
+			}
+		} catch (IOException e) {
+			LOGGER.warn("[MQTT] Fail to close persistence file : {}", e.toString());
+		}
+		lock = null;
+		channel = null;
+	}
+
+	private void checkOpen() throws MqttPersistenceException {
+		if (buf == null) {
+			throw new MqttPersistenceException(MqttPersistenceException.REASON_CODE_CLIENT_CLOSED);
+		}
+	}
+
+	/**
+	 * 저장된 레코드
+	 */
+	private static final class Record implements MqttPersistable {
+		private final byte[]	header;
+		private final byte[]	payload;
+
+		Record(byte[] header, byte[] payload) {
+			this.header = header;
+			this.payload = payload;
+		}
+
+		@Override
+		public byte[] getHeaderBytes() {
+			return header;
+		}
+
+		@Override
+		public int getHeaderLength() {
+			return header.length;
+		}
+
+		@Override
+		public int getHeaderOffset() {
+			return 0;
+		}
+
+		@Override
+		public byte[] getPayloadBytes() {
+			return payload;
+		}
+
+		@Override
+		public int getPayloadLength() {
+			return payload.length;
+		}
+
+		@Override
+		public int getPayloadOffset() {
+			return 0;
+		}
+	}
+}
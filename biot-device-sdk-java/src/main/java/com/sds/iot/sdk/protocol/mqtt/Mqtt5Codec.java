@@ -0,0 +1,302 @@
+
+package com.sds.iot.sdk.protocol.mqtt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 이 클래스는 {@link Mqtt5Protocol} 에서 사용하는 MQTT v5 패킷의 인코딩과 디코딩 기능을 제공합니다.
+ * SDK 에서 사용하는 패킷(CONNECT, SUBSCRIBE, PUBLISH QoS 0/1, PUBACK, PINGREQ, DISCONNECT)만 지원합니다.
+ *
+ * @author SDS
+ */
+final class Mqtt5Codec {
+
+	/* packet type */
+	static final int	CONNECT						= 1;
+	static final int	CONNACK						= 2;
+	static final int	PUBLISH						= 3;
+	static final int	PUBACK						= 4;
+	static final int	SUBSCRIBE					= 8;
+	static final int	SUBACK						= 9;
+	static final int	PINGREQ						= 12;
+	static final int	PINGRESP					= 13;
+	static final int	DISCONNECT					= 14;
+
+	/* property identifier */
+	static final int	PROP_MESSAGE_EXPIRY			= 0x02;
+	static final int	PROP_SERVER_KEEP_ALIVE		= 0x13;
+	static final int	PROP_REASON_STRING			= 0x1F;
+	static final int	PROP_RECEIVE_MAXIMUM		= 0x21;
+	static final int	PROP_TOPIC_ALIAS_MAXIMUM	= 0x22;
+	static final int	PROP_TOPIC_ALIAS			= 0x23;
+
+	/** Receive Maximum 속성이 없는 경우의 값 */
+	static final int	DEFAULT_RECEIVE_MAXIMUM		= 65_535;
+
+	private static final byte[]	PROTOCOL_NAME		= "MQTT".getBytes(StandardCharsets.UTF_8);
+	private static final int	PROTOCOL_LEVEL		= 5;
+
+	private Mqtt5Codec() {
+	}
+
+	/**
+	 * 수신 패킷
+	 */
+	static final class Packet {
+		final int			type;
+		final int			flags;
+		final ByteBuffer	body;
+
+		Packet(int header, byte[] body) {
+			this.type = header >> 4;
+			this.flags = header & 0x0F;
+			this.body = ByteBuffer.wrap(body);
+		}
+	}
+
+	/* ============================================================= */
+
+	static byte[] connect(String clientId, String userName, String password, int keepAliveSeconds) {
+		ByteArrayOutputStream vh = new ByteArrayOutputStream(64);
+		writeBinary(vh, PROTOCOL_NAME);
+		vh.write(PROTOCOL_LEVEL);
+		int flags = 0x02; // clean start
+		if (userName != null) {
+			flags |= 0x80;
+		}
+		if (password != null) {
+			flags |= 0x40;
+		}
+		vh.write(flags);
+		writeShort(vh, keepAliveSeconds);
+		writeVarInt(vh, 0); // properties
+
+		writeString(vh, clientId);
+		if (userName != null) {
+			writeString(vh, userName);
+		}
+		if (password != null) {
+			writeString(vh, password);
+		}
+		return packet(CONNECT << 4, vh);
+	}
+
+	static byte[] subscribe(int packetId, String topicFilter, int qos) {
+		ByteArrayOutputStream vh = new ByteArrayOutputStream(64);
+		writeShort(vh, packetId);
+		writeVarInt(vh, 0); // properties
+		writeString(vh, topicFilter);
+		vh.write(qos);
+		return packet(SUBSCRIBE << 4 | 0x02, vh);
+	}
+
+	/**
+	 * @param topic
+	 *        토픽. topic alias 가 이미 지정된 경우 빈 문자열
+	 * @param topicAlias
+	 *        0 이면 topic alias 사용 안함
+	 * @param messageExpiry
+	 *        메시지 유효 시간 (초). 0 이면 지정 안함
+	 */
+	static byte[] publish(int qos, String topic, int packetId, int topicAlias, long messageExpiry, byte[] payload) {
+		ByteArrayOutputStream vh = new ByteArrayOutputStream(payload.length + topic.length() + 16);
+		writeString(vh, topic);
+		if (qos > 0) {
+			writeShort(vh, packetId);
+		}
+		int propsLength = (topicAlias > 0 ? 3 : 0) + (messageExpiry > 0 ? 5 : 0);
+		writeVarInt(vh, propsLength);
+		if (topicAlias > 0) {
+			vh.write(PROP_TOPIC_ALIAS);
+			writeShort(vh, topicAlias);
+		}
+		if (messageExpiry > 0) {
+			vh.write(PROP_MESSAGE_EXPIRY);
+			writeInt(vh, messageExpiry);
+		}
+		vh.write(payload, 0, payload.length);
+		return packet(PUBLISH << 4 | qos << 1, vh);
+	}
+
+	static byte[] puback(int packetId) {
+		return new byte[] { (byte) (PUBACK << 4), 0x02, (byte) (packetId >> 8), (byte) packetId };
+	}
+
+	static byte[] pingreq() {
+		return new byte[] { (byte) (PINGREQ << 4), 0x00 };
+	}
+
+	static byte[] disconnect() {
+		return new byte[] { (byte) (DISCONNECT << 4), 0x00 };
+	}
+
+	/* ============================================================= */
+
+	/**
+	 * 고정 헤더 첫 바이트 이후의 패킷을 읽습니다.
+	 * 패킷을 읽는 도중 타임아웃이 발생하면 스트림을 더 이상 사용할 수 없으므로 일반 IOException 으로 변환합니다.
+	 *
+	 * @param header
+	 *        고정 헤더 첫 바이트
+	 */
+	static Packet readPacket(int header, InputStream in) throws IOException {
+		try {
+			int remaining = readVarInt(in);
+			byte[] body = new byte[remaining];
+			int read = 0;
+			while (read < remaining) {
+				int n = in.read(body, read, remaining - read);
+				if (n < 0) {
+					throw new EOFException("Connection closed in the middle of a packet");
+				}
+				read += n;
+			}
+			return new Packet(header, body);
+		} catch (SocketTimeoutException e) {
+			throw new IOException("Read timed out in the middle of a packet", e);
+		}
+	}
+
+	/**
+	 * @return 패킷. 연결이 종료된 경우 null
+	 */
+	static Packet readPacket(InputStream in) throws IOException {
+		int header = in.read();
+		return header < 0 ? null : readPacket(header, in);
+	}
+
+	/**
+	 * 속성을 읽습니다. 숫자 속성은 Long, 문자열 속성은 String, 바이너리 속성은 byte[] 로 저장합니다. (User Property 는 무시)
+	 */
+	static Map<Integer, Object> readProperties(ByteBuffer buf) throws IOException {
+		Map<Integer, Object> props = new HashMap<>();
+		if (!buf.hasRemaining()) {
+			return props;
+		}
+		int end = readVarInt(buf) + buf.position();
+		while (buf.position() < end) {
+			int id = readVarInt(buf);
+			switch (id) {
+				// byte
+				case 0x01: case 0x17: case 0x19: case 0x24: case 0x25: case 0x28: case 0x29: case 0x2A:
+					props.put(id, (long) (buf.get() & 0xFF));
+					break;
+				// two byte integer
+				case 0x13: case 0x21: case 0x22: case 0x23:
+					props.put(id, (long) (buf.getShort() & 0xFFFF));
+					break;
+				// four byte integer
+				case 0x02: case 0x11: case 0x18: case 0x27:
+					props.put(id, buf.getInt() & 0xFFFFFFFFL);
+					break;
+				// variable byte integer
+				case 0x0B:
+					props.put(id, (long) readVarInt(buf));
+					break;
+				// UTF-8 string
+				case 0x03: case 0x08: case 0x12: case 0x15: case 0x1A: case 0x1C: case 0x1F:
+					props.put(id, readString(buf));
+					break;
+				// binary data
+				case 0x09: case 0x16:
+					byte[] data = new byte[buf.getShort() & 0xFFFF];
+					buf.get(data);
+					props.put(id, data);
+					break;
+				// user property (string pair)
+				case 0x26:
+					readString(buf);
+					readString(buf);
+					break;
+				default:
+					throw new IOException("Unknown MQTT property : 0x" + Integer.toHexString(id));
+			}
+		}
+		return props;
+	}
+
+	static int getInt(Map<Integer, Object> props, int id, int defaultValue) {
+		Object value = props.get(id);
+		return value instanceof Long ? ((Long) value).intValue() : defaultValue;
+	}
+
+	static String readString(ByteBuffer buf) {
+		byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+		buf.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/* ============================================================= */
+
+	private static byte[] packet(int header, ByteArrayOutputStream variable) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(variable.size() + 5);
+		out.write(header);
+		writeVarInt(out, variable.size());
+		out.write(variable.toByteArray(), 0, variable.size());
+		return out.toByteArray();
+	}
+
+	private static void writeShort(ByteArrayOutputStream out, int value) {
+		out.write(value >> 8);
+		out.write(value);
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, long value) {
+		out.write((int) (value >> 24));
+		out.write((int) (value >> 16));
+		out.write((int) (value >> 8));
+		out.write((int) value);
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String value) {
+		writeBinary(out, value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void writeBinary(ByteArrayOutputStream out, byte[] value) {
+		writeShort(out, value.length);
+		out.write(value, 0, value.length);
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int value) {
+		do {
+			int b = value & 0x7F;
+			value >>>= 7;
+			out.write(value > 0 ? b | 0x80 : b);
+		} while (value > 0);
+	}
+
+	private static int readVarInt(InputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 28; shift += 7) {
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException("Connection closed in the middle of a packet");
+			}
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable byte integer");
+	}
+
+	private static int readVarInt(ByteBuffer buf) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 28; shift += 7) {
+			int b = buf.get() & 0xFF;
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable byte integer");
+	}
+}
@@ -0,0 +1,552 @@
+
+package com.sds.iot.sdk.protocol.mqtt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.SocketFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.IAuth;
+import com.sds.iot.sdk.exception.IotException;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.protocol.IProtocol;
+import com.sds.iot.sdk.protocol.ITransportListener;
+import com.sds.iot.sdk.protocol.mqtt.Mqtt5Codec.Packet;
+import com.sds.iot.sdk.protocol.tls.TlsSupport;
+
+/**
+ * 이 클래스는 MQTT v5 프로토콜을 이용한 서버 연결 및 메시지 전송 기능을 제공합니다. (protocolType "MQTT5")
+ *
+ * 설정은 {@link MqttProtocolConfig} 를 사용하며, MQTT v3.1.1 과 비교하여 다음 기능을 사용합니다.
+ * <ul>
+ * <li>Topic Alias : 서버가 허용하면(Topic Alias Maximum &gt; 0) 첫 PUBLISH 에서 "ocp/dataBus" 토픽에 alias 를 지정하고,
+ * 이후에는 토픽 없이 alias 만 전송합니다.</li>
+ * <li>Receive Maximum : 서버가 CONNACK 으로 알려준 Receive Maximum 과 maxInflight 중 작은 값만큼만 PUBACK 을 기다리지 않고 전송합니다.</li>
+ * <li>Message Expiry Interval : messageExpiryInterval 설정 시, 서버가 유효 시간 안에 전달하지 못한 메시지는 버려집니다.</li>
+ * </ul>
+ *
+ * 세션은 유지하지 않으며(clean start), 연결이 끊기면 PUBACK 을 받지 못한 메시지는 전송 실패로 처리됩니다.
+ * (재전송이 필요하면 송신 저널(journal.dir) 설정을 사용)
+ *
+ * @author SDS
+ */
+public class Mqtt5Protocol implements IProtocol {
+	private static final Logger								LOGGER				= LoggerFactory.getLogger(Mqtt5Protocol.class);
+	private static final String								TOPIC_PREFIX		= "ocp/";
+	private static final String								INTERNAL_CLIENT_ID	= "dataBus";
+
+	/** "ocp/dataBus" 토픽에 지정하는 alias */
+	private static final int								PUBLISH_TOPIC_ALIAS	= 1;
+
+	/** 인증 실패 CONNACK reason code (Bad User Name or Password, Not authorized, Banned) */
+	private static final int[]								AUTH_REASON_CODES	= { 0x86, 0x87, 0x8A };
+
+	private IotClientConfig									cfg;
+	private MessageConverter								converter;
+	private ITransportListener								transport;
+	private IAuth											auth;
+
+	/** "{siteId}+{thingName}" */
+	private String											mqttUserName;
+
+	/** "{siteId}+{thingName}", 0 이 아닌 연결은 "{siteId}+{thingName}#{stripe}" */
+	private String											mqttClientId;
+
+	/** 연결 순번 (StripedProtocol) */
+	private int												stripe;
+
+	/** "ocp/{siteId}/{thingName}" */
+	private String											mqttSubscribeTopic;
+
+	/** "ocp/dataBus" */
+	private String											mqttPublishTopic	= TOPIC_PREFIX + INTERNAL_CLIENT_ID;
+
+	private Socket											socket;
+	private OutputStream									out;
+	private Thread											receiver;
+	private final Object									writeLock			= new Object();
+	private volatile boolean								connected			= false;
+	private volatile boolean								closing				= false;
+
+	/** 서버와 합의한 keep alive 시간 (0: 사용 안함) */
+	private long											keepAliveNanos		= 0L;
+	/** 마지막으로 패킷을 보낸 시각 (nanoTime) */
+	private volatile long									lastWriteNanos		= 0L;
+
+	/** 서버가 허용한 topic alias 최대값 (0: 사용 안함) */
+	private int												topicAliasMaximum	= 0;
+	/** 현재 연결에서 publish 토픽에 alias 를 지정했는지 여부 (writeLock) */
+	private boolean											topicAliasAssigned	= false;
+
+	/** PUBACK 대기 수 제한 (서버 Receive Maximum, maxInflight) */
+	private volatile MqttInflightWindow						inflightWindow;
+	/** key:packetId, value:PUBACK 수신 시 완료 */
+	private final Map<Integer, CompletableFuture<Void>>	pending				= new ConcurrentHashMap<>();
+	private final AtomicInteger								packetIdSeq			= new AtomicInteger();
+
+	private MqttProtocolConfig getProtocolCfg() {
+		return (MqttProtocolConfig) cfg.getProtocolCfg();
+	}
+
+	/**
+	 * 연결 순번 설정. 0 이 아닌 연결은 clientId 에 "#{stripe}" 를 붙이고, 구독하지 않고 전송만 합니다.
+	 */
+	@Override
+	public void setStripe(int stripe) {
+		if (stripe < 0) {
+			throw new IllegalArgumentException("stripe must not be negative : " + stripe);
+		}
+		this.stripe = stripe;
+	}
+
+	/**
+	 * MQTT v5 클라이언트 초기화
+	 */
+	@Override
+	public void init(IotClientConfig cfg, MessageConverter converter, ITransportListener transport, IAuth auth) {
+		if (connected) {
+			throw new IllegalStateException("MQTT client is already initialized and connected. Please disconnect and connect.");
+		}
+		this.cfg = cfg;
+		this.converter = converter;
+		this.transport = transport;
+		this.auth = auth;
+
+		if (cfg.getProtocolCfg() == null) {
+			// protocol config 를 별도 설정하지 않으면 디폴트 값으로 생성
+			cfg.setProtocolCfg(new MqttProtocolConfig());
+		}
+
+		this.mqttUserName = cfg.getSiteId() + "+" + cfg.getThingName();
+		this.mqttClientId = stripe == 0 ? mqttUserName : mqttUserName + "#" + stripe;
+		this.mqttSubscribeTopic = TOPIC_PREFIX + cfg.getSiteId() + "/" + cfg.getThingName();
+	}
+
+	/**
+	 * MQTT v5 서버로 연결. CONNACK 의 Receive Maximum, Topic Alias Maximum 으로 전송 방식을 정합니다.
+	 */
+	@Override
+	public void connect() {
+		LOGGER.info("[MQTT5] Connect : {}", cfg.getServerAddr());
+		closing = false;
+		Socket s = null;
+		try {
+			s = openSocket();
+			InputStream in = new BufferedInputStream(s.getInputStream());
+			OutputStream os = new BufferedOutputStream(s.getOutputStream());
+
+			// CONNECT
+			int keepAlive = getProtocolCfg().getKeepAliveInterval();
+			os.write(Mqtt5Codec.connect(mqttClientId, mqttUserName, auth.getCredential(), keepAlive));
+			os.flush();
+
+			Packet connack = Mqtt5Codec.readPacket(in);
+			if (connack == null || connack.type != Mqtt5Codec.CONNACK) {
+				throw new EOFException("CONNACK is not received");
+			}
+			connack.body.get(); // connect acknowledge flags
+			int reasonCode = connack.body.get() & 0xFF;
+			Map<Integer, Object> props = Mqtt5Codec.readProperties(connack.body);
+			if (reasonCode >= 0x80) {
+				closeQuietly(s);
+				Object reason = props.get(Mqtt5Codec.PROP_REASON_STRING);
+				String message = "Fail to connect to MQTT server! (reason=0x" + Integer.toHexString(reasonCode)
+						+ (reason == null ? ")" : ", " + reason + ")");
+				for (int authReasonCode : AUTH_REASON_CODES) {
+					if (reasonCode == authReasonCode) {
+						// MQTT 인증 오류이면 재시도 하지 않음
+						LOGGER.error("[MQTT5] {}", message);
+						throw new IotException("401", message);
+					}
+				}
+				LOGGER.warn("[MQTT5] {}", message);
+				throw new IotException("500", message);
+			}
+
+			int receiveMaximum = Mqtt5Codec.getInt(props, Mqtt5Codec.PROP_RECEIVE_MAXIMUM, Mqtt5Codec.DEFAULT_RECEIVE_MAXIMUM);
+			keepAlive = Mqtt5Codec.getInt(props, Mqtt5Codec.PROP_SERVER_KEEP_ALIVE, keepAlive);
+			this.topicAliasMaximum = Mqtt5Codec.getInt(props, Mqtt5Codec.PROP_TOPIC_ALIAS_MAXIMUM, 0);
+			this.topicAliasAssigned = false;
+			this.inflightWindow = new MqttInflightWindow(getProtocolCfg().getMinInflight(),
+					Math.min(getProtocolCfg().getMaxInflight(), receiveMaximum), getProtocolCfg().isAdaptiveInflight());
+			LOGGER.debug("[MQTT5] Connected (receiveMaximum={}, topicAliasMaximum={}, keepAlive={})", receiveMaximum,
+					topicAliasMaximum, keepAlive);
+
+			// MQTT SUBSCRIBE (수신은 첫 번째 연결만)
+			if (stripe == 0) {
+				LOGGER.debug("[MQTT5] Subscribe : {}", mqttSubscribeTopic);
+				os.write(Mqtt5Codec.subscribe(nextPacketId(), mqttSubscribeTopic, getProtocolCfg().getSubscribeQos()));
+				os.flush();
+				Packet suback = Mqtt5Codec.readPacket(in);
+				if (suback == null || suback.type != Mqtt5Codec.SUBACK) {
+					throw new EOFException("SUBACK is not received");
+				}
+				suback.body.getShort(); // packet id
+				Mqtt5Codec.readProperties(suback.body);
+				if (!suback.body.hasRemaining() || (suback.body.get() & 0xFF) >= 0x80) {
+					closeQuietly(s);
+					throw new IllegalStateException("Fail to MQTT subscribe!");
+				}
+			}
+
+			// keep alive 시간의 절반 동안 수신이 없으면 PINGREQ 전송
+			s.setSoTimeout(keepAlive > 0 ? keepAlive * 500 : 0);
+			this.keepAliveNanos = TimeUnit.SECONDS.toNanos(Math.max(keepAlive, 0));
+			this.lastWriteNanos = System.nanoTime();
+			Socket connectedSocket = s;
+			this.socket = connectedSocket;
+			this.out = os;
+			this.connected = true;
+
+			Thread t = new Thread(() -> receive(connectedSocket, in), "biot-mqtt5Receiver");
+			t.setDaemon(true);
+			this.receiver = t;
+			t.start();
+
+		} catch (IOException e) {
+			closeQuietly(s);
+			LOGGER.warn("[MQTT5] Fail to connect (IOException) : {}", e.toString());
+			throw new IotException("500", "Fail to connect to MQTT server!", e);
+		}
+	}
+
+	private Socket openSocket() throws IOException {
+		URI uri = URI.create(cfg.getServerAddr());
+		SocketFactory factory;
+		if (cfg.isServerAddrSsl()) {
+			try {
+				factory = TlsSupport.createTlsContext(cfg.getSslProperties()).getSocketFactory();
+			} catch (Exception e) {
+				throw new IllegalStateException("Fail to make ssl context.", e);
+			}
+		} else {
+			factory = SocketFactory.getDefault();
+		}
+		int port = uri.getPort() > 0 ? uri.getPort() : cfg.isServerAddrSsl() ? 8883 : 1883;
+		int timeoutMillis = (int) TimeUnit.SECONDS.toMillis(getProtocolCfg().getConnectionTimeout());
+
+		Socket s = factory.createSocket();
+		s.setTcpNoDelay(true);
+		s.connect(new InetSocketAddress(uri.getHost(), port), timeoutMillis);
+		s.setSoTimeout(timeoutMillis);
+		return s;
+	}
+
+	/**
+	 * 수신 스레드. 연결이 끊길 때까지 PUBACK, PUBLISH 를 처리합니다.
+	 *
+	 * keep alive 시간의 절반 동안 수신이 없거나 마지막 송신 후 keep alive 시간의 절반이 지나면 PINGREQ 를 전송하고,
+	 * 그 후 다시 keep alive 시간의 절반 동안 수신한 패킷이 없으면 연결이 끊긴 것으로 처리합니다.
+	 */
+	private void receive(Socket s, InputStream in) {
+		// 응답(수신 패킷)을 기다리는 PINGREQ 의 전송 시각. 0 이면 기다리는 PINGREQ 없음
+		long pingSentNanos = 0L;
+		try {
+			while (true) {
+				int header;
+				try {
+					header = in.read();
+				} catch (SocketTimeoutException e) {
+					if (pingSentNanos != 0L) {
+						throw new IOException("No packet received since PINGREQ ("
+								+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pingSentNanos) + " ms)");
+					}
+					pingSentNanos = ping();
+					continue;
+				}
+				if (header < 0) {
+					throw new EOFException("Connection closed by server");
+				}
+				pingSentNanos = 0L;
+				Packet packet = Mqtt5Codec.readPacket(header, in);
+				switch (packet.type) {
+					case Mqtt5Codec.PUBACK:
+						onPuback(packet);
+						break;
+					case Mqtt5Codec.PUBLISH:
+						onPublish(packet);
+						break;
+					case Mqtt5Codec.PINGRESP:
+						LOGGER.trace("[MQTT5] PINGRESP");
+						break;
+					case Mqtt5Codec.DISCONNECT:
+						int reasonCode = packet.body.hasRemaining() ? packet.body.get() & 0xFF : 0;
+						throw new IOException("DISCONNECT is received (reason=0x" + Integer.toHexString(reasonCode) + ")");
+					default:
+						LOGGER.debug("[MQTT5] Unexpected packet : type={}", packet.type);
+						break;
+				}
+
+				// 수신만 계속되는 경우에도 keep alive 시간 안에 서버로 패킷을 보냄
+				if (keepAliveNanos > 0 && System.nanoTime() - lastWriteNanos >= keepAliveNanos / 2) {
+					pingSentNanos = ping();
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			connectionLost(s, e);
+		}
+	}
+
+	/**
+	 * @return PINGREQ 전송 시각 (nanoTime)
+	 */
+	private long ping() throws IOException {
+		LOGGER.trace("[MQTT5] PINGREQ");
+		write(Mqtt5Codec.pingreq());
+		return System.nanoTime();
+	}
+
+	private void onPuback(Packet packet) throws IOException {
+		int packetId = packet.body.getShort() & 0xFFFF;
+		int reasonCode = packet.body.hasRemaining() ? packet.body.get() & 0xFF : 0;
+		LOGGER.trace("[MQTT5] publish complete (packetId={}, reason=0x{})", packetId, Integer.toHexString(reasonCode));
+
+		inflightWindow.onDeliveryComplete(packetId);
+		CompletableFuture<Void> future = pending.remove(packetId);
+		if (reasonCode < 0x80) {
+			transport.onMessageSent(null);
+			if (future != null) {
+				future.complete(null);
+			}
+		} else {
+			Object reason = Mqtt5Codec.readProperties(packet.body).get(Mqtt5Codec.PROP_REASON_STRING);
+			IotException e = new IotException("500",
+					"Publish is rejected (reason=0x" + Integer.toHexString(reasonCode) + (reason == null ? ")" : ", " + reason + ")"));
+			LOGGER.warn("[MQTT5] {}", e.getMessage());
+			transport.onMessageSent(e);
+			if (future != null) {
+				future.completeExceptionally(e);
+			}
+		}
+	}
+
+	private void onPublish(Packet packet) throws IOException {
+		int qos = (packet.flags >> 1) & 0x03;
+		Mqtt5Codec.readString(packet.body); // topic
+		int packetId = qos > 0 ? packet.body.getShort() & 0xFFFF : 0;
+		Mqtt5Codec.readProperties(packet.body);
+		byte[] payload = new byte[packet.body.remaining()];
+		packet.body.get(payload);
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("[MQTT5] message arrived {} bytes", payload.length);
+		}
+		if (qos > 0) {
+			write(Mqtt5Codec.puback(packetId));
+		}
+
+		IotMessage msg = converter.convertFromBytes(payload);
+
+		// 메시지 처리 스레드 분리는 IotTransport 에서 수행 (inboundDispatchThreads 설정)
+		transport.onMessageReceived(msg);
+	}
+
+	private void connectionLost(Socket s, Throwable cause) {
+		closeQuietly(s);
+		if (closing || s != this.socket) {
+			return;
+		}
+		LOGGER.warn("[MQTT5] connectionLost : {}", cause.toString(), cause);
+		this.connected = false;
+		failPending(cause);
+
+		// 재연결은 IotTransport 의 재연결 스레드에서 수행되므로 바로 리턴됨
+		transport.onConnectionLost(cause.toString());
+	}
+
+	/**
+	 * PUBACK 을 기다리던 메시지를 전송 실패로 처리하고, 전송 자리를 기다리던 스레드를 깨웁니다.
+	 */
+	private void failPending(Throwable cause) {
+		MqttInflightWindow window = this.inflightWindow;
+		if (window != null) {
+			window.wakeUp();
+		}
+		for (Integer packetId : pending.keySet()) {
+			CompletableFuture<Void> future = pending.remove(packetId);
+			if (future != null && future.completeExceptionally(cause)) {
+				transport.onMessageSent(cause);
+			}
+		}
+	}
+
+	/**
+	 * MQTT v5 클라이언트 연결 종료
+	 */
+	@Override
+	public void disconnect() {
+		Socket s = this.socket;
+		if (s == null) {
+			LOGGER.debug("[MQTT5] Disconnection is not needed. mqttClient is null.");
+			return;
+		} else if (!isConnected()) {
+			LOGGER.debug("[MQTT5] Disconnection is not needed. mqttClient is already disconnected.");
+			return;
+		}
+
+		LOGGER.debug("[MQTT5] Disconnect");
+		closing = true;
+		connected = false;
+		try {
+			write(Mqtt5Codec.disconnect());
+		} catch (IOException e) {
+			LOGGER.warn("[MQTT5] Exception occurred while disconnecting : {}", e.toString());
+		}
+		closeQuietly(s);
+		try {
+			receiver.join(getProtocolCfg().getTimeToWaitInMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		failPending(new IotException("503", "MQTT client is disconnected."));
+	}
+
+	/**
+	 * MQTT v5 클라이언트에서 서버로 메시지 전송. 메시지를 소켓에 기록하면 리턴하며, PUBACK 은 기다리지 않습니다.
+	 */
+	@Override
+	public void send(IotMessage msg) throws Exception {
+		publish(msg);
+	}
+
+	/**
+	 * MQTT v5 클라이언트에서 서버로 메시지 전송. PUBACK 을 받으면 완료되는 CompletableFuture 를 리턴합니다.
+	 */
+	@Override
+	public CompletableFuture<Void> sendAsync(IotMessage msg) {
+		try {
+			return publish(msg);
+		} catch (Exception e) {
+			CompletableFuture<Void> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+
+	private CompletableFuture<Void> publish(IotMessage msg) throws IOException {
+		if (!connected) {
+			throw new IllegalStateException("MQTT client is not connected!");
+		}
+
+		byte[] payload = converter.convertToBytes(msg);
+		int qos = getProtocolCfg().getPublishQos(msg);
+
+		LOGGER.debug("[MQTT5] Publish {} bytes : {}", payload.length, mqttPublishTopic);
+
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		MqttInflightWindow window = this.inflightWindow;
+		int packetId = 0;
+		if (qos > 0) {
+			// PUBACK 을 기다리는 메시지 수가 서버의 Receive Maximum 보다 작을 때까지 대기
+			if (!window.acquire(getProtocolCfg().getInflightWaitTimeoutMillis())) {
+				throw new IotException("429", "Too many publishes in progress. (limit=" + window.getLimit() + ")");
+			}
+			packetId = nextPacketId();
+			pending.put(packetId, future);
+		}
+
+		long sentNanos = System.nanoTime();
+		try {
+			synchronized (writeLock) {
+				String topic = mqttPublishTopic;
+				int topicAlias = 0;
+				if (topicAliasMaximum >= PUBLISH_TOPIC_ALIAS) {
+					topicAlias = PUBLISH_TOPIC_ALIAS;
+					if (topicAliasAssigned) {
+						topic = "";
+					}
+					topicAliasAssigned = true;
+				}
+				writeLocked(Mqtt5Codec.publish(qos, topic, packetId, topicAlias, getProtocolCfg().getMessageExpiryInterval(),
+						payload));
+			}
+		} catch (IOException | RuntimeException e) {
+			if (qos > 0) {
+				pending.remove(packetId);
+				window.onPublishFailed();
+			}
+			throw e;
+		}
+
+		if (qos > 0) {
+			window.onPublished(packetId, sentNanos);
+			LOGGER.trace("[MQTT5] publish start (packetId={})", packetId);
+		} else {
+			// QoS0 은 PUBACK 이 없으므로 기록 즉시 완료
+			transport.onMessageSent(null);
+			future.complete(null);
+		}
+		return future;
+	}
+
+	private int nextPacketId() {
+		while (true) {
+			int packetId = packetIdSeq.incrementAndGet() & 0xFFFF;
+			if (packetId != 0 && !pending.containsKey(packetId)) {
+				return packetId;
+			}
+		}
+	}
+
+	private void write(byte[] packet) throws IOException {
+		synchronized (writeLock) {
+			writeLocked(packet);
+		}
+	}
+
+	private void writeLocked(byte[] packet) throws IOException {
+		OutputStream os = this.out;
+		if (os == null) {
+			throw new IllegalStateException("MQTT client is not connected!");
+		}
+		os.write(packet);
+		os.flush();
+		lastWriteNanos = System.nanoTime();
+	}
+
+	private static void closeQuietly(Socket s) {
+		if (s == null) {
+			return;
+		}
+		try {
+			s.close();
+		} catch (IOException e) {
+			LOGGER.trace("[MQTT5] Exception occurred while closing socket : {}", e.toString());
+		}
+	}
+
+	/**
+	 * 서버의 Receive Maximum (또는 maxInflight) 만큼 PUBACK 을 기다리고 있어 전송하지 못한 경우
+	 */
+	@Override
+	public boolean isBackpressure(Throwable e) {
+		return e instanceof IotException && "429".equals(((IotException) e).getErrorCode());
+	}
+
+	/**
+	 * MQTT v5 클라이언트 연결 여부
+	 */
+	@Override
+	public boolean isConnected() {
+		return connected;
+	}
+
+}
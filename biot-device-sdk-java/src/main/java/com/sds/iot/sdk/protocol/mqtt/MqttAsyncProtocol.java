@@ -0,0 +1,333 @@
+
+package com.sds.iot.sdk.protocol.mqtt;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.net.ssl.SSLContext;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallback;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.MqttSecurityException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.IAuth;
+import com.sds.iot.sdk.exception.IotException;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.protocol.IProtocol;
+import com.sds.iot.sdk.protocol.ITransportListener;
+import com.sds.iot.sdk.protocol.tls.TlsSupport;
+
+/**
+ * 이 클래스는 paho 의 MqttAsyncClient 를 이용하여 MQTT 서버 연결 및 메시지 전송 기능을 제공합니다. (protocolType "MQTT_ASYNC")
+ *
+ * {@link MqttProtocol} 과 달리 send() 는 메시지를 paho 의 송신 큐에 넣고 바로 리턴하며,
+ * 전송 결과(PUBACK 수신 또는 실패)는 paho 의 콜백 스레드에서 {@link ITransportListener#onMessageSent(Throwable)} 로 전달됩니다.
+ * sendAsync() 는 전송 결과로 완료되는 CompletableFuture 를 리턴합니다.
+ *
+ * 연결, 구독, 연결 종료는 기존과 같이 완료될 때까지 대기합니다. (timeToWaitInMillis)
+ * {@link MqttProtocol} 과 같이 QoS1 전송은 {@link MqttInflightWindow} 로 자리를 확보한 후 전송하므로,
+ * in-flight 메시지 수가 window 크기에 도달하면 send() 는 자리가 생길 때까지 대기합니다. (inflightWaitTimeoutMillis)
+ *
+ * @author SDS
+ */
+public class MqttAsyncProtocol implements IProtocol {
+	private static final Logger			LOGGER				= LoggerFactory.getLogger(MqttAsyncProtocol.class);
+	private static final String			TOPIC_PREFIX		= "ocp/";
+	private static final String			INTERNAL_CLIENT_ID	= "dataBus";
+
+	private IotClientConfig				cfg;
+	private MessageConverter			converter;
+	private ITransportListener			transport;
+
+	/** paho client */
+	private MqttAsyncClient				mqttClient			= null;
+	private MqttConnectOptions			mqttConnOptions		= new MqttConnectOptions();
+
+	/** "{siteId}+{thingName}" */
+	private String						mqttUserName;
+
+	/** "{siteId}+{thingName}", 0 이 아닌 연결은 "{siteId}+{thingName}#{stripe}" */
+	private String						mqttClientId;
+
+	/** 연결 순번 (StripedProtocol) */
+	private int							stripe;
+
+	/** "ocp/{siteId}/{thingName}" */
+	private String						mqttSubscribeTopic;
+
+	/** "ocp/dataBus" */
+	private String						mqttPublishTopic	= TOPIC_PREFIX + INTERNAL_CLIENT_ID;
+
+	/** 전송 결과 처리 (userContext : sendAsync() 의 CompletableFuture 또는 null) */
+	private final IMqttActionListener	publishListener		= new PublishListener();
+
+	/** PUBACK 을 기다리는 QoS1 메시지 수 제한 */
+	private MqttInflightWindow			inflightWindow		= null;
+
+	/** QoS0 전송 순서 보장 (paho 토큰 키 중복 방지) */
+	private final MqttQos0Sequencer		qos0Sequencer		= new MqttQos0Sequencer();
+
+	private MqttProtocolConfig getProtocolCfg() {
+		return (MqttProtocolConfig) cfg.getProtocolCfg();
+	}
+
+	/**
+	 * 연결 순번 설정. 0 이 아닌 연결은 clientId 에 "#{stripe}" 를 붙이고, 구독하지 않고 전송만 합니다.
+	 */
+	@Override
+	public void setStripe(int stripe) {
+		if (stripe < 0) {
+			throw new IllegalArgumentException("stripe must not be negative : " + stripe);
+		}
+		this.stripe = stripe;
+	}
+
+	/**
+	 * MQTT 클라이언트 초기화
+	 */
+	@Override
+	public void init(IotClientConfig cfg, MessageConverter converter, ITransportListener transport, IAuth auth) {
+		this.cfg = cfg;
+		this.converter = converter;
+		this.transport = transport;
+
+		if (cfg.getProtocolCfg() == null) {
+			// protocol config 를 별도 설정하지 않으면 디폴트 값으로 생성
+			cfg.setProtocolCfg(new MqttProtocolConfig());
+		}
+
+		this.mqttUserName = cfg.getSiteId() + "+" + cfg.getThingName();
+		this.mqttClientId = stripe == 0 ? mqttUserName : mqttUserName + "#" + stripe;
+		this.mqttSubscribeTopic = TOPIC_PREFIX + cfg.getSiteId() + "/" + cfg.getThingName();
+
+		// set mqttConnOptions
+		mqttConnOptions.setUserName(mqttUserName);
+		if (auth.getCredential() != null) {
+			LOGGER.trace("[MQTT] connOptions {}", auth.getCredential());
+			mqttConnOptions.setPassword(auth.getCredential().toCharArray());
+		}
+
+		mqttConnOptions.setKeepAliveInterval(getProtocolCfg().getKeepAliveInterval());
+		mqttConnOptions.setConnectionTimeout(getProtocolCfg().getConnectionTimeout());
+		// QoS1 전송 수는 inflightWindow 가 제한하므로, paho 의 한도는 window 를 거치지 않는 QoS0 전송 몫만큼 여유를 둔다
+		mqttConnOptions.setMaxInflight(getProtocolCfg().getMaxInflight() + MqttProtocol.QOS0_INFLIGHT_HEADROOM);
+		mqttConnOptions.setAutomaticReconnect(getProtocolCfg().isAutomaticReconnect());
+		mqttConnOptions.setCleanSession(getProtocolCfg().isCleanSession());
+
+		// create MqttAsyncClient object
+		// mqttClient 객체를 만들고 나면, serverAddr 변경 불가
+		if (mqttClient == null) {
+			if (cfg.isServerAddrSsl()) {
+				try {
+					SSLContext sslContext = TlsSupport.createTlsContext(cfg.getSslProperties());
+					mqttConnOptions.setSocketFactory(sslContext.getSocketFactory());
+				} catch (Exception e) {
+					throw new IllegalStateException("Fail to make ssl context.", e);
+				}
+			}
+			try {
+				mqttClient = new MqttAsyncClient(cfg.getServerAddr(), mqttClientId, getProtocolCfg().createPersistence());
+			} catch (MqttException e) {
+				throw new IllegalArgumentException("Fail to create MQTT Client", e);
+			}
+		} else if (mqttClient.isConnected()) {
+			throw new IllegalStateException("MQTT client is already initialized and connected. Please disconnect and connect.");
+		} else {
+			LOGGER.trace("[MQTT] mqttClient is not null, but it is not connected. It may be disconnected and reconnecting...");
+		}
+
+		if (inflightWindow == null) {
+			inflightWindow = new MqttInflightWindow(getProtocolCfg().getMinInflight(), getProtocolCfg().getMaxInflight(),
+					getProtocolCfg().isAdaptiveInflight());
+		}
+
+		// set MqttAsyncClient callback (수신 메시지, 연결 끊김, PUBACK 수신)
+		MqttCallback mqttProtocolListener = new MqttProtocolListener(transport, converter, inflightWindow);
+		mqttClient.setCallback(mqttProtocolListener);
+	}
+
+	/**
+	 * MQTT 클라이언트 서버로 연결. 연결과 구독이 완료될 때까지 대기합니다.
+	 */
+	@Override
+	public void connect() {
+		try {
+			LOGGER.info("[MQTT] Connect : {}", cfg.getServerAddr());
+
+			mqttClient.connect(mqttConnOptions).waitForCompletion(getProtocolCfg().getTimeToWaitInMillis());
+
+			if (!mqttClient.isConnected()) {
+				throw new IllegalStateException("MQTT client is not connected!");
+			}
+
+			// cleanSession=false 이므로 PUBACK 을 받지 못한 이전 메시지는 paho 가 다시 전송함
+			inflightWindow.reset(mqttClient.getPendingDeliveryTokens().length);
+
+			// MQTT SUBSCRIBE (수신은 첫 번째 연결만)
+			if (stripe == 0) {
+				try {
+					LOGGER.debug("[MQTT] Subscribe : {}", mqttSubscribeTopic);
+					mqttClient.subscribe(mqttSubscribeTopic, getProtocolCfg().getSubscribeQos())
+							.waitForCompletion(getProtocolCfg().getTimeToWaitInMillis());
+				} catch (MqttException e) {
+					throw new IllegalStateException("Fail to MQTT subscribe!", e);
+				}
+			}
+
+		} catch (MqttSecurityException e) {
+			// MQTT 인증 오류이면 재시도 하지 않음
+			LOGGER.error("[MQTT] Fail to connect (MqttSecurityException) : {}", e.toString());
+			throw new IotException("401", "Fail to connect to MQTT server!", e);
+
+		} catch (MqttException e) {
+			LOGGER.warn("[MQTT] Fail to connect (MqttException) : {}", e.toString());
+			throw new IotException("500", "Fail to connect to MQTT server!", e);
+		}
+	}
+
+	/**
+	 * MQTT 클라이언트 연결 종료
+	 */
+	@Override
+	public void disconnect() {
+		if (mqttClient == null) {
+			LOGGER.debug("[MQTT] Disconnection is not needed. mqttClient is null.");
+			return;
+		}
+
+		if (!isConnected()) {
+			LOGGER.debug("[MQTT] Disconnection is not needed. mqttClient is already disconnected.");
+		} else {
+			LOGGER.debug("[MQTT] Disconnect");
+			try {
+				mqttClient.disconnect().waitForCompletion(getProtocolCfg().getTimeToWaitInMillis());
+			} catch (MqttException e) {
+				LOGGER.warn("[MQTT] Exception occurred while disconnecting : {}", e.toString());
+			}
+		}
+
+		if (!MqttProtocolConfig.PERSISTENCE_MEMORY.equals(getProtocolCfg().getPersistence())) {
+			// persistence 파일을 디스크에 기록하고 잠금을 해제. 다시 연결하면 새 클라이언트가 저장된 상태를 복구함
+			try {
+				mqttClient.close();
+				mqttClient = null;
+			} catch (MqttException e) {
+				LOGGER.warn("[MQTT] Exception occurred while closing : {}", e.toString());
+			}
+		}
+	}
+
+	/**
+	 * MQTT 클라이언트에서 서버로 메시지 전송. 전송 완료를 기다리지 않고 바로 리턴합니다.
+	 */
+	@Override
+	public void send(IotMessage msg) throws Exception {
+		publish(msg, null);
+	}
+
+	/**
+	 * MQTT 클라이언트에서 서버로 메시지 전송. PUBACK 을 받으면 완료되는 CompletableFuture 를 리턴합니다.
+	 */
+	@Override
+	public CompletableFuture<Void> sendAsync(IotMessage msg) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		try {
+			publish(msg, future);
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private void publish(IotMessage msg, CompletableFuture<Void> future) throws Exception {
+
+		// paho 는 QoS1 재전송을 위해 payload 배열을 보관하므로 버퍼를 재사용할 수 없음
+		byte[] payload = converter.convertToBytes(msg);
+
+		LOGGER.debug("[MQTT] Publish {} bytes : {}", payload.length, mqttPublishTopic);
+
+		MqttMessage mqttMsg = new MqttMessage(payload);
+		mqttMsg.setQos(getProtocolCfg().getPublishQos(msg));
+
+		// QoS1 이상은 PUBACK 을 기다리는 메시지 수가 window 크기보다 작을 때까지 대기 (QoS0 은 window 를 사용하지 않음)
+		boolean windowed = mqttMsg.getQos() > 0;
+		if (windowed && !inflightWindow.acquire(getProtocolCfg().getInflightWaitTimeoutMillis())) {
+			throw new MqttException(MqttException.REASON_CODE_MAX_INFLIGHT);
+		}
+		long sentNanos = System.nanoTime();
+		IMqttDeliveryToken token;
+		try {
+			if (windowed) {
+				token = mqttClient.publish(mqttPublishTopic, mqttMsg, future, publishListener);
+			} else {
+				// QoS0 은 앞의 QoS0 전송이 끝난 후 전송
+				token = qos0Sequencer.publish(() -> mqttClient.publish(mqttPublishTopic, mqttMsg, future, publishListener),
+						getProtocolCfg().getTimeToWaitInMillis());
+			}
+		} catch (MqttException | RuntimeException e) {
+			if (windowed) {
+				inflightWindow.onPublishFailed();
+			}
+			throw e;
+		}
+		if (windowed) {
+			inflightWindow.onPublished(token.getMessageId(), sentNanos);
+		}
+
+		LOGGER.trace("[MQTT] publish start (token={})", token.getMessageId());
+	}
+
+	/**
+	 * paho 의 in-flight 메시지 수가 maxInflight 에 도달하여 전송하지 못한 경우
+	 */
+	@Override
+	public boolean isBackpressure(Throwable e) {
+		return e instanceof MqttException && ((MqttException) e).getReasonCode() == MqttException.REASON_CODE_MAX_INFLIGHT;
+	}
+
+	/**
+	 * MQTT 클라이언트 연결 여부
+	 */
+	@Override
+	public boolean isConnected() {
+		return mqttClient != null && mqttClient.isConnected();
+	}
+
+	/**
+	 * 이 클래스는 paho 콜백 스레드에서 전송 결과를 받아 sendAsync() 의 CompletableFuture 를 완료합니다.
+	 * 전송 성공은 {@link MqttProtocolListener#deliveryComplete(IMqttDeliveryToken)} 에서 transport 로 전달되므로,
+	 * 여기서는 전송 실패만 transport 로 전달하고 in-flight window 의 자리를 반환합니다.
+	 */
+	private final class PublishListener implements IMqttActionListener {
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void onSuccess(IMqttToken token) {
+			Object future = token.getUserContext();
+			if (future != null) {
+				((CompletableFuture<Void>) future).complete(null);
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void onFailure(IMqttToken token, Throwable e) {
+			LOGGER.warn("[MQTT] publish failed (token={}) : {}", token.getMessageId(), String.valueOf(e));
+			inflightWindow.onDeliveryFailed(token.getMessageId());
+			Object future = token.getUserContext();
+			if (future != null) {
+				((CompletableFuture<Void>) future).completeExceptionally(e);
+			}
+			transport.onMessageSent(e);
+		}
+	}
+}
@@ -0,0 +1,266 @@
+
+package com.sds.iot.sdk.protocol.mqtt;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 이 클래스는 전송 완료(PUBACK)를 기다리는 QoS1 메시지 수를 제한합니다. (in-flight window)
+ *
+ * paho 는 in-flight 메시지 수가 maxInflight 를 넘으면 publish 시 바로 예외를 발생시키므로,
+ * 전송 전에 {@link #acquire(long)} 로 자리를 확보하고, deliveryComplete 시 {@link #onDeliveryComplete(int)} 로 자리를 반환합니다.
+ * 자리가 없으면 전송 스레드는 자리가 생기거나 타임아웃이 될 때까지 대기하므로,
+ * 메시지를 버리지 않고 window 크기만큼 PUBACK 을 기다리지 않고 이어서 전송(pipelining)합니다.
+ *
+ * adaptive 설정 시 PUBACK 지연 시간에 따라 window 크기를 조절합니다. (AIMD)
+ * 지연 시간이 관측된 최소 지연 시간의 2배를 넘으면 (서버 또는 네트워크에 메시지가 쌓이는 상태) window 를 3/4 로 줄이고,
+ * 그렇지 않으면 window 크기만큼 PUBACK 을 받을 때마다 1 씩 늘립니다. (maxInflight 이하)
+ *
+ * @author SDS
+ */
+final class MqttInflightWindow {
+	private static final Logger			LOGGER				= LoggerFactory.getLogger(MqttInflightWindow.class);
+
+	/** 이 배수보다 지연 시간이 길어지면 window 를 줄임 */
+	private static final int			LATENCY_THRESHOLD	= 2;
+
+	private final ReentrantLock			lock				= new ReentrantLock();
+	private final Condition				available			= lock.newCondition();
+
+	private final int					minLimit;
+	private final int					maxLimit;
+	private final boolean				adaptive;
+
+	private int							limit;
+	private int							inflight			= 0;
+	/** wakeUp() 시 증가. 대기 중인 스레드는 값이 바뀌면 자리를 확보하지 않고 리턴 */
+	private int							generation			= 0;
+
+	/** key:messageId, value:전송 시각 (nanoTime) */
+	private final Map<Integer, Long>	sentTimes			= new HashMap<>();
+	/** publish() 가 리턴되기 전에 PUBACK 을 받은 messageId */
+	private final Set<Integer>			earlyAcks			= new HashSet<>();
+
+	private long						minLatencyNanos		= Long.MAX_VALUE;
+	private long						lastDecreaseNanos	= 0L;
+	private int							acksSinceIncrease	= 0;
+
+	/**
+	 * @param minLimit
+	 *        최소 window 크기 (adaptive 인 경우)
+	 * @param maxLimit
+	 *        최대 window 크기 (paho maxInflight)
+	 * @param adaptive
+	 *        PUBACK 지연 시간에 따른 window 크기 조절 여부
+	 */
+	MqttInflightWindow(int minLimit, int maxLimit, boolean adaptive) {
+		if (maxLimit <= 0) {
+			throw new IllegalArgumentException("maxLimit must be positive : " + maxLimit);
+		}
+		this.maxLimit = maxLimit;
+		this.minLimit = Math.max(1, Math.min(minLimit, maxLimit));
+		this.adaptive = adaptive;
+		this.limit = maxLimit;
+	}
+
+	/**
+	 * 전송할 자리를 확보합니다. 자리가 없으면 자리가 생길 때까지 대기합니다.
+	 *
+	 * @param timeoutMillis
+	 *        최대 대기 시간 (밀리초). 0 이하이면 대기하지 않음
+	 * @return 자리를 확보했으면 true. 타임아웃, 인터럽트, {@link #wakeUp()} 인 경우 false
+	 */
+	boolean acquire(long timeoutMillis) {
+		lock.lock();
+		try {
+			long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+			int gen = this.generation;
+			while (inflight >= limit) {
+				if (remaining <= 0 || gen != this.generation) {
+					return false;
+				}
+				try {
+					remaining = available.awaitNanos(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+			inflight++;
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * publish() 가 리턴된 후 호출합니다.
+	 *
+	 * @param messageId
+	 *        paho 가 부여한 messageId
+	 * @param sentNanos
+	 *        전송 시작 시각 (nanoTime)
+	 */
+	void onPublished(int messageId, long sentNanos) {
+		lock.lock();
+		try {
+			if (!earlyAcks.remove(messageId)) {
+				sentTimes.put(messageId, sentNanos);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * acquire() 후 전송에 실패한 경우 자리를 반환합니다.
+	 */
+	void onPublishFailed() {
+		lock.lock();
+		try {
+			release();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * PUBACK 을 받은 경우 자리를 반환합니다. (QoS0 메시지의 messageId 0 은 무시)
+	 *
+	 * @param messageId
+	 *        paho 가 부여한 messageId
+	 */
+	void onDeliveryComplete(int messageId) {
+		if (messageId == 0) {
+			return;
+		}
+		long now = System.nanoTime();
+		lock.lock();
+		try {
+			Long sentNanos = sentTimes.remove(messageId);
+			if (sentNanos == null) {
+				// publish() 리턴 전에 PUBACK 을 받았거나, 재연결 후 paho 가 다시 보낸 메시지
+				earlyAcks.add(messageId);
+			} else if (adaptive) {
+				adapt(now - sentNanos, now);
+			}
+			release();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * publish() 가 리턴된 후 전송에 실패한 경우 자리를 반환합니다. (QoS0 메시지의 messageId 0 은 무시)
+	 *
+	 * @param messageId
+	 *        paho 가 부여한 messageId
+	 */
+	void onDeliveryFailed(int messageId) {
+		if (messageId == 0) {
+			return;
+		}
+		lock.lock();
+		try {
+			if (sentTimes.remove(messageId) == null) {
+				// publish() 리턴 전에 실패한 경우
+				earlyAcks.add(messageId);
+			}
+			release();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void release() {
+		if (inflight > 0) {
+			inflight--;
+		}
+		available.signal();
+	}
+
+	private void adapt(long latencyNanos, long now) {
+		minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+		if (latencyNanos > minLatencyNanos * LATENCY_THRESHOLD) {
+			// 한 번 줄인 후 최소 지연 시간이 지나기 전에는 다시 줄이지 않음 (같은 혼잡으로 여러 번 줄이지 않도록)
+			if (limit > minLimit && (lastDecreaseNanos == 0L || now - lastDecreaseNanos > latencyNanos)) {
+				limit = Math.max(minLimit, limit * 3 / 4);
+				lastDecreaseNanos = now;
+				acksSinceIncrease = 0;
+				LOGGER.debug("[MQTT] in-flight window decreased : {} (ack latency={}us, min={}us)", limit,
+						TimeUnit.NANOSECONDS.toMicros(latencyNanos), TimeUnit.NANOSECONDS.toMicros(minLatencyNanos));
+			}
+		} else if (limit < maxLimit && ++acksSinceIncrease >= limit) {
+			limit++;
+			acksSinceIncrease = 0;
+			available.signal();
+			LOGGER.trace("[MQTT] in-flight window increased : {}", limit);
+		}
+	}
+
+	/**
+	 * 연결 후 paho 가 전송 완료를 기다리는 메시지 수로 window 상태를 맞춥니다.
+	 * (cleanSession=false 이면 재연결 시 paho 가 이전 메시지를 다시 전송함)
+	 *
+	 * @param outstanding
+	 *        paho 의 pending delivery token 수
+	 */
+	void reset(int outstanding) {
+		lock.lock();
+		try {
+			inflight = outstanding;
+			sentTimes.clear();
+			earlyAcks.clear();
+			minLatencyNanos = Long.MAX_VALUE;
+			acksSinceIncrease = 0;
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 대기 중인 스레드가 자리를 확보하지 않고 바로 리턴하도록 합니다. (연결이 끊긴 경우)
+	 */
+	void wakeUp() {
+		lock.lock();
+		try {
+			generation++;
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return 현재 window 크기
+	 */
+	int getLimit() {
+		lock.lock();
+		try {
+			return limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return PUBACK 을 기다리는 메시지 수
+	 */
+	int getInflight() {
+		lock.lock();
+		try {
+			return inflight;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -3,10 +3,10 @@ package com.sds.iot.sdk.protocol.mqtt;
 
 import javax.net.ssl.SSLContext;
 
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
 import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
-import org.eclipse.paho.client.mqttv3.MqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.eclipse.paho.client.mqttv3.MqttSecurityException;
@@ -32,6 +32,9 @@ public class MqttProtocol implements IProtocol {
 	private static final String	TOPIC_PREFIX		= "ocp/";
 	private static final String	INTERNAL_CLIENT_ID	= "dataBus";
 
+	/** paho 가 소켓에 기록하기 전까지 in-flight 로 세는 QoS0 전송 수의 여유분 */
+	static final int			QOS0_INFLIGHT_HEADROOM	= 64;
+
 	private IotClientConfig		cfg;
 	private MessageConverter	converter;
 
@@ -39,19 +42,42 @@ public class MqttProtocol implements IProtocol {
 	private MqttClient			mqttClient			= null;
 	private MqttConnectOptions	mqttConnOptions		= new MqttConnectOptions();
 
-	/** "{siteId}/{thingName}" */
+	/** "{siteId}+{thingName}" */
+	private String				mqttUserName;
+
+	/** "{siteId}+{thingName}", 0 이 아닌 연결은 "{siteId}+{thingName}#{stripe}" */
 	private String				mqttClientId;
 
+	/** 연결 순번 (StripedProtocol) */
+	private int					stripe;
+
 	/** "ocp/{siteId}/{thingName}" */
 	private String				mqttSubscribeTopic;
 
 	/** "ocp/dataBus" */
 	private String				mqttPublishTopic	= TOPIC_PREFIX + INTERNAL_CLIENT_ID;
 
+	/** QoS1 메시지의 PUBACK 대기 수 제한 (maxInflight 초과 방지) */
+	private MqttInflightWindow	inflightWindow		= null;
+
+	/** QoS0 전송 순서 보장 (paho 토큰 키 중복 방지) */
+	private final MqttQos0Sequencer	qos0Sequencer	= new MqttQos0Sequencer();
+
 	private MqttProtocolConfig getProtocolCfg() {
 		return (MqttProtocolConfig) cfg.getProtocolCfg();
 	}
 
+	/**
+	 * 연결 순번 설정. 0 이 아닌 연결은 clientId 에 "#{stripe}" 를 붙이고, 구독하지 않고 전송만 합니다.
+	 */
+	@Override
+	public void setStripe(int stripe) {
+		if (stripe < 0) {
+			throw new IllegalArgumentException("stripe must not be negative : " + stripe);
+		}
+		this.stripe = stripe;
+	}
+
 	/**
 	 * MQTT 클라이언트 초기화
 	 */
@@ -65,11 +91,12 @@ public class MqttProtocol implements IProtocol {
 			cfg.setProtocolCfg(new MqttProtocolConfig());
 		}
 
-		this.mqttClientId = cfg.getSiteId() + "+" + cfg.getThingName();
+		this.mqttUserName = cfg.getSiteId() + "+" + cfg.getThingName();
+		this.mqttClientId = stripe == 0 ? mqttUserName : mqttUserName + "#" + stripe;
 		this.mqttSubscribeTopic = TOPIC_PREFIX + cfg.getSiteId() + "/" + cfg.getThingName();
 
 		// set mqttConnOptions 
-		mqttConnOptions.setUserName(mqttClientId);
+		mqttConnOptions.setUserName(mqttUserName);
 		if (auth.getCredential() != null) {
 			LOGGER.trace("[MQTT] connOptions {}", auth.getCredential());
 			mqttConnOptions.setPassword(auth.getCredential().toCharArray());
@@ -77,7 +104,8 @@ public class MqttProtocol implements IProtocol {
 
 		mqttConnOptions.setKeepAliveInterval(getProtocolCfg().getKeepAliveInterval());
 		mqttConnOptions.setConnectionTimeout(getProtocolCfg().getConnectionTimeout());
-		mqttConnOptions.setMaxInflight(getProtocolCfg().getMaxInflight());
+		// QoS1 전송 수는 inflightWindow 가 제한하므로, paho 의 한도는 window 를 거치지 않는 QoS0 전송 몫만큼 여유를 둔다
+		mqttConnOptions.setMaxInflight(getProtocolCfg().getMaxInflight() + QOS0_INFLIGHT_HEADROOM);
 		mqttConnOptions.setAutomaticReconnect(getProtocolCfg().isAutomaticReconnect());
 		mqttConnOptions.setCleanSession(getProtocolCfg().isCleanSession());
 
@@ -93,7 +121,7 @@ public class MqttProtocol implements IProtocol {
 				}
 			}
 			try {
-				mqttClient = new MqttClient(cfg.getServerAddr(), mqttClientId, null);
+				mqttClient = new MqttClient(cfg.getServerAddr(), mqttClientId, getProtocolCfg().createPersistence());
 			} catch (MqttException e) {
 				throw new IllegalArgumentException("Fail to create MQTT Client", e);
 			}
@@ -103,8 +131,13 @@ public class MqttProtocol implements IProtocol {
 			LOGGER.trace("[MQTT] mqttClient is not null, but it is not connected. It may be disconnected and reconnecting...");
 		}
 
+		if (inflightWindow == null) {
+			inflightWindow = new MqttInflightWindow(getProtocolCfg().getMinInflight(), getProtocolCfg().getMaxInflight(),
+					getProtocolCfg().isAdaptiveInflight());
+		}
+
 		// set MqttClient options
-		MqttCallback mqttProtocolListener = new MqttProtocolListener(transport, converter);
+		MqttCallback mqttProtocolListener = new MqttProtocolListener(transport, converter, inflightWindow);
 		mqttClient.setCallback(mqttProtocolListener);
 		mqttClient.setTimeToWait(getProtocolCfg().getTimeToWaitInMillis());
 	}
@@ -123,12 +156,17 @@ public class MqttProtocol implements IProtocol {
 				throw new IllegalStateException("MQTT client is not connected!");
 			}
 
-			// MQTT SUBSCRIBE
-			try {
-				LOGGER.debug("[MQTT] Subscribe : {}", mqttSubscribeTopic);
-				mqttClient.subscribe(mqttSubscribeTopic, getProtocolCfg().getSubscribeQos());
-			} catch (MqttException e) {
-				throw new IllegalStateException("Fail to MQTT subscribe!", e);
+			// cleanSession=false 이므로 PUBACK 을 받지 못한 이전 메시지는 paho 가 다시 전송함
+			inflightWindow.reset(mqttClient.getPendingDeliveryTokens().length);
+
+			// MQTT SUBSCRIBE (수신은 첫 번째 연결만)
+			if (stripe == 0) {
+				try {
+					LOGGER.debug("[MQTT] Subscribe : {}", mqttSubscribeTopic);
+					mqttClient.subscribe(mqttSubscribeTopic, getProtocolCfg().getSubscribeQos());
+				} catch (MqttException e) {
+					throw new IllegalStateException("Fail to MQTT subscribe!", e);
+				}
 			}
 
 		} catch (MqttSecurityException e) {
@@ -150,18 +188,28 @@ public class MqttProtocol implements IProtocol {
 		if (mqttClient == null) {
 			LOGGER.debug("[MQTT] Disconnection is not needed. mqttClient is null.");
 			return;
-		} else if (!isConnected()) {
-			LOGGER.debug("[MQTT] Disconnection is not needed. mqttClient is already disconnected.");
-			return;
 		}
 
-		LOGGER.debug("[MQTT] Disconnect");
-		try {
-			mqttClient.disconnect();
-		} catch (MqttException e) {
-			LOGGER.warn("[MQTT] Exception occurred while disconnecting : {}", e.toString());
+		if (!isConnected()) {
+			LOGGER.debug("[MQTT] Disconnection is not needed. mqttClient is already disconnected.");
+		} else {
+			LOGGER.debug("[MQTT] Disconnect");
+			try {
+				mqttClient.disconnect();
+			} catch (MqttException e) {
+				LOGGER.warn("[MQTT] Exception occurred while disconnecting : {}", e.toString());
+			}
 		}
 
+		if (!MqttProtocolConfig.PERSISTENCE_MEMORY.equals(getProtocolCfg().getPersistence())) {
+			// persistence 파일을 디스크에 기록하고 잠금을 해제. 다시 연결하면 새 클라이언트가 저장된 상태를 복구함
+			try {
+				mqttClient.close();
+				mqttClient = null;
+			} catch (MqttException e) {
+				LOGGER.warn("[MQTT] Exception occurred while closing : {}", e.toString());
+			}
+		}
 	}
 
 	/**
@@ -170,23 +218,55 @@ public class MqttProtocol implements IProtocol {
 	@Override
 	public void send(IotMessage msg) throws Exception {
 
+		// paho 는 QoS1 재전송을 위해 payload 배열을 보관하므로 버퍼를 재사용할 수 없음
 		byte[] payload = converter.convertToBytes(msg);
 
 		LOGGER.debug("[MQTT] Publish {} bytes : {}", payload.length, mqttPublishTopic);
 
 		MqttMessage mqttMsg = new MqttMessage(payload);
-		mqttMsg.setQos(getProtocolCfg().getPublishQos());
-		MqttDeliveryToken token = mqttClient.getTopic(mqttPublishTopic).publish(mqttMsg);
+		mqttMsg.setQos(getProtocolCfg().getPublishQos(msg));
+
+		// QoS1 이상은 PUBACK 을 기다리는 메시지 수가 window 크기보다 작을 때까지 대기 (QoS0 은 window 를 사용하지 않음)
+		boolean windowed = mqttMsg.getQos() > 0;
+		if (windowed && !inflightWindow.acquire(getProtocolCfg().getInflightWaitTimeoutMillis())) {
+			throw new MqttException(MqttException.REASON_CODE_MAX_INFLIGHT);
+		}
+		long sentNanos = System.nanoTime();
+		IMqttDeliveryToken token;
+		try {
+			if (windowed) {
+				token = mqttClient.getTopic(mqttPublishTopic).publish(mqttMsg);
+			} else {
+				token = qos0Sequencer.publish(() -> mqttClient.getTopic(mqttPublishTopic).publish(mqttMsg),
+						getProtocolCfg().getTimeToWaitInMillis());
+			}
+		} catch (MqttException | RuntimeException e) {
+			if (windowed) {
+				inflightWindow.onPublishFailed();
+			}
+			throw e;
+		}
+		if (windowed) {
+			inflightWindow.onPublished(token.getMessageId(), sentNanos);
+		}
 
 		LOGGER.trace("[MQTT] publish start (token={})", token.getMessageId());
 	}
 
+	/**
+	 * paho 의 in-flight 메시지 수가 maxInflight 에 도달하여 전송하지 못한 경우
+	 */
+	@Override
+	public boolean isBackpressure(Throwable e) {
+		return e instanceof MqttException && ((MqttException) e).getReasonCode() == MqttException.REASON_CODE_MAX_INFLIGHT;
+	}
+
 	/**
 	 * MQTT 클라이언트 연결 여부
 	 */
 	@Override
 	public boolean isConnected() {
-		return mqttClient.isConnected();
+		return mqttClient != null && mqttClient.isConnected();
 	}
 
 }
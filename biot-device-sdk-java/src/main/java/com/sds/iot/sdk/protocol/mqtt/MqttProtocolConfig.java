@@ -1,8 +1,15 @@
 
 package com.sds.iot.sdk.protocol.mqtt;
 
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.paho.client.mqttv3.MqttClientPersistence;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.eclipse.paho.client.mqttv3.persist.MqttDefaultFilePersistence;
+
+import com.sds.iot.sdk.message.IotMessage;
 import com.sds.iot.sdk.protocol.IProtocolConfig;
 import com.sds.iot.sdk.util.ConfigFileUtil;
 
@@ -13,6 +20,13 @@ import com.sds.iot.sdk.util.ConfigFileUtil;
  */
 public class MqttProtocolConfig implements IProtocolConfig {
 
+	/** in-flight 메시지 상태를 메모리에만 저장 (프로세스 재시작 시 유실) */
+	public static final String		PERSISTENCE_MEMORY	= "MEMORY";
+	/** paho 의 파일 persistence (메시지마다 파일 하나) */
+	public static final String		PERSISTENCE_FILE	= "FILE";
+	/** memory-mapped 링 파일 하나에 저장 */
+	public static final String		PERSISTENCE_MAPPED	= "MAPPED";
+
 	/* PAHO CONFIG ============================================================= */
 
 	// for MqttConnectOptions
@@ -28,9 +42,26 @@ public class MqttProtocolConfig implements IProtocolConfig {
 	// for MqttClient
 	private long					timeToWaitInMillis	= 30_000;
 
-	// for MqttClient subscribe and publish (현재는 고정값 - 설정 불필요)
+	// for MqttInflightWindow
+	private long					inflightWaitTimeoutMillis	= 10_000;
+	private boolean					adaptiveInflight			= false;
+	private int						minInflight					= 1;
+
+	// for Mqtt5Protocol
+	private long					messageExpiryInterval		= 0;
+
+	// for MqttClient publish
+	private int						publishQos					= 1;
+	private int						notificationQos				= -1;
+	private final Map<String, Integer>	msgCodeQos				= new ConcurrentHashMap<>();
+
+	// for MqttClient persistence (QoS1 in-flight 메시지 상태)
+	private String					persistence					= PERSISTENCE_MEMORY;
+	private String					persistenceDir				= null;
+	private int						persistenceFileSize			= 4 * 1024 * 1024;
+
+	// for MqttClient subscribe (현재는 고정값 - 설정 불필요)
 	private static final int		subscribeQos		= 0;
-	private static final int		publishQos			= 1;
 
 	/* ============================================================= */
 
@@ -41,6 +72,16 @@ public class MqttProtocolConfig implements IProtocolConfig {
 		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "keepAliveInterval", int.class);
 		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "maxInflight", int.class);
 		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "timeToWaitInMillis", long.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "inflightWaitTimeoutMillis", long.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "adaptiveInflight", boolean.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "minInflight", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "messageExpiryInterval", long.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "publishQos", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "notificationQos", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "msgCodeQos", String.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "persistence", String.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "persistenceDir", String.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "mqtt.", this, "persistenceFileSize", int.class);
 
 	}
 
@@ -149,6 +190,80 @@ public class MqttProtocolConfig implements IProtocolConfig {
 		this.timeToWaitInMillis = timeToWaitInMillis;
 	}
 
+	/**
+	 * @return in-flight 메시지 수가 maxInflight 에 도달한 경우 전송 대기 시간
+	 */
+	long getInflightWaitTimeoutMillis() {
+		return inflightWaitTimeoutMillis;
+	}
+
+	/**
+	 * <b>milliseconds. default 10,000ms.</b>
+	 * in-flight 메시지 수가 maxInflight 에 도달한 경우, 전송 스레드는 PUBACK 을 받아 자리가 생길 때까지 이 시간만큼 대기합니다.
+	 * 대기 후에도 자리가 없으면 전송에 실패합니다. 0 이면 대기하지 않고 바로 실패합니다.
+	 * 
+	 * @param inflightWaitTimeoutMillis
+	 *        전송 대기 시간 (밀리초)
+	 */
+	public void setInflightWaitTimeoutMillis(long inflightWaitTimeoutMillis) {
+		this.inflightWaitTimeoutMillis = inflightWaitTimeoutMillis;
+	}
+
+	/**
+	 * @return PUBACK 지연 시간에 따른 in-flight window 크기 조절 여부
+	 */
+	boolean isAdaptiveInflight() {
+		return adaptiveInflight;
+	}
+
+	/**
+	 * <b>default false.</b>
+	 * true 이면 PUBACK 지연 시간이 늘어나는 경우 in-flight window 를 줄이고, 지연 시간이 안정되면 maxInflight 까지 다시 늘립니다.
+	 * 
+	 * @param adaptiveInflight
+	 *        in-flight window 크기 조절 여부
+	 */
+	public void setAdaptiveInflight(boolean adaptiveInflight) {
+		this.adaptiveInflight = adaptiveInflight;
+	}
+
+	/**
+	 * @return in-flight window 최소 크기
+	 */
+	int getMinInflight() {
+		return minInflight;
+	}
+
+	/**
+	 * <b>default 1.</b>
+	 * adaptiveInflight 가 true 인 경우 in-flight window 를 이 값보다 작게 줄이지 않습니다.
+	 * 
+	 * @param minInflight
+	 *        in-flight window 최소 크기
+	 */
+	public void setMinInflight(int minInflight) {
+		this.minInflight = minInflight;
+	}
+
+	/**
+	 * @return 전송 메시지의 유효 시간 (MQTT v5 Message Expiry Interval)
+	 */
+	long getMessageExpiryInterval() {
+		return messageExpiryInterval;
+	}
+
+	/**
+	 * <b>seconds. default 0. (MQTT v5 only)</b>
+	 * 서버가 이 시간 안에 메시지를 전달하지 못하면 메시지를 버립니다. (오래된 센서 데이터 전달 방지)
+	 * 0 이면 유효 시간을 지정하지 않습니다.
+	 * 
+	 * @param messageExpiryInterval
+	 *        메시지 유효 시간 (초)
+	 */
+	public void setMessageExpiryInterval(long messageExpiryInterval) {
+		this.messageExpiryInterval = messageExpiryInterval;
+	}
+
 	/**
 	 * @return subscribeQos
 	 */
@@ -163,11 +278,195 @@ public class MqttProtocolConfig implements IProtocolConfig {
 		return publishQos;
 	}
 
+	/**
+	 * <b>default 1.</b>
+	 * 메시지 별 QoS, msgCode 별 QoS, notificationQos 가 지정되지 않은 메시지의 전송 QoS 입니다.
+	 * 
+	 * @param publishQos
+	 *        0 또는 1
+	 */
+	public void setPublishQos(int publishQos) {
+		this.publishQos = checkQos(publishQos, false);
+	}
+
+	/**
+	 * @return 단방향 메시지(msgType "N")의 전송 QoS
+	 */
+	int getNotificationQos() {
+		return notificationQos;
+	}
+
+	/**
+	 * <b>default -1. (publishQos 사용)</b>
+	 * 응답을 받지 않는 단방향 메시지(msgType "N", e.g. IotClient.sendAttributes)의 전송 QoS 입니다.
+	 * 속성 데이터를 높은 빈도로 전송하는 경우 0 으로 설정하면 PUBACK 을 기다리지 않고 in-flight 제한도 받지 않습니다.
+	 * 요청/응답 메시지(call, 인증, 펌웨어 등)는 publishQos 를 그대로 사용합니다.
+	 * 
+	 * @param notificationQos
+	 *        0, 1 또는 -1 (publishQos 사용)
+	 */
+	public void setNotificationQos(int notificationQos) {
+		this.notificationQos = checkQos(notificationQos, true);
+	}
+
+	/**
+	 * msgCode 별 전송 QoS 를 "msgCode:qos" 목록으로 설정합니다. (e.g. "Basic-AttrGroup:0,Alarm-Group:1")
+	 * 
+	 * @param msgCodeQos
+	 *        콤마로 구분한 "msgCode:qos" 목록
+	 */
+	public void setMsgCodeQos(String msgCodeQos) {
+		for (String entry : msgCodeQos.split(",")) {
+			if (entry.trim().isEmpty()) {
+				continue;
+			}
+			int idx = entry.lastIndexOf(':');
+			if (idx <= 0) {
+				throw new IllegalArgumentException("Invalid msgCodeQos : " + entry);
+			}
+			setMsgCodeQos(entry.substring(0, idx).trim(), Integer.parseInt(entry.substring(idx + 1).trim()));
+		}
+	}
+
+	/**
+	 * msgCode 별 전송 QoS 를 설정합니다. 메시지에 QoS 를 지정하지 않은 경우 notificationQos, publishQos 보다 우선합니다.
+	 * 
+	 * @param msgCode
+	 *        메시지 코드
+	 * @param qos
+	 *        0, 1 또는 -1 (설정 삭제)
+	 */
+	public void setMsgCodeQos(String msgCode, int qos) {
+		if (checkQos(qos, true) < 0) {
+			msgCodeQos.remove(msgCode);
+		} else {
+			msgCodeQos.put(msgCode, qos);
+		}
+	}
+
+	/**
+	 * 메시지의 전송 QoS 를 결정합니다.
+	 * 메시지에 지정된 QoS, msgCode 별 QoS, 단방향 메시지(msgType "N")의 notificationQos, publishQos 순서로 적용됩니다.
+	 * 
+	 * @param msg
+	 *        전송할 메시지
+	 * @return 0 또는 1
+	 */
+	int getPublishQos(IotMessage msg) {
+		if (msg.getQos() >= 0) {
+			return msg.getQos();
+		}
+		if (!msgCodeQos.isEmpty() && msg.getMsgCode() != null) {
+			Integer qos = msgCodeQos.get(msg.getMsgCode());
+			if (qos != null) {
+				return qos;
+			}
+		}
+		if (notificationQos >= 0 && "N".equals(msg.getMsgType())) {
+			return notificationQos;
+		}
+		return publishQos;
+	}
+
+	/**
+	 * @return in-flight 메시지 상태 저장 방식
+	 */
+	String getPersistence() {
+		return persistence;
+	}
+
+	/**
+	 * <b>default "MEMORY".</b>
+	 * paho 클라이언트가 PUBACK 을 받지 못한 QoS1 메시지 등 in-flight 상태를 저장하는 방식입니다. (MQTT, MQTT_ASYNC)
+	 * "FILE", "MAPPED" 는 프로세스가 재시작되어도 PUBACK 을 받지 못한 메시지를 재연결 후 다시 전송합니다.
+	 * "FILE" 은 메시지마다 파일을 만들고 지우므로 느린 저장장치에서는 "MAPPED" 사용을 권장합니다.
+	 * 
+	 * @param persistence
+	 *        "MEMORY", "FILE", "MAPPED"
+	 */
+	public void setPersistence(String persistence) {
+		String value = persistence.trim().toUpperCase();
+		if (!PERSISTENCE_MEMORY.equals(value) && !PERSISTENCE_FILE.equals(value) && !PERSISTENCE_MAPPED.equals(value)) {
+			throw new IllegalArgumentException("Invalid persistence : " + persistence);
+		}
+		this.persistence = value;
+	}
+
+	/**
+	 * @return persistence 파일 저장 디렉토리
+	 */
+	String getPersistenceDir() {
+		return persistenceDir;
+	}
+
+	/**
+	 * <b>default null. (현재 작업 디렉토리)</b>
+	 * persistence 가 "FILE", "MAPPED" 인 경우 파일을 저장할 디렉토리입니다.
+	 * 
+	 * @param persistenceDir
+	 *        디렉토리 경로
+	 */
+	public void setPersistenceDir(String persistenceDir) {
+		this.persistenceDir = persistenceDir;
+	}
+
+	/**
+	 * @return "MAPPED" persistence 파일 크기
+	 */
+	int getPersistenceFileSize() {
+		return persistenceFileSize;
+	}
+
+	/**
+	 * <b>bytes. default 4MB.</b>
+	 * persistence 가 "MAPPED" 인 경우 새로 만드는 링 파일의 크기입니다. (이미 있는 파일은 그 크기를 그대로 사용)
+	 * PUBACK 을 기다리는 메시지(최대 maxInflight 개)를 모두 담을 수 있어야 합니다.
+	 * 
+	 * @param persistenceFileSize
+	 *        파일 크기 (bytes)
+	 */
+	public void setPersistenceFileSize(int persistenceFileSize) {
+		if (persistenceFileSize < 1024) {
+			throw new IllegalArgumentException("persistenceFileSize is too small : " + persistenceFileSize);
+		}
+		this.persistenceFileSize = persistenceFileSize;
+	}
+
+	/**
+	 * 설정한 저장 방식으로 paho 클라이언트의 persistence 를 생성합니다. (클라이언트마다 새로 생성)
+	 * 
+	 * @return persistence
+	 */
+	MqttClientPersistence createPersistence() {
+		String dir = persistenceDir != null ? persistenceDir : System.getProperty("user.dir");
+		if (PERSISTENCE_FILE.equals(persistence)) {
+			return new MqttDefaultFilePersistence(dir);
+		}
+		if (PERSISTENCE_MAPPED.equals(persistence)) {
+			return new MappedFileMqttPersistence(dir, persistenceFileSize);
+		}
+		return new MemoryPersistence();
+	}
+
+	private static int checkQos(int qos, boolean allowDefault) {
+		if (qos > 1 || qos < (allowDefault ? -1 : 0)) {
+			throw new IllegalArgumentException("Unsupported qos : " + qos);
+		}
+		return qos;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
 		builder.append("  connectionTimeout=").append(connectionTimeout).append("\n  keepAliveInterval=").append(keepAliveInterval)
-				.append("\n  maxInflight=").append(maxInflight).append("\n  timeToWaitInMillis=").append(timeToWaitInMillis);
+				.append("\n  maxInflight=").append(maxInflight).append("\n  timeToWaitInMillis=").append(timeToWaitInMillis)
+				.append("\n  inflightWaitTimeoutMillis=").append(inflightWaitTimeoutMillis).append("\n  adaptiveInflight=")
+				.append(adaptiveInflight).append("\n  messageExpiryInterval=").append(messageExpiryInterval)
+				.append("\n  publishQos=").append(publishQos).append("\n  notificationQos=").append(notificationQos)
+				.append("\n  msgCodeQos=").append(msgCodeQos).append("\n  persistence=").append(persistence);
+		if (!PERSISTENCE_MEMORY.equals(persistence)) {
+			builder.append("\n  persistenceDir=").append(persistenceDir);
+		}
 		return builder.toString();
 	}
 
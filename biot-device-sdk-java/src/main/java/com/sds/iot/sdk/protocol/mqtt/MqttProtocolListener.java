@@ -36,17 +36,28 @@ public class MqttProtocolListener implements MqttCallback {
 
 	private final ITransportListener	transport;
 	private final MessageConverter		converter;
+	private final MqttInflightWindow	inflightWindow;
 
 	public MqttProtocolListener(ITransportListener transport, MessageConverter converter) {
+		this(transport, converter, null);
+	}
+
+	MqttProtocolListener(ITransportListener transport, MessageConverter converter, MqttInflightWindow inflightWindow) {
 		this.transport = transport;
 		this.converter = converter;
+		this.inflightWindow = inflightWindow;
 	}
 
 	@Override
 	public void connectionLost(Throwable cause) {
 		LOGGER.warn("[MQTT] connectionLost : {}", cause.toString(), cause);
 
-		// TODO (SDK) 스레드 분리를 할지? - connection retry 가 이 스레드로 작업됨
+		// in-flight window 에 자리가 나기를 기다리던 전송 스레드는 바로 실패 처리
+		if (inflightWindow != null) {
+			inflightWindow.wakeUp();
+		}
+
+		// 재연결은 IotTransport 의 재연결 스레드에서 수행되므로 바로 리턴됨
 		transport.onConnectionLost(cause.toString());
 	}
 
@@ -58,7 +69,7 @@ public class MqttProtocolListener implements MqttCallback {
 
 		IotMessage msg = converter.convertFromBytes(message.getPayload());
 
-		// TODO (SDK) 스레드 분리를 할지? - 메시지 수신 후, 긴 작업을 하는 경우 MQTT Protocol 로 메시지 수신이 불가능함. 
+		// 메시지 처리 스레드 분리는 IotTransport 에서 수행 (inboundDispatchThreads 설정)
 		transport.onMessageReceived(msg);
 	}
 
@@ -67,6 +78,9 @@ public class MqttProtocolListener implements MqttCallback {
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.trace("[MQTT] publish complete (token={})", token.getMessageId());
 		}
+		if (inflightWindow != null) {
+			inflightWindow.onDeliveryComplete(token.getMessageId());
+		}
 		transport.onMessageSent(null);
 	}
 
@@ -0,0 +1,65 @@
+
+package com.sds.iot.sdk.protocol.mqtt;
+
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttException;
+
+/**
+ * 이 클래스는 paho 클라이언트의 QoS0 전송을 한 번에 하나씩 순서대로 진행합니다.
+ *
+ * paho 1.2.0 은 QoS0 PUBLISH 에 message id 를 할당하지 않으므로 토큰 저장소의 키가 모두 "0" 으로 같습니다.
+ * 앞의 QoS0 토큰이 저장소에서 제거되기 전에 다음 QoS0 를 전송하면 토큰이 덮어써지고,
+ * 송신 스레드는 토큰을 찾지 못한 메시지를 전송하지 않고 버립니다.
+ *
+ * 따라서 클라이언트마다 QoS0 전송 순서를 정하고, 앞의 QoS0 토큰이 완료(isComplete)된 후에 다음 QoS0 를 전송합니다.
+ * paho 는 송신 스레드가 토큰을 저장소에서 제거한 후에 콜백 스레드에서 토큰을 완료하므로, 완료를 기다리면 충분합니다.
+ * QoS1 이상은 메시지마다 다른 message id 를 사용하므로 순서를 정하지 않습니다.
+ *
+ * @author SDS
+ */
+final class MqttQos0Sequencer {
+
+	/**
+	 * paho 에 QoS0 메시지 전송을 요청하고 토큰을 리턴합니다.
+	 */
+	interface Publisher {
+		IMqttDeliveryToken publish() throws MqttException;
+	}
+
+	private final Object		lock	= new Object();
+	private IMqttDeliveryToken	last	= null;
+
+	/**
+	 * 앞의 QoS0 토큰이 paho 에서 제거될 때까지 기다린 후 전송합니다.
+	 *
+	 * @param publisher
+	 *        paho 전송 요청
+	 * @param timeToWait
+	 *        앞의 QoS0 전송 완료를 기다리는 최대 시간 (밀리초)
+	 * @return 전송 토큰
+	 * @throws MqttException
+	 *         앞의 QoS0 전송이 timeToWait 안에 끝나지 않은 경우 REASON_CODE_MAX_INFLIGHT
+	 */
+	IMqttDeliveryToken publish(Publisher publisher, long timeToWait) throws MqttException {
+		synchronized (lock) {
+			awaitReleased(last, timeToWait);
+			IMqttDeliveryToken token = publisher.publish();
+			last = token;
+			return token;
+		}
+	}
+
+	private static void awaitReleased(IMqttDeliveryToken token, long timeToWait) throws MqttException {
+		if (token == null || token.isComplete()) {
+			return;
+		}
+		try {
+			token.waitForCompletion(timeToWait);
+		} catch (MqttException e) {
+			// 전송 실패로 완료된 토큰은 paho 가 이미 정리함
+			if (!token.isComplete()) {
+				throw new MqttException(MqttException.REASON_CODE_MAX_INFLIGHT);
+			}
+		}
+	}
+}
@@ -1,10 +1,15 @@
 
 package com.sds.iot.sdk.protocol.tls;
 
+import java.io.File;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Properties;
 
+import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,8 +36,21 @@ public class SslProperties {
 	private static final String	TRUST_KEYSTORE				= "TRUST_KEYSTORE";
 	private static final String	TRUST_KEYSTORE_PASSWORD		= "TRUST_KEYSTORE_PASSWORD";
 
+	private static final String	TLS_PROTOCOL				= "TLS_PROTOCOL";
+	private static final String	TLS_SESSION_CACHE_SIZE		= "TLS_SESSION_CACHE_SIZE";
+	private static final String	TLS_SESSION_TIMEOUT			= "TLS_SESSION_TIMEOUT";
+
+	/** SSLContext 캐시 키에 포함하는 설정 */
+	private static final String[]	CONTEXT_KEYS			= { MUTUAL_TLS_CRT, MUTUAL_TLS_KEY, KEYSTORE, KEYSTORE_PASSWORD,
+			KEYSTORE_KEY_PASSWORD, TRUST_KEYSTORE_PUBLIC_YN, TRUST_KEYSTORE, TRUST_KEYSTORE_PASSWORD };
+	/** 변경 여부를 확인하는 인증서/키 파일 설정 */
+	private static final String[]	FILE_KEYS				= { MUTUAL_TLS_CRT, MUTUAL_TLS_KEY, KEYSTORE, TRUST_KEYSTORE };
+
 	private final Properties	props						= new Properties();
 
+	/** 설정값으로 만든 SSLContext 캐시 키 (임의로 생성한 KeyStore 비밀번호가 추가되기 전의 설정값 기준) */
+	private String				contextKey					= null;
+
 	/* ======================================================================================= */
 
 	/**
@@ -145,6 +163,82 @@ public class SslProperties {
 		return "".equals(val) ? true : Boolean.parseBoolean(val);
 	}
 
+	/**
+	 * default "TLSv1.3". 지원하지 않는 JRE 에서는 TLSv1.2 를 사용합니다.
+	 * TLSv1.3 으로 설정해도 서버가 TLSv1.3 을 지원하지 않으면 TLSv1.2 로 연결합니다.
+	 * 
+	 * @return SSLContext 프로토콜 ("TLSv1.3", "TLSv1.2")
+	 */
+	public String getTlsProtocol() {
+		String val = getProperty(SslProperties.TLS_PROTOCOL);
+		return "".equals(val) ? "TLSv1.3" : val;
+	}
+
+	/**
+	 * default 100.
+	 * 
+	 * @return 재연결 시 TLS 세션 재사용(resumption)을 위해 보관하는 세션 수 (0: 제한 없음)
+	 */
+	public int getTlsSessionCacheSize() {
+		String val = getProperty(SslProperties.TLS_SESSION_CACHE_SIZE);
+		return "".equals(val) ? 100 : Integer.parseInt(val.trim());
+	}
+
+	/**
+	 * default 86400 (24 hours).
+	 * 
+	 * @return 보관한 TLS 세션의 유효 시간 (초, 0: 제한 없음)
+	 */
+	public int getTlsSessionTimeout() {
+		String val = getProperty(SslProperties.TLS_SESSION_TIMEOUT);
+		return "".equals(val) ? 86400 : Integer.parseInt(val.trim());
+	}
+
+	/* ======================================================================================= */
+
+	/**
+	 * 같은 설정값이면 같은 SSLContext 를 사용하기 위한 캐시 키. 비밀번호가 그대로 남지 않도록 SHA-256 으로 변환합니다.
+	 * 
+	 * @return SSLContext 캐시 키
+	 */
+	synchronized String getContextKey() {
+		if (contextKey == null) {
+			StringBuilder sb = new StringBuilder();
+			for (String key : CONTEXT_KEYS) {
+				sb.append(key).append('=').append(props.getProperty(key, "")).append('\n');
+			}
+			sb.append(getTlsProtocol()).append('\n').append(getTlsSessionCacheSize()).append('\n')
+					.append(getTlsSessionTimeout());
+			try {
+				MessageDigest md = MessageDigest.getInstance("SHA-256");
+				contextKey = Hex.encodeHexString(md.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return contextKey;
+	}
+
+	/**
+	 * 인증서/키 파일이 바뀌었는지 확인하기 위한 파일 상태. (파일이 아닌 경우 classpath 리소스로 보고 "-")
+	 * 
+	 * @return 파일별 "수정시각:크기" 목록
+	 */
+	String getFilesFingerprint() {
+		StringBuilder sb = new StringBuilder();
+		for (String key : FILE_KEYS) {
+			String path = getProperty(key);
+			File file = new File(path);
+			if (!path.isEmpty() && file.isFile()) {
+				sb.append(file.lastModified()).append(':').append(file.length());
+			} else {
+				sb.append('-');
+			}
+			sb.append(',');
+		}
+		return sb.toString();
+	}
+
 	/* ======================================================================================= */
 
 	/**
@@ -10,10 +10,13 @@ import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
 import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 
@@ -23,7 +26,11 @@ import org.slf4j.LoggerFactory;
 import sun.security.x509.X509CertImpl;
 
 /**
- * 이 클래스는 서버에서 클라이언트 SSL인증을 위한 TLS v1.2를 지원합니다.
+ * 이 클래스는 서버에서 클라이언트 SSL인증을 위한 TLS v1.3, v1.2를 지원합니다.
+ * 
+ * SSLContext 는 같은 설정값(SslProperties)이면 프로세스 전체에서 하나를 공유합니다. 재연결 시 키/인증서 파일을 다시 읽지 않고,
+ * SSLContext 의 세션 캐시에 남아 있는 TLS 세션으로 핸드셰이크를 단축(session resumption)할 수 있습니다.
+ * 인증서/키 파일이 바뀌면(수정 시각, 크기) 다음 연결에서 SSLContext 를 새로 생성합니다.
  * 
  * @author SDS
  */
@@ -37,8 +44,11 @@ public class TlsSupport {
 	private static final String	KEY_MANAGER_ALGORITHM	= KeyManagerFactory.getDefaultAlgorithm();
 	private static final String	TRUST_MANAGER_ALGORITHM	= TrustManagerFactory.getDefaultAlgorithm();
 
+	/** SslProperties.getContextKey() 별 SSLContext */
+	private static final Map<String, CachedContext>	CONTEXT_CACHE	= new ConcurrentHashMap<>();
+
 	/**
-	 * SSL 컨텍스트 생성.
+	 * SSL 컨텍스트 생성. 같은 설정값으로 생성한 SSLContext 가 있고 인증서/키 파일이 바뀌지 않았으면 그 SSLContext 를 리턴합니다.
 	 * 
 	 * @param sslProps
 	 *        SSL/TLS 설정값(property)
@@ -51,12 +61,60 @@ public class TlsSupport {
 			throw new IllegalArgumentException("No SSL Properties.");
 		}
 
-		SSLContext sslCtx = SSLContext.getInstance(TLS_V_1_2);
+		String key = sslProps.getContextKey();
+		String fingerprint = sslProps.getFilesFingerprint();
+		CachedContext cached = CONTEXT_CACHE.get(key);
+		if (cached != null && cached.fingerprint.equals(fingerprint)) {
+			return cached.sslCtx;
+		}
+
+		synchronized (CONTEXT_CACHE) {
+			cached = CONTEXT_CACHE.get(key);
+			if (cached != null && cached.fingerprint.equals(fingerprint)) {
+				return cached.sslCtx;
+			}
+			if (cached != null) {
+				LOGGER.info("****** certification files are changed. SSLContext will be recreated.");
+			}
+			SSLContext sslCtx = newTlsContext(sslProps);
+			CONTEXT_CACHE.put(key, new CachedContext(fingerprint, sslCtx));
+			return sslCtx;
+		}
+	}
+
+	/**
+	 * 공유 중인 SSLContext 를 모두 제거합니다. 이후 연결부터 SSLContext 를 새로 생성하며, 보관한 TLS 세션도 사용하지 않습니다.
+	 */
+	public static void clearTlsContextCache() {
+		CONTEXT_CACHE.clear();
+	}
+
+	private static SSLContext newTlsContext(SslProperties sslProps) throws NoSuchAlgorithmException, KeyManagementException {
+		SSLContext sslCtx = getTlsInstance(sslProps.getTlsProtocol());
 		sslCtx.init(getKeyManagers(sslProps), getTrustManagers(sslProps), null);
 
+		// 재연결 시 세션 재사용
+		SSLSessionContext sessionCtx = sslCtx.getClientSessionContext();
+		if (sessionCtx != null) {
+			sessionCtx.setSessionCacheSize(sslProps.getTlsSessionCacheSize());
+			sessionCtx.setSessionTimeout(sslProps.getTlsSessionTimeout());
+		}
+		LOGGER.info("****** SSLContext created : protocol={}", sslCtx.getProtocol());
 		return sslCtx;
 	}
 
+	private static SSLContext getTlsInstance(String protocol) throws NoSuchAlgorithmException {
+		try {
+			return SSLContext.getInstance(protocol);
+		} catch (NoSuchAlgorithmException e) {
+			if (TLS_V_1_2.equals(protocol)) {
+				throw e;
+			}
+			LOGGER.warn("****** {} is not supported. {} will be used.", protocol, TLS_V_1_2);
+			return SSLContext.getInstance(TLS_V_1_2);
+		}
+	}
+
 	/**
 	 * Two-way (mutual) SSL 가능 여부 확인.
 	 * 
@@ -204,6 +262,16 @@ public class TlsSupport {
 		return null;
 	}
 
+	private static final class CachedContext {
+		private final String		fingerprint;
+		private final SSLContext	sslCtx;
+
+		private CachedContext(String fingerprint, SSLContext sslCtx) {
+			this.fingerprint = fingerprint;
+			this.sslCtx = sslCtx;
+		}
+	}
+
 	private static void closeQuietly(InputStream in) {
 		if (in != null) {
 			try {
@@ -0,0 +1,646 @@
+
+package com.sds.iot.sdk.protocol.websocket;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.net.SocketFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.IAuth;
+import com.sds.iot.sdk.exception.IotException;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.protocol.IProtocol;
+import com.sds.iot.sdk.protocol.ITransportListener;
+import com.sds.iot.sdk.protocol.tls.TlsSupport;
+
+/**
+ * 이 클래스는 웹소켓(RFC 6455)을 이용한 서버 연결 및 메시지 전송 기능을 제공합니다. (protocolType "WEBS")
+ *
+ * 메시지 하나를 헤더포맷(delimiter 또는 binary)으로 변환한 바이트 그대로 binary 프레임 하나로 전송하며,
+ * 수신한 binary(또는 text) 메시지도 같은 방식으로 변환합니다.
+ * 서버가 permessage-deflate 확장(RFC 7692)을 수락하면 deflateMinSize 이상인 메시지를 압축하여 전송하고,
+ * pingInterval 동안 수신한 프레임이 없으면 ping 프레임을 전송하고, 그 후 다시 pingInterval 동안 수신한 프레임이 없으면
+ * 연결이 끊긴 것으로 처리합니다.
+ *
+ * 웹소켓은 메시지 단위의 응답(ack)이 없으므로 send() 는 프레임을 소켓에 기록하면 완료됩니다.
+ *
+ * @author SDS
+ */
+public class WebSocketProtocol implements IProtocol {
+	private static final Logger	LOGGER				= LoggerFactory.getLogger(WebSocketProtocol.class);
+
+	private static final String	WEBSOCKET_GUID		= "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+	private static final String	PERMESSAGE_DEFLATE	= "permessage-deflate";
+
+	/* opcode */
+	private static final int	OPCODE_CONTINUATION	= 0x0;
+	private static final int	OPCODE_TEXT			= 0x1;
+	private static final int	OPCODE_BINARY		= 0x2;
+	private static final int	OPCODE_CLOSE		= 0x8;
+	private static final int	OPCODE_PING			= 0x9;
+	private static final int	OPCODE_PONG			= 0xA;
+
+	private static final int	CLOSE_NORMAL		= 1000;
+
+	/** 수신 메시지 최대 크기 (압축 해제 후) */
+	private static final int	MAX_MESSAGE_SIZE	= 16 * 1024 * 1024;
+
+	/** 핸드셰이크 응답 헤더 최대 크기 */
+	private static final int	MAX_HEADER_SIZE		= 8 * 1024;
+
+	/** deflate 압축 데이터 끝의 빈 블록 (RFC 7692 7.2.1) */
+	private static final byte[]	DEFLATE_TAIL		= { 0x00, 0x00, (byte) 0xFF, (byte) 0xFF };
+
+	private IotClientConfig		cfg;
+	private MessageConverter	converter;
+	private ITransportListener	transport;
+	private IAuth				auth;
+
+	/** "{siteId}+{thingName}" */
+	private String				clientId;
+
+	private Socket				socket;
+	private OutputStream		out;
+	private Thread				receiver;
+	private final Object		writeLock			= new Object();
+	private volatile boolean	connected			= false;
+	private volatile boolean	closing				= false;
+
+	private final SecureRandom	maskRandom			= new SecureRandom();
+
+	/* permessage-deflate (deflater 는 writeLock, inflater 는 수신 스레드에서만 사용) */
+	private boolean				deflateEnabled		= false;
+	private boolean				deflaterReset		= false;
+	private boolean				inflaterReset		= false;
+	private Deflater			deflater;
+	private Inflater			inflater;
+
+	private WebSocketProtocolConfig getProtocolCfg() {
+		return (WebSocketProtocolConfig) cfg.getProtocolCfg();
+	}
+
+	/**
+	 * 웹소켓 클라이언트 초기화
+	 */
+	@Override
+	public void init(IotClientConfig cfg, MessageConverter converter, ITransportListener transport, IAuth auth) {
+		if (connected) {
+			throw new IllegalStateException("WebSocket client is already initialized and connected. Please disconnect and connect.");
+		}
+		this.cfg = cfg;
+		this.converter = converter;
+		this.transport = transport;
+		this.auth = auth;
+
+		if (cfg.getProtocolCfg() == null) {
+			// protocol config 를 별도 설정하지 않으면 디폴트 값으로 생성
+			cfg.setProtocolCfg(new WebSocketProtocolConfig());
+		}
+
+		this.clientId = cfg.getSiteId() + "+" + cfg.getThingName();
+	}
+
+	/**
+	 * 웹소켓 서버로 연결. 핸드셰이크 응답으로 permessage-deflate 사용 여부를 정합니다.
+	 */
+	@Override
+	public void connect() {
+		LOGGER.info("[WEBS] Connect : {}", cfg.getServerAddr());
+		closing = false;
+		Socket s = null;
+		try {
+			URI uri = URI.create(cfg.getServerAddr());
+			s = openSocket(uri);
+			InputStream in = new BufferedInputStream(s.getInputStream());
+			OutputStream os = new BufferedOutputStream(s.getOutputStream());
+
+			handshake(uri, in, os);
+
+			int pingInterval = getProtocolCfg().getPingInterval();
+			s.setSoTimeout(pingInterval > 0 ? (int) TimeUnit.SECONDS.toMillis(pingInterval) : 0);
+			Socket connectedSocket = s;
+			this.socket = connectedSocket;
+			this.out = os;
+			this.connected = true;
+
+			Thread t = new Thread(() -> receive(connectedSocket, in), "biot-websocketReceiver");
+			t.setDaemon(true);
+			this.receiver = t;
+			t.start();
+
+		} catch (IOException e) {
+			closeQuietly(s);
+			LOGGER.warn("[WEBS] Fail to connect (IOException) : {}", e.toString());
+			throw new IotException("500", "Fail to connect to WebSocket server!", e);
+		} catch (IotException e) {
+			closeQuietly(s);
+			throw e;
+		}
+	}
+
+	private Socket openSocket(URI uri) throws IOException {
+		SocketFactory factory;
+		if (cfg.isServerAddrSsl()) {
+			try {
+				factory = TlsSupport.createTlsContext(cfg.getSslProperties()).getSocketFactory();
+			} catch (Exception e) {
+				throw new IllegalStateException("Fail to make ssl context.", e);
+			}
+		} else {
+			factory = SocketFactory.getDefault();
+		}
+		int port = uri.getPort() > 0 ? uri.getPort() : cfg.isServerAddrSsl() ? 443 : 80;
+		int timeoutMillis = (int) TimeUnit.SECONDS.toMillis(getProtocolCfg().getConnectionTimeout());
+
+		Socket s = factory.createSocket();
+		s.setTcpNoDelay(true);
+		s.connect(new InetSocketAddress(uri.getHost(), port), timeoutMillis);
+		s.setSoTimeout(timeoutMillis);
+		return s;
+	}
+
+	/**
+	 * HTTP Upgrade 요청을 보내고 101 응답을 확인합니다.
+	 */
+	private void handshake(URI uri, InputStream in, OutputStream os) throws IOException {
+		byte[] nonce = new byte[16];
+		maskRandom.nextBytes(nonce);
+		String key = Base64.getEncoder().encodeToString(nonce);
+
+		String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? getProtocolCfg().getPath() : uri.getRawPath();
+		boolean defaultPort = uri.getPort() <= 0;
+		StringBuilder req = new StringBuilder(256);
+		req.append("GET ").append(path).append(" HTTP/1.1\r\n");
+		req.append("Host: ").append(uri.getHost()).append(defaultPort ? "" : ":" + uri.getPort()).append("\r\n");
+		req.append("Upgrade: websocket\r\n");
+		req.append("Connection: Upgrade\r\n");
+		req.append("Sec-WebSocket-Key: ").append(key).append("\r\n");
+		req.append("Sec-WebSocket-Version: 13\r\n");
+		if (getProtocolCfg().isPerMessageDeflate()) {
+			req.append("Sec-WebSocket-Extensions: ").append(PERMESSAGE_DEFLATE).append("\r\n");
+		}
+		String credential = auth.getCredential();
+		if (credential != null) {
+			String basic = Base64.getEncoder()
+					.encodeToString((clientId + ":" + credential).getBytes(StandardCharsets.UTF_8));
+			req.append("Authorization: Basic ").append(basic).append("\r\n");
+		}
+		req.append("\r\n");
+		os.write(req.toString().getBytes(StandardCharsets.UTF_8));
+		os.flush();
+
+		// 응답 헤더
+		String[] lines = readHttpHeader(in).split("\r\n");
+		String[] status = lines[0].split(" ", 3);
+		int statusCode = status.length >= 2 ? parseStatusCode(status[1]) : -1;
+		Map<String, String> headers = new HashMap<>();
+		for (int i = 1; i < lines.length; i++) {
+			int idx = lines[i].indexOf(':');
+			if (idx > 0) {
+				headers.put(lines[i].substring(0, idx).trim().toLowerCase(Locale.ENGLISH), lines[i].substring(idx + 1).trim());
+			}
+		}
+
+		if (statusCode == 401 || statusCode == 403) {
+			// 인증 오류이면 재시도 하지 않음
+			LOGGER.error("[WEBS] Fail to connect : {}", lines[0]);
+			throw new IotException("401", "Fail to connect to WebSocket server! (" + lines[0] + ")");
+		}
+		if (statusCode != 101) {
+			LOGGER.warn("[WEBS] Fail to connect : {}", lines[0]);
+			throw new IotException("500", "Fail to connect to WebSocket server! (" + lines[0] + ")");
+		}
+		if (!"websocket".equalsIgnoreCase(headers.get("upgrade"))
+				|| !acceptKey(key).equals(headers.get("sec-websocket-accept"))) {
+			throw new IotException("500", "Fail to connect to WebSocket server! (invalid handshake response)");
+		}
+
+		negotiateDeflate(headers.get("sec-websocket-extensions"));
+		LOGGER.debug("[WEBS] Connected (permessage-deflate={})", deflateEnabled);
+	}
+
+	private static int parseStatusCode(String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static String readHttpHeader(InputStream in) throws IOException {
+		ByteArrayOutputStream header = new ByteArrayOutputStream(256);
+		int matched = 0;
+		while (matched < 4) {
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException("Connection closed during WebSocket handshake");
+			}
+			header.write(b);
+			if (header.size() > MAX_HEADER_SIZE) {
+				throw new IOException("WebSocket handshake response is too large");
+			}
+			matched = (b == '\r' && (matched == 0 || matched == 2)) || (b == '\n' && (matched == 1 || matched == 3)) ? matched + 1
+					: b == '\r' ? 1 : 0;
+		}
+		return new String(header.toByteArray(), StandardCharsets.ISO_8859_1);
+	}
+
+	static String acceptKey(String key) {
+		try {
+			MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+			byte[] digest = sha1.digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 서버가 수락한 permessage-deflate 파라미터로 압축 방식을 정합니다.
+	 * java.util.zip 은 window 크기를 지정할 수 없으므로 client_max_window_bits 는 요청하지 않습니다.
+	 */
+	private void negotiateDeflate(String extensions) {
+		this.deflateEnabled = false;
+		this.deflaterReset = false;
+		this.inflaterReset = false;
+		if (extensions == null || !getProtocolCfg().isPerMessageDeflate()) {
+			return;
+		}
+		for (String extension : extensions.split(",")) {
+			String[] params = extension.split(";");
+			if (!PERMESSAGE_DEFLATE.equalsIgnoreCase(params[0].trim())) {
+				continue;
+			}
+			this.deflateEnabled = true;
+			for (int i = 1; i < params.length; i++) {
+				String param = params[i].trim().toLowerCase(Locale.ENGLISH);
+				if ("client_no_context_takeover".equals(param)) {
+					this.deflaterReset = true;
+				} else if ("server_no_context_takeover".equals(param)) {
+					this.inflaterReset = true;
+				}
+			}
+			break;
+		}
+		if (deflateEnabled) {
+			// 연결마다 압축 context 를 새로 시작
+			this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			this.inflater = new Inflater(true);
+		}
+	}
+
+	/* ============================================================= */
+
+	/**
+	 * 수신 스레드. 연결이 끊길 때까지 프레임을 읽어 메시지를 처리합니다.
+	 */
+	private void receive(Socket s, InputStream in) {
+		ByteArrayOutputStream message = new ByteArrayOutputStream(1024);
+		boolean messageCompressed = false;
+		boolean inMessage = false;
+		byte[] header = new byte[8];
+		// 응답(수신 프레임)을 기다리는 ping 의 전송 시각. 0 이면 기다리는 ping 없음
+		long pingSentTime = 0L;
+		try {
+			while (true) {
+				int b0;
+				try {
+					b0 = in.read();
+				} catch (SocketTimeoutException e) {
+					// pingInterval 동안 수신이 없음
+					if (pingSentTime != 0L) {
+						throw new IOException("No frame received since ping ("
+								+ (System.currentTimeMillis() - pingSentTime) + " ms)");
+					}
+					LOGGER.trace("[WEBS] send ping");
+					writeFrame(OPCODE_PING, new byte[0], false);
+					pingSentTime = System.currentTimeMillis();
+					continue;
+				}
+				if (b0 < 0) {
+					throw new EOFException("Connection closed by server");
+				}
+				pingSentTime = 0L;
+				boolean fin = (b0 & 0x80) != 0;
+				boolean rsv1 = (b0 & 0x40) != 0;
+				int opcode = b0 & 0x0F;
+				byte[] payload = readFramePayload(in, header);
+
+				switch (opcode) {
+					case OPCODE_PING:
+						writeFrame(OPCODE_PONG, payload, false);
+						break;
+					case OPCODE_PONG:
+						LOGGER.trace("[WEBS] pong received");
+						break;
+					case OPCODE_CLOSE:
+						int code = payload.length >= 2 ? ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF) : CLOSE_NORMAL;
+						try {
+							writeFrame(OPCODE_CLOSE, payload.length >= 2 ? new byte[] { payload[0], payload[1] } : new byte[0], false);
+						} catch (IOException e) {
+							LOGGER.trace("[WEBS] fail to reply close frame : {}", e.toString());
+						}
+						throw new EOFException("Close frame received (code=" + code + ")");
+					case OPCODE_TEXT:
+					case OPCODE_BINARY:
+					case OPCODE_CONTINUATION:
+						if (opcode != OPCODE_CONTINUATION) {
+							if (inMessage) {
+								throw new IOException("New data frame in the middle of a fragmented message");
+							}
+							inMessage = true;
+							messageCompressed = rsv1;
+							message.reset();
+						} else if (!inMessage) {
+							throw new IOException("Unexpected continuation frame");
+						}
+						if (message.size() + payload.length > MAX_MESSAGE_SIZE) {
+							throw new IOException("WebSocket message is too large");
+						}
+						message.write(payload, 0, payload.length);
+						if (fin) {
+							inMessage = false;
+							byte[] data = message.toByteArray();
+							onMessage(messageCompressed ? inflate(data) : data);
+						}
+						break;
+					default:
+						throw new IOException("Unknown opcode : " + opcode);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			connectionLost(s, e);
+		}
+	}
+
+	/**
+	 * 프레임 길이와 mask 를 읽고 payload 를 리턴합니다.
+	 * 프레임을 읽는 도중 타임아웃이 발생하면 스트림을 더 이상 사용할 수 없으므로 일반 IOException 으로 변환합니다.
+	 */
+	private static byte[] readFramePayload(InputStream in, byte[] header) throws IOException {
+		try {
+			int b1 = readByte(in);
+			boolean masked = (b1 & 0x80) != 0;
+			long length = b1 & 0x7F;
+			if (length == 126) {
+				readFully(in, header, 2);
+				length = ((header[0] & 0xFF) << 8) | (header[1] & 0xFF);
+			} else if (length == 127) {
+				readFully(in, header, 8);
+				length = ByteBuffer.wrap(header).getLong();
+			}
+			if (length < 0 || length > MAX_MESSAGE_SIZE) {
+				throw new IOException("WebSocket frame is too large : " + length);
+			}
+			byte[] mask = null;
+			if (masked) {
+				mask = new byte[4];
+				readFully(in, mask, 4);
+			}
+			byte[] payload = new byte[(int) length];
+			readFully(in, payload, payload.length);
+			if (mask != null) {
+				for (int i = 0; i < payload.length; i++) {
+					payload[i] ^= mask[i & 3];
+				}
+			}
+			return payload;
+		} catch (SocketTimeoutException e) {
+			throw new IOException("Read timed out in the middle of a frame", e);
+		}
+	}
+
+	private static int readByte(InputStream in) throws IOException {
+		int b = in.read();
+		if (b < 0) {
+			throw new EOFException("Connection closed in the middle of a frame");
+		}
+		return b;
+	}
+
+	private static void readFully(InputStream in, byte[] buf, int length) throws IOException {
+		int read = 0;
+		while (read < length) {
+			int n = in.read(buf, read, length - read);
+			if (n < 0) {
+				throw new EOFException("Connection closed in the middle of a frame");
+			}
+			read += n;
+		}
+	}
+
+	private void onMessage(byte[] data) {
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("[WEBS] message arrived {} bytes", data.length);
+		}
+
+		IotMessage msg = converter.convertFromBytes(data);
+
+		// 메시지 처리 스레드 분리는 IotTransport 에서 수행 (inboundDispatchThreads 설정)
+		transport.onMessageReceived(msg);
+	}
+
+	private byte[] inflate(byte[] data) throws IOException {
+		if (inflater == null) {
+			throw new IOException("Compressed frame received without permessage-deflate");
+		}
+		byte[] input = new byte[data.length + DEFLATE_TAIL.length];
+		System.arraycopy(data, 0, input, 0, data.length);
+		System.arraycopy(DEFLATE_TAIL, 0, input, data.length, DEFLATE_TAIL.length);
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream(data.length * 4);
+		byte[] buf = new byte[8192];
+		inflater.setInput(input);
+		try {
+			while (true) {
+				int n = inflater.inflate(buf);
+				if (n > 0) {
+					result.write(buf, 0, n);
+					if (result.size() > MAX_MESSAGE_SIZE) {
+						throw new IOException("WebSocket message is too large");
+					}
+				} else if (inflater.needsInput() || inflater.finished() || inflater.needsDictionary()) {
+					break;
+				}
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Fail to inflate WebSocket message", e);
+		}
+		if (inflaterReset) {
+			inflater.reset();
+		}
+		return result.toByteArray();
+	}
+
+	private byte[] deflate(byte[] data) {
+		ByteArrayOutputStream result = new ByteArrayOutputStream(data.length / 2 + 16);
+		byte[] buf = new byte[Math.max(64, data.length / 2)];
+		deflater.setInput(data);
+		while (true) {
+			int n = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+			result.write(buf, 0, n);
+			if (n < buf.length) {
+				break;
+			}
+		}
+		if (deflaterReset) {
+			deflater.reset();
+		}
+		// SYNC_FLUSH 로 추가된 빈 블록(00 00 ff ff) 제거
+		byte[] compressed = result.toByteArray();
+		byte[] trimmed = new byte[compressed.length - DEFLATE_TAIL.length];
+		System.arraycopy(compressed, 0, trimmed, 0, trimmed.length);
+		return trimmed;
+	}
+
+	private void connectionLost(Socket s, Throwable cause) {
+		closeQuietly(s);
+		if (closing || s != this.socket) {
+			return;
+		}
+		LOGGER.warn("[WEBS] connectionLost : {}", cause.toString(), cause);
+		this.connected = false;
+
+		// 재연결은 IotTransport 의 재연결 스레드에서 수행되므로 바로 리턴됨
+		transport.onConnectionLost(cause.toString());
+	}
+
+	/* ============================================================= */
+
+	/**
+	 * 웹소켓 클라이언트 연결 종료
+	 */
+	@Override
+	public void disconnect() {
+		Socket s = this.socket;
+		if (s == null) {
+			LOGGER.debug("[WEBS] Disconnection is not needed. socket is null.");
+			return;
+		} else if (!isConnected()) {
+			LOGGER.debug("[WEBS] Disconnection is not needed. socket is already disconnected.");
+			return;
+		}
+
+		LOGGER.debug("[WEBS] Disconnect");
+		closing = true;
+		connected = false;
+		try {
+			writeFrame(OPCODE_CLOSE, new byte[] { (byte) (CLOSE_NORMAL >> 8), (byte) CLOSE_NORMAL }, false);
+		} catch (IOException e) {
+			LOGGER.warn("[WEBS] Exception occurred while disconnecting : {}", e.toString());
+		}
+		closeQuietly(s);
+		try {
+			receiver.join(TimeUnit.SECONDS.toMillis(getProtocolCfg().getConnectionTimeout()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 웹소켓 클라이언트에서 서버로 메시지 전송. 메시지 하나를 binary 프레임 하나로 전송합니다.
+	 */
+	@Override
+	public void send(IotMessage msg) throws Exception {
+		if (!connected) {
+			throw new IllegalStateException("WebSocket client is not connected!");
+		}
+
+		byte[] payload = converter.convertToBytes(msg);
+
+		LOGGER.debug("[WEBS] Send {} bytes", payload.length);
+		writeFrame(OPCODE_BINARY, payload, true);
+	}
+
+	/**
+	 * 프레임을 전송합니다. 클라이언트 프레임은 항상 mask 를 적용합니다.
+	 *
+	 * @param compressible
+	 *        permessage-deflate 압축 대상 여부 (데이터 프레임)
+	 */
+	private void writeFrame(int opcode, byte[] payload, boolean compressible) throws IOException {
+		synchronized (writeLock) {
+			boolean compressed = compressible && deflateEnabled && payload.length >= getProtocolCfg().getDeflateMinSize();
+			byte[] data = compressed ? deflate(payload) : payload;
+
+			int headerLength = 2 + (data.length > 0xFFFF ? 8 : data.length > 125 ? 2 : 0) + 4;
+			byte[] frame = new byte[headerLength + data.length];
+			frame[0] = (byte) (0x80 | (compressed ? 0x40 : 0) | opcode);
+			int pos;
+			if (data.length > 0xFFFF) {
+				frame[1] = (byte) (0x80 | 127);
+				ByteBuffer.wrap(frame, 2, 8).putLong(data.length);
+				pos = 10;
+			} else if (data.length > 125) {
+				frame[1] = (byte) (0x80 | 126);
+				frame[2] = (byte) (data.length >> 8);
+				frame[3] = (byte) data.length;
+				pos = 4;
+			} else {
+				frame[1] = (byte) (0x80 | data.length);
+				pos = 2;
+			}
+			byte[] mask = new byte[4];
+			maskRandom.nextBytes(mask);
+			System.arraycopy(mask, 0, frame, pos, 4);
+			pos += 4;
+			for (int i = 0; i < data.length; i++) {
+				frame[pos + i] = (byte) (data[i] ^ mask[i & 3]);
+			}
+
+			OutputStream os = this.out;
+			if (os == null) {
+				throw new IllegalStateException("WebSocket client is not connected!");
+			}
+			os.write(frame);
+			os.flush();
+		}
+	}
+
+	private static void closeQuietly(Socket s) {
+		if (s == null) {
+			return;
+		}
+		try {
+			s.close();
+		} catch (IOException e) {
+			LOGGER.trace("[WEBS] Exception occurred while closing socket : {}", e.toString());
+		}
+	}
+
+	/**
+	 * 웹소켓 클라이언트 연결 여부
+	 */
+	@Override
+	public boolean isConnected() {
+		return connected;
+	}
+
+}
@@ -0,0 +1,139 @@
+
+package com.sds.iot.sdk.protocol.websocket;
+
+import java.util.Properties;
+
+import com.sds.iot.sdk.protocol.IProtocolConfig;
+import com.sds.iot.sdk.util.ConfigFileUtil;
+
+/**
+ * 이 클래스는 웹소켓(WEBS) 프로토콜의 연결 설정에 대한 기본값을 제공합니다.
+ *
+ * @author SDS
+ */
+public class WebSocketProtocolConfig implements IProtocolConfig {
+
+	/* ============================================================= */
+
+	private int		connectionTimeout	= 5;
+	private int		pingInterval		= 30;
+	private String	path				= "/";
+	private boolean	perMessageDeflate	= true;
+	private int		deflateMinSize		= 256;
+
+	/* ============================================================= */
+
+	@Override
+	public void initFromProperties(Properties props) {
+
+		ConfigFileUtil.invokeSetterIfExists(props, "webs.", this, "connectionTimeout", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "webs.", this, "pingInterval", int.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "webs.", this, "path", String.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "webs.", this, "perMessageDeflate", boolean.class);
+		ConfigFileUtil.invokeSetterIfExists(props, "webs.", this, "deflateMinSize", int.class);
+
+	}
+
+	/* ============================================================= */
+
+	/**
+	 * @return 연결 타임아웃 (초)
+	 */
+	int getConnectionTimeout() {
+		return connectionTimeout;
+	}
+
+	/**
+	 * <b>seconds. default 5sec.</b>
+	 * 서버 연결과 웹소켓 핸드셰이크 응답을 기다리는 최대 시간입니다.
+	 *
+	 * @param connectionTimeout
+	 *        연결 타임아웃 (초)
+	 */
+	public void setConnectionTimeout(int connectionTimeout) {
+		this.connectionTimeout = connectionTimeout;
+	}
+
+	/**
+	 * @return ping 전송 간격 (초)
+	 */
+	int getPingInterval() {
+		return pingInterval;
+	}
+
+	/**
+	 * <b>seconds. default 30sec.</b>
+	 * 이 시간 동안 수신한 프레임이 없으면 ping 프레임을 전송합니다. (프록시, 방화벽의 유휴 연결 종료 방지)
+	 * 0 이면 ping 을 보내지 않습니다.
+	 *
+	 * @param pingInterval
+	 *        ping 전송 간격 (초)
+	 */
+	public void setPingInterval(int pingInterval) {
+		this.pingInterval = pingInterval;
+	}
+
+	/**
+	 * @return 웹소켓 요청 경로
+	 */
+	String getPath() {
+		return path;
+	}
+
+	/**
+	 * <b>default "/".</b>
+	 * 웹소켓 핸드셰이크 요청 경로입니다. serverAddr 에 경로가 포함된 경우에는 serverAddr 의 경로를 사용합니다.
+	 *
+	 * @param path
+	 *        웹소켓 요청 경로
+	 */
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	/**
+	 * @return permessage-deflate 확장 사용 요청 여부
+	 */
+	boolean isPerMessageDeflate() {
+		return perMessageDeflate;
+	}
+
+	/**
+	 * <b>default true.</b>
+	 * 핸드셰이크 시 permessage-deflate 확장을 요청합니다. 서버가 수락한 경우에만 사용됩니다.
+	 *
+	 * @param perMessageDeflate
+	 *        permessage-deflate 확장 사용 요청 여부
+	 */
+	public void setPerMessageDeflate(boolean perMessageDeflate) {
+		this.perMessageDeflate = perMessageDeflate;
+	}
+
+	/**
+	 * @return deflate 압축할 최소 메시지 크기 (bytes)
+	 */
+	int getDeflateMinSize() {
+		return deflateMinSize;
+	}
+
+	/**
+	 * <b>bytes. default 256.</b>
+	 * permessage-deflate 사용 시 이 크기보다 작은 메시지는 압축하지 않고 전송합니다. (작은 메시지는 압축 효과보다 CPU 비용이 큼)
+	 *
+	 * @param deflateMinSize
+	 *        deflate 압축할 최소 메시지 크기 (bytes)
+	 */
+	public void setDeflateMinSize(int deflateMinSize) {
+		this.deflateMinSize = deflateMinSize;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("  connectionTimeout=").append(connectionTimeout).append("\n  pingInterval=").append(pingInterval)
+				.append("\n  path=").append(path).append("\n  perMessageDeflate=").append(perMessageDeflate)
+				.append("\n  deflateMinSize=").append(deflateMinSize);
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.sds.iot.sdk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sds.iot.sdk.auth.ita.ItaBasicAuthAuth;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.message.compress.IDataCompressor;
+import com.sds.iot.sdk.message.compress.ZstdDictionaryRegistry;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
+
+/**
+ * 클라이언트 설정(compressDictTrainSamples)으로 학습한 Zstd 압축 사전의 조회, 서버 등록, activate 테스트 (서버 연결 없음)
+ */
+public class IotClientCompressDictionaryTest {
+
+	private static final String	MSG_CODE	= "Basic-AttrGroup";
+
+	/**
+	 * 클라이언트 초기화 시 생성한 압축기를 보관
+	 */
+	private static class CompressorCapturingClient extends IotCoreClient {
+		private IDataCompressor compressor;
+
+		CompressorCapturingClient(IotClientConfig cfg) {
+			super(new ItaBasicAuthAuth("Q0IwMDAwMDAwMCthcGlfdGVzdDphcGk="), cfg);
+		}
+
+		@Override
+		protected IFactory getFactory() {
+			return new IFactory() {
+				@Override
+				public IDataCompressor createDataCompressor(IotClientConfig cfg) {
+					compressor = IFactory.super.createDataCompressor(cfg);
+					return compressor;
+				}
+			};
+		}
+	}
+
+	private static IotMessage createMessage(int i) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setMsgCode(MSG_CODE);
+		msg.setSiteId("CB00000000");
+		msg.setThingName("MD1.123");
+		msg.setMsgId(String.valueOf(i));
+		msg.setDataString("{ \"deviceId\" : \"SENSOR-" + (i % 10) + "\", \"temperature\" : " + (i % 40) + "." + (i % 7)
+				+ ", \"humidity\" : " + (i % 100) + ", \"status\" : \"NORMAL\" }");
+		return msg;
+	}
+
+	@Test
+	public void test_trainExportActivate() {
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123");
+		cfg.setHeaderType("D");
+		cfg.setCompressUseBytes(1);
+		cfg.setCompressDictTrainSamples(100);
+		cfg.setCompressDictSize(1024);
+		CompressorCapturingClient client = new CompressorCapturingClient(cfg);
+		client.initStrategy();
+
+		ZstdDictionaryRegistry dictionaries = client.getCompressDictionaries();
+		assertNotNull(dictionaries);
+		assertSame(dictionaries, cfg.getCompressDictionaries());
+		MessageConverter sender = new MessageConverter(new DelimiterHeaderFormatConverter(), client.compressor,
+				new PlainDataEncryptor());
+
+		// 학습을 마친 후에도 activate 전까지는 서버가 압축해제할 수 있는 "Z" 로 전송
+		for (int i = 0; i < 110; i++) {
+			IotMessage msg = createMessage(i);
+			sender.convertToBytes(msg);
+			assertEquals("Z0", msg.getEncType());
+		}
+		Map<String, Integer> trained = dictionaries.getTrainedDictionaryIds();
+		assertEquals(1, trained.size());
+		int dictId = trained.get(MSG_CODE);
+
+		// 서버(수신 측)에 사전 등록 : 다른 압축 방식을 사용하는 클라이언트도 설정한 사전으로 압축해제
+		ZstdDictionaryRegistry serverDictionaries = new ZstdDictionaryRegistry();
+		serverDictionaries.register(dictionaries.getDictionary(dictId));
+		IotClientConfig serverCfg = new IotClientConfig("CB00000000", "MD1.SERVER");
+		serverCfg.setCompressType(IotClientConfig.COMPRESS_TYPE_DEFLATE);
+		serverCfg.setCompressDictionaries(serverDictionaries);
+		MessageConverter receiver = new MessageConverter(new DelimiterHeaderFormatConverter(),
+				IFactory.DefaultFactory.INSTANCE.createDataCompressor(serverCfg), new PlainDataEncryptor());
+
+		assertEquals(dictId, client.getCompressDictionaries().activate(MSG_CODE));
+		IotMessage msg = createMessage(200);
+		byte[] bytes = sender.convertToBytes(msg);
+		assertEquals("ZD" + String.format("%08x", dictId) + "0", msg.getEncType());
+		assertEquals(createMessage(200).getDataString(), receiver.convertFromBytes(bytes).getDataString());
+	}
+}
@@ -0,0 +1,19 @@
+package com.sds.iot.sdk;
+
+import com.sds.iot.sdk.message.compress.IDataCompressor;
+
+/**
+ * 다른 패키지의 테스트에서 디폴트 팩토리(IFactory)로 구현체를 생성하기 위한 유틸
+ */
+public class TestFactoryUtil {
+
+	private TestFactoryUtil() {
+	}
+
+	/**
+	 * 클라이언트 초기화 시와 같은 방식으로 설정에 맞는 압축기를 생성합니다.
+	 */
+	public static IDataCompressor createDataCompressor(IotClientConfig cfg) {
+		return IFactory.DefaultFactory.INSTANCE.createDataCompressor(cfg);
+	}
+}
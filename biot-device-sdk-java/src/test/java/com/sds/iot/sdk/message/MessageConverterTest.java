@@ -0,0 +1,180 @@
+package com.sds.iot.sdk.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.IAuth;
+import com.sds.iot.sdk.message.compress.ZstdDataCompressor;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
+import com.sds.iot.sdk.message.encrypt.ItaAesDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
+
+/**
+ * 메시지 데이터부 압축/암호화 순서 테스트
+ */
+public class MessageConverterTest {
+	private static final Logger LOGGER = LoggerFactory.getLogger(MessageConverterTest.class);
+
+	/** 암호화 키 생성을 위한 ITA 인증 */
+	private static final class ItaTestAuth implements IAuth {
+		@Override
+		public String getAuthTypeName() {
+			return "ITA_TEST";
+		}
+
+		@Override
+		public void requestCredential() {
+			/* nothing */
+		}
+
+		@Override
+		public String getCredential() {
+			return "0123456789abcdef0123456789abcdef";
+		}
+
+		@Override
+		public void setConfig(IotClientConfig cfg) {
+			/* nothing */
+		}
+
+		@Override
+		public IotMessage makeDeviceAuthMessage(int seq) {
+			return null;
+		}
+
+		@Override
+		public void onAuthResponseMessageReceived(IotMessage resMsg) {
+			/* nothing */
+		}
+
+		@Override
+		public String getAuthToken() {
+			return null;
+		}
+	}
+
+	private static IDataEncryptor createEncryptor() {
+		IDataEncryptor encryptor = new ItaAesDataEncryptor("3", 128);
+		encryptor.setAuth(new ItaTestAuth());
+		return encryptor;
+	}
+
+	private static MessageConverter createConverter(IDataEncryptor encryptor, boolean compressBeforeEncrypt) {
+		return new MessageConverter(new DelimiterHeaderFormatConverter(), new ZstdDataCompressor(1), encryptor,
+				compressBeforeEncrypt);
+	}
+
+	/**
+	 * 센서 값 배열로 구성된 속성 데이터
+	 */
+	static String createTelemetry(int records, long seed) {
+		Random random = new Random(seed);
+		StringBuilder sb = new StringBuilder("{ \"records\" : [");
+		for (int i = 0; i < records; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{ \"timestamp\" : ").append(1571234567890L + i * 1000L);
+			sb.append(", \"temperature\" : ").append(20 + random.nextInt(100) / 10.0);
+			sb.append(", \"humidity\" : ").append(40 + random.nextInt(200) / 10.0);
+			sb.append(", \"status\" : \"").append(random.nextInt(10) == 0 ? "WARN" : "NORMAL").append("\" }");
+		}
+		return sb.append("] }").toString();
+	}
+
+	private static IotMessage createMessage(String dataStr) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setMsgCode("Basic-AttrGroup");
+		msg.setSiteId("CB00000000");
+		msg.setThingName("MD1.123");
+		msg.setMsgId("1");
+		msg.setDataString(dataStr);
+		return msg;
+	}
+
+	@Test
+	public void test_compressBeforeEncrypt() {
+		String data = createTelemetry(100, 1L);
+		IDataEncryptor encryptor = createEncryptor();
+
+		IotMessage msg = createMessage(data);
+		byte[] bytes = createConverter(encryptor, true).convertToBytes(msg);
+		assertEquals("CZ3", msg.getEncType());
+
+		// 수신 측은 설정과 관계없이 encType 으로 순서를 판단
+		for (boolean compressBeforeEncrypt : new boolean[] { true, false }) {
+			IotMessage received = createConverter(encryptor, compressBeforeEncrypt).convertFromBytes(bytes);
+			assertEquals("0", received.getEncType());
+			assertEquals(data, received.getDataString());
+		}
+
+		// 기존 순서 (암호화 후 압축)
+		IotMessage legacy = createMessage(data);
+		byte[] legacyBytes = createConverter(encryptor, false).convertToBytes(legacy);
+		assertEquals("Z3", legacy.getEncType());
+		assertEquals(data, createConverter(encryptor, true).convertFromBytes(legacyBytes).getDataString());
+
+		// 압축 후 암호화한 데이터가 훨씬 작음
+		assertTrue(msg.getDataLength() * 3 < legacy.getDataLength());
+	}
+
+	@Test
+	public void test_compressBeforeEncrypt_notEncrypted() {
+		// 암호화하지 않는 메시지는 기존과 같음
+		String data = createTelemetry(10, 1L);
+		IotMessage msg = createMessage(data);
+		byte[] bytes = createConverter(new PlainDataEncryptor(), true).convertToBytes(msg);
+		assertEquals("Z0", msg.getEncType());
+		assertEquals(data, createConverter(new PlainDataEncryptor(), false).convertFromBytes(bytes).getDataString());
+
+		// 압축 대상이 아닌 메시지는 암호화만 수행
+		IotMessage small = createMessage(data);
+		IDataEncryptor encryptor = createEncryptor();
+		MessageConverter converter = new MessageConverter(new DelimiterHeaderFormatConverter(),
+				new ZstdDataCompressor(100_000), encryptor, true);
+		bytes = converter.convertToBytes(small);
+		assertEquals("3", small.getEncType());
+		assertEquals(data, converter.convertFromBytes(bytes).getDataString());
+	}
+
+	/**
+	 * 속성 데이터(JSON) 암호화 + 압축 시 전송 크기와 변환 시간 비교.
+	 */
+	@Test
+	@Ignore("benchmark")
+	public void benchmark_compressBeforeEncrypt() {
+		IDataEncryptor encryptor = createEncryptor();
+		for (int records : new int[] { 1, 10, 100 }) {
+			String data = createTelemetry(records, records);
+			for (boolean compressBeforeEncrypt : new boolean[] { false, true }) {
+				MessageConverter converter = createConverter(encryptor, compressBeforeEncrypt);
+				int count = 20_000 / records;
+				for (int i = 0; i < count; i++) {
+					converter.convertToBytes(createMessage(data));
+				}
+				long start = System.nanoTime();
+				long totalBytes = 0;
+				for (int i = 0; i < count; i++) {
+					IotMessage msg = createMessage(data);
+					converter.convertToBytes(msg);
+					totalBytes += msg.getDataLength();
+				}
+				long elapsed = System.nanoTime() - start;
+				LOGGER.info("records={}, plain={} bytes, compressBeforeEncrypt={} : {} bytes, {} us/msg", records,
+						data.length(), compressBeforeEncrypt, totalBytes / count,
+						TimeUnit.NANOSECONDS.toMicros(elapsed / count));
+			}
+		}
+	}
+}
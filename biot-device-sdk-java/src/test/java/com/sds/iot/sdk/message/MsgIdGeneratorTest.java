@@ -0,0 +1,87 @@
+package com.sds.iot.sdk.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.sds.iot.sdk.IotClientConfig;
+
+/**
+ * msgId 생성 테스트
+ */
+public class MsgIdGeneratorTest {
+
+	@Test
+	public void test_uuidFormat() {
+		String msgId = new DefaultMsgIdGenerator().nextMsgId();
+		assertEquals(36, msgId.length());
+		assertEquals(msgId, UUID.fromString(msgId).toString());
+		assertTrue(msgId, msgId.matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}"));
+	}
+
+	@Test
+	public void test_unique_concurrent() throws InterruptedException {
+		IMsgIdGenerator generator = new DefaultMsgIdGenerator();
+		Set<String> ids = ConcurrentHashMap.newKeySet();
+		int threadCount = 8;
+		int countPerThread = 10000;
+
+		CountDownLatch latch = new CountDownLatch(threadCount);
+		for (int t = 0; t < threadCount; t++) {
+			new Thread(() -> {
+				for (int i = 0; i < countPerThread; i++) {
+					ids.add(generator.nextMsgId());
+				}
+				latch.countDown();
+			}).start();
+		}
+		latch.await();
+		assertEquals(threadCount * countPerThread, ids.size());
+	}
+
+	@Test
+	public void test_prefixPerClient() {
+		// 클라이언트(설정)마다 다른 prefix 를 사용
+		String id1 = new DefaultMsgIdGenerator().nextMsgId();
+		String id2 = new DefaultMsgIdGenerator().nextMsgId();
+		assertNotEquals(id1.substring(0, 18), id2.substring(0, 18));
+	}
+
+	@Test
+	public void test_toCorrelationId() {
+		IMsgIdGenerator generator = new DefaultMsgIdGenerator();
+		long first = generator.toCorrelationId(generator.nextMsgId());
+		assertTrue(first >= 0);
+		assertEquals(first + 1, generator.toCorrelationId(generator.nextMsgId()));
+
+		// 다른 생성기가 만든 msgId, 사용자 지정 msgId 는 -1
+		assertEquals(-1L, generator.toCorrelationId(new DefaultMsgIdGenerator().nextMsgId()));
+		assertEquals(-1L, generator.toCorrelationId(UUID.randomUUID().toString()));
+		assertEquals(-1L, generator.toCorrelationId("my-msg-id"));
+		assertEquals(-1L, generator.toCorrelationId(null));
+
+		String msgId = generator.nextMsgId();
+		assertEquals(-1L, generator.toCorrelationId(msgId.substring(0, 35) + "g"));
+		assertEquals(-1L, generator.toCorrelationId(msgId.toUpperCase()));
+	}
+
+	@Test
+	public void test_setDefault() {
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, null);
+		cfg.setMsgIdGenerator(() -> "fixed-id");
+
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("Q");
+		msg.setDefault(cfg);
+		assertEquals("fixed-id", msg.getMsgId());
+		assertEquals("fixed-id", msg.createResponse().getMsgId());
+	}
+
+}
@@ -0,0 +1,186 @@
+package com.sds.iot.sdk.message.compress;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Inflater;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.TestFactoryUtil;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
+
+/**
+ * 압축 방식(Zstd, LZ4, Deflate) 선택 및 비교 테스트
+ */
+public class CompositeDataCompressorTest {
+	private static final Logger LOGGER = LoggerFactory.getLogger(CompositeDataCompressorTest.class);
+
+	private static byte[] createTelemetry(Random random, int length) {
+		StringBuilder sb = new StringBuilder("{ \"records\" : [");
+		while (sb.length() < length) {
+			sb.append("{ \"timestamp\" : ").append(1571234567890L + random.nextInt(1_000_000));
+			sb.append(", \"temperature\" : ").append(20 + random.nextInt(100) / 10.0);
+			sb.append(", \"humidity\" : ").append(40 + random.nextInt(200) / 10.0);
+			sb.append(", \"status\" : \"").append(random.nextInt(10) == 0 ? "WARN" : "NORMAL").append("\" },");
+		}
+		return sb.append("{}] }").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static IotMessage createMessage(byte[] data) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setMsgCode("Basic-AttrGroup");
+		msg.setSiteId("CB00000000");
+		msg.setThingName("MD1.123");
+		msg.setMsgId("1");
+		msg.setData(data);
+		return msg;
+	}
+
+	/**
+	 * 클라이언트와 같이 설정(compressType)에 따라 팩토리에서 압축기 생성
+	 */
+	private static IDataCompressor createCompressor(String compressType) {
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, null);
+		cfg.setCompressType(compressType);
+		cfg.setCompressUseBytes(1);
+		return TestFactoryUtil.createDataCompressor(cfg);
+	}
+
+	private static MessageConverter createConverter(String compressType) {
+		return new MessageConverter(new DelimiterHeaderFormatConverter(), createCompressor(compressType),
+				new PlainDataEncryptor());
+	}
+
+	@Test
+	public void test_selectByConfig() {
+		byte[] data = createTelemetry(new Random(1L), 2_000);
+		MessageConverter zstd = createConverter("z");
+		for (String compressType : new String[] { "Z", "L", "D" }) {
+			MessageConverter converter = createConverter(compressType);
+			IotMessage msg = createMessage(data);
+			byte[] bytes = converter.convertToBytes(msg);
+			assertEquals(compressType + "0", msg.getEncType());
+			assertTrue(msg.getDataLength() < data.length / 2);
+			assertArrayEquals(data, converter.convertFromBytes(bytes).getData());
+
+			// Zstd 로 압축된 서버 메시지도 압축해제
+			IotMessage serverMsg = createMessage(data);
+			assertArrayEquals(data, converter.convertFromBytes(zstd.convertToBytes(serverMsg)).getData());
+		}
+
+		// 설정하지 않은 압축 방식
+		IDataCompressor deflate = createCompressor("D");
+		assertTrue(deflate.isCompressType("Z0"));
+		assertTrue(deflate.isCompressType("D3"));
+		assertFalse(deflate.isCompressType("L0"));
+		IotMessage msg = createMessage(data);
+		msg.setEncType("L0");
+		try {
+			deflate.decompress(msg, new Lz4DataCompressor(1).compress(data));
+			fail();
+		} catch (IllegalStateException e) {
+			// "L" 미지원
+		}
+		try {
+			new IotClientConfig("CB00000000", "MD1.123", null, null).setCompressType("X");
+			fail();
+		} catch (IllegalArgumentException e) {
+			// 지원하지 않는 압축 방식
+		}
+	}
+
+	@Test
+	public void test_deflateFormat() throws Exception {
+		// 표준 zlib 형식
+		byte[] data = createTelemetry(new Random(2L), 10_000);
+		byte[] compData = new DeflateDataCompressor(1, 6).compress(data);
+		Inflater inflater = new Inflater();
+		inflater.setInput(compData);
+		byte[] result = new byte[data.length];
+		assertEquals(data.length, inflater.inflate(result));
+		assertTrue(inflater.finished());
+		inflater.end();
+		assertArrayEquals(data, result);
+
+		DeflateDataCompressor compressor = new DeflateDataCompressor(1, 1);
+		assertArrayEquals(new byte[0], compressor.decompress(compressor.compress(new byte[0])));
+		try {
+			compressor.decompress(Arrays.copyOf(compData, compData.length / 2));
+			fail();
+		} catch (IllegalStateException e) {
+			// 잘린 데이터
+		}
+	}
+
+	@Test
+	public void test_maxDecompressBytes() {
+		byte[] data = new byte[100_000];
+		IDataCompressor[] compressors = { new DeflateDataCompressor(1, 6, data.length),
+				new Lz4DataCompressor(1, data.length) };
+		for (IDataCompressor compressor : compressors) {
+			// 최대 크기까지는 압축해제
+			assertArrayEquals(data, compressor.decompress(compressor.compress(data)));
+
+			// 압축률이 높은 데이터가 최대 크기를 넘으면 메모리에 올리지 않음
+			byte[] compData = compressor.compress(new byte[data.length + 1]);
+			try {
+				compressor.decompress(compData);
+				fail();
+			} catch (IllegalStateException e) {
+				assertTrue(e.getMessage(), e.getMessage().startsWith("Decompressed data is too large"));
+			}
+		}
+	}
+
+	/**
+	 * 압축 방식별 속성 데이터 압축률과 압축/해제 처리량 비교.
+	 */
+	@Test
+	@Ignore("benchmark")
+	public void benchmark_compressors() {
+		Random random = new Random(3L);
+		IDataCompressor[] compressors = { new ZstdDataCompressor(1, 1, 0, null), new ZstdDataCompressor(1),
+				new Lz4DataCompressor(1), new DeflateDataCompressor(1, 1), new DeflateDataCompressor(1, 6) };
+		String[] names = { "zstd-1", "zstd-3", "lz4", "deflate-1", "deflate-6" };
+		for (int length : new int[] { 300, 2_000, 20_000, 200_000 }) {
+			byte[] data = createTelemetry(random, length);
+			int count = Math.max(100, 20_000_000 / length);
+			for (int c = 0; c < compressors.length; c++) {
+				IDataCompressor compressor = compressors[c];
+				byte[] compData = null;
+				long compressNanos = 0;
+				long decompressNanos = 0;
+				for (int round = 0; round < 2; round++) {
+					long start = System.nanoTime();
+					for (int i = 0; i < count; i++) {
+						compData = compressor.compress(data);
+					}
+					compressNanos = System.nanoTime() - start;
+					start = System.nanoTime();
+					for (int i = 0; i < count; i++) {
+						compressor.decompress(compData);
+					}
+					decompressNanos = System.nanoTime() - start;
+				}
+				LOGGER.info("length={}, {} : {} bytes (ratio {}), compress {} MB/s, decompress {} MB/s", data.length,
+						names[c], compData.length, String.format("%.2f", (double) data.length / compData.length),
+						(long) data.length * count * 1_000 / compressNanos, (long) data.length * count * 1_000 / decompressNanos);
+			}
+		}
+	}
+}
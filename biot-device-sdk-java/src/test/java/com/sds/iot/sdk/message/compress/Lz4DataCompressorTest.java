@@ -0,0 +1,93 @@
+package com.sds.iot.sdk.message.compress;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * LZ4 블록 압축 테스트
+ */
+public class Lz4DataCompressorTest {
+
+	private final Lz4DataCompressor compressor = new Lz4DataCompressor(1);
+
+	private void assertRoundTrip(byte[] data) {
+		byte[] compData = compressor.compress(data);
+		assertTrue(compData.length <= 4 + Lz4DataCompressor.maxCompressedLength(data.length));
+		assertArrayEquals(data, compressor.decompress(compData));
+	}
+
+	@Test
+	public void test_roundTrip() {
+		Random random = new Random(1L);
+		// 최소 match 조건 전후의 짧은 데이터
+		for (int length = 0; length < 40; length++) {
+			byte[] data = new byte[length];
+			Arrays.fill(data, (byte) 'a');
+			assertRoundTrip(data);
+			random.nextBytes(data);
+			assertRoundTrip(data);
+		}
+		// 압축되지 않는 데이터, 같은 값 반복(겹치는 match), 긴 literal/match 길이
+		for (int length : new int[] { 100, 1_000, 70_000, 300_000 }) {
+			byte[] data = new byte[length];
+			random.nextBytes(data);
+			assertRoundTrip(data);
+			Arrays.fill(data, (byte) 7);
+			assertRoundTrip(data);
+			for (int i = 0; i < length; i++) {
+				data[i] = (byte) (i % 3 == 0 ? random.nextInt(4) : i % 251);
+			}
+			assertRoundTrip(data);
+		}
+	}
+
+	@Test
+	public void test_compressJson() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("{ \"timestamp\" : ").append(1571234567890L + i * 1000L).append(", \"temperature\" : ")
+					.append(20 + i % 10).append(", \"status\" : \"NORMAL\" }\n");
+		}
+		byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+		byte[] compData = compressor.compress(data);
+		assertTrue(compData.length * 3 < data.length);
+		assertArrayEquals(data, compressor.decompress(compData));
+	}
+
+	@Test
+	public void test_format() {
+		// 원본 크기(little-endian) + LZ4 블록 (literal 만 있는 마지막 sequence)
+		byte[] compData = compressor.compress("abc".getBytes(StandardCharsets.UTF_8));
+		assertArrayEquals(new byte[] { 3, 0, 0, 0, 0x30, 'a', 'b', 'c' }, compData);
+
+		// 다른 구현체가 만든 블록 : literal "abcd" + match(offset 4, length 8) + literal "xyzxy"
+		byte[] block = { 17, 0, 0, 0, 0x44, 'a', 'b', 'c', 'd', 4, 0, 0x50, 'x', 'y', 'z', 'x', 'y' };
+		assertEquals("abcdabcdabcdxyzxy", new String(compressor.decompress(block), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void test_malformed() {
+		byte[] compData = compressor.compress(new byte[1_000]);
+		byte[][] malformed = { Arrays.copyOf(compData, compData.length - 1), // 잘림
+				Arrays.copyOf(compData, 3), // 헤더 부족
+				{ (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x7f, 0 }, // 원본 크기 오류
+				{ 8, 0, 0, 0, 0x14, 'a', 9, 0 } // offset 오류
+		};
+		for (byte[] data : malformed) {
+			try {
+				compressor.decompress(data);
+				fail();
+			} catch (IllegalStateException e) {
+				// 압축 데이터 오류
+			}
+		}
+	}
+}
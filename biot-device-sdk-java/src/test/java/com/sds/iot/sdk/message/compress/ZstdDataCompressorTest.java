@@ -0,0 +1,426 @@
+package com.sds.iot.sdk.message.compress;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
+
+/**
+ * Zstd 사전 압축 테스트
+ */
+public class ZstdDataCompressorTest {
+	private static final Logger	LOGGER		= LoggerFactory.getLogger(ZstdDataCompressorTest.class);
+
+	private static final String	MSG_CODE	= "Basic-AttrGroup";
+
+	/**
+	 * 50~300 bytes 의 속성 데이터
+	 */
+	private static String createAttributes(Random random, int fields) {
+		StringBuilder sb = new StringBuilder("{ \"deviceId\" : \"SENSOR-").append(random.nextInt(1000)).append('"');
+		sb.append(", \"timestamp\" : ").append(1571234567890L + random.nextInt(1_000_000));
+		String[] names = { "temperature", "humidity", "pressure", "voltage", "current", "rssi" };
+		for (int i = 0; i < fields; i++) {
+			sb.append(", \"").append(names[i % names.length]).append("\" : ").append(random.nextInt(10_000) / 10.0);
+		}
+		sb.append(", \"status\" : \"").append(random.nextInt(10) == 0 ? "WARN" : "NORMAL").append("\" }");
+		return sb.toString();
+	}
+
+	private static IotMessage createMessage(String dataStr) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setMsgCode(MSG_CODE);
+		msg.setSiteId("CB00000000");
+		msg.setThingName("MD1.123");
+		msg.setMsgId("1");
+		msg.setDataString(dataStr);
+		return msg;
+	}
+
+	private static MessageConverter createConverter(ZstdDictionaryRegistry dictionaries) {
+		return new MessageConverter(new DelimiterHeaderFormatConverter(), new ZstdDataCompressor(1, dictionaries),
+				new PlainDataEncryptor());
+	}
+
+	@Test
+	public void test_trainAndCompress() {
+		ZstdDictionaryRegistry dictionaries = new ZstdDictionaryRegistry(200, 2048);
+		MessageConverter sender = createConverter(dictionaries);
+		Random random = new Random(1L);
+
+		// 샘플을 수집하는 동안은 사전 없이 압축
+		for (int i = 0; i < 200; i++) {
+			IotMessage msg = createMessage(createAttributes(random, 1 + i % 6));
+			sender.convertToBytes(msg);
+			assertEquals("Z0", msg.getEncType());
+		}
+		int dictId = dictionaries.getTrainedDictionaryIds().get(MSG_CODE);
+		assertTrue(dictId != 0);
+		assertEquals(0, dictionaries.getDictionaryId(MSG_CODE));
+		assertEquals(0, dictionaries.activate("Other-Code"));
+
+		// activate 전에는 학습된 사전으로 압축하지 않음 (서버에 사전이 없음)
+		IotMessage beforeActivate = createMessage(createAttributes(random, 3));
+		sender.convertToBytes(beforeActivate);
+		assertEquals("Z0", beforeActivate.getEncType());
+
+		// 수신 측(서버 대용)은 같은 사전을 등록해야 압축 해제 가능
+		ZstdDictionaryRegistry receiverDictionaries = new ZstdDictionaryRegistry();
+		byte[] dict = dictionaries.getDictionary(dictId);
+		assertNotNull(dict);
+		assertEquals(dictId, receiverDictionaries.register(dict));
+		MessageConverter receiver = createConverter(receiverDictionaries);
+		assertEquals(dictId, dictionaries.activate(MSG_CODE));
+		assertEquals(dictId, dictionaries.getDictionaryId(MSG_CODE));
+		assertTrue(dictionaries.getTrainedDictionaryIds().isEmpty());
+
+		String data = createAttributes(random, 3);
+		IotMessage msg = createMessage(data);
+		byte[] bytes = sender.convertToBytes(msg);
+		assertEquals("ZD" + String.format("%08x", dictId) + "0", msg.getEncType());
+		int dictLength = msg.getDataLength();
+
+		IotMessage received = receiver.convertFromBytes(bytes);
+		assertEquals("0", received.getEncType());
+		assertEquals(data, received.getDataString());
+
+		// 사전 없이 압축한 것보다 작음
+		IotMessage noDict = createMessage(data);
+		createConverter(null).convertToBytes(noDict);
+		assertTrue(dictLength < noDict.getDataLength());
+
+		// 사전이 없는 수신 측
+		try {
+			createConverter(new ZstdDictionaryRegistry()).convertFromBytes(bytes);
+			fail();
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains(String.format("%08x", dictId)));
+		}
+	}
+
+	@Test
+	public void test_registeredDictionary() {
+		// 미리 학습된 사전을 msgCode 에 등록하면 처음부터 사전으로 압축
+		ZstdDictionaryRegistry trained = new ZstdDictionaryRegistry(100, 1024);
+		ZstdDataCompressor trainer = new ZstdDataCompressor(1, trained);
+		Random random = new Random(2L);
+		for (int i = 0; i < 100; i++) {
+			IotMessage msg = createMessage(createAttributes(random, 4));
+			trainer.compress(msg, msg.getData());
+		}
+		byte[] dict = trained.getDictionary(trained.getTrainedDictionaryIds().get(MSG_CODE));
+
+		ZstdDictionaryRegistry dictionaries = new ZstdDictionaryRegistry();
+		int dictId = dictionaries.register(MSG_CODE, dict);
+		ZstdDataCompressor compressor = new ZstdDataCompressor(1, dictionaries);
+		IotMessage msg = createMessage(createAttributes(random, 4));
+		byte[] compData = compressor.compress(msg, msg.getData());
+		String compressType = compressor.getCompressType(compData);
+		assertEquals("ZD" + String.format("%08x", dictId), compressType);
+		assertEquals(compressType.length(), compressor.getCompressTypeLength(compressType + "0"));
+		assertEquals(1, compressor.getCompressTypeLength("Z0"));
+
+		IotMessage received = createMessage(null);
+		received.setEncType(compressType + "0");
+		assertArrayEquals(msg.getData(), compressor.decompress(received, compData));
+
+		// 암호화된 데이터는 사전을 사용하지 않음
+		msg.setEncType("3");
+		assertEquals("Z", compressor.getCompressType(compressor.compress(msg, msg.getData())));
+
+		try {
+			dictionaries.register(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+			fail();
+		} catch (IllegalArgumentException e) {
+			// 사전 형식 아님
+		}
+	}
+
+	private static byte[] createTelemetry(Random random, int length) {
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length) {
+			sb.append(createAttributes(random, 6)).append('\n');
+		}
+		return sb.toString().getBytes();
+	}
+
+	@Test
+	public void test_compressLevel() {
+		byte[] data = createTelemetry(new Random(4L), 100_000);
+		ZstdDataCompressor fast = new ZstdDataCompressor(1, 1, 0, null);
+		ZstdDataCompressor best = new ZstdDataCompressor(1, 19, 0, null);
+		byte[] fastData = fast.compress(data);
+		byte[] bestData = best.compress(data);
+		assertTrue(bestData.length < fastData.length);
+		assertArrayEquals(data, fast.decompress(bestData));
+		assertArrayEquals(data, best.decompress(fastData));
+
+		try {
+			new ZstdDataCompressor(1, Zstd.maxCompressionLevel() + 1, 0, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// 지원하지 않는 레벨
+		}
+	}
+
+	@Test
+	public void test_reuseOutputBuffer() {
+		// 스레드별 출력 버퍼를 재사용해도 크기가 다른 데이터가 섞이지 않음
+		ZstdDataCompressor compressor = new ZstdDataCompressor(1);
+		Random random = new Random(5L);
+		for (int length : new int[] { 10, 50_000, 100, 200_000, 1 }) {
+			byte[] data = createTelemetry(random, length);
+			byte[] compData = compressor.compress(data);
+			assertEquals(Zstd.compress(data).length, compData.length);
+			assertArrayEquals(data, compressor.decompress(compData));
+		}
+	}
+
+	@Test
+	public void test_directBuffer() {
+		ZstdDataCompressor compressor = new ZstdDataCompressor(1);
+		byte[] data = createTelemetry(new Random(6L), 10_000);
+		ByteBuffer src = ByteBuffer.allocateDirect(data.length);
+		src.put(data).flip();
+		ByteBuffer comp = ByteBuffer.allocateDirect((int) Zstd.compressBound(data.length));
+		int compLength = compressor.compress(src, comp);
+		assertEquals(comp.position(), compLength);
+		assertEquals(data.length, src.position());
+
+		comp.flip();
+		ByteBuffer plain = ByteBuffer.allocateDirect(data.length);
+		assertEquals(data.length, compressor.decompress(comp, plain));
+		byte[] result = new byte[data.length];
+		plain.flip();
+		plain.get(result);
+		assertArrayEquals(data, result);
+	}
+
+	@Test
+	public void test_adaptiveSkip() {
+		ZstdDataCompressor compressor = new ZstdDataCompressor(1, ZstdDataCompressor.DEFAULT_COMPRESS_LEVEL, 90, null);
+		MessageConverter converter = new MessageConverter(new DelimiterHeaderFormatConverter(), compressor,
+				new PlainDataEncryptor());
+		Random random = new Random(7L);
+		int compressedRandom = 0;
+		int compressedJson = 0;
+		for (int i = 0; i < 8 + 320; i++) {
+			// 압축되지 않는 데이터 (암호화된 데이터 등)
+			byte[] noise = new byte[500];
+			random.nextBytes(noise);
+			IotMessage noiseMsg = createMessage(null);
+			noiseMsg.setMsgCode("Binary-Data");
+			noiseMsg.setData(noise);
+			converter.convertToBytes(noiseMsg);
+			if (!"0".equals(noiseMsg.getEncType())) {
+				compressedRandom++;
+			}
+
+			IotMessage jsonMsg = createMessage(new String(createTelemetry(random, 2_000)));
+			converter.convertToBytes(jsonMsg);
+			if (!"0".equals(jsonMsg.getEncType())) {
+				compressedJson++;
+			}
+		}
+		// 처음 MIN_SAMPLES 건 이후에는 PROBE_INTERVAL 건마다 한 번씩만 압축
+		assertEquals(CompressRatioTracker.MIN_SAMPLES + 320 / CompressRatioTracker.PROBE_INTERVAL, compressedRandom);
+		assertEquals(8 + 320, compressedJson);
+	}
+
+	/**
+	 * content size 가 없는 스트리밍 압축 프레임
+	 */
+	private static byte[] compressStream(byte[] data) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ZstdOutputStream out = new ZstdOutputStream(bos)) {
+			out.write(data);
+		}
+		return bos.toByteArray();
+	}
+
+	@Test
+	public void test_streamDecompress() throws IOException {
+		ZstdDataCompressor compressor = new ZstdDataCompressor(1);
+		Random random = new Random(8L);
+		for (int length : new int[] { 0, 100, 5_000, 300_000 }) {
+			byte[] data = length == 0 ? new byte[0] : createTelemetry(random, length);
+			byte[] compData = compressStream(data);
+			assertEquals(0, Zstd.decompressedSize(compData));
+			assertArrayEquals(data, compressor.decompress(compData));
+		}
+
+		byte[] compData = compressStream(createTelemetry(random, 5_000));
+		try {
+			compressor.decompress(Arrays.copyOf(compData, compData.length / 2));
+			fail();
+		} catch (IllegalStateException e) {
+			// 잘린 데이터
+		}
+	}
+
+	@Test
+	public void test_maxDecompressBytes() throws IOException {
+		ZstdDataCompressor compressor = new ZstdDataCompressor(1, ZstdDataCompressor.DEFAULT_COMPRESS_LEVEL, 0, null,
+				100_000);
+		Random random = new Random(9L);
+		byte[] small = createTelemetry(random, 90_000);
+		assertArrayEquals(small, compressor.decompress(Zstd.compress(small)));
+		assertArrayEquals(small, compressor.decompress(compressStream(small)));
+
+		byte[] large = new byte[1_000_000];
+		for (byte[] compData : new byte[][] { Zstd.compress(large), compressStream(large) }) {
+			try {
+				compressor.decompress(compData);
+				fail();
+			} catch (IllegalStateException e) {
+				assertTrue(e.getMessage().contains("maxDecompressBytes"));
+			}
+			try {
+				compressor.decompress(compData, ByteBuffer.allocate(2_000_000));
+				fail();
+			} catch (IllegalStateException e) {
+				assertTrue(e.getMessage().contains("maxDecompressBytes"));
+			}
+		}
+	}
+
+	@Test
+	public void test_decompressToBuffer() throws IOException {
+		ZstdDataCompressor compressor = new ZstdDataCompressor(1);
+		byte[] data = createTelemetry(new Random(10L), 200_000);
+		ByteBuffer[] buffers = { ByteBuffer.allocate(300_000), ByteBuffer.allocateDirect(300_000) };
+		for (ByteBuffer dst : buffers) {
+			for (byte[] compData : new byte[][] { Zstd.compress(data), compressStream(data) }) {
+				dst.clear();
+				dst.position(10);
+				assertEquals(data.length, compressor.decompress(compData, dst));
+				assertEquals(10 + data.length, dst.position());
+				byte[] result = new byte[data.length];
+				dst.flip();
+				dst.position(10);
+				dst.get(result);
+				assertArrayEquals(data, result);
+
+				// 버퍼 부족
+				dst.clear();
+				dst.limit(data.length - 1);
+				try {
+					compressor.decompress(compData, dst);
+					fail();
+				} catch (IllegalStateException e) {
+					assertTrue(e.getMessage().startsWith("Not enough buffer"));
+				}
+			}
+		}
+	}
+
+	/**
+	 * 기존 one-shot API 와 출력 버퍼 재사용, 압축 레벨별 압축 속도/크기 비교.
+	 */
+	@Test
+	@Ignore("benchmark")
+	public void benchmark_compress() {
+		Random random = new Random(8L);
+		for (int length : new int[] { 200, 2_000, 20_000, 200_000 }) {
+			byte[] data = createTelemetry(random, length);
+			int count = Math.max(200, 20_000_000 / length);
+			for (int level : new int[] { 1, 3, 9 }) {
+				ZstdDataCompressor compressor = new ZstdDataCompressor(1, level, 0, null);
+				long oneShotNanos = 0;
+				long reuseNanos = 0;
+				int size = 0;
+				for (int round = 0; round < 2; round++) {
+					long start = System.nanoTime();
+					for (int i = 0; i < count; i++) {
+						Zstd.compress(data, level);
+					}
+					oneShotNanos = System.nanoTime() - start;
+					start = System.nanoTime();
+					for (int i = 0; i < count; i++) {
+						size = compressor.compress(data).length;
+					}
+					reuseNanos = System.nanoTime() - start;
+				}
+				LOGGER.info("length={}, level={} : {} bytes, one-shot {} ns/msg, reuse buffer {} ns/msg", data.length,
+						level, size, oneShotNanos / count, reuseNanos / count);
+			}
+		}
+	}
+
+	/**
+	 * 사전 유무에 따른 속성 데이터(50~300 bytes) 압축률과 압축/해제 속도 비교.
+	 */
+	@Test
+	@Ignore("benchmark")
+	public void benchmark_dictionary() {
+		Random random = new Random(3L);
+		ZstdDictionaryRegistry dictionaries = new ZstdDictionaryRegistry(1000, ZstdDictionaryRegistry.DEFAULT_DICT_SIZE);
+		ZstdDataCompressor trainer = new ZstdDataCompressor(1, dictionaries);
+		for (int i = 0; i < 1000; i++) {
+			IotMessage msg = createMessage(createAttributes(random, 1 + i % 6));
+			trainer.compress(msg, msg.getData());
+		}
+		dictionaries.activate(MSG_CODE);
+
+		for (int fields : new int[] { 1, 3, 6, 12 }) {
+			List<IotMessage> messages = new ArrayList<>();
+			for (int i = 0; i < 10_000; i++) {
+				messages.add(createMessage(createAttributes(random, fields)));
+			}
+			for (ZstdDictionaryRegistry registry : new ZstdDictionaryRegistry[] { null, dictionaries }) {
+				ZstdDataCompressor compressor = new ZstdDataCompressor(1, registry);
+				long plainBytes = 0;
+				long compBytes = 0;
+				long compressNanos = 0;
+				long decompressNanos = 0;
+				for (int round = 0; round < 2; round++) {
+					plainBytes = 0;
+					compBytes = 0;
+					compressNanos = 0;
+					decompressNanos = 0;
+					for (IotMessage msg : messages) {
+						byte[] plain = msg.getData();
+						long start = System.nanoTime();
+						byte[] compData = compressor.compress(msg, plain);
+						String compressType = compressor.getCompressType(compData);
+						compressNanos += System.nanoTime() - start;
+
+						IotMessage received = createMessage(null);
+						received.setEncType(compressType + "0");
+						start = System.nanoTime();
+						compressor.decompress(received, compData);
+						decompressNanos += System.nanoTime() - start;
+						plainBytes += plain.length;
+						compBytes += compData.length;
+					}
+				}
+				LOGGER.info("fields={}, dictionary={} : {} -> {} bytes/msg (ratio {}), compress {} ns/msg, decompress {} ns/msg",
+						fields, registry != null, plainBytes / messages.size(), compBytes / messages.size(),
+						String.format("%.2f", (double) plainBytes / compBytes), compressNanos / messages.size(),
+						decompressNanos / messages.size());
+			}
+		}
+	}
+}
@@ -0,0 +1,229 @@
+package com.sds.iot.sdk.message.headerformat;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * Binary 헤더 포맷 변환 테스트
+ */
+public class BinaryHeaderFormatConverterTest {
+
+	private final BinaryHeaderFormatConverter	converter			= new BinaryHeaderFormatConverter();
+	private final DelimiterHeaderFormatConverter	delimiterConverter	= new DelimiterHeaderFormatConverter();
+
+	@Test
+	public void test_roundTrip() {
+		IotMessage msg = DelimiterHeaderFormatConverterTest.createMessage("{ \"aa\" : 111 }");
+		msg.setResCode("200");
+		msg.setResMsg("OK");
+		msg.setMsgType("A");
+
+		IotMessage parsed = converter.convertFromBytes(converter.convertToBytes(msg));
+		assertEquals(msg.toStringFull(), parsed.toStringFull());
+	}
+
+	@Test
+	public void test_roundTrip_literals() {
+		// 토큰 테이블에 없는 값, 비 ASCII 문자, UUID 형식이 아닌 msgId, null 항목
+		IotMessage msg = DelimiterHeaderFormatConverterTest.createMessage(null);
+		msg.setVersion("004");
+		msg.setMsgCode("Custom-Code");
+		msg.setMsgId("MSG-0001");
+		msg.setResMsg("실패");
+		msg.setEncType("ZD0123abcd3");
+		msg.setDataFormat(null);
+		msg.setMsgDate(-1L);
+
+		byte[] bytes = converter.convertToBytes(msg);
+		assertEquals(bytes.length, converter.getEncodedLength(msg));
+
+		IotMessage parsed = converter.convertFromBytes(bytes);
+		assertEquals(msg.toStringFull(), parsed.toStringFull());
+		assertFalse(parsed.hasData());
+		assertNull(parsed.getDataFormat());
+	}
+
+	@Test
+	public void test_convertToBuffer() {
+		IotMessage msg = DelimiterHeaderFormatConverterTest.createMessage("{ \"aa\" : 222 }");
+		byte[] expected = converter.convertToBytes(msg);
+
+		ByteBuffer buf = ByteBuffer.allocate(1024);
+		buf.putInt(0xCAFEBABE);
+		converter.convertToBuffer(msg, buf);
+		assertEquals(4 + expected.length, buf.position());
+		assertArrayEquals(expected, Arrays.copyOfRange(buf.array(), 4, buf.position()));
+	}
+
+	@Test
+	public void test_standInDecoder() throws IOException {
+		IotMessage msg = DelimiterHeaderFormatConverterTest.createMessage("{ \"aa\" : 333 }");
+		msg.setLeafThingName("MD1.OTHER");
+
+		Map<String, Object> decoded = StandInDecoder.decode(converter.convertToBytes(msg));
+		assertEquals("003", decoded.get("version"));
+		assertEquals("N", decoded.get("msgType"));
+		assertEquals("CB00000000", decoded.get("sId"));
+		assertEquals("MD1.123", decoded.get("tpId"));
+		assertEquals("MD1.OTHER", decoded.get("tId"));
+		assertEquals("Basic-AttrGroup", decoded.get("msgCode"));
+		assertEquals(msg.getMsgId(), decoded.get("msgId"));
+		assertEquals(1571234567890L, decoded.get("msgDate"));
+		assertEquals("0", decoded.get("encType"));
+		assertEquals("token", decoded.get("authToken"));
+		assertEquals("{ \"aa\" : 333 }", new String((byte[]) decoded.get("data"), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void test_smallerThanDelimiter() {
+		IotMessage msg = DelimiterHeaderFormatConverterTest.createMessage("{\"temperature\":23.5}");
+		int binaryHeader = converter.getEncodedLength(msg) - msg.getDataLength();
+		int delimiterHeader = delimiterConverter.getEncodedLength(msg) - msg.getDataLength();
+		assertEquals(134, delimiterHeader);
+		assertEquals(70, binaryHeader);
+
+		// tId 가 tpId 와 같으면 tId 는 생략
+		msg.setLeafThingName(msg.getThingName());
+		assertEquals(61, converter.getEncodedLength(msg) - msg.getDataLength());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_convertFromBytes_notBinary() {
+		converter.convertFromBytes(delimiterConverter.convertToBytes(DelimiterHeaderFormatConverterTest.createMessage(null)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_convertFromBytes_truncated() {
+		byte[] bytes = converter.convertToBytes(DelimiterHeaderFormatConverterTest.createMessage("{}"));
+		converter.convertFromBytes(Arrays.copyOf(bytes, 20));
+	}
+
+	/**
+	 * Delimiter 포맷 대비 전송 크기와 변환 시간 비교
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmark_vsDelimiter() {
+		IotMessage msg = DelimiterHeaderFormatConverterTest.createMessage("{\"temperature\":23.5,\"humidity\":41}");
+		System.out.println("payload   : " + msg.getDataLength() + " bytes");
+		System.out.println("delimiter : " + delimiterConverter.getEncodedLength(msg) + " bytes");
+		System.out.println("binary    : " + converter.getEncodedLength(msg) + " bytes");
+
+		for (int round = 0; round < 5; round++) {
+			System.out.println("delimiter : " + measure(delimiterConverter, msg) + " ns/op (encode+decode)");
+			System.out.println("binary    : " + measure(converter, msg) + " ns/op (encode+decode)");
+		}
+	}
+
+	private static long measure(IHeaderFormatConverter conv, IotMessage msg) {
+		int count = 200_000;
+		long sink = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			IotMessage parsed = conv.convertFromBytes(conv.convertToBytes(msg));
+			sink += parsed.getMsgDate();
+		}
+		long elapsed = System.nanoTime() - start;
+		if (sink == 0) {
+			System.out.println();
+		}
+		return elapsed / count;
+	}
+
+	/**
+	 * 서버 측 디코더를 대신하는 테스트용 디코더.
+	 * BinaryHeaderFormatConverter 의 구현을 사용하지 않고 포맷 명세만으로 디코딩합니다.
+	 */
+	static class StandInDecoder {
+
+		static Map<String, Object> decode(byte[] bytes) throws IOException {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+			Map<String, Object> result = new LinkedHashMap<>();
+
+			if (in.readByte() != (byte) 0xB1) {
+				throw new IOException("invalid marker");
+			}
+			int flags = in.readUnsignedByte();
+			result.put("version", readToken(in, "003"));
+			result.put("msgType", readToken(in, "N", "Q", "A"));
+			result.put("funcType", readToken(in, "0", ""));
+			result.put("sId", readString(in));
+			result.put("tpId", readString(in));
+			result.put("tId", (flags & 0x01) != 0 ? result.get("tpId") : readString(in));
+			result.put("msgCode", readToken(in, "Basic-AttrGroup"));
+			if ((flags & 0x02) != 0) {
+				result.put("msgId", new UUID(in.readLong(), in.readLong()).toString());
+			} else {
+				result.put("msgId", readString(in));
+			}
+			result.put("msgDate", in.readLong());
+			result.put("resCode", readToken(in, "", "200"));
+			result.put("resMsg", readString(in));
+			result.put("dataFormat", readToken(in, "", "application/json"));
+			result.put("severity", readString(in));
+			result.put("encType", readToken(in, "0", "3", "Z0", "Z3", "CZ3"));
+			result.put("authToken", readString(in));
+
+			int bodySize = readVarInt(in) - 1;
+			if (bodySize >= 0) {
+				byte[] data = new byte[bodySize];
+				in.readFully(data);
+				result.put("data", data);
+			}
+			if (in.available() != 0) {
+				throw new IOException("trailing bytes");
+			}
+			return result;
+		}
+
+		private static String readToken(DataInputStream in, String... tokens) throws IOException {
+			int code = in.readUnsignedByte();
+			if (code == 0) {
+				return null;
+			} else if (code == 0xFF) {
+				return readString(in);
+			}
+			return tokens[code - 1];
+		}
+
+		private static String readString(DataInputStream in) throws IOException {
+			int len = readVarInt(in) - 1;
+			if (len < 0) {
+				return null;
+			}
+			byte[] b = new byte[len];
+			in.readFully(b);
+			return new String(b, StandardCharsets.UTF_8);
+		}
+
+		private static int readVarInt(DataInputStream in) throws IOException {
+			int value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = in.readUnsignedByte();
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+	}
+
+}
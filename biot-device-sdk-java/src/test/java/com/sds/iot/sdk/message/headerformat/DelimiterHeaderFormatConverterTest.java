@@ -0,0 +1,209 @@
+package com.sds.iot.sdk.message.headerformat;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * Delimiter 헤더 포맷 변환 테스트
+ */
+public class DelimiterHeaderFormatConverterTest {
+
+	private final DelimiterHeaderFormatConverter converter = new DelimiterHeaderFormatConverter();
+
+	static IotMessage createMessage(String dataStr) {
+		IotMessage msg = new IotMessage();
+		msg.setSiteId("CB00000000");
+		msg.setThingName("MD1.123");
+		msg.setLeafThingName("MD1.LEAF");
+		msg.setMsgId("6f1c1a1e-4b7f-4c55-9b0a-2f1f5b1f2a11");
+		msg.setMsgDate(1571234567890L);
+		msg.setAuthToken("token");
+		if (dataStr != null) {
+			msg.setDataString(dataStr);
+		}
+		return msg;
+	}
+
+	@Test
+	public void test_convertToBytes() {
+		IotMessage msg = createMessage("{ \"aa\" : 111 }");
+
+		String expected = "003|N|0|CB00000000|MD1.123|MD1.LEAF|Basic-AttrGroup|6f1c1a1e-4b7f-4c55-9b0a-2f1f5b1f2a11"
+				+ "|1571234567890|||application/json||0|token|14|{ \"aa\" : 111 }";
+
+		byte[] bytes = converter.convertToBytes(msg);
+		assertEquals(expected, new String(bytes, Charset.defaultCharset()));
+		assertEquals(bytes.length, converter.getEncodedLength(msg));
+	}
+
+	@Test
+	public void test_convertToBytes_noBody() {
+		IotMessage msg = createMessage(null);
+
+		byte[] bytes = converter.convertToBytes(msg);
+		String str = new String(bytes, Charset.defaultCharset());
+		assertEquals("|0|", str.substring(str.length() - 3));
+		assertEquals(bytes.length, converter.getEncodedLength(msg));
+	}
+
+	@Test
+	public void test_convertToBuffer() {
+		IotMessage msg = createMessage("{ \"aa\" : 222, \"bb\" : 222.222 }");
+		byte[] expected = converter.convertToBytes(msg);
+
+		// 앞쪽에 다른 데이터가 있는 풀 버퍼에 기록
+		ByteBuffer buf = ByteBuffer.allocateDirect(1024);
+		buf.putInt(0xCAFEBABE);
+		converter.convertToBuffer(msg, buf);
+		assertEquals(4 + expected.length, buf.position());
+
+		buf.flip();
+		buf.position(4);
+		byte[] written = new byte[buf.remaining()];
+		buf.get(written);
+		assertArrayEquals(expected, written);
+	}
+
+	@Test
+	public void test_roundTrip() {
+		IotMessage msg = createMessage("{ \"aa\" : 333, \"bb\" : 333.333 }");
+		msg.setResCode("200");
+		msg.setResMsg("OK");
+		msg.setMsgType("A");
+
+		IotMessage parsed = converter.convertFromBytes(converter.convertToBytes(msg));
+		assertEquals(msg.getMsgType(), parsed.getMsgType());
+		assertEquals(msg.getSiteId(), parsed.getSiteId());
+		assertEquals(msg.getThingName(), parsed.getThingName());
+		assertEquals(msg.getEndNode(), parsed.getEndNode());
+		assertEquals(msg.getMsgCode(), parsed.getMsgCode());
+		assertEquals(msg.getMsgId(), parsed.getMsgId());
+		assertEquals(msg.getMsgDate(), parsed.getMsgDate());
+		assertEquals(msg.getResCode(), parsed.getResCode());
+		assertEquals(msg.getResMsg(), parsed.getResMsg());
+		assertEquals(msg.getAuthToken(), parsed.getAuthToken());
+		assertEquals(msg.getDataString(), parsed.getDataString());
+	}
+
+	@Test
+	public void test_convertFromBytes_bodyView() {
+		IotMessage msg = createMessage("{ \"aa\" : 444 }");
+		byte[] bytes = converter.convertToBytes(msg);
+
+		IotMessage parsed = converter.convertFromBytes(bytes);
+		assertSame("003", parsed.getVersion());
+		assertEquals(14, parsed.getDataLength());
+
+		// body 는 원본 payload 를 복사하지 않고 참조한다
+		ByteBuffer body = parsed.getDataBuffer();
+		assertEquals(14, body.remaining());
+		bytes[bytes.length - 3] = '5';
+		assertEquals('5', body.get(11));
+		assertEquals("{ \"aa\" : 445 }", parsed.getDataString());
+	}
+
+	@Test
+	public void test_convertFromBytes_noBody() {
+		IotMessage parsed = converter.convertFromBytes(converter.convertToBytes(createMessage(null)));
+		assertFalse(parsed.hasData());
+		assertEquals(0, parsed.getDataLength());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_convertFromBytes_malformed() {
+		converter.convertFromBytes("003|N|0|CB00000000".getBytes(Charset.defaultCharset()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_convertFromBytes_invalidDate() {
+		String str = "003|N|0|CB00000000|MD1.123|MD1.LEAF|Basic-AttrGroup|id|20191016|||application/json||0|token|0|";
+		converter.convertFromBytes(str.replace("20191016", "2019-10-16").getBytes(Charset.defaultCharset()));
+	}
+
+	@Test
+	public void test_convertFromBytes_number() {
+		String str = "003|N|0|CB00000000|MD1.123|MD1.LEAF|Basic-AttrGroup|id|20191016|||application/json||0|token|0|";
+		assertEquals(Long.MAX_VALUE, converter.convertFromBytes(
+				str.replace("20191016", String.valueOf(Long.MAX_VALUE)).getBytes(Charset.defaultCharset())).getMsgDate());
+		assertEquals(Long.MIN_VALUE, converter.convertFromBytes(
+				str.replace("20191016", String.valueOf(Long.MIN_VALUE)).getBytes(Charset.defaultCharset())).getMsgDate());
+		assertEquals(20191016L, converter.convertFromBytes(
+				str.replace("20191016", "+20191016").getBytes(Charset.defaultCharset())).getMsgDate());
+
+		// Long.parseLong 이 거부하는 값
+		for (String date : new String[] { "-", "+", "9223372036854775808", "-9223372036854775809", "99999999999999999999" }) {
+			try {
+				converter.convertFromBytes(str.replace("20191016", date).getBytes(Charset.defaultCharset()));
+				fail(date);
+			} catch (IllegalStateException e) {
+				// 숫자 오류
+			}
+		}
+	}
+
+	@Test
+	public void test_convertToBytes_templateCache() {
+		IotMessage msg = createMessage("{ \"aa\" : 555 }");
+		byte[] first = converter.convertToBytes(msg);
+
+		// 캐시된 template 을 사용해도 결과는 같아야 한다 (msgId, msgDate 는 매번 새로 기록)
+		IotMessage next = createMessage("{ \"aa\" : 555 }");
+		next.setMsgId("7a2d2b2f-5c80-4d66-8c1b-3a2a6c2a3b22");
+		next.setMsgDate(1571234567999L);
+		assertEquals(new String(new DelimiterHeaderFormatConverter().convertToBytes(next), Charset.defaultCharset()),
+				new String(converter.convertToBytes(next), Charset.defaultCharset()));
+		assertEquals(new String(first, Charset.defaultCharset()),
+				new String(converter.convertToBytes(msg), Charset.defaultCharset()));
+	}
+
+	@Test
+	public void test_convertToBytes_templateInvalidation() {
+		converter.convertToBytes(createMessage("{}"));
+
+		// 설정 변경(siteId), 다른 msgType/tId 인 경우 template 을 다시 만든다
+		IotMessage msg = createMessage("{}");
+		msg.setSiteId("CB00000001");
+		msg.setAuthToken("token2");
+		assertEquals(new String(new DelimiterHeaderFormatConverter().convertToBytes(msg), Charset.defaultCharset()),
+				new String(converter.convertToBytes(msg), Charset.defaultCharset()));
+
+		msg.setMsgType("Q");
+		msg.setLeafThingName("MD1.LEAF2");
+		msg.setMsgCode("MSGBA0030001");
+		String str = new String(converter.convertToBytes(msg), Charset.defaultCharset());
+		assertEquals("003|Q|0|CB00000001|MD1.123|MD1.LEAF2|MSGBA0030001|", str.substring(0, 50));
+		assertEquals(str.length(), converter.getEncodedLength(msg));
+	}
+
+	@Test
+	public void test_convertToBytes_perMessageItems() {
+		// 같은 tId 로 msgCode, resCode, authToken 등이 번갈아 바뀌어도 template 의 앞부분만 재사용한다
+		for (int i = 0; i < 4; i++) {
+			IotMessage msg = createMessage("{}");
+			msg.setMsgType("A");
+			msg.setMsgCode(i % 2 == 0 ? "MSGBA0030001" : "MSGBA0040001");
+			msg.setResCode(i % 2 == 0 ? "200" : "500");
+			msg.setResMsg(i % 2 == 0 ? "OK" : "FAIL");
+			msg.setEncType(i % 2 == 0 ? "0" : "1");
+			msg.setAuthToken("token" + i);
+
+			String expected = "003|A|0|CB00000000|MD1.123|MD1.LEAF|" + msg.getMsgCode()
+					+ "|6f1c1a1e-4b7f-4c55-9b0a-2f1f5b1f2a11|1571234567890|" + msg.getResCode() + "|" + msg.getResMsg()
+					+ "|application/json||" + msg.getEncType() + "|token" + i + "|2|{}";
+			byte[] bytes = converter.convertToBytes(msg);
+			assertEquals(expected, new String(bytes, Charset.defaultCharset()));
+			assertEquals(bytes.length, converter.getEncodedLength(msg));
+		}
+	}
+
+}
@@ -0,0 +1,190 @@
+package com.sds.iot.sdk.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.sds.iot.sdk.ICustomMessageListener;
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.IotCoreClient;
+import com.sds.iot.sdk.auth.mutual.MutualTlsAuth;
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 수신 메시지 디스패치 테스트
+ */
+public class InboundDispatcherTest {
+
+	private static IotMessage createMessage(String msgType, String leafThingName, int seq) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType(msgType);
+		msg.setLeafThingName(leafThingName);
+		msg.setMsgId(String.valueOf(seq));
+		return msg;
+	}
+
+	@Test
+	public void test_orderPerLeafThing() throws InterruptedException {
+		int leafCount = 16;
+		int count = 20_000;
+		Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+		CountDownLatch latch = new CountDownLatch(count);
+		StageMetrics metrics = new StageMetrics("test");
+		InboundDispatcher dispatcher = new InboundDispatcher(4, 64, msg -> {
+			received.computeIfAbsent(msg.getEndNode(), k -> Collections.synchronizedList(new ArrayList<>()))
+					.add(Integer.parseInt(msg.getMsgId()));
+			latch.countDown();
+		}, metrics);
+
+		for (int i = 0; i < count; i++) {
+			dispatcher.dispatch(createMessage("N", "leaf" + (i % leafCount), i));
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		dispatcher.shutdown();
+
+		assertEquals(leafCount, received.size());
+		for (List<Integer> seqs : received.values()) {
+			for (int i = 1; i < seqs.size(); i++) {
+				assertTrue(seqs.get(i - 1) < seqs.get(i));
+			}
+		}
+		// 처리 시간은 handler 종료 후 기록됨
+		for (int i = 0; i < 100 && metrics.getProcessedCount() < count; i++) {
+			Thread.sleep(10L);
+		}
+		assertEquals(count, metrics.getProcessedCount());
+		assertEquals(0, metrics.getQueueDepth());
+	}
+
+	@Test
+	public void test_responseWhileHandlerBusy() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch responded = new CountDownLatch(1);
+		StageMetrics metrics = new StageMetrics("test");
+		InboundDispatcher dispatcher = new InboundDispatcher(1, 16, msg -> {
+			if ("A".equals(msg.getMsgType())) {
+				responded.countDown();
+			} else {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, metrics);
+
+		dispatcher.dispatch(createMessage("Q", "firmware", 1));
+		dispatcher.dispatch(createMessage("N", "firmware", 2));
+		dispatcher.dispatch(createMessage("A", "firmware", 3));
+
+		// 처리 중인 요청이 끝나지 않아도 응답은 처리됨
+		assertTrue(responded.await(2, TimeUnit.SECONDS));
+		assertTrue(metrics.getQueueDepth() >= 1);
+
+		release.countDown();
+		dispatcher.shutdown();
+	}
+
+	@Test
+	public void test_handlerException() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(2);
+		InboundDispatcher dispatcher = new InboundDispatcher(1, 16, msg -> {
+			latch.countDown();
+			throw new IllegalStateException("test");
+		}, new StageMetrics("test"));
+
+		dispatcher.dispatch(createMessage("N", null, 1));
+		dispatcher.dispatch(createMessage("N", null, 2));
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		dispatcher.shutdown();
+	}
+
+	@Test
+	public void test_dispatchDuringShutdown() throws InterruptedException {
+		// 종료 중/종료 후에 수신된 메시지도 유실되거나 수신 스레드를 멈추게 하지 않음 (큐 크기보다 많은 메시지)
+		int count = 5_000;
+		Map<String, Integer> processed = new ConcurrentHashMap<>();
+		InboundDispatcher dispatcher = new InboundDispatcher(2, 4, msg -> processed.merge(msg.getMsgId(), 1, Integer::sum),
+				new StageMetrics("test"));
+
+		Thread receiver = new Thread(() -> {
+			for (int i = 0; i < count; i++) {
+				dispatcher.dispatch(createMessage(i % 10 == 0 ? "A" : "N", "leaf" + (i % 8), i));
+			}
+		});
+		receiver.start();
+		Thread.sleep(5L);
+		dispatcher.shutdown();
+		receiver.join(10_000L);
+		assertFalse(receiver.isAlive());
+
+		for (int i = 0; i < 100 && processed.size() < count; i++) {
+			Thread.sleep(10L);
+		}
+		assertEquals(count, processed.size());
+		for (Integer n : processed.values()) {
+			assertEquals(1, n.intValue());
+		}
+	}
+
+	@Test
+	public void test_syncCallInListener() throws InterruptedException {
+		// 사용자 리스너 안에서 syncCall() 로 응답을 기다려도 응답을 받을 수 있음
+		LoopbackProtocol protocol = new LoopbackProtocol();
+		protocol.responder = reqMsg -> "Q".equals(reqMsg.getMsgType()) ? LoopbackProtocol.createResponse(reqMsg, "200")
+				: null;
+
+		AtomicReference<IotMessage> resMsgRef = new AtomicReference<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		AtomicReference<IotTransport> transportRef = new AtomicReference<>();
+		ICustomMessageListener listener = new ICustomMessageListener() {
+			@Override
+			public void setClient(IotCoreClient client) {
+				/* nothing */
+			}
+
+			@Override
+			public void onNotificationReceived(IotMessage msg) {
+				IotMessage reqMsg = new IotMessage();
+				reqMsg.setMsgCode("TEST-REQ");
+				resMsgRef.set(transportRef.get().syncCall(reqMsg, 2));
+				latch.countDown();
+			}
+
+			@Override
+			public void onRequestReceived(IotMessage msg) {
+				/* nothing */
+			}
+		};
+
+		IotTransport transport = new IotTransport(protocol, null, listener);
+		transportRef.set(transport);
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, null);
+		cfg.setInboundDispatchThreads(2);
+		transport.connect(new MutualTlsAuth(), cfg);
+
+		IotMessage msg = createMessage("N", "MD1.123", 1);
+		msg.setThingName("MD1.123");
+		protocol.receive(msg);
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertNotNull(resMsgRef.get());
+		assertEquals("200", resMsgRef.get().getResCode());
+		// 응답 메시지 처리 완료 (요청 메시지 처리는 리스너 종료 후 기록됨)
+		assertTrue(transport.getInboundMetrics().getProcessedCount() >= 1);
+
+		transport.disconnect();
+	}
+}
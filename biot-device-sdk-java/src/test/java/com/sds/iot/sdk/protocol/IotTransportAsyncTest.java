@@ -0,0 +1,139 @@
+package com.sds.iot.sdk.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.mutual.MutualTlsAuth;
+import com.sds.iot.sdk.exception.IotException;
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * IotTransport 비동기 요청 테스트 (서버 없이 LoopbackProtocol 사용)
+ */
+public class IotTransportAsyncTest {
+
+	private LoopbackProtocol	protocol;
+	private IotTransport		transport;
+
+	@Before
+	public void setUp() {
+		protocol = new LoopbackProtocol();
+		transport = new IotTransport(protocol, null, null);
+		transport.connect(new MutualTlsAuth(), new IotClientConfig("CB00000000", "MD1.123", null, null));
+	}
+
+	@After
+	public void tearDown() {
+		transport.disconnect();
+	}
+
+	private static IotMessage createRequest() {
+		IotMessage msg = new IotMessage();
+		msg.setMsgCode("TEST-REQ");
+		return msg;
+	}
+
+	@Test
+	public void test_callAsync() throws Exception {
+		protocol.responder = reqMsg -> LoopbackProtocol.createResponse(reqMsg, "200");
+
+		IotMessage reqMsg = createRequest();
+		CompletableFuture<IotMessage> future = transport.callAsync(reqMsg, 5_000L);
+		IotMessage resMsg = future.get(1, TimeUnit.SECONDS);
+		assertEquals(reqMsg.getMsgId(), resMsg.getMsgId());
+		assertEquals("200", resMsg.getResCode());
+	}
+
+	@Test
+	public void test_callAsync_timeout() throws Exception {
+		CompletableFuture<IotMessage> future = transport.callAsync(createRequest(), 200L);
+		try {
+			future.get(2, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+	}
+
+	@Test
+	public void test_callAsync_notConnected() throws Exception {
+		protocol.connected = false;
+		CompletableFuture<IotMessage> future = transport.callAsync(createRequest(), 5_000L);
+		assertTrue(future.isCompletedExceptionally());
+		try {
+			future.get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IotException);
+		}
+	}
+
+	@Test
+	public void test_callAsync_disconnect() throws Exception {
+		CompletableFuture<IotMessage> future = transport.callAsync(createRequest(), 60_000L);
+		transport.disconnect();
+		try {
+			future.get(1, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+	}
+
+	@Test
+	public void test_callAsync_manyInFlight() throws Exception {
+		// 한 스레드에서 많은 요청을 보내고, 응답은 역순으로 수신
+		int count = 500;
+		List<CompletableFuture<IotMessage>> futures = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			futures.add(transport.callAsync(createRequest(), 5_000L));
+		}
+		List<IotMessage> requests = new ArrayList<>();
+		protocol.sent.drainTo(requests);
+		assertEquals(count, requests.size());
+
+		Collections.reverse(requests);
+		for (IotMessage reqMsg : requests) {
+			protocol.receive(LoopbackProtocol.createResponse(reqMsg, "200"));
+		}
+		for (int i = 0; i < count; i++) {
+			IotMessage resMsg = futures.get(i).get(1, TimeUnit.SECONDS);
+			assertEquals(requests.get(count - 1 - i).getMsgId(), resMsg.getMsgId());
+		}
+	}
+
+	@Test
+	public void test_syncCall() {
+		protocol.responder = reqMsg -> LoopbackProtocol.createResponse(reqMsg, "201");
+		IotMessage reqMsg = createRequest();
+		IotMessage resMsg = transport.syncCall(reqMsg, 5);
+		assertNotNull(resMsg);
+		assertEquals("201", resMsg.getResCode());
+
+		IotMessage sentMsg = protocol.sent.poll();
+		assertSame(reqMsg, sentMsg);
+		assertEquals("Q", sentMsg.getMsgType());
+	}
+
+	@Test
+	public void test_syncCall_timeout() {
+		assertNull(transport.syncCall(createRequest(), 1));
+	}
+}
@@ -0,0 +1,131 @@
+package com.sds.iot.sdk.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.IAuth;
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 연결 상태 및 재연결 테스트 (서버 없이 LoopbackProtocol 사용)
+ */
+public class IotTransportReconnectTest {
+
+	/** 인증 메시지 한 번으로 인증이 완료되는 테스트용 인증 */
+	static class TestAuth implements IAuth {
+		@Override
+		public String getAuthTypeName() {
+			return "Test";
+		}
+
+		@Override
+		public void requestCredential() {
+			/* nothing */
+		}
+
+		@Override
+		public String getCredential() {
+			return null;
+		}
+
+		@Override
+		public void setConfig(IotClientConfig cfg) {
+			/* nothing */
+		}
+
+		@Override
+		public IotMessage makeDeviceAuthMessage(int seq) {
+			if (seq > 1) {
+				return null;
+			}
+			IotMessage msg = new IotMessage();
+			msg.setMsgCode("TEST-AUTH");
+			return msg;
+		}
+
+		@Override
+		public void onAuthResponseMessageReceived(IotMessage resMsg) {
+			/* nothing */
+		}
+
+		@Override
+		public String getAuthToken() {
+			return null;
+		}
+	}
+
+	private static boolean waitForState(IotTransport transport, ConnectionState state, long timeoutMillis)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (transport.getConnectionState() != state) {
+			if (System.currentTimeMillis() > deadline) {
+				return false;
+			}
+			Thread.sleep(10L);
+		}
+		return true;
+	}
+
+	@Test
+	public void test_reconnect() throws InterruptedException {
+		LoopbackProtocol protocol = new LoopbackProtocol();
+		protocol.responder = reqMsg -> LoopbackProtocol.createResponse(reqMsg, "200");
+
+		IotTransport transport = new IotTransport(protocol, null, null);
+		List<ConnectionState> states = new CopyOnWriteArrayList<>();
+		transport.addConnectionStateListener((previous, current) -> states.add(current));
+		assertEquals(ConnectionState.DISCONNECTED, transport.getConnectionState());
+
+		transport.connect(new TestAuth(), new IotClientConfig("CB00000000", "MD1.123", null, null));
+		transport.processDeviceAuth();
+		assertEquals(ConnectionState.READY, transport.getConnectionState());
+		assertTrue(transport.isAuthorized());
+
+		// 연결 끊김 통지는 재연결을 기다리지 않고 바로 리턴
+		long start = System.nanoTime();
+		protocol.loseConnection("test");
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500L);
+		assertEquals(ConnectionState.DISCONNECTED, transport.getConnectionState());
+		assertTrue(!transport.isAuthorized());
+
+		assertTrue(waitForState(transport, ConnectionState.READY, 5_000L));
+		assertTrue(transport.isAuthorized());
+		assertEquals(2, protocol.sent.size()); // 인증 요청 2회
+
+		transport.disconnect();
+		assertEquals(ConnectionState.DISCONNECTED, transport.getConnectionState());
+
+		assertEquals(ConnectionState.CONNECTING, states.get(0));
+		assertEquals(ConnectionState.AUTHENTICATING, states.get(1));
+		assertEquals(ConnectionState.READY, states.get(2));
+		assertEquals(ConnectionState.DISCONNECTED, states.get(3));
+		assertEquals(ConnectionState.CONNECTING, states.get(4));
+		assertEquals(ConnectionState.AUTHENTICATING, states.get(5));
+		assertEquals(ConnectionState.READY, states.get(6));
+		assertEquals(ConnectionState.DISCONNECTED, states.get(7));
+	}
+
+	@Test
+	public void test_noReconnectAfterDisconnect() throws InterruptedException {
+		LoopbackProtocol protocol = new LoopbackProtocol();
+		protocol.responder = reqMsg -> LoopbackProtocol.createResponse(reqMsg, "200");
+
+		IotTransport transport = new IotTransport(protocol, null, null);
+		transport.connect(new TestAuth(), new IotClientConfig("CB00000000", "MD1.123", null, null));
+		transport.processDeviceAuth();
+
+		protocol.loseConnection("test");
+		transport.disconnect();
+
+		Thread.sleep(1_500L);
+		assertEquals(ConnectionState.DISCONNECTED, transport.getConnectionState());
+		assertTrue(!protocol.isConnected());
+	}
+}
@@ -0,0 +1,103 @@
+package com.sds.iot.sdk.protocol;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.IAuth;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+
+/**
+ * 서버 없이 IotTransport 를 테스트하기 위한 프로토콜.
+ * 전송한 메시지를 보관하고, responder 가 설정된 경우 그 결과를 수신 메시지로 전달한다.
+ */
+class LoopbackProtocol implements IProtocol {
+	private static final String					BACKPRESSURE	= "Too many publishes in progress";
+
+	final BlockingQueue<IotMessage>				sent		= new LinkedBlockingQueue<>();
+
+	volatile boolean							connected	= false;
+	volatile Function<IotMessage, IotMessage>	responder	= null;
+
+	/** 0 보다 크면 send() 시 in-flight 한도 초과 예외를 발생시키고 1 감소 */
+	final AtomicInteger							backpressure	= new AtomicInteger();
+
+	/** init() 호출 수 */
+	final AtomicInteger							initCount		= new AtomicInteger();
+
+	/** StripedProtocol 의 연결 순번 */
+	volatile int								stripe			= 0;
+
+	private ITransportListener					listener;
+
+	@Override
+	public void init(IotClientConfig cfg, MessageConverter converter, ITransportListener transport, IAuth auth) {
+		this.listener = transport;
+		initCount.incrementAndGet();
+	}
+
+	@Override
+	public void setStripe(int stripe) {
+		this.stripe = stripe;
+	}
+
+	@Override
+	public void connect() {
+		connected = true;
+	}
+
+	@Override
+	public void disconnect() {
+		connected = false;
+	}
+
+	@Override
+	public void send(IotMessage msg) throws Exception {
+		if (backpressure.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+			throw new IllegalStateException(BACKPRESSURE);
+		}
+		sent.add(msg);
+		Function<IotMessage, IotMessage> r = responder;
+		if (r != null) {
+			IotMessage resMsg = r.apply(msg);
+			if (resMsg != null) {
+				receive(resMsg);
+			}
+		}
+	}
+
+	void receive(IotMessage msg) {
+		listener.onMessageReceived(msg);
+	}
+
+	/**
+	 * 서버와의 연결이 끊긴 경우를 흉내낸다. (프로토콜 콜백 스레드에서 호출되는 것과 동일)
+	 */
+	void loseConnection(String cause) {
+		connected = false;
+		listener.onConnectionLost(cause);
+	}
+
+	@Override
+	public boolean isBackpressure(Throwable e) {
+		return BACKPRESSURE.equals(e.getMessage());
+	}
+
+	@Override
+	public boolean isConnected() {
+		return connected;
+	}
+
+	/**
+	 * 요청 메시지에 대한 응답 메시지 생성
+	 */
+	static IotMessage createResponse(IotMessage reqMsg, String resCode) {
+		IotMessage resMsg = reqMsg.createResponse();
+		resMsg.setThingName(reqMsg.getThingName());
+		resMsg.setResCode(resCode);
+		return resMsg;
+	}
+}
@@ -0,0 +1,423 @@
+package com.sds.iot.sdk.protocol;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 송신 저널 테스트
+ */
+public class OutboundJournalTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private JournalConfig createConfig() throws IOException {
+		JournalConfig cfg = new JournalConfig();
+		cfg.setDir(tmp.newFolder().getAbsolutePath());
+		cfg.setSegmentBytes(64 * 1024);
+		cfg.setReplayRate(0);
+		return cfg;
+	}
+
+	private static IotMessage createMessage(int seq) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setSiteId("CB00000000");
+		msg.setThingName("MD1.123");
+		msg.setLeafThingName("MD1.123");
+		msg.setMsgCode("Basic-AttrGroup");
+		msg.setMsgId("msg-" + seq);
+		msg.setEncType("0");
+		msg.setData(("{\"seq\":" + seq + "}").getBytes(StandardCharsets.UTF_8));
+		return msg;
+	}
+
+	private static List<String> drain(OutboundJournal journal) {
+		List<String> msgIds = new ArrayList<>();
+		assertTrue(journal.startReplay());
+		IotMessage msg;
+		while ((msg = journal.nextForReplay()) != null) {
+			msgIds.add(msg.getMsgId());
+			journal.commit();
+		}
+		return msgIds;
+	}
+
+	@Test
+	public void test_appendAndReplay() throws IOException {
+		OutboundJournal journal = new OutboundJournal(createConfig());
+		int count = 5_000; // 여러 세그먼트
+		for (int i = 0; i < count; i++) {
+			assertTrue(journal.append(createMessage(i)));
+		}
+		assertEquals(count, journal.getPendingCount());
+		assertTrue(journal.isBacklogged());
+
+		assertTrue(journal.startReplay());
+		IotMessage first = journal.nextForReplay();
+		assertEquals("msg-0", first.getMsgId());
+		assertEquals("Basic-AttrGroup", first.getMsgCode());
+		assertArrayEquals("{\"seq\":0}".getBytes(StandardCharsets.UTF_8), first.getData());
+		journal.commit();
+		journal.stopReplay();
+
+		List<String> msgIds = drain(journal);
+		assertEquals(count - 1, msgIds.size());
+		for (int i = 1; i < count; i++) {
+			assertEquals("msg-" + i, msgIds.get(i - 1));
+		}
+		assertEquals(0, journal.getPendingCount());
+		assertFalse(journal.isBacklogged());
+		journal.close();
+	}
+
+	@Test
+	public void test_appendIfBacklogged() throws IOException {
+		OutboundJournal journal = new OutboundJournal(createConfig());
+		assertEquals(OutboundJournal.AppendResult.NOT_BACKLOGGED, journal.appendIfBacklogged(createMessage(0)));
+		assertEquals(0, journal.getPendingCount());
+
+		assertTrue(journal.append(createMessage(1)));
+		assertEquals(OutboundJournal.AppendResult.STORED, journal.appendIfBacklogged(createMessage(2)));
+		assertEquals(Arrays.asList("msg-1", "msg-2"), drain(journal));
+
+		// 재전송이 끝나면 저장하지 않음
+		assertEquals(OutboundJournal.AppendResult.NOT_BACKLOGGED, journal.appendIfBacklogged(createMessage(3)));
+		assertFalse(journal.isBacklogged());
+		journal.close();
+	}
+
+	@Test
+	public void test_recover() throws IOException {
+		JournalConfig cfg = createConfig();
+		OutboundJournal journal = new OutboundJournal(cfg);
+		for (int i = 0; i < 3_000; i++) {
+			journal.append(createMessage(i));
+		}
+		assertTrue(journal.startReplay());
+		for (int i = 0; i < 1_000; i++) {
+			journal.nextForReplay();
+			journal.commit();
+		}
+		journal.close();
+
+		// 재전송한 메시지는 복구하지 않음
+		journal = new OutboundJournal(cfg);
+		assertEquals(2_000, journal.getPendingCount());
+		journal.append(createMessage(3_000));
+		List<String> msgIds = drain(journal);
+		assertEquals(2_001, msgIds.size());
+		assertEquals("msg-1000", msgIds.get(0));
+		assertEquals("msg-3000", msgIds.get(2_000));
+		journal.close();
+
+		assertEquals(0, new OutboundJournal(cfg).getPendingCount());
+	}
+
+	@Test
+	public void test_recoverTornRecord() throws IOException {
+		JournalConfig cfg = createConfig();
+		OutboundJournal journal = new OutboundJournal(cfg);
+		for (int i = 0; i < 10; i++) {
+			journal.append(createMessage(i));
+		}
+		journal.close();
+
+		// 마지막 레코드 기록 도중 종료된 경우 (메시지 일부가 깨짐)
+		File segment = new File(cfg.getDir()).listFiles()[0];
+		try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+			int offset = OutboundJournal.SEGMENT_HEADER_SIZE;
+			for (int i = 0; i < 9; i++) {
+				raf.seek(offset);
+				offset += OutboundJournal.RECORD_HEADER_SIZE + raf.readInt();
+			}
+			raf.seek(offset + OutboundJournal.RECORD_HEADER_SIZE + 3);
+			raf.write(0x7F);
+		}
+
+		journal = new OutboundJournal(cfg);
+		assertEquals(9, journal.getPendingCount());
+		journal.append(createMessage(10));
+		List<String> msgIds = drain(journal);
+		assertEquals(10, msgIds.size());
+		assertEquals("msg-8", msgIds.get(8));
+		assertEquals("msg-10", msgIds.get(9));
+		journal.close();
+	}
+
+	@Test
+	public void test_maxBytes() throws IOException {
+		JournalConfig cfg = createConfig();
+		cfg.setMaxBytes(2L * cfg.getSegmentBytes());
+		OutboundJournal journal = new OutboundJournal(cfg);
+		int count = 10_000;
+		for (int i = 0; i < count; i++) {
+			assertTrue(journal.append(createMessage(i)));
+		}
+		assertTrue(journal.getDroppedCount() > 0);
+		assertEquals(count, journal.getPendingCount() + journal.getDroppedCount());
+		assertTrue(new File(cfg.getDir()).listFiles().length <= 2);
+
+		// 가장 오래된 메시지부터 버림
+		List<String> msgIds = drain(journal);
+		assertEquals("msg-" + journal.getDroppedCount(), msgIds.get(0));
+		assertEquals("msg-" + (count - 1), msgIds.get(msgIds.size() - 1));
+		journal.close();
+	}
+
+	@Test
+	public void test_maxAge() throws Exception {
+		JournalConfig cfg = createConfig();
+		cfg.setMaxAgeSeconds(1);
+		OutboundJournal journal = new OutboundJournal(cfg);
+		journal.append(createMessage(0));
+		Thread.sleep(1_100L);
+		journal.append(createMessage(1));
+
+		List<String> msgIds = drain(journal);
+		assertEquals(1, msgIds.size());
+		assertEquals("msg-1", msgIds.get(0));
+		assertEquals(1, journal.getDroppedCount());
+		journal.close();
+	}
+
+	@Test
+	public void test_tooLargeMessage() throws IOException {
+		JournalConfig cfg = createConfig();
+		OutboundJournal journal = new OutboundJournal(cfg);
+		IotMessage msg = createMessage(0);
+		msg.setData(new byte[cfg.getSegmentBytes()]);
+		assertFalse(journal.append(msg));
+		assertEquals(0, journal.getPendingCount());
+		journal.close();
+	}
+
+	@Test
+	public void test_storeWhileDisconnected() throws Exception {
+		LoopbackProtocol protocol = new LoopbackProtocol();
+		protocol.responder = reqMsg -> "Q".equals(reqMsg.getMsgType()) ? LoopbackProtocol.createResponse(reqMsg, "200")
+				: null;
+
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, null);
+		cfg.setJournalCfg(createConfig());
+		IotTransport transport = new IotTransport(protocol, null, null);
+		transport.connect(new IotTransportReconnectTest.TestAuth(), cfg);
+		transport.processDeviceAuth();
+		protocol.sent.clear();
+
+		assertTrue(transport.send(createMessage(0)));
+		assertEquals("msg-0", protocol.sent.poll().getMsgId());
+
+		// 연결이 끊긴 동안 전송한 메시지는 저널에 저장
+		protocol.connected = false;
+		for (int i = 1; i <= 100; i++) {
+			assertTrue(transport.send(createMessage(i)));
+		}
+		assertEquals(100, transport.getJournalPendingCount());
+		assertTrue(protocol.sent.isEmpty());
+
+		// 인증 완료 후 저장된 순서대로 재전송. 재전송 중에 전송한 메시지는 재전송이 끝난 후 전송
+		protocol.connect();
+		transport.processDeviceAuth();
+		assertTrue(transport.send(createMessage(101)));
+
+		List<String> msgIds = new ArrayList<>();
+		while (msgIds.size() < 101) {
+			IotMessage msg = protocol.sent.poll(5, TimeUnit.SECONDS);
+			if (msg == null) {
+				break;
+			}
+			if (!"Q".equals(msg.getMsgType())) {
+				msgIds.add(msg.getMsgId());
+			}
+		}
+		assertEquals(101, msgIds.size());
+		for (int i = 0; i < 101; i++) {
+			assertEquals("msg-" + (i + 1), msgIds.get(i));
+		}
+		assertEquals(0, transport.getJournalPendingCount());
+
+		transport.disconnect();
+		assertNull(transport.getJournal());
+	}
+
+	@Test
+	public void test_authTokenNotStored() throws IOException {
+		JournalConfig cfg = createConfig();
+		OutboundJournal journal = new OutboundJournal(cfg);
+		IotMessage msg = createMessage(0);
+		msg.setAuthToken("secret-auth-token");
+		assertTrue(journal.append(msg));
+		assertEquals("secret-auth-token", msg.getAuthToken());
+		journal.close();
+
+		for (File file : new File(cfg.getDir()).listFiles()) {
+			byte[] bytes = Files.readAllBytes(file.toPath());
+			assertFalse(new String(bytes, StandardCharsets.ISO_8859_1).contains("secret-auth-token"));
+		}
+		journal = new OutboundJournal(cfg);
+		assertTrue(journal.startReplay());
+		assertNull(journal.nextForReplay().getAuthToken());
+		journal.close();
+	}
+
+	@Test
+	public void test_replayRetry() throws Exception {
+		AtomicInteger failures = new AtomicInteger();
+		LoopbackProtocol protocol = new LoopbackProtocol() {
+			@Override
+			public void send(IotMessage msg) throws Exception {
+				// msg-1 은 in-flight 한도 초과, msg-2 는 일시적인 오류로 몇 번 전송하지 못함
+				if ("msg-1".equals(msg.getMsgId()) && failures.get() < 5) {
+					failures.incrementAndGet();
+					backpressure.set(1);
+				} else if ("msg-2".equals(msg.getMsgId()) && failures.get() < 7) {
+					failures.incrementAndGet();
+					throw new IllegalStateException("temporary failure");
+				}
+				super.send(msg);
+			}
+		};
+		protocol.responder = reqMsg -> "Q".equals(reqMsg.getMsgType()) ? LoopbackProtocol.createResponse(reqMsg, "200")
+				: null;
+
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, null);
+		cfg.setJournalCfg(createConfig());
+		IotTransport transport = new IotTransport(protocol, null, null);
+		transport.connect(new IotTransportReconnectTest.TestAuth(), cfg);
+		transport.processDeviceAuth();
+
+		protocol.connected = false;
+		for (int i = 1; i <= 3; i++) {
+			assertTrue(transport.send(createMessage(i)));
+		}
+		protocol.connect();
+		protocol.sent.clear();
+		transport.processDeviceAuth();
+
+		// 전송하지 못한 메시지를 버리거나 재전송을 중단하지 않고, 같은 메시지부터 다시 전송
+		List<String> msgIds = new ArrayList<>();
+		while (msgIds.size() < 3) {
+			IotMessage msg = protocol.sent.poll(10, TimeUnit.SECONDS);
+			if (msg == null) {
+				break;
+			}
+			if (!"Q".equals(msg.getMsgType())) {
+				msgIds.add(msg.getMsgId());
+			}
+		}
+		assertEquals(Arrays.asList("msg-1", "msg-2", "msg-3"), msgIds);
+		assertEquals(7, failures.get());
+		for (int i = 0; i < 100 && transport.getJournalPendingCount() > 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, transport.getJournalPendingCount());
+
+		// 재전송이 끝나면 저널을 거치지 않고 바로 전송
+		assertTrue(transport.send(createMessage(4)));
+		assertEquals("msg-4", protocol.sent.poll().getMsgId());
+		transport.disconnect();
+	}
+
+	@Test
+	public void test_sendFailWhileConnected() throws Exception {
+		AtomicInteger failures = new AtomicInteger();
+		LoopbackProtocol protocol = new LoopbackProtocol() {
+			@Override
+			public void send(IotMessage msg) throws Exception {
+				if ("msg-1".equals(msg.getMsgId()) && failures.getAndIncrement() == 0) {
+					throw new IllegalStateException("temporary failure");
+				}
+				super.send(msg);
+			}
+		};
+		protocol.responder = reqMsg -> "Q".equals(reqMsg.getMsgType()) ? LoopbackProtocol.createResponse(reqMsg, "200")
+				: null;
+
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, null);
+		cfg.setJournalCfg(createConfig());
+		IotTransport transport = new IotTransport(protocol, null, null);
+		transport.connect(new IotTransportReconnectTest.TestAuth(), cfg);
+		transport.processDeviceAuth();
+		protocol.sent.clear();
+
+		// 연결된 상태에서 전송에 실패한 메시지는 재연결을 기다리지 않고 재전송하고, 이후 메시지도 순서대로 전송
+		for (int i = 1; i <= 50; i++) {
+			assertTrue(transport.send(createMessage(i)));
+		}
+		List<String> msgIds = new ArrayList<>();
+		while (msgIds.size() < 50) {
+			IotMessage msg = protocol.sent.poll(5, TimeUnit.SECONDS);
+			if (msg == null) {
+				break;
+			}
+			msgIds.add(msg.getMsgId());
+		}
+		assertEquals(50, msgIds.size());
+		for (int i = 0; i < 50; i++) {
+			assertEquals("msg-" + (i + 1), msgIds.get(i));
+		}
+		for (int i = 0; i < 100 && transport.getJournalPendingCount() > 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, transport.getJournalPendingCount());
+		transport.disconnect();
+	}
+
+	@Ignore("benchmark")
+	@Test
+	public void benchmark_appendAndReplay() throws IOException {
+		String[] policies = { JournalConfig.FSYNC_NONE, JournalConfig.FSYNC_SEGMENT, JournalConfig.FSYNC_ALWAYS };
+		for (String policy : policies) {
+			JournalConfig cfg = createConfig();
+			cfg.setSegmentBytes(8 * 1024 * 1024);
+			cfg.setMaxBytes(Long.MAX_VALUE);
+			cfg.setFsyncPolicy(policy);
+			int count = JournalConfig.FSYNC_ALWAYS.equals(policy) ? 20_000 : 500_000;
+
+			List<IotMessage> msgs = new ArrayList<>();
+			for (int i = 0; i < 1_000; i++) {
+				msgs.add(createMessage(i));
+			}
+			OutboundJournal journal = new OutboundJournal(cfg);
+			long start = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				journal.append(msgs.get(i % msgs.size()));
+			}
+			long appendNanos = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			journal.startReplay();
+			while (journal.nextForReplay() != null) {
+				journal.commit();
+			}
+			long replayNanos = System.nanoTime() - start;
+			journal.close();
+
+			System.out.printf("fsync=%-7s : append %,d msg/s, replay %,d msg/s%n", policy,
+					count * TimeUnit.SECONDS.toNanos(1) / appendNanos, count * TimeUnit.SECONDS.toNanos(1) / replayNanos);
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package com.sds.iot.sdk.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * 송신 큐 테스트
+ */
+public class OutboundPublisherTest {
+
+	private static IotMessage createMessage(String thingName, int seq) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setThingName(thingName);
+		msg.setMsgId(String.valueOf(seq));
+		return msg;
+	}
+
+	@Test
+	public void test_orderPerProducer() throws InterruptedException {
+		int producerCount = 8;
+		int count = 10_000;
+		Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+		CountDownLatch latch = new CountDownLatch(producerCount * count);
+		StageMetrics metrics = new StageMetrics("test");
+		OutboundPublisher publisher = new OutboundPublisher(64, OutboundOverflowPolicy.BLOCK, 0L, 16, msg -> {
+			received.computeIfAbsent(msg.getThingName(), k -> Collections.synchronizedList(new ArrayList<>()))
+					.add(Integer.parseInt(msg.getMsgId()));
+			latch.countDown();
+		}, metrics);
+
+		List<Thread> producers = new ArrayList<>();
+		for (int p = 0; p < producerCount; p++) {
+			String thingName = "thing" + p;
+			Thread t = new Thread(() -> {
+				for (int i = 0; i < count; i++) {
+					assertTrue(publisher.enqueue(createMessage(thingName, i)));
+				}
+			});
+			producers.add(t);
+			t.start();
+		}
+		for (Thread t : producers) {
+			t.join();
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		publisher.shutdown(1_000L);
+
+		assertEquals(producerCount, received.size());
+		for (List<Integer> seqs : received.values()) {
+			assertEquals(count, seqs.size());
+			for (int i = 0; i < count; i++) {
+				assertEquals(i, seqs.get(i).intValue());
+			}
+		}
+		assertEquals(producerCount * count, metrics.getProcessedCount());
+		assertEquals(0, metrics.getRejectedCount());
+	}
+
+	@Test
+	public void test_overflow() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		List<String> published = Collections.synchronizedList(new ArrayList<>());
+		StageMetrics metrics = new StageMetrics("test");
+		OutboundPublisher failFast = new OutboundPublisher(2, OutboundOverflowPolicy.FAIL_FAST, 0L, 1, msg -> {
+			started.countDown();
+			await(release);
+			published.add(msg.getMsgId());
+		}, metrics);
+
+		// 첫 메시지는 송신 스레드가 전송 중, 다음 2개는 큐에서 대기
+		assertTrue(failFast.enqueue(createMessage("thing", 0)));
+		assertTrue(started.await(1, TimeUnit.SECONDS));
+		assertTrue(failFast.enqueue(createMessage("thing", 1)));
+		assertTrue(failFast.enqueue(createMessage("thing", 2)));
+		assertFalse(failFast.enqueue(createMessage("thing", 3)));
+		assertEquals(2, metrics.getQueueDepth());
+		assertEquals(1, metrics.getRejectedCount());
+
+		release.countDown();
+		failFast.shutdown(1_000L);
+		assertEquals(3, published.size());
+	}
+
+	@Test
+	public void test_overflowDropOldest() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		List<String> published = Collections.synchronizedList(new ArrayList<>());
+		StageMetrics metrics = new StageMetrics("test");
+		OutboundPublisher dropOldest = new OutboundPublisher(2, OutboundOverflowPolicy.DROP_OLDEST, 0L, 1, msg -> {
+			started.countDown();
+			await(release);
+			published.add(msg.getMsgId());
+		}, metrics);
+
+		assertTrue(dropOldest.enqueue(createMessage("thing", 0)));
+		assertTrue(started.await(1, TimeUnit.SECONDS));
+		for (int i = 1; i <= 5; i++) {
+			assertTrue(dropOldest.enqueue(createMessage("thing", i)));
+		}
+		assertEquals(3, metrics.getRejectedCount());
+
+		release.countDown();
+		dropOldest.shutdown(1_000L);
+		assertEquals(3, published.size());
+		assertEquals("0", published.get(0));
+		assertEquals("4", published.get(1));
+		assertEquals("5", published.get(2));
+	}
+
+	@Test
+	public void test_enqueueDuringShutdown() throws InterruptedException {
+		// 종료 중/종료 후에 넣은 메시지도 유실되거나 호출 스레드를 멈추게 하지 않음 (큐 크기보다 많은 메시지)
+		for (OutboundOverflowPolicy policy : new OutboundOverflowPolicy[] { OutboundOverflowPolicy.BLOCK,
+				OutboundOverflowPolicy.FAIL_FAST }) {
+			int count = 5_000;
+			Map<String, Integer> published = new ConcurrentHashMap<>();
+			OutboundPublisher publisher = new OutboundPublisher(4, policy, 0L, 2,
+					msg -> published.merge(msg.getMsgId(), 1, Integer::sum), new StageMetrics("test"));
+
+			List<String> rejected = Collections.synchronizedList(new ArrayList<>());
+			Thread sender = new Thread(() -> {
+				for (int i = 0; i < count; i++) {
+					IotMessage msg = createMessage("thing", i);
+					if (!publisher.enqueue(msg)) {
+						rejected.add(msg.getMsgId());
+					}
+				}
+			});
+			sender.start();
+			Thread.sleep(5L);
+			publisher.shutdown(1_000L);
+			sender.join(10_000L);
+			assertFalse(sender.isAlive());
+
+			// 종료 후에는 호출 스레드에서 전송
+			assertTrue(publisher.enqueue(createMessage("thing", count)));
+			assertEquals(count + 1 - rejected.size(), published.size());
+			for (Integer n : published.values()) {
+				assertEquals(1, n.intValue());
+			}
+		}
+	}
+
+	@Test
+	public void test_linger() throws InterruptedException {
+		List<Long> publishedAt = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch latch = new CountDownLatch(3);
+		OutboundPublisher publisher = new OutboundPublisher(16, OutboundOverflowPolicy.BLOCK, 300L, 3, msg -> {
+			publishedAt.add(System.nanoTime());
+			latch.countDown();
+		}, new StageMetrics("test"));
+
+		long start = System.nanoTime();
+		publisher.enqueue(createMessage("thing", 0));
+		Thread.sleep(100L);
+		publisher.enqueue(createMessage("thing", 1));
+		publisher.enqueue(createMessage("thing", 2));
+
+		// batchSize 만큼 모이면 linger 시간 전이라도 전송
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		long firstPublishedMillis = TimeUnit.NANOSECONDS.toMillis(publishedAt.get(0) - start);
+		assertTrue(firstPublishedMillis >= 90L);
+		assertTrue(firstPublishedMillis < 300L);
+		publisher.shutdown(1_000L);
+	}
+
+	@Test
+	public void test_sendWithBackpressure() throws InterruptedException {
+		LoopbackProtocol protocol = new LoopbackProtocol();
+		protocol.responder = reqMsg -> "Q".equals(reqMsg.getMsgType()) ? LoopbackProtocol.createResponse(reqMsg, "200")
+				: null;
+
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, null);
+		cfg.setOutboundQueueCapacity(100);
+		IotTransport transport = new IotTransport(protocol, null, null);
+		transport.connect(new IotTransportReconnectTest.TestAuth(), cfg);
+		transport.processDeviceAuth();
+		protocol.sent.clear();
+
+		// in-flight 한도 초과 시 송신 스레드에서 기다렸다가 다시 전송
+		protocol.backpressure.set(5);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(transport.send(createMessage("MD1.123", i)));
+		}
+		for (int i = 0; i < 10; i++) {
+			IotMessage msg = protocol.sent.poll(2, TimeUnit.SECONDS);
+			assertEquals(String.valueOf(i), msg.getMsgId());
+		}
+
+		// 송신 스레드 종료 후 확인 (처리 시간은 전송 후 기록됨)
+		transport.disconnect();
+		assertEquals(10, transport.getOutboundMetrics().getProcessedCount());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
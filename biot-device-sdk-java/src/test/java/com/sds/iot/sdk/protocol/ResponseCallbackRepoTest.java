@@ -0,0 +1,219 @@
+package com.sds.iot.sdk.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.sds.iot.sdk.callback.IResponseCallback;
+import com.sds.iot.sdk.callback.NoActionCallback;
+import com.sds.iot.sdk.message.DefaultMsgIdGenerator;
+import com.sds.iot.sdk.message.IMsgIdGenerator;
+
+/**
+ * 응답 콜백 저장소 테스트
+ */
+public class ResponseCallbackRepoTest {
+
+	private final IMsgIdGenerator	generator	= new DefaultMsgIdGenerator();
+
+	private ResponseCallbackRepo<IResponseCallback> createRepo() {
+		ResponseCallbackRepo<IResponseCallback> repo = new ResponseCallbackRepo<>();
+		repo.setMsgIdGenerator(generator);
+		return repo;
+	}
+
+	@Test
+	public void test_putGetRemove() {
+		ResponseCallbackRepo<IResponseCallback> repo = createRepo();
+		IResponseCallback cb1 = new NoActionCallback();
+		IResponseCallback cb2 = new NoActionCallback();
+
+		String msgId = generator.nextMsgId();
+		String foreignId = "user-defined-msg-id";
+		assertTrue(generator.toCorrelationId(msgId) >= 0);
+		assertEquals(-1L, generator.toCorrelationId(foreignId));
+
+		assertNull(repo.put(msgId, cb1));
+		assertNull(repo.put(foreignId, cb2));
+		assertEquals(2, repo.size());
+		assertSame(cb1, repo.get(msgId));
+		assertSame(cb2, repo.get(foreignId));
+
+		assertSame(cb1, repo.remove(msgId));
+		assertNull(repo.remove(msgId));
+		assertSame(cb2, repo.remove(foreignId));
+		assertTrue(repo.isEmpty());
+	}
+
+	@Test
+	public void test_conditionalRemove() {
+		ResponseCallbackRepo<IResponseCallback> repo = createRepo();
+		IResponseCallback cb1 = new NoActionCallback();
+		IResponseCallback cb2 = new NoActionCallback();
+
+		String msgId = generator.nextMsgId();
+		repo.put(msgId, cb1);
+		assertFalse(repo.remove(msgId, cb2));
+		assertSame(cb1, repo.get(msgId));
+		assertTrue(repo.remove(msgId, cb1));
+		assertFalse(repo.remove(msgId, cb1));
+
+		repo.put("foreign", cb1);
+		assertFalse(repo.remove("foreign", cb2));
+		assertTrue(repo.remove("foreign", cb1));
+		assertTrue(repo.isEmpty());
+	}
+
+	@Test
+	public void test_otherGeneratorId() {
+		// 다른 생성기(다른 클라이언트)가 만든 msgId 는 문자열 키로 보관
+		ResponseCallbackRepo<IResponseCallback> repo = createRepo();
+		String otherId = new DefaultMsgIdGenerator().nextMsgId();
+		assertEquals(-1L, generator.toCorrelationId(otherId));
+
+		IResponseCallback cb = new NoActionCallback();
+		repo.put(otherId, cb);
+		assertSame(cb, repo.remove(otherId));
+	}
+
+	@Test
+	public void test_randomOperations() {
+		// HashMap 과 동일하게 동작하는지 확인
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			ids.add(generator.nextMsgId());
+		}
+		assertSameAsHashMap(createRepo(), ids);
+	}
+
+	@Test
+	public void test_randomOperations_sparseIds() {
+		// 테이블 크기보다 넓은 범위의 id (테이블 확장, overflow 처리)
+		IMsgIdGenerator numericGenerator = new IMsgIdGenerator() {
+			@Override
+			public String nextMsgId() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public long toCorrelationId(String msgId) {
+				return msgId.startsWith("n") ? Long.parseLong(msgId.substring(1)) : -1L;
+			}
+		};
+		ResponseCallbackRepo<IResponseCallback> repo = new ResponseCallbackRepo<>();
+		repo.setMsgIdGenerator(numericGenerator);
+
+		Random random = new Random(2);
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			ids.add("n" + (random.nextInt(4) == 0 ? random.nextInt(Integer.MAX_VALUE) : (i << 18)));
+		}
+		ids.add("foreign");
+		assertSameAsHashMap(repo, ids);
+	}
+
+	private static void assertSameAsHashMap(ResponseCallbackRepo<IResponseCallback> repo, List<String> ids) {
+		Map<String, IResponseCallback> expected = new HashMap<>();
+		Random random = new Random(1);
+		for (int i = 0; i < 100_000; i++) {
+			String msgId = ids.get(random.nextInt(ids.size()));
+			if (random.nextInt(3) == 0) {
+				assertSame(expected.remove(msgId), repo.remove(msgId));
+			} else {
+				IResponseCallback cb = new NoActionCallback();
+				assertSame(expected.put(msgId, cb), repo.put(msgId, cb));
+			}
+			if (i % 10_000 == 0) {
+				assertEquals(expected.size(), repo.size());
+			}
+		}
+		assertEquals(expected.size(), repo.size());
+		for (String msgId : ids) {
+			assertSame(expected.get(msgId), repo.get(msgId));
+		}
+
+		Map<String, IResponseCallback> visited = new HashMap<>();
+		repo.forEach(visited::put);
+		assertEquals(expected, visited);
+	}
+
+	@Test
+	public void test_forEachRemove() {
+		ResponseCallbackRepo<IResponseCallback> repo = createRepo();
+		for (int i = 0; i < 100; i++) {
+			repo.put(generator.nextMsgId(), new NoActionCallback());
+		}
+		repo.put("foreign", new NoActionCallback());
+
+		repo.forEach((msgId, cb) -> repo.remove(msgId));
+		assertTrue(repo.isEmpty());
+		assertFalse(repo.containsKey("foreign"));
+	}
+
+	/**
+	 * 10k 개 이상의 응답 대기 요청이 있는 상태에서의 등록/삭제 비용을 ConcurrentHashMap 과 비교
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmark_inflight() {
+		int inflight = 20_000;
+		int count = 2_000_000;
+		ResponseCallbackRepo<IResponseCallback> repo = createRepo();
+		Map<String, IResponseCallback> map = new ConcurrentHashMap<>();
+		IResponseCallback cb = new NoActionCallback();
+
+		// 요청/응답 메시지의 msgId 는 매번 새로 만든 문자열이므로 (해시 미계산, 서로 다른 인스턴스) 라운드마다 새로 준비
+		String[] ids = new String[count];
+		String[] resIds = new String[count];
+		for (int i = 0; i < count; i++) {
+			ids[i] = generator.nextMsgId();
+		}
+
+		for (int round = 0; round < 5; round++) {
+			renew(ids, resIds);
+			long start = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				map.put(ids[i], cb);
+				if (i >= inflight) {
+					map.remove(resIds[i - inflight]);
+				}
+			}
+			long mapElapsed = System.nanoTime() - start;
+			map.clear();
+
+			renew(ids, resIds);
+			start = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				repo.put(ids[i], cb);
+				if (i >= inflight) {
+					repo.remove(resIds[i - inflight]);
+				}
+			}
+			long repoElapsed = System.nanoTime() - start;
+			repo.forEach((msgId, c) -> repo.remove(msgId));
+
+			System.out.println("inflight=" + inflight + " ConcurrentHashMap : " + (mapElapsed / count)
+					+ " ns/op, ResponseCallbackRepo : " + (repoElapsed / count) + " ns/op");
+		}
+	}
+
+	private static void renew(String[] ids, String[] resIds) {
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = new String(ids[i].toCharArray());
+			resIds[i] = new String(ids[i].toCharArray());
+		}
+	}
+
+}
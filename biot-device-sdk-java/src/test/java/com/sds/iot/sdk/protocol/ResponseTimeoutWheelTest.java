@@ -0,0 +1,167 @@
+package com.sds.iot.sdk.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * 응답 타임아웃 wheel 테스트
+ */
+public class ResponseTimeoutWheelTest {
+
+	private static class TestTimeout extends ResponseTimeoutWheel.Timeout {
+		private final CountDownLatch	latch;
+		private final AtomicInteger		expiredCount	= new AtomicInteger();
+		private volatile long			expiredAt		= 0L;
+
+		TestTimeout(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		void expire() {
+			expiredAt = System.nanoTime();
+			expiredCount.incrementAndGet();
+			latch.countDown();
+		}
+	}
+
+	@Test
+	public void test_expire() throws InterruptedException {
+		ResponseTimeoutWheel wheel = new ResponseTimeoutWheel("test-wheel", 10L, 64);
+		CountDownLatch latch = new CountDownLatch(1);
+		TestTimeout timeout = new TestTimeout(latch);
+
+		long start = System.nanoTime();
+		wheel.schedule(timeout, 200L, Runnable::run);
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(timeout.expiredAt - start);
+		assertTrue("elapsed=" + elapsedMillis, elapsedMillis >= 200L && elapsedMillis < 1000L);
+		assertEquals(1, timeout.expiredCount.get());
+		assertFalse(timeout.cancel());
+	}
+
+	@Test
+	public void test_cancel() throws InterruptedException {
+		ResponseTimeoutWheel wheel = new ResponseTimeoutWheel("test-wheel", 10L, 64);
+		CountDownLatch latch = new CountDownLatch(2);
+		TestTimeout cancelled = new TestTimeout(latch);
+		TestTimeout notCancelled = new TestTimeout(latch);
+
+		wheel.schedule(cancelled, 100L, Runnable::run);
+		wheel.schedule(notCancelled, 150L, Runnable::run);
+		assertTrue(cancelled.cancel());
+		assertTrue(cancelled.isCancelled());
+		assertFalse(cancelled.cancel());
+
+		// 나중에 등록한 타임아웃은 만료되고, 취소한 타임아웃은 만료되지 않음
+		assertFalse(latch.await(500, TimeUnit.MILLISECONDS));
+		assertEquals(1, latch.getCount());
+		assertEquals(0, cancelled.expiredCount.get());
+		assertEquals(1, notCancelled.expiredCount.get());
+	}
+
+	@Test
+	public void test_cancelAfterTransfer() throws InterruptedException {
+		// bucket 에 들어간 이후 취소
+		ResponseTimeoutWheel wheel = new ResponseTimeoutWheel("test-wheel", 10L, 64);
+		CountDownLatch latch = new CountDownLatch(1);
+		TestTimeout timeout = new TestTimeout(latch);
+
+		wheel.schedule(timeout, 300L, Runnable::run);
+		Thread.sleep(100L);
+		assertTrue(timeout.cancel());
+		assertFalse(latch.await(500, TimeUnit.MILLISECONDS));
+		assertEquals(0, timeout.expiredCount.get());
+	}
+
+	@Test
+	public void test_multipleRounds() throws InterruptedException {
+		// wheel 한 바퀴(10ms x 8)보다 긴 타임아웃
+		ResponseTimeoutWheel wheel = new ResponseTimeoutWheel("test-wheel", 10L, 8);
+		CountDownLatch latch = new CountDownLatch(1);
+		TestTimeout timeout = new TestTimeout(latch);
+
+		long start = System.nanoTime();
+		wheel.schedule(timeout, 300L, Runnable::run);
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(timeout.expiredAt - start);
+		assertTrue("elapsed=" + elapsedMillis, elapsedMillis >= 300L);
+	}
+
+	@Test
+	public void test_manyTimeouts() throws InterruptedException {
+		ResponseTimeoutWheel wheel = new ResponseTimeoutWheel("test-wheel", 10L, 64);
+		int count = 10_000;
+		CountDownLatch latch = new CountDownLatch(count / 2);
+		List<TestTimeout> timeouts = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			TestTimeout timeout = new TestTimeout(latch);
+			timeouts.add(timeout);
+			wheel.schedule(timeout, 50L + (i % 500), Runnable::run);
+		}
+		// 절반은 응답을 받은 것으로 간주하여 취소
+		for (int i = 0; i < count; i += 2) {
+			assertTrue(timeouts.get(i).cancel());
+		}
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		Thread.sleep(100L);
+		for (int i = 0; i < count; i++) {
+			assertEquals(i % 2 == 0 ? 0 : 1, timeouts.get(i).expiredCount.get());
+		}
+	}
+
+	@Test
+	public void test_slowExpireDoesNotBlockWheel() throws InterruptedException {
+		// 한 클라이언트의 timeoutAction 이 멈춰 있어도 다른 클라이언트의 타임아웃은 제때 만료
+		ResponseTimeoutWheel wheel = new ResponseTimeoutWheel("test-wheel", 10L, 64);
+		ExecutorService slowExecutor = Executors.newSingleThreadExecutor();
+		ExecutorService otherExecutor = Executors.newSingleThreadExecutor();
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			CountDownLatch slowLatch = new CountDownLatch(1);
+			TestTimeout slow = new TestTimeout(slowLatch) {
+				@Override
+				void expire() {
+					super.expire();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			};
+			wheel.schedule(slow, 50L, slowExecutor);
+			assertTrue(slowLatch.await(2, TimeUnit.SECONDS));
+
+			CountDownLatch latch = new CountDownLatch(1);
+			TestTimeout other = new TestTimeout(latch);
+			long start = System.nanoTime();
+			wheel.schedule(other, 100L, otherExecutor);
+			assertTrue(latch.await(2, TimeUnit.SECONDS));
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(other.expiredAt - start) < 1000L);
+		} finally {
+			release.countDown();
+			slowExecutor.shutdown();
+			otherExecutor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_invalidWheelSize() {
+		new ResponseTimeoutWheel("test-wheel", 10L, 100);
+	}
+}
@@ -0,0 +1,306 @@
+package com.sds.iot.sdk.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.IAuth;
+import com.sds.iot.sdk.auth.mutual.MutualTlsAuth;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.message.compress.ZstdDataCompressor;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
+import com.sds.iot.sdk.protocol.IotTransportReconnectTest.TestAuth;
+import com.sds.iot.sdk.protocol.mqtt.MqttAsyncProtocol;
+import com.sds.iot.sdk.protocol.mqtt.MqttProtocol;
+import com.sds.iot.sdk.protocol.mqtt.MqttProtocolConfig;
+import com.sds.iot.sdk.protocol.mqtt.MqttTestBroker;
+
+/**
+ * 다중 연결 테스트 (LoopbackProtocol, 테스트용 MQTT 서버 사용)
+ */
+public class StripedProtocolTest {
+	private static final Logger LOGGER = LoggerFactory.getLogger(StripedProtocolTest.class);
+
+	private static LoopbackProtocol[] createStripes(int n) {
+		LoopbackProtocol[] stripes = new LoopbackProtocol[n];
+		for (int i = 0; i < n; i++) {
+			stripes[i] = new LoopbackProtocol();
+		}
+		return stripes;
+	}
+
+	private static IotMessage createMessage(String leaf, int seq) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setMsgCode("Basic-AttrGroup");
+		msg.setSiteId("CB00000000");
+		msg.setThingName("GW1.123");
+		msg.setLeafThingName(leaf);
+		msg.setMsgId(String.valueOf(seq));
+		msg.setDataString("{ \"seq\" : " + seq + " }");
+		return msg;
+	}
+
+	@Test
+	public void test_routeByLeafThing() throws Exception {
+		LoopbackProtocol[] stripes = createStripes(4);
+		StripedProtocol protocol = new StripedProtocol(stripes);
+		for (int i = 0; i < stripes.length; i++) {
+			assertEquals(i, stripes[i].stripe);
+		}
+		protocol.init(null, null, null, null);
+		protocol.connect();
+		assertTrue(protocol.isConnected());
+
+		for (int seq = 0; seq < 10; seq++) {
+			for (int leaf = 0; leaf < 40; leaf++) {
+				protocol.send(createMessage("LEAF" + leaf, seq));
+			}
+		}
+
+		// 같은 Leaf 사물의 메시지는 모두 같은 연결로 순서대로 전송됨
+		Map<String, Integer> stripeOfLeaf = new HashMap<>();
+		for (int i = 0; i < stripes.length; i++) {
+			Map<String, Integer> lastSeq = new HashMap<>();
+			assertTrue("stripe " + i + " is not used", !stripes[i].sent.isEmpty());
+			for (IotMessage msg : stripes[i].sent) {
+				Integer previous = stripeOfLeaf.put(msg.getEndNode(), i);
+				assertTrue(previous == null || previous == i);
+				int seq = Integer.parseInt(msg.getMsgId());
+				assertEquals(lastSeq.getOrDefault(msg.getEndNode(), -1) + 1, seq);
+				lastSeq.put(msg.getEndNode(), seq);
+			}
+		}
+		assertEquals(40, stripeOfLeaf.size());
+
+		// 일부 연결이 끊기면 연결되지 않은 상태
+		stripes[2].connected = false;
+		assertTrue(!protocol.isConnected());
+		protocol.disconnect();
+		for (LoopbackProtocol stripe : stripes) {
+			assertTrue(!stripe.connected);
+		}
+	}
+
+	@Test
+	public void test_responseOnOtherStripe() throws Exception {
+		LoopbackProtocol[] stripes = createStripes(3);
+		IotTransport transport = new IotTransport(new StripedProtocol(stripes), null, null);
+		transport.connect(new MutualTlsAuth(), new IotClientConfig("CB00000000", "GW1.123", null, null));
+
+		// 어느 연결로 전송한 요청이든 응답은 첫 번째 연결로 수신됨
+		List<CompletableFuture<IotMessage>> futures = new ArrayList<>();
+		for (int leaf = 0; leaf < 30; leaf++) {
+			IotMessage reqMsg = createMessage("LEAF" + leaf, 0);
+			reqMsg.setMsgType(null);
+			reqMsg.setMsgId(null);
+			futures.add(transport.callAsync(reqMsg, 5_000L));
+		}
+		Set<Integer> usedStripes = new HashSet<>();
+		for (int i = 0; i < stripes.length; i++) {
+			for (IotMessage reqMsg; (reqMsg = stripes[i].sent.poll()) != null;) {
+				usedStripes.add(i);
+				stripes[0].receive(LoopbackProtocol.createResponse(reqMsg, "200"));
+			}
+		}
+		assertTrue(usedStripes.size() > 1);
+		for (CompletableFuture<IotMessage> future : futures) {
+			assertEquals("200", future.get(1, TimeUnit.SECONDS).getResCode());
+		}
+		transport.disconnect();
+	}
+
+	@Test
+	public void test_reconnectLostStripeOnly() throws Exception {
+		LoopbackProtocol[] stripes = createStripes(3);
+		for (LoopbackProtocol stripe : stripes) {
+			stripe.responder = reqMsg -> LoopbackProtocol.createResponse(reqMsg, "200");
+		}
+		IotTransport transport = new IotTransport(new StripedProtocol(stripes), null, null);
+		transport.connect(new TestAuth(), new IotClientConfig("CB00000000", "GW1.123", null, null));
+		transport.processDeviceAuth();
+		assertEquals(ConnectionState.READY, transport.getConnectionState());
+
+		// 한 연결이 끊기면 재연결 및 재인증, 끊긴 연결만 다시 초기화
+		stripes[1].loseConnection("test");
+		assertEquals(ConnectionState.DISCONNECTED, transport.getConnectionState());
+		long deadline = System.currentTimeMillis() + 5_000L;
+		while (transport.getConnectionState() != ConnectionState.READY) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("not reconnected");
+			}
+			Thread.sleep(10L);
+		}
+		assertEquals(1, stripes[0].initCount.get());
+		assertEquals(2, stripes[1].initCount.get());
+		assertEquals(1, stripes[2].initCount.get());
+		assertTrue(stripes[1].connected);
+		transport.disconnect();
+	}
+
+	@Test
+	public void test_unsupportedProtocol() {
+		IProtocol notStriped = new IProtocol() {
+			@Override
+			public void init(IotClientConfig cfg, MessageConverter converter, ITransportListener transport,
+					IAuth auth) {
+				/* nothing */
+			}
+
+			@Override
+			public void connect() {
+				/* nothing */
+			}
+
+			@Override
+			public void disconnect() {
+				/* nothing */
+			}
+
+			@Override
+			public void send(IotMessage msg) {
+				/* nothing */
+			}
+
+			@Override
+			public boolean isConnected() {
+				return false;
+			}
+		};
+		try {
+			new StripedProtocol(new LoopbackProtocol(), notStriped);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// 순번 0 만 지원
+		}
+	}
+
+	@Test
+	public void test_mqttStripes() throws Exception {
+		try (MqttTestBroker broker = new MqttTestBroker()) {
+			StripedProtocol protocol = new StripedProtocol(new MqttProtocol(), new MqttProtocol(), new MqttProtocol());
+			CountingListener listener = new CountingListener();
+			MessageConverter converter = connect(broker, protocol, listener);
+
+			// 같은 사용자명, 서로 다른 clientId 로 연결하고 첫 번째 연결만 구독
+			assertEquals(3, broker.connectCount.get());
+			Set<String> clientIds = new HashSet<>(broker.clientIds);
+			assertEquals(3, clientIds.size());
+			assertTrue(clientIds.contains("CB00000000+GW1.123"));
+			assertTrue(clientIds.contains("CB00000000+GW1.123#1"));
+			assertTrue(clientIds.contains("CB00000000+GW1.123#2"));
+			assertEquals(1, broker.subscribeCount.get());
+
+			for (int seq = 0; seq < 5; seq++) {
+				for (int leaf = 0; leaf < 10; leaf++) {
+					protocol.send(createMessage("LEAF" + leaf, seq));
+				}
+			}
+			// 연결 사이의 순서는 섞일 수 있으나 Leaf 사물별 순서는 유지됨
+			Map<String, Integer> lastSeq = new HashMap<>();
+			for (int i = 0; i < 50; i++) {
+				byte[] payload = broker.published.poll(2, TimeUnit.SECONDS);
+				assertNotNull(payload);
+				IotMessage msg = converter.convertFromBytes(payload);
+				int seq = Integer.parseInt(msg.getMsgId());
+				assertEquals(lastSeq.getOrDefault(msg.getEndNode(), -1) + 1, seq);
+				lastSeq.put(msg.getEndNode(), seq);
+			}
+			protocol.disconnect();
+		}
+	}
+
+	private static MessageConverter connect(MqttTestBroker broker, IProtocol protocol, ITransportListener listener) {
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "GW1.123", null, broker.getServerAddr());
+		MqttProtocolConfig protocolCfg = new MqttProtocolConfig();
+		protocolCfg.setMaxInflight(1000);
+		cfg.setProtocolCfg(protocolCfg);
+		MessageConverter converter = new MessageConverter(new DelimiterHeaderFormatConverter(),
+				new ZstdDataCompressor(cfg.getCompressUseBytes()), new PlainDataEncryptor());
+		protocol.init(cfg, converter, listener, new MutualTlsAuth());
+		protocol.connect();
+		return converter;
+	}
+
+	/**
+	 * 연결 수에 따른 초당 전송 수 비교. 서버는 연결마다 PUBLISH 를 순서대로 처리하므로 (PUBACK 지연 2ms)
+	 * 한 연결의 전송량은 서버 처리 속도로 제한되고, 연결 수만큼 늘어납니다.
+	 */
+	@Test
+	@Ignore("benchmark")
+	public void benchmark_stripes() throws Exception {
+		for (int n : new int[] { 1, 2, 4, 8 }) {
+			try (MqttTestBroker broker = new MqttTestBroker()) {
+				broker.ackDelayMillis = 2L;
+				MqttAsyncProtocol[] stripes = new MqttAsyncProtocol[n];
+				for (int i = 0; i < n; i++) {
+					stripes[i] = new MqttAsyncProtocol();
+				}
+				StripedProtocol protocol = new StripedProtocol(stripes);
+				CountingListener listener = new CountingListener();
+				connect(broker, protocol, listener);
+
+				int count = 2_000;
+				long start = System.nanoTime();
+				for (int i = 0; i < count; i++) {
+					IotMessage msg = createMessage("LEAF" + (i % 100), i / 100);
+					while (true) {
+						try {
+							protocol.send(msg);
+							break;
+						} catch (Exception e) {
+							if (!protocol.isBackpressure(e)) {
+								throw e;
+							}
+							Thread.yield();
+						}
+					}
+				}
+				while (listener.sentCount.get() < count) {
+					Thread.sleep(1L);
+				}
+				long elapsed = System.nanoTime() - start;
+				LOGGER.info("stripes={} : {} msg/sec", n, count * TimeUnit.SECONDS.toNanos(1) / elapsed);
+				protocol.disconnect();
+			}
+		}
+	}
+
+	private static final class CountingListener implements ITransportListener {
+		final AtomicInteger sentCount = new AtomicInteger();
+
+		@Override
+		public void onMessageReceived(IotMessage msg) {
+			/* nothing */
+		}
+
+		@Override
+		public void onMessageSent(Throwable e) {
+			sentCount.incrementAndGet();
+		}
+
+		@Override
+		public void onConnectionLost(String cause) {
+			/* nothing */
+		}
+	}
+}
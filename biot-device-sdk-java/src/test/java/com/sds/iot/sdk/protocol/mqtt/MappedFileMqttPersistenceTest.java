@@ -0,0 +1,333 @@
+package com.sds.iot.sdk.protocol.mqtt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.paho.client.mqttv3.MqttClientPersistence;
+import org.eclipse.paho.client.mqttv3.MqttPersistable;
+import org.eclipse.paho.client.mqttv3.MqttPersistenceException;
+import org.eclipse.paho.client.mqttv3.internal.MqttPersistentData;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.eclipse.paho.client.mqttv3.persist.MqttDefaultFilePersistence;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.mutual.MutualTlsAuth;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.message.compress.ZstdDataCompressor;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
+import com.sds.iot.sdk.protocol.ITransportListener;
+
+/**
+ * memory-mapped 링 파일 persistence 테스트
+ */
+public class MappedFileMqttPersistenceTest {
+	private static final Logger	LOGGER		= LoggerFactory.getLogger(MappedFileMqttPersistenceTest.class);
+
+	private static final String	CLIENT_ID	= "CB00000000+MD1.123";
+	private static final String	SERVER_URI	= "tcp://127.0.0.1:1883";
+
+	@Rule
+	public TemporaryFolder		tmp			= new TemporaryFolder();
+
+	private static MqttPersistable createData(String key, int payloadLength) {
+		byte[] header = ("header-" + key).getBytes(StandardCharsets.UTF_8);
+		byte[] payload = new byte[payloadLength];
+		for (int i = 0; i < payload.length; i++) {
+			payload[i] = (byte) (key.hashCode() + i);
+		}
+		return new MqttPersistentData(key, header, 0, header.length, payload, 0, payload.length);
+	}
+
+	private static void assertData(MqttPersistable expected, MqttPersistable actual) throws MqttPersistenceException {
+		assertNotNull(actual);
+		assertEquals(expected.getHeaderLength(), actual.getHeaderLength());
+		assertEquals(expected.getPayloadLength(), actual.getPayloadLength());
+		assertArrayEquals(expected.getHeaderBytes(), slice(actual.getHeaderBytes(), actual.getHeaderOffset(), actual.getHeaderLength()));
+		assertArrayEquals(expected.getPayloadBytes(),
+				slice(actual.getPayloadBytes(), actual.getPayloadOffset(), actual.getPayloadLength()));
+	}
+
+	private static byte[] slice(byte[] bytes, int offset, int length) {
+		byte[] result = new byte[length];
+		System.arraycopy(bytes, offset, result, 0, length);
+		return result;
+	}
+
+	private static Set<String> keys(MqttClientPersistence persistence) throws MqttPersistenceException {
+		Set<String> keys = new HashSet<>();
+		// paho 의 keys() 는 raw Enumeration 을 반환
+		Enumeration<?> e = persistence.keys();
+		while (e.hasMoreElements()) {
+			keys.add((String) e.nextElement());
+		}
+		return keys;
+	}
+
+	@Test
+	public void test_putGetRemove() throws Exception {
+		MappedFileMqttPersistence persistence = new MappedFileMqttPersistence(tmp.getRoot().getPath(), 64 * 1024);
+		persistence.open(CLIENT_ID, SERVER_URI);
+		assertTrue(new File(tmp.getRoot(), "CB00000000_MD1.123-tcp___127.0.0.1_1883.mqp").exists());
+
+		MqttPersistable s1 = createData("s-1", 100);
+		MqttPersistable s2 = createData("s-2", 0);
+		persistence.put("s-1", s1);
+		persistence.put("s-2", s2);
+		assertTrue(persistence.containsKey("s-1"));
+		assertData(s1, persistence.get("s-1"));
+		assertData(s2, persistence.get("s-2"));
+
+		// 같은 key 로 다시 저장하면 마지막 값
+		MqttPersistable s1b = createData("s-1", 200);
+		persistence.put("s-1", s1b);
+		assertData(s1b, persistence.get("s-1"));
+		assertEquals(2, keys(persistence).size());
+
+		persistence.remove("s-1");
+		assertFalse(persistence.containsKey("s-1"));
+		assertNull(persistence.get("s-1"));
+		persistence.clear();
+		assertTrue(keys(persistence).isEmpty());
+		persistence.close();
+
+		try {
+			persistence.get("s-2");
+			fail();
+		} catch (MqttPersistenceException e) {
+			assertEquals(MqttPersistenceException.REASON_CODE_CLIENT_CLOSED, e.getReasonCode());
+		}
+	}
+
+	@Test
+	public void test_recoverAfterReopen() throws Exception {
+		MappedFileMqttPersistence persistence = new MappedFileMqttPersistence(tmp.getRoot().getPath(), 64 * 1024);
+		persistence.open(CLIENT_ID, SERVER_URI);
+		for (int i = 0; i < 10; i++) {
+			persistence.put("s-" + i, createData("s-" + i, 100));
+		}
+		for (int i = 0; i < 10; i += 2) {
+			persistence.remove("s-" + i);
+		}
+		persistence.put("s-1", createData("s-1", 300));
+		persistence.close();
+
+		persistence = new MappedFileMqttPersistence(tmp.getRoot().getPath(), 64 * 1024);
+		persistence.open(CLIENT_ID, SERVER_URI);
+		assertEquals(new HashSet<>(Arrays.asList("s-1", "s-3", "s-5", "s-7", "s-9")), keys(persistence));
+		assertData(createData("s-1", 300), persistence.get("s-1"));
+		assertData(createData("s-9", 100), persistence.get("s-9"));
+		persistence.close();
+	}
+
+	@Test
+	public void test_wrapAroundAndCompact() throws Exception {
+		// 레코드 약 40개 크기의 파일에서 10만 번 저장/삭제
+		MappedFileMqttPersistence persistence = new MappedFileMqttPersistence(tmp.getRoot().getPath(), 8 * 1024);
+		persistence.open(CLIENT_ID, SERVER_URI);
+
+		// 삭제되지 않는 레코드가 head 에 남아 있어도 공간을 회수함
+		MqttPersistable pinned = createData("s-pinned", 100);
+		persistence.put("s-pinned", pinned);
+		for (int i = 0; i < 100_000; i++) {
+			persistence.put("s-" + i, createData("s-" + i, 150));
+			if (i >= 5) {
+				persistence.remove("s-" + (i - 5));
+			}
+		}
+		persistence.close();
+
+		persistence = new MappedFileMqttPersistence(tmp.getRoot().getPath(), 8 * 1024);
+		persistence.open(CLIENT_ID, SERVER_URI);
+		assertEquals(6, keys(persistence).size());
+		assertData(pinned, persistence.get("s-pinned"));
+		for (int i = 100_000 - 5; i < 100_000; i++) {
+			assertData(createData("s-" + i, 150), persistence.get("s-" + i));
+		}
+		persistence.close();
+	}
+
+	@Test
+	public void test_full() throws Exception {
+		MappedFileMqttPersistence persistence = new MappedFileMqttPersistence(tmp.getRoot().getPath(), 4 * 1024);
+		persistence.open(CLIENT_ID, SERVER_URI);
+		try {
+			for (int i = 0; i < 100; i++) {
+				persistence.put("s-" + i, createData("s-" + i, 150));
+			}
+			fail();
+		} catch (MqttPersistenceException e) {
+			// 살아 있는 레코드가 파일 크기를 넘음
+		}
+		// 저장된 레코드는 그대로 유지
+		assertData(createData("s-0", 150), persistence.get("s-0"));
+		persistence.close();
+	}
+
+	@Test
+	public void test_inUse() throws Exception {
+		MappedFileMqttPersistence persistence = new MappedFileMqttPersistence(tmp.getRoot().getPath(), 64 * 1024);
+		persistence.open(CLIENT_ID, SERVER_URI);
+		MappedFileMqttPersistence other = new MappedFileMqttPersistence(tmp.getRoot().getPath(), 64 * 1024);
+		try {
+			other.open(CLIENT_ID, SERVER_URI);
+			fail();
+		} catch (MqttPersistenceException e) {
+			assertEquals(MqttPersistenceException.REASON_CODE_PERSISTENCE_IN_USE, e.getReasonCode());
+		}
+		persistence.close();
+		other.open(CLIENT_ID, SERVER_URI);
+		other.close();
+	}
+
+	@Test
+	public void test_corruptedRecordDiscarded() throws Exception {
+		MappedFileMqttPersistence persistence = new MappedFileMqttPersistence(tmp.getRoot().getPath(), 64 * 1024);
+		persistence.open(CLIENT_ID, SERVER_URI);
+		persistence.put("s-1", createData("s-1", 100));
+		persistence.put("s-2", createData("s-2", 100));
+		persistence.close();
+
+		// 마지막 레코드의 payload 변경 (기록 도중 종료된 경우)
+		File file = new File(tmp.getRoot(), MappedFileMqttPersistence.fileName(CLIENT_ID, SERVER_URI));
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(8);
+			int tail = raf.readInt();
+			raf.seek(tail - 1);
+			int last = raf.read();
+			raf.seek(tail - 1);
+			raf.write(last ^ 0xFF);
+		}
+
+		persistence.open(CLIENT_ID, SERVER_URI);
+		assertEquals(Collections.singleton("s-1"), keys(persistence));
+		persistence.put("s-3", createData("s-3", 100));
+		assertData(createData("s-3", 100), persistence.get("s-3"));
+		persistence.close();
+	}
+
+	@Test
+	public void test_resendAfterRestart() throws Exception {
+		try (MqttTestBroker broker = new MqttTestBroker()) {
+			IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, broker.getServerAddr());
+			MqttProtocolConfig protocolCfg = new MqttProtocolConfig();
+			protocolCfg.setPersistence("MAPPED");
+			protocolCfg.setPersistenceDir(tmp.getRoot().getPath());
+			cfg.setProtocolCfg(protocolCfg);
+			MessageConverter converter = new MessageConverter(new DelimiterHeaderFormatConverter(),
+					new ZstdDataCompressor(cfg.getCompressUseBytes()), new PlainDataEncryptor());
+			CountingListener listener = new CountingListener();
+
+			// PUBACK 을 받지 못한 채 연결이 끊김
+			broker.pubackEnabled = false;
+			MqttProtocol protocol = new MqttProtocol();
+			protocol.init(cfg, converter, listener, new MutualTlsAuth());
+			protocol.connect();
+			for (int i = 0; i < 3; i++) {
+				IotMessage msg = new IotMessage();
+				msg.setMsgType("N");
+				msg.setMsgCode("Basic-AttrGroup");
+				msg.setMsgId(String.valueOf(i));
+				msg.setDataString("{ \"seq\" : " + i + " }");
+				protocol.send(msg);
+			}
+			for (int i = 0; i < 3; i++) {
+				assertNotNull(broker.published.poll(2, TimeUnit.SECONDS));
+			}
+			broker.dropConnections();
+			assertNotNull(listener.lost.poll(2, TimeUnit.SECONDS));
+			protocol.disconnect();
+
+			// 새 클라이언트(프로세스 재시작)가 저장된 메시지를 다시 전송
+			broker.pubackEnabled = true;
+			MqttProtocol restarted = new MqttProtocol();
+			restarted.init(cfg, converter, listener, new MutualTlsAuth());
+			restarted.connect();
+			Set<String> msgIds = new HashSet<>();
+			for (int i = 0; i < 3; i++) {
+				byte[] payload = broker.published.poll(2, TimeUnit.SECONDS);
+				assertNotNull(payload);
+				msgIds.add(converter.convertFromBytes(payload).getMsgId());
+			}
+			assertEquals(new HashSet<>(Arrays.asList("0", "1", "2")), msgIds);
+			restarted.disconnect();
+		}
+	}
+
+	/**
+	 * QoS1 전송 1건당 persistence 비용 (저장 후 PUBACK 수신 시 삭제) 비교
+	 */
+	@Test
+	@Ignore("benchmark")
+	public void benchmark_persistence() throws Exception {
+		int count = 20_000;
+		runBenchmark("MEMORY", new MemoryPersistence(), count);
+		runBenchmark("FILE", new MqttDefaultFilePersistence(tmp.newFolder().getPath()), count / 10);
+		runBenchmark("MAPPED", new MappedFileMqttPersistence(tmp.newFolder().getPath(), 4 * 1024 * 1024), count);
+	}
+
+	private static void runBenchmark(String name, MqttClientPersistence persistence, int count) throws Exception {
+		persistence.open(CLIENT_ID, SERVER_URI);
+		MqttPersistable data = createData("s-1", 300);
+		int inflight = 10;
+		for (int round = 0; round < 2; round++) { // warm up
+			long start = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				persistence.put("s-" + i, data);
+				if (i >= inflight) {
+					persistence.remove("s-" + (i - inflight));
+				}
+			}
+			for (int i = count - inflight; i < count; i++) {
+				persistence.remove("s-" + i);
+			}
+			long elapsed = System.nanoTime() - start;
+			if (round == 1) {
+				LOGGER.info("{} : {} us/publish", name, String.format("%.2f", elapsed / 1000.0 / count));
+			}
+		}
+		persistence.close();
+	}
+
+	private static final class CountingListener implements ITransportListener {
+		final LinkedBlockingQueue<String> lost = new LinkedBlockingQueue<>();
+
+		@Override
+		public void onMessageReceived(IotMessage msg) {
+			/* nothing */
+		}
+
+		@Override
+		public void onMessageSent(Throwable e) {
+			/* nothing */
+		}
+
+		@Override
+		public void onConnectionLost(String cause) {
+			lost.add(cause);
+		}
+	}
+}
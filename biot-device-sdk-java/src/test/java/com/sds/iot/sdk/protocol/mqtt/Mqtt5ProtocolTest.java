@@ -0,0 +1,264 @@
+package com.sds.iot.sdk.protocol.mqtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.mutual.MutualTlsAuth;
+import com.sds.iot.sdk.exception.IotException;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.message.compress.ZstdDataCompressor;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
+import com.sds.iot.sdk.protocol.ITransportListener;
+
+/**
+ * MQTT v5 프로토콜 테스트 (테스트용 MQTT 서버 사용)
+ */
+public class Mqtt5ProtocolTest {
+
+	private MqttTestBroker		broker;
+	private MessageConverter	converter;
+	private RecordingListener	listener;
+	private MqttProtocolConfig	protocolCfg;
+
+	@Before
+	public void setUp() throws Exception {
+		broker = new MqttTestBroker();
+		listener = new RecordingListener();
+		protocolCfg = new MqttProtocolConfig();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		broker.close();
+	}
+
+	private Mqtt5Protocol connect() {
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, broker.getServerAddr());
+		cfg.setProtocolCfg(protocolCfg);
+		converter = new MessageConverter(new DelimiterHeaderFormatConverter(), new ZstdDataCompressor(cfg.getCompressUseBytes()),
+				new PlainDataEncryptor());
+		Mqtt5Protocol protocol = new Mqtt5Protocol();
+		protocol.init(cfg, converter, listener, new MutualTlsAuth());
+		protocol.connect();
+		return protocol;
+	}
+
+	private static IotMessage createMessage(int seq) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setMsgCode("Basic-AttrGroup");
+		msg.setSiteId("CB00000000");
+		msg.setThingName("MD1.123");
+		msg.setMsgId(String.valueOf(seq));
+		msg.setDataString("{ \"seq\" : " + seq + " }");
+		return msg;
+	}
+
+	@Test
+	public void test_topicAliasAndMessageExpiry() throws Exception {
+		broker.topicAliasMaximum = 10;
+		protocolCfg.setMessageExpiryInterval(60L);
+		Mqtt5Protocol protocol = connect();
+		assertTrue(protocol.isConnected());
+
+		for (int i = 0; i < 3; i++) {
+			protocol.sendAsync(createMessage(i)).get(2, TimeUnit.SECONDS);
+		}
+
+		// 첫 PUBLISH 에서만 토픽을 보내고 이후에는 alias 만 전송
+		assertEquals("ocp/dataBus", broker.publishedTopics.poll());
+		assertEquals("", broker.publishedTopics.poll());
+		assertEquals("", broker.publishedTopics.poll());
+		assertEquals(60L, broker.lastMessageExpiry);
+		assertEquals(3, broker.published.size());
+		assertEquals(3, listener.sentCount);
+
+		protocol.disconnect();
+		assertFalse(protocol.isConnected());
+
+		// 재연결 시 alias 를 다시 지정
+		protocol.connect();
+		protocol.sendAsync(createMessage(3)).get(2, TimeUnit.SECONDS);
+		assertEquals("ocp/dataBus", broker.publishedTopics.poll());
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_withoutTopicAlias() throws Exception {
+		Mqtt5Protocol protocol = connect();
+		for (int i = 0; i < 2; i++) {
+			protocol.sendAsync(createMessage(i)).get(2, TimeUnit.SECONDS);
+		}
+		assertEquals("ocp/dataBus", broker.publishedTopics.poll());
+		assertEquals("ocp/dataBus", broker.publishedTopics.poll());
+		assertEquals(0L, broker.lastMessageExpiry);
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_receiveMaximum() throws Exception {
+		broker.receiveMaximum = 2;
+		broker.ackDelayMillis = 300L;
+		protocolCfg.setInflightWaitTimeoutMillis(0L);
+		Mqtt5Protocol protocol = connect();
+
+		// 서버의 Receive Maximum 만큼만 PUBACK 을 기다리지 않고 전송
+		CompletableFuture<Void> first = protocol.sendAsync(createMessage(1));
+		CompletableFuture<Void> second = protocol.sendAsync(createMessage(2));
+		CompletableFuture<Void> third = protocol.sendAsync(createMessage(3));
+		assertTrue(third.isCompletedExceptionally());
+		try {
+			third.join();
+			fail();
+		} catch (CompletionException e) {
+			assertTrue(protocol.isBackpressure(e.getCause()));
+		}
+
+		first.get(2, TimeUnit.SECONDS);
+		second.get(2, TimeUnit.SECONDS);
+		protocol.sendAsync(createMessage(4)).get(2, TimeUnit.SECONDS);
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_qos0NotificationsBypassReceiveMaximum() throws Exception {
+		broker.receiveMaximum = 1;
+		broker.ackDelayMillis = 300L;
+		protocolCfg.setInflightWaitTimeoutMillis(0L);
+		protocolCfg.setNotificationQos(0);
+		Mqtt5Protocol protocol = connect();
+
+		IotMessage request = createMessage(1);
+		request.setMsgType("Q");
+		CompletableFuture<Void> first = protocol.sendAsync(request);
+		assertFalse(first.isDone());
+
+		// 단방향 메시지는 QoS0 으로 PUBACK 을 기다리지 않고 바로 완료
+		for (int i = 2; i < 5; i++) {
+			CompletableFuture<Void> future = protocol.sendAsync(createMessage(i));
+			assertTrue(future.isDone());
+			assertFalse(future.isCompletedExceptionally());
+		}
+		assertEquals(Integer.valueOf(1), broker.publishedQos.poll(2, TimeUnit.SECONDS));
+		for (int i = 2; i < 5; i++) {
+			assertEquals(Integer.valueOf(0), broker.publishedQos.poll(2, TimeUnit.SECONDS));
+		}
+
+		first.get(2, TimeUnit.SECONDS);
+		assertEquals(4, listener.sentCount);
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_messageReceived() throws Exception {
+		Mqtt5Protocol protocol = connect();
+
+		IotMessage msg = createMessage(1);
+		msg.setMsgType("Q");
+		broker.publishToClients("ocp/CB00000000/MD1.123", converter.convertToBytes(msg));
+
+		IotMessage received = listener.received.poll(2, TimeUnit.SECONDS);
+		assertNotNull(received);
+		assertEquals("1", received.getMsgId());
+		assertEquals("Q", received.getMsgType());
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_connectionLost() throws Exception {
+		broker.ackDelayMillis = 1_000L;
+		Mqtt5Protocol protocol = connect();
+
+		// PUBACK 전에 연결이 끊기면 전송 실패로 완료
+		CompletableFuture<Void> future = protocol.sendAsync(createMessage(1));
+		assertNotNull(broker.published.poll(2, TimeUnit.SECONDS));
+		broker.dropConnections();
+
+		assertNotNull(listener.lost.poll(2, TimeUnit.SECONDS));
+		assertFalse(protocol.isConnected());
+		try {
+			future.get(2, TimeUnit.SECONDS);
+			fail();
+		} catch (Exception e) {
+			assertTrue(future.isCompletedExceptionally());
+		}
+	}
+
+	@Test
+	public void test_pingTimeout() throws Exception {
+		protocolCfg.setKeepAliveInterval(2);
+		broker.pingrespEnabled = false;
+		Mqtt5Protocol protocol = connect();
+
+		// PINGREQ 전송 후 keep alive 시간의 절반 동안 수신이 없으면 연결 끊김
+		assertNotNull(listener.lost.poll(4, TimeUnit.SECONDS));
+		assertEquals(1, broker.pingCount.get());
+		assertFalse(protocol.isConnected());
+	}
+
+	@Test
+	public void test_pingWhileReceiving() throws Exception {
+		protocolCfg.setKeepAliveInterval(2);
+		Mqtt5Protocol protocol = connect();
+
+		// 수신이 계속되어도 마지막 송신 후 keep alive 시간의 절반이 지나면 PINGREQ 전송
+		IotMessage msg = createMessage(1);
+		msg.setMsgType("Q");
+		byte[] payload = converter.convertToBytes(msg);
+		for (int i = 0; i < 15; i++) {
+			broker.publishToClients("ocp/CB00000000/MD1.123", payload);
+			Thread.sleep(200L);
+		}
+		assertTrue(broker.pingCount.get() > 0);
+		assertTrue(protocol.isConnected());
+		assertTrue(listener.lost.isEmpty());
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_connectFailure() {
+		broker.connackReasonCode = 0x86; // Bad User Name or Password
+		try {
+			connect();
+			fail();
+		} catch (IotException e) {
+			assertEquals("401", e.getErrorCode());
+		}
+	}
+
+	private static final class RecordingListener implements ITransportListener {
+		final LinkedBlockingQueue<IotMessage>	received	= new LinkedBlockingQueue<>();
+		final LinkedBlockingQueue<String>		lost		= new LinkedBlockingQueue<>();
+		volatile int							sentCount	= 0;
+
+		@Override
+		public void onMessageReceived(IotMessage msg) {
+			received.add(msg);
+		}
+
+		@Override
+		public synchronized void onMessageSent(Throwable e) {
+			sentCount++;
+		}
+
+		@Override
+		public void onConnectionLost(String cause) {
+			lost.add(cause);
+		}
+	}
+}
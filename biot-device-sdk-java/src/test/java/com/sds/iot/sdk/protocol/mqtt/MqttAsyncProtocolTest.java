@@ -0,0 +1,354 @@
+package com.sds.iot.sdk.protocol.mqtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.mutual.MutualTlsAuth;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.message.compress.ZstdDataCompressor;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
+import com.sds.iot.sdk.protocol.IProtocol;
+import com.sds.iot.sdk.protocol.ITransportListener;
+
+/**
+ * MqttAsyncClient 기반 프로토콜 테스트 (테스트용 MQTT 서버 사용)
+ */
+public class MqttAsyncProtocolTest {
+	private static final Logger	LOGGER	= LoggerFactory.getLogger(MqttAsyncProtocolTest.class);
+
+	private MqttTestBroker		broker;
+
+	@Before
+	public void setUp() throws Exception {
+		broker = new MqttTestBroker();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		broker.close();
+	}
+
+	private IProtocol connect(IProtocol protocol, ITransportListener listener, int maxInflight) {
+		MqttProtocolConfig protocolCfg = new MqttProtocolConfig();
+		protocolCfg.setMaxInflight(maxInflight);
+		return connect(protocol, listener, protocolCfg);
+	}
+
+	private IProtocol connect(IProtocol protocol, ITransportListener listener, MqttProtocolConfig protocolCfg) {
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, broker.getServerAddr());
+		cfg.setProtocolCfg(protocolCfg);
+		MessageConverter converter = new MessageConverter(new DelimiterHeaderFormatConverter(),
+				new ZstdDataCompressor(cfg.getCompressUseBytes()), new PlainDataEncryptor());
+		protocol.init(cfg, converter, listener, new MutualTlsAuth());
+		protocol.connect();
+		return protocol;
+	}
+
+	private static IotMessage createMessage(int seq) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setMsgCode("Basic-AttrGroup");
+		msg.setSiteId("CB00000000");
+		msg.setThingName("MD1.123");
+		msg.setMsgId(String.valueOf(seq));
+		msg.setDataString("{ \"seq\" : " + seq + " }");
+		return msg;
+	}
+
+	@Test
+	public void test_sendAndOnMessageSent() throws Exception {
+		RecordingListener listener = new RecordingListener();
+		IProtocol protocol = connect(new MqttAsyncProtocol(), listener, 10);
+		assertTrue(protocol.isConnected());
+		assertEquals(1, broker.connectCount.get());
+
+		protocol.send(createMessage(1));
+		assertNotNull(broker.published.poll(2, TimeUnit.SECONDS));
+
+		// PUBACK 수신 결과는 콜백으로 전달
+		long deadline = System.currentTimeMillis() + 2_000L;
+		while (listener.sentCount.get() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10L);
+		}
+		assertEquals(1, listener.sentCount.get());
+		assertNull(listener.failed.poll());
+
+		protocol.disconnect();
+		assertFalse(protocol.isConnected());
+	}
+
+	@Test
+	public void test_sendAsync() throws Exception {
+		broker.ackDelayMillis = 300L;
+		IProtocol protocol = connect(new MqttAsyncProtocol(), new RecordingListener(), 10);
+
+		// PUBACK 을 기다리지 않고 바로 리턴
+		long start = System.nanoTime();
+		CompletableFuture<Void> future = protocol.sendAsync(createMessage(1));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 200L);
+		assertFalse(future.isDone());
+
+		future.get(2, TimeUnit.SECONDS);
+		assertFalse(future.isCompletedExceptionally());
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_sendAsyncFailure() throws Exception {
+		broker.ackDelayMillis = 500L;
+		MqttProtocolConfig protocolCfg = new MqttProtocolConfig();
+		protocolCfg.setMaxInflight(1);
+		protocolCfg.setInflightWaitTimeoutMillis(0L);
+		IProtocol protocol = connect(new MqttAsyncProtocol(), new RecordingListener(), protocolCfg);
+
+		// in-flight window 에 자리가 없고 대기 시간이 0 이면 바로 예외로 완료
+		CompletableFuture<Void> first = protocol.sendAsync(createMessage(1));
+		assertNotNull(broker.published.poll(2, TimeUnit.SECONDS));
+		CompletableFuture<Void> second = protocol.sendAsync(createMessage(2));
+		assertTrue(second.isCompletedExceptionally());
+		try {
+			second.join();
+		} catch (CompletionException e) {
+			assertTrue(protocol.isBackpressure(e.getCause()));
+		}
+		first.get(2, TimeUnit.SECONDS);
+
+		// 연결되지 않은 경우
+		protocol.disconnect();
+		CompletableFuture<Void> third = protocol.sendAsync(createMessage(3));
+		assertTrue(third.isCompletedExceptionally());
+		assertFalse(protocol.isBackpressure(third.handle((v, e) -> e).join()));
+	}
+
+	@Test
+	public void test_sendOverMaxInflight() throws Exception {
+		broker.ackDelayMillis = 50L;
+		RecordingListener listener = new RecordingListener();
+		IProtocol protocol = connect(new MqttAsyncProtocol(), listener, 2);
+
+		// window 에 자리가 생길 때까지 대기하므로 maxInflight 보다 많이 연속 전송해도 실패하지 않음
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			IotMessage msg = createMessage(i);
+			msg.setMsgType("Q");
+			if (i % 2 == 0) {
+				protocol.send(msg);
+			} else {
+				futures.add(protocol.sendAsync(msg));
+			}
+		}
+		for (CompletableFuture<Void> future : futures) {
+			future.get(2, TimeUnit.SECONDS);
+		}
+		for (int i = 0; i < 10; i++) {
+			assertNotNull(broker.published.poll(2, TimeUnit.SECONDS));
+		}
+		long deadline = System.currentTimeMillis() + 2_000L;
+		while (listener.sentCount.get() < 10 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10L);
+		}
+		assertEquals(10, listener.sentCount.get());
+		assertNull(listener.failed.poll());
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_defaultSendAsync() throws Exception {
+		IProtocol protocol = connect(new MqttProtocol(), new RecordingListener(), 10);
+
+		// 기본 구현은 send() 가 리턴되면 완료
+		CompletableFuture<Void> future = protocol.sendAsync(createMessage(1));
+		assertTrue(future.isDone());
+		assertNotNull(broker.published.poll(2, TimeUnit.SECONDS));
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_qos0BypassesInflightWindow() throws Exception {
+		broker.ackDelayMillis = 500L;
+		MqttProtocolConfig protocolCfg = new MqttProtocolConfig();
+		protocolCfg.setMaxInflight(1);
+		protocolCfg.setInflightWaitTimeoutMillis(0L);
+		protocolCfg.setNotificationQos(0);
+		RecordingListener listener = new RecordingListener();
+		IProtocol protocol = connect(new MqttProtocol(), listener, protocolCfg);
+
+		// 요청 메시지(QoS1)가 window 를 차지
+		IotMessage request = createMessage(1);
+		request.setMsgType("Q");
+		protocol.send(request);
+		assertEquals(Integer.valueOf(1), broker.publishedQos.poll(2, TimeUnit.SECONDS));
+
+		// 단방향 메시지는 QoS0 으로 window 와 관계없이 전송
+		for (int i = 2; i < 5; i++) {
+			protocol.send(createMessage(i));
+		}
+		IotMessage second = createMessage(5);
+		second.setQos(1);
+		try {
+			protocol.send(second);
+			fail();
+		} catch (MqttException e) {
+			assertTrue(protocol.isBackpressure(e));
+		}
+		for (int i = 2; i < 5; i++) {
+			assertEquals(Integer.valueOf(0), broker.publishedQos.poll(2, TimeUnit.SECONDS));
+		}
+
+		// QoS0 전송 완료가 window 를 비우지 않음 : PUBACK 후에 QoS1 전송 가능
+		long deadline = System.currentTimeMillis() + 2_000L;
+		while (listener.sentCount.get() < 4 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10L);
+		}
+		assertEquals(4, listener.sentCount.get());
+		protocol.send(second);
+		assertEquals(Integer.valueOf(1), broker.publishedQos.poll(2, TimeUnit.SECONDS));
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_asyncMessageQos() throws Exception {
+		broker.ackDelayMillis = 300L;
+		MqttProtocolConfig protocolCfg = new MqttProtocolConfig();
+		protocolCfg.setMsgCodeQos("Basic-AttrGroup:0");
+		IProtocol protocol = connect(new MqttAsyncProtocol(), new RecordingListener(), protocolCfg);
+
+		// msgCode 별 QoS0 은 PUBACK 을 기다리지 않고 완료
+		protocol.sendAsync(createMessage(1)).get(200, TimeUnit.MILLISECONDS);
+		assertEquals(Integer.valueOf(0), broker.publishedQos.poll(2, TimeUnit.SECONDS));
+
+		// 메시지에 지정한 QoS 가 우선
+		IotMessage msg = createMessage(2);
+		msg.setQos(1);
+		protocol.sendAsync(msg).get(2, TimeUnit.SECONDS);
+		assertEquals(Integer.valueOf(1), broker.publishedQos.poll(2, TimeUnit.SECONDS));
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_qos0Burst() throws Exception {
+		MqttProtocolConfig protocolCfg = new MqttProtocolConfig();
+		protocolCfg.setPublishQos(0);
+		for (IProtocol protocol : new IProtocol[] { new MqttProtocol(), new MqttAsyncProtocol() }) {
+			connect(protocol, new RecordingListener(), protocolCfg);
+
+			// paho 는 QoS0 토큰 키가 모두 같으므로 연속 전송 시 메시지가 유실되지 않아야 함
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				futures.add(protocol.sendAsync(createMessage(i)));
+			}
+			for (CompletableFuture<Void> future : futures) {
+				future.get(2, TimeUnit.SECONDS);
+			}
+			for (int i = 0; i < 200; i++) {
+				assertNotNull(broker.published.poll(2, TimeUnit.SECONDS));
+			}
+			assertEquals(200, broker.publishedQos.stream().filter(qos -> qos == 0).count());
+			broker.publishedQos.clear();
+			protocol.disconnect();
+		}
+	}
+
+	/**
+	 * 전송 스레드 수에 따른 초당 전송 수와 전체 스레드 수 비교 (blocking MqttClient vs MqttAsyncClient)
+	 */
+	@Test
+	@Ignore("benchmark")
+	public void benchmark_throughput() throws Exception {
+		int count = 50_000;
+		broker.ackDelayMillis = 0L;
+		for (int senders : new int[] { 1, 4, 16 }) {
+			runBenchmark("MQTT", new MqttProtocol(), senders, count);
+			runBenchmark("MQTT_ASYNC", new MqttAsyncProtocol(), senders, count);
+		}
+	}
+
+	private void runBenchmark(String name, IProtocol protocol, int senders, int count) throws Exception {
+		RecordingListener listener = new RecordingListener();
+		int threadsBefore = Thread.activeCount();
+		connect(protocol, listener, 1000);
+		broker.published.clear();
+		int clientThreads = Thread.activeCount() - threadsBefore;
+
+		long start = System.nanoTime();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < senders; t++) {
+			int base = t * count / senders;
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < count / senders; i++) {
+					IotMessage msg = createMessage(base + i);
+					while (true) {
+						try {
+							protocol.send(msg);
+							break;
+						} catch (Exception e) {
+							if (!protocol.isBackpressure(e)) {
+								throw new IllegalStateException(e);
+							}
+							Thread.yield();
+						}
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		while (listener.sentCount.get() < count / senders * senders) {
+			Thread.sleep(1L);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		LOGGER.info("{} senders={} : {} msg/sec, threads={} (senders + client threads={})", name, senders,
+				count * TimeUnit.SECONDS.toNanos(1) / elapsed, senders + clientThreads, clientThreads);
+		protocol.disconnect();
+	}
+
+	private static final class RecordingListener implements ITransportListener {
+		final LinkedBlockingQueue<Throwable>	failed		= new LinkedBlockingQueue<>();
+		final AtomicInteger						sentCount	= new AtomicInteger();
+
+		@Override
+		public void onMessageReceived(IotMessage msg) {
+			/* nothing */
+		}
+
+		@Override
+		public void onMessageSent(Throwable e) {
+			sentCount.incrementAndGet();
+			if (e != null) {
+				failed.add(e);
+			}
+		}
+
+		@Override
+		public void onConnectionLost(String cause) {
+			/* nothing */
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.sds.iot.sdk.protocol.mqtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * MQTT in-flight window 테스트
+ */
+public class MqttInflightWindowTest {
+
+	@Test
+	public void test_acquireWaitsForAck() throws InterruptedException {
+		MqttInflightWindow window = new MqttInflightWindow(1, 2, false);
+		assertTrue(window.acquire(0L));
+		window.onPublished(1, System.nanoTime());
+		assertTrue(window.acquire(0L));
+		window.onPublished(2, System.nanoTime());
+
+		// window 가 가득 차면 PUBACK 을 받을 때까지 대기
+		CountDownLatch acquired = new CountDownLatch(1);
+		Thread sender = new Thread(() -> {
+			if (window.acquire(5_000L)) {
+				acquired.countDown();
+			}
+		});
+		sender.start();
+		assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+
+		window.onDeliveryComplete(1);
+		assertTrue(acquired.await(1, TimeUnit.SECONDS));
+		assertEquals(2, window.getInflight());
+		sender.join();
+	}
+
+	@Test
+	public void test_acquireTimeout() {
+		MqttInflightWindow window = new MqttInflightWindow(1, 1, false);
+		assertTrue(window.acquire(0L));
+		assertFalse(window.acquire(0L));
+
+		long start = System.nanoTime();
+		assertFalse(window.acquire(100L));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90L);
+
+		// 전송 실패 시 자리 반환
+		window.onPublishFailed();
+		assertEquals(0, window.getInflight());
+		assertTrue(window.acquire(0L));
+	}
+
+	@Test
+	public void test_earlyAckAndQos0() {
+		MqttInflightWindow window = new MqttInflightWindow(1, 4, true);
+		assertTrue(window.acquire(0L));
+
+		// publish() 리턴 전에 PUBACK 수신
+		window.onDeliveryComplete(7);
+		assertEquals(0, window.getInflight());
+		window.onPublished(7, System.nanoTime());
+
+		// 같은 messageId 를 다시 사용하는 경우에도 정상 동작
+		assertTrue(window.acquire(0L));
+		window.onPublished(7, System.nanoTime());
+		window.onDeliveryComplete(7);
+		assertEquals(0, window.getInflight());
+
+		// QoS0 메시지의 완료(messageId 0)는 무시
+		assertTrue(window.acquire(0L));
+		window.onDeliveryComplete(0);
+		assertEquals(1, window.getInflight());
+	}
+
+	@Test
+	public void test_deliveryFailed() {
+		MqttInflightWindow window = new MqttInflightWindow(1, 1, false);
+		assertTrue(window.acquire(0L));
+		window.onPublished(3, System.nanoTime());
+		assertFalse(window.acquire(0L));
+
+		// publish() 리턴 후 전송 실패 시 자리 반환
+		window.onDeliveryFailed(3);
+		assertEquals(0, window.getInflight());
+
+		// publish() 리턴 전에 실패한 경우
+		assertTrue(window.acquire(0L));
+		window.onDeliveryFailed(4);
+		window.onPublished(4, System.nanoTime());
+		assertEquals(0, window.getInflight());
+		assertTrue(window.acquire(0L));
+	}
+
+	@Test
+	public void test_adaptiveLimit() {
+		MqttInflightWindow window = new MqttInflightWindow(2, 8, true);
+		assertEquals(8, window.getLimit());
+
+		// 최소 지연 시간 기록
+		long now = System.nanoTime();
+		assertTrue(window.acquire(0L));
+		window.onPublished(1, now - TimeUnit.MILLISECONDS.toNanos(1));
+		window.onDeliveryComplete(1);
+
+		// 지연 시간이 크게 늘어나면 window 감소
+		assertTrue(window.acquire(0L));
+		window.onPublished(2, now - TimeUnit.SECONDS.toNanos(1));
+		window.onDeliveryComplete(2);
+		assertEquals(6, window.getLimit());
+
+		// 같은 혼잡으로 연속해서 줄이지 않음
+		assertTrue(window.acquire(0L));
+		window.onPublished(3, System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+		window.onDeliveryComplete(3);
+		assertEquals(6, window.getLimit());
+
+		// 지연 시간이 안정되면 window 크기만큼 PUBACK 을 받을 때마다 1 씩 증가
+		window.reset(0);
+		int messageId = 100;
+		for (int i = 0; i < 6; i++) {
+			assertTrue(window.acquire(0L));
+			window.onPublished(++messageId, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(1));
+			window.onDeliveryComplete(messageId);
+		}
+		assertEquals(7, window.getLimit());
+		for (int i = 0; i < 100; i++) {
+			assertTrue(window.acquire(0L));
+			window.onPublished(++messageId, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(1));
+			window.onDeliveryComplete(messageId);
+		}
+		assertEquals(8, window.getLimit());
+	}
+
+	@Test
+	public void test_wakeUpAndReset() throws InterruptedException {
+		MqttInflightWindow window = new MqttInflightWindow(1, 1, false);
+		assertTrue(window.acquire(0L));
+
+		// 연결이 끊기면 대기 중인 전송 스레드는 바로 실패
+		AtomicBoolean result = new AtomicBoolean(true);
+		CountDownLatch done = new CountDownLatch(1);
+		Thread sender = new Thread(() -> {
+			result.set(window.acquire(10_000L));
+			done.countDown();
+		});
+		sender.start();
+		Thread.sleep(100L);
+		window.wakeUp();
+		assertTrue(done.await(1, TimeUnit.SECONDS));
+		assertFalse(result.get());
+
+		// 재연결 후 paho 가 다시 보내는 메시지 수로 재설정
+		window.reset(0);
+		assertEquals(0, window.getInflight());
+		assertTrue(window.acquire(0L));
+		sender.join();
+	}
+}
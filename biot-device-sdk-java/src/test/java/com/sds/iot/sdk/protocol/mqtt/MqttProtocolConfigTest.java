@@ -0,0 +1,107 @@
+package com.sds.iot.sdk.protocol.mqtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Properties;
+
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.eclipse.paho.client.mqttv3.persist.MqttDefaultFilePersistence;
+import org.junit.Test;
+
+import com.sds.iot.sdk.message.IotMessage;
+
+/**
+ * MQTT 프로토콜 설정 테스트 (메시지 별 전송 QoS, persistence)
+ */
+public class MqttProtocolConfigTest {
+
+	private static IotMessage createMessage(String msgType, String msgCode) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType(msgType);
+		msg.setMsgCode(msgCode);
+		return msg;
+	}
+
+	@Test
+	public void test_defaultQos() {
+		MqttProtocolConfig cfg = new MqttProtocolConfig();
+		assertEquals(1, cfg.getPublishQos(createMessage("N", "Basic-AttrGroup")));
+		assertEquals(1, cfg.getPublishQos(createMessage("Q", "Basic-AttrGroup")));
+	}
+
+	@Test
+	public void test_qosPriority() {
+		MqttProtocolConfig cfg = new MqttProtocolConfig();
+		cfg.setNotificationQos(0);
+		cfg.setMsgCodeQos("Alarm-Group", 1);
+
+		// 단방향 메시지만 notificationQos 적용
+		assertEquals(0, cfg.getPublishQos(createMessage("N", "Basic-AttrGroup")));
+		assertEquals(1, cfg.getPublishQos(createMessage("Q", "Basic-AttrGroup")));
+
+		// msgCode 별 QoS 가 notificationQos 보다 우선
+		assertEquals(1, cfg.getPublishQos(createMessage("N", "Alarm-Group")));
+
+		// 메시지에 지정한 QoS 가 가장 우선
+		IotMessage msg = createMessage("Q", "Alarm-Group");
+		msg.setQos(0);
+		assertEquals(0, cfg.getPublishQos(msg));
+
+		// 설정 삭제
+		cfg.setMsgCodeQos("Alarm-Group", -1);
+		assertEquals(0, cfg.getPublishQos(createMessage("N", "Alarm-Group")));
+	}
+
+	@Test
+	public void test_initFromProperties() {
+		Properties props = new Properties();
+		props.setProperty("mqtt.publishQos", "0");
+		props.setProperty("mqtt.msgCodeQos", "Basic-AttrGroup:0, Alarm-Group:1");
+		MqttProtocolConfig cfg = new MqttProtocolConfig();
+		cfg.initFromProperties(props);
+
+		assertEquals(0, cfg.getPublishQos(createMessage("Q", "Other")));
+		assertEquals(0, cfg.getPublishQos(createMessage("Q", "Basic-AttrGroup")));
+		assertEquals(1, cfg.getPublishQos(createMessage("N", "Alarm-Group")));
+	}
+
+	@Test
+	public void test_unsupportedQos() {
+		try {
+			new MqttProtocolConfig().setPublishQos(2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// QoS2 는 지원하지 않음
+		}
+		try {
+			new IotMessage().setQos(2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// QoS2 는 지원하지 않음
+		}
+	}
+
+	@Test
+	public void test_persistence() {
+		MqttProtocolConfig cfg = new MqttProtocolConfig();
+		assertTrue(cfg.createPersistence() instanceof MemoryPersistence);
+
+		Properties props = new Properties();
+		props.setProperty("mqtt.persistence", "mapped");
+		props.setProperty("mqtt.persistenceDir", "/tmp");
+		cfg.initFromProperties(props);
+		assertEquals(MqttProtocolConfig.PERSISTENCE_MAPPED, cfg.getPersistence());
+		assertTrue(cfg.createPersistence() instanceof MappedFileMqttPersistence);
+
+		cfg.setPersistence("FILE");
+		assertTrue(cfg.createPersistence() instanceof MqttDefaultFilePersistence);
+		try {
+			cfg.setPersistence("DB");
+			fail();
+		} catch (IllegalArgumentException e) {
+			// MEMORY, FILE, MAPPED 만 지원
+		}
+	}
+}
@@ -0,0 +1,307 @@
+package com.sds.iot.sdk.protocol.mqtt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 테스트용 MQTT 3.1.1 / v5 서버. CONNECT, SUBSCRIBE, PUBLISH(QoS 0/1), PINGREQ, DISCONNECT 만 처리합니다.
+ * 수신한 PUBLISH 의 payload 는 {@link #published} 에 저장하고, QoS1 이면 ackDelayMillis 후 PUBACK 을 보냅니다.
+ * v5 연결에는 CONNACK 으로 receiveMaximum, topicAliasMaximum 을 알려주고, PUBLISH 의 topic alias 와 message expiry 를 기록합니다.
+ */
+public class MqttTestBroker implements AutoCloseable {
+
+	public final LinkedBlockingQueue<byte[]>	published			= new LinkedBlockingQueue<>();
+	public final LinkedBlockingQueue<Integer>	publishedQos		= new LinkedBlockingQueue<>();
+	public final AtomicInteger					connectCount		= new AtomicInteger();
+	public final LinkedBlockingQueue<String>	clientIds			= new LinkedBlockingQueue<>();
+	public final AtomicInteger					subscribeCount		= new AtomicInteger();
+	public volatile long						ackDelayMillis		= 0L;
+	/** false 이면 QoS1 PUBLISH 에 PUBACK 을 보내지 않음 */
+	public volatile boolean						pubackEnabled		= true;
+	/** false 이면 PINGREQ 에 PINGRESP 를 보내지 않음 */
+	public volatile boolean						pingrespEnabled		= true;
+	public final AtomicInteger					pingCount			= new AtomicInteger();
+
+	/* MQTT v5 */
+	public final LinkedBlockingQueue<String>	publishedTopics		= new LinkedBlockingQueue<>();
+	public volatile int							receiveMaximum		= 0;
+	public volatile int							topicAliasMaximum	= 0;
+	public volatile int							connackReasonCode	= 0;
+	public volatile long						lastMessageExpiry	= 0L;
+
+	private final ServerSocket					serverSocket;
+	private final List<Socket>					sockets				= new CopyOnWriteArrayList<>();
+	private final List<Connection>				connections			= new CopyOnWriteArrayList<>();
+	private volatile boolean					running				= true;
+
+	public MqttTestBroker() throws IOException {
+		this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		Thread t = new Thread(this::accept, "mqttTestBroker");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	/**
+	 * @return "tcp://127.0.0.1:{port}"
+	 */
+	public String getServerAddr() {
+		return "tcp://127.0.0.1:" + serverSocket.getLocalPort();
+	}
+
+	private void accept() {
+		while (running) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				sockets.add(socket);
+				Thread t = new Thread(() -> handle(socket), "mqttTestBroker-conn");
+				t.setDaemon(true);
+				t.start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void handle(Socket socket) {
+		Connection conn = null;
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+			conn = new Connection(out);
+			connections.add(conn);
+			Map<Integer, String> topicAliases = new HashMap<>();
+			while (running) {
+				int header = in.read();
+				if (header < 0) {
+					return;
+				}
+				byte[] body = new byte[readRemainingLength(in)];
+				in.readFully(body);
+
+				switch (header >> 4) {
+					case 1: // CONNECT
+						connectCount.incrementAndGet();
+						conn.level = body[6];
+						int clientIdStart = conn.level < 5 ? 10 : 11 + body[10];
+						int clientIdLength = ((body[clientIdStart] & 0xFF) << 8) | (body[clientIdStart + 1] & 0xFF);
+						clientIds.add(new String(body, clientIdStart + 2, clientIdLength, StandardCharsets.UTF_8));
+						if (conn.level < 5) {
+							conn.write(new byte[] { 0x20, 0x02, 0x00, 0x00 });
+						} else {
+							ByteArrayOutputStream props = new ByteArrayOutputStream();
+							if (receiveMaximum > 0) {
+								props.write(0x21);
+								props.write(receiveMaximum >> 8);
+								props.write(receiveMaximum);
+							}
+							if (topicAliasMaximum > 0) {
+								props.write(0x22);
+								props.write(topicAliasMaximum >> 8);
+								props.write(topicAliasMaximum);
+							}
+							byte[] connack = new byte[5 + props.size()];
+							connack[0] = 0x20;
+							connack[1] = (byte) (3 + props.size());
+							connack[3] = (byte) connackReasonCode;
+							connack[4] = (byte) props.size();
+							System.arraycopy(props.toByteArray(), 0, connack, 5, props.size());
+							conn.write(connack);
+						}
+						break;
+					case 3: // PUBLISH
+						ByteBuffer buf = ByteBuffer.wrap(body);
+						int qos = (header >> 1) & 0x03;
+						byte[] topicBytes = new byte[buf.getShort() & 0xFFFF];
+						buf.get(topicBytes);
+						String topic = new String(topicBytes, StandardCharsets.UTF_8);
+						int packetId = qos > 0 ? buf.getShort() & 0xFFFF : 0;
+						if (conn.level >= 5) {
+							int propsEnd = readRemainingLength(buf) + buf.position();
+							int topicAlias = 0;
+							long messageExpiry = 0L;
+							while (buf.position() < propsEnd) {
+								int id = buf.get();
+								if (id == 0x23) {
+									topicAlias = buf.getShort() & 0xFFFF;
+								} else if (id == 0x02) {
+									messageExpiry = buf.getInt() & 0xFFFFFFFFL;
+								} else {
+									throw new IOException("Unexpected property : " + id);
+								}
+							}
+							if (topicAlias > 0) {
+								if (topic.isEmpty()) {
+									if (!topicAliases.containsKey(topicAlias)) {
+										throw new IOException("Unknown topic alias : " + topicAlias);
+									}
+								} else {
+									topicAliases.put(topicAlias, topic);
+								}
+							}
+							lastMessageExpiry = messageExpiry;
+						}
+						publishedTopics.add(topic);
+						publishedQos.add(qos);
+						byte[] payload = new byte[buf.remaining()];
+						buf.get(payload);
+						published.add(payload);
+						if (qos > 0 && pubackEnabled) {
+							if (ackDelayMillis > 0) {
+								Thread.sleep(ackDelayMillis);
+							}
+							conn.write(new byte[] { 0x40, 0x02, (byte) (packetId >> 8), (byte) packetId });
+						}
+						break;
+					case 8: // SUBSCRIBE
+						subscribeCount.incrementAndGet();
+						int start = 2;
+						if (conn.level >= 5) {
+							start += 1 + body[2];
+						}
+						int topicCount = 0;
+						for (int i = start; i < body.length;) {
+							i += 2 + (((body[i] & 0xFF) << 8) | (body[i + 1] & 0xFF)) + 1;
+							topicCount++;
+						}
+						int propsLength = conn.level >= 5 ? 1 : 0;
+						byte[] suback = new byte[4 + propsLength + topicCount];
+						suback[0] = (byte) 0x90;
+						suback[1] = (byte) (2 + propsLength + topicCount);
+						suback[2] = body[0];
+						suback[3] = body[1];
+						conn.write(suback);
+						break;
+					case 12: // PINGREQ
+						pingCount.incrementAndGet();
+						if (pingrespEnabled) {
+							conn.write(new byte[] { (byte) 0xD0, 0x00 });
+						}
+						break;
+					case 14: // DISCONNECT
+						socket.close();
+						return;
+					default:
+						break;
+				}
+			}
+		} catch (IOException | RuntimeException | InterruptedException e) {
+			// 연결 종료
+		} finally {
+			sockets.remove(socket);
+			connections.remove(conn);
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * 연결된 클라이언트에게 QoS0 메시지를 전송합니다.
+	 */
+	public void publishToClients(String topic, byte[] payload) throws IOException {
+		for (Connection conn : connections) {
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+			body.write(topicBytes.length >> 8);
+			body.write(topicBytes.length);
+			body.write(topicBytes);
+			if (conn.level >= 5) {
+				body.write(0); // properties
+			}
+			body.write(payload);
+
+			ByteArrayOutputStream packet = new ByteArrayOutputStream();
+			packet.write(0x30);
+			int length = body.size();
+			do {
+				int b = length & 0x7F;
+				length >>>= 7;
+				packet.write(length > 0 ? b | 0x80 : b);
+			} while (length > 0);
+			body.writeTo(packet);
+			conn.write(packet.toByteArray());
+		}
+	}
+
+	private static final class Connection {
+		final OutputStream	out;
+		volatile int		level	= 4;
+
+		Connection(OutputStream out) {
+			this.out = out;
+		}
+
+		void write(byte[] packet) throws IOException {
+			synchronized (out) {
+				out.write(packet);
+				out.flush();
+			}
+		}
+	}
+
+	private static int readRemainingLength(InputStream in) throws IOException {
+		int value = 0;
+		int multiplier = 1;
+		int b;
+		do {
+			b = in.read();
+			if (b < 0) {
+				throw new IOException("EOF");
+			}
+			value += (b & 0x7F) * multiplier;
+			multiplier *= 128;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	private static int readRemainingLength(ByteBuffer buf) {
+		int value = 0;
+		int multiplier = 1;
+		int b;
+		do {
+			b = buf.get() & 0xFF;
+			value += (b & 0x7F) * multiplier;
+			multiplier *= 128;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * 연결된 클라이언트의 연결을 모두 끊습니다.
+	 */
+	public void dropConnections() {
+		for (Socket socket : sockets) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		running = false;
+		serverSocket.close();
+		dropConnections();
+	}
+}
@@ -0,0 +1,197 @@
+package com.sds.iot.sdk.protocol.tls;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SSLContext 공유 및 TLS 세션 재사용 테스트 (keytool 로 생성한 사설인증서, 로컬 TLS 서버 사용)
+ */
+public class TlsSupportTest {
+	private static final Logger	LOGGER		= LoggerFactory.getLogger(TlsSupportTest.class);
+
+	private static final String	PASSWORD	= "changeit";
+
+	@Rule
+	public TemporaryFolder		tmp			= new TemporaryFolder();
+
+	private File				keyStoreFile;
+	private SSLServerSocket		serverSocket;
+	private Thread				serverThread;
+
+	@Before
+	public void setUp() throws Exception {
+		TlsSupport.clearTlsContextCache();
+		keyStoreFile = new File(tmp.getRoot(), "server.jks");
+		Process keytool = new ProcessBuilder(System.getProperty("java.home") + "/bin/keytool", "-genkeypair",
+				"-alias", "server", "-keyalg", "RSA", "-keysize", "2048", "-dname", "CN=localhost", "-validity", "1",
+				"-keystore", keyStoreFile.getPath(), "-storepass", PASSWORD, "-keypass", PASSWORD).redirectErrorStream(true)
+						.start();
+		assertTrue(keytool.waitFor(60, TimeUnit.SECONDS));
+		assertEquals(0, keytool.exitValue());
+
+		KeyStore keyStore = KeyStore.getInstance("JKS");
+		try (InputStream in = new FileInputStream(keyStoreFile)) {
+			keyStore.load(in, PASSWORD.toCharArray());
+		}
+		KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		kmf.init(keyStore, PASSWORD.toCharArray());
+		SSLContext serverCtx = SSLContext.getInstance("TLS");
+		serverCtx.init(kmf.getKeyManagers(), null, null);
+		serverSocket = (SSLServerSocket) serverCtx.getServerSocketFactory().createServerSocket(0, 50,
+				InetAddress.getLoopbackAddress());
+		serverSocket.setEnabledProtocols(new String[] { "TLSv1.3", "TLSv1.2" });
+
+		serverThread = new Thread(() -> {
+			while (!serverSocket.isClosed()) {
+				try (SSLSocket socket = (SSLSocket) serverSocket.accept()) {
+					socket.startHandshake();
+					OutputStream out = socket.getOutputStream();
+					out.write(1);
+					out.flush();
+					socket.getInputStream().read();
+				} catch (Exception e) {
+					// 연결 종료
+				}
+			}
+		}, "tls-test-server");
+		serverThread.setDaemon(true);
+		serverThread.start();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		serverSocket.close();
+		serverThread.join(5_000L);
+		TlsSupport.clearTlsContextCache();
+	}
+
+	private SslProperties createProps(String protocol) {
+		Properties props = new Properties();
+		props.setProperty("TRUST_KEYSTORE_PUBLIC_YN", "false");
+		props.setProperty("TRUST_KEYSTORE", keyStoreFile.getPath());
+		props.setProperty("TRUST_KEYSTORE_PASSWORD", PASSWORD);
+		if (protocol != null) {
+			props.setProperty("TLS_PROTOCOL", protocol);
+		}
+		return new SslProperties(props);
+	}
+
+	private SSLSocket handshake(SSLContext sslCtx) throws Exception {
+		// 서버 주소로 연결해야 세션 캐시에서 재사용할 세션을 찾음
+		SSLSocket socket = (SSLSocket) sslCtx.getSocketFactory().createSocket("localhost", serverSocket.getLocalPort());
+		socket.startHandshake();
+		// TLSv1.3 은 핸드셰이크 후 서버가 보내는 NewSessionTicket 을 읽어야 세션이 캐시됨
+		assertEquals(1, socket.getInputStream().read());
+		return socket;
+	}
+
+	@Test
+	public void test_sharedContext() throws Exception {
+		SSLContext sslCtx = TlsSupport.createTlsContext(createProps(null));
+		assertEquals("TLSv1.3", sslCtx.getProtocol());
+
+		// 같은 설정값이면 같은 SSLContext
+		assertSame(sslCtx, TlsSupport.createTlsContext(createProps(null)));
+		assertSame(sslCtx, TlsSupport.createTlsContext(createProps("TLSv1.3")));
+		assertNotSame(sslCtx, TlsSupport.createTlsContext(createProps("TLSv1.2")));
+
+		// 인증서 파일이 바뀌면 새로 생성
+		assertTrue(keyStoreFile.setLastModified(keyStoreFile.lastModified() - 10_000L));
+		SSLContext recreated = TlsSupport.createTlsContext(createProps(null));
+		assertNotSame(sslCtx, recreated);
+		assertSame(recreated, TlsSupport.createTlsContext(createProps(null)));
+
+		TlsSupport.clearTlsContextCache();
+		assertNotSame(recreated, TlsSupport.createTlsContext(createProps(null)));
+	}
+
+	@Test
+	public void test_tls13() throws Exception {
+		SSLContext sslCtx = TlsSupport.createTlsContext(createProps(null));
+		try (SSLSocket socket = handshake(sslCtx)) {
+			assertEquals("TLSv1.3", socket.getSession().getProtocol());
+		}
+	}
+
+	@Test
+	public void test_unsupportedProtocolFallback() throws Exception {
+		SSLContext sslCtx = TlsSupport.createTlsContext(createProps("TLSv9.9"));
+		assertEquals("TLSv1.2", sslCtx.getProtocol());
+		try (SSLSocket socket = handshake(sslCtx)) {
+			assertEquals("TLSv1.2", socket.getSession().getProtocol());
+		}
+	}
+
+	@Test
+	public void test_sessionResumption() throws Exception {
+		SslProperties sslProps = createProps("TLSv1.2");
+		byte[] sessionId;
+		try (SSLSocket socket = handshake(TlsSupport.createTlsContext(sslProps))) {
+			sessionId = socket.getSession().getId();
+		}
+		// 재연결 시 새로 만든 SslProperties 라도 공유된 SSLContext 의 세션을 재사용
+		try (SSLSocket socket = handshake(TlsSupport.createTlsContext(createProps("TLSv1.2")))) {
+			assertArrayEquals(sessionId, socket.getSession().getId());
+		}
+
+		// SSLContext 를 새로 만들면 세션도 새로 생성
+		TlsSupport.clearTlsContextCache();
+		try (SSLSocket socket = handshake(TlsSupport.createTlsContext(sslProps))) {
+			assertFalse(Arrays.equals(sessionId, socket.getSession().getId()));
+		}
+	}
+
+	/**
+	 * 재연결 1회 비용 비교. 매번 SSLContext 를 생성하고 전체 핸드셰이크를 하는 경우(기존)와
+	 * 공유된 SSLContext 로 세션을 재사용하는 경우.
+	 */
+	@Test
+	@Ignore("benchmark")
+	public void benchmark_reconnect() throws Exception {
+		int count = 200;
+		for (String protocol : new String[] { "TLSv1.2", "TLSv1.3" }) {
+			long start = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				TlsSupport.clearTlsContextCache();
+				handshake(TlsSupport.createTlsContext(createProps(protocol))).close();
+			}
+			long uncached = (System.nanoTime() - start) / count;
+
+			start = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				handshake(TlsSupport.createTlsContext(createProps(protocol))).close();
+			}
+			long cached = (System.nanoTime() - start) / count;
+			LOGGER.info("{} : new context + full handshake {} us, shared context + resumption {} us", protocol,
+					TimeUnit.NANOSECONDS.toMicros(uncached), TimeUnit.NANOSECONDS.toMicros(cached));
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package com.sds.iot.sdk.protocol.websocket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sds.iot.sdk.IotClientConfig;
+import com.sds.iot.sdk.auth.mutual.MutualTlsAuth;
+import com.sds.iot.sdk.exception.IotException;
+import com.sds.iot.sdk.message.IotMessage;
+import com.sds.iot.sdk.message.MessageConverter;
+import com.sds.iot.sdk.message.compress.ZstdDataCompressor;
+import com.sds.iot.sdk.message.encrypt.IDataEncryptor.PlainDataEncryptor;
+import com.sds.iot.sdk.message.headerformat.DelimiterHeaderFormatConverter;
+import com.sds.iot.sdk.protocol.ITransportListener;
+
+/**
+ * 웹소켓 프로토콜 테스트 (테스트용 웹소켓 서버 사용)
+ */
+public class WebSocketProtocolTest {
+
+	private WebSocketTestServer		server;
+	private MessageConverter		converter;
+	private RecordingListener		listener;
+	private WebSocketProtocolConfig	protocolCfg;
+
+	@Before
+	public void setUp() throws Exception {
+		server = new WebSocketTestServer();
+		listener = new RecordingListener();
+		protocolCfg = new WebSocketProtocolConfig();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		server.close();
+	}
+
+	private WebSocketProtocol connect() {
+		IotClientConfig cfg = new IotClientConfig("CB00000000", "MD1.123", null, server.getServerAddr());
+		cfg.setProtocolCfg(protocolCfg);
+		converter = new MessageConverter(new DelimiterHeaderFormatConverter(), new ZstdDataCompressor(cfg.getCompressUseBytes()),
+				new PlainDataEncryptor());
+		WebSocketProtocol protocol = new WebSocketProtocol();
+		protocol.init(cfg, converter, listener, new MutualTlsAuth());
+		protocol.connect();
+		return protocol;
+	}
+
+	private static IotMessage createMessage(int seq, int dataLength) {
+		IotMessage msg = new IotMessage();
+		msg.setMsgType("N");
+		msg.setMsgCode("Basic-AttrGroup");
+		msg.setSiteId("CB00000000");
+		msg.setThingName("MD1.123");
+		msg.setMsgId(String.valueOf(seq));
+		StringBuilder data = new StringBuilder("{ \"seq\" : " + seq + ", \"value\" : \"");
+		while (data.length() < dataLength) {
+			data.append("temperature");
+		}
+		msg.setDataString(data.append("\" }").toString());
+		return msg;
+	}
+
+	@Test
+	public void test_sendBinaryFrame() throws Exception {
+		protocolCfg.setPerMessageDeflate(false);
+		WebSocketProtocol protocol = connect();
+		assertTrue(protocol.isConnected());
+		assertFalse(server.requests.poll().contains("permessage-deflate"));
+
+		IotMessage msg = createMessage(1, 1_000);
+		protocol.send(msg);
+
+		// 헤더포맷으로 변환한 바이트가 그대로 binary 프레임 하나로 전송됨
+		byte[] payload = server.received.poll(2, TimeUnit.SECONDS);
+		assertArrayEquals(converter.convertToBytes(msg), payload);
+		assertFalse(server.compressed.poll());
+
+		protocol.disconnect();
+		assertFalse(protocol.isConnected());
+		assertTrue(listener.lost.isEmpty());
+	}
+
+	@Test
+	public void test_perMessageDeflate() throws Exception {
+		WebSocketProtocol protocol = connect();
+
+		// deflateMinSize 이상인 메시지는 압축, 작은 메시지는 압축하지 않음 (context takeover 유지)
+		IotMessage large1 = createMessage(1, 2_000);
+		IotMessage small = createMessage(2, 10);
+		IotMessage large2 = createMessage(3, 2_000);
+		protocol.send(large1);
+		protocol.send(small);
+		protocol.send(large2);
+
+		assertArrayEquals(converter.convertToBytes(large1), server.received.poll(2, TimeUnit.SECONDS));
+		assertTrue(server.compressed.poll());
+		assertArrayEquals(converter.convertToBytes(small), server.received.poll(2, TimeUnit.SECONDS));
+		assertFalse(server.compressed.poll());
+		assertArrayEquals(converter.convertToBytes(large2), server.received.poll(2, TimeUnit.SECONDS));
+		assertTrue(server.compressed.poll());
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_perMessageDeflateNotAccepted() throws Exception {
+		server.deflateResponse = null;
+		WebSocketProtocol protocol = connect();
+		assertTrue(server.requests.poll().contains("permessage-deflate"));
+
+		IotMessage msg = createMessage(1, 2_000);
+		protocol.send(msg);
+		assertArrayEquals(converter.convertToBytes(msg), server.received.poll(2, TimeUnit.SECONDS));
+		assertFalse(server.compressed.poll());
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_messageReceived() throws Exception {
+		server.deflateResponse = "permessage-deflate; server_no_context_takeover";
+		WebSocketProtocol protocol = connect();
+
+		for (int i = 0; i < 3; i++) {
+			IotMessage msg = createMessage(i, 500);
+			msg.setMsgType("Q");
+			server.sendToClients(converter.convertToBytes(msg), i != 1);
+		}
+		for (int i = 0; i < 3; i++) {
+			IotMessage received = listener.received.poll(2, TimeUnit.SECONDS);
+			assertNotNull(received);
+			assertEquals(String.valueOf(i), received.getMsgId());
+			assertEquals("Q", received.getMsgType());
+		}
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_pingPong() throws Exception {
+		protocolCfg.setPingInterval(1);
+		WebSocketProtocol protocol = connect();
+
+		// 수신이 없으면 pingInterval 마다 ping 전송
+		long deadline = System.currentTimeMillis() + 3_000L;
+		while (server.pingCount.get() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50L);
+		}
+		assertTrue(server.pingCount.get() > 0);
+
+		// 서버 ping 에는 같은 payload 로 pong 응답
+		server.pingClients("hello".getBytes(StandardCharsets.UTF_8));
+		assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), server.pongs.poll(2, TimeUnit.SECONDS));
+		assertTrue(protocol.isConnected());
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_pingTimeout() throws Exception {
+		protocolCfg.setPingInterval(1);
+		server.replyPing = false;
+		WebSocketProtocol protocol = connect();
+
+		// ping 전송 후 pingInterval 동안 수신이 없으면 연결 끊김
+		assertNotNull(listener.lost.poll(4, TimeUnit.SECONDS));
+		assertEquals(1, server.pingCount.get());
+		assertFalse(protocol.isConnected());
+	}
+
+	@Test
+	public void test_connectionLost() throws Exception {
+		WebSocketProtocol protocol = connect();
+		server.dropConnections();
+
+		assertNotNull(listener.lost.poll(2, TimeUnit.SECONDS));
+		assertFalse(protocol.isConnected());
+		try {
+			protocol.send(createMessage(1, 10));
+			fail();
+		} catch (IllegalStateException e) {
+			// not connected
+		}
+
+		// 재연결
+		protocol.connect();
+		protocol.send(createMessage(2, 10));
+		assertNotNull(server.received.poll(2, TimeUnit.SECONDS));
+		protocol.disconnect();
+	}
+
+	@Test
+	public void test_connectFailure() {
+		server.rejectStatus = 401;
+		try {
+			connect();
+			fail();
+		} catch (IotException e) {
+			assertEquals("401", e.getErrorCode());
+		}
+
+		server.rejectStatus = 503;
+		try {
+			connect();
+			fail();
+		} catch (IotException e) {
+			assertEquals("500", e.getErrorCode());
+		}
+	}
+
+	private static final class RecordingListener implements ITransportListener {
+		final LinkedBlockingQueue<IotMessage>	received	= new LinkedBlockingQueue<>();
+		final LinkedBlockingQueue<String>		lost		= new LinkedBlockingQueue<>();
+
+		@Override
+		public void onMessageReceived(IotMessage msg) {
+			received.add(msg);
+		}
+
+		@Override
+		public void onMessageSent(Throwable e) {
+			// 웹소켓은 메시지 단위 응답이 없음
+		}
+
+		@Override
+		public void onConnectionLost(String cause) {
+			lost.add(cause);
+		}
+	}
+}
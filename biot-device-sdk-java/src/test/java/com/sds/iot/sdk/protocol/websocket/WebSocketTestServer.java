@@ -0,0 +1,283 @@
+package com.sds.iot.sdk.protocol.websocket;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 테스트용 웹소켓 서버. 핸드셰이크(permessage-deflate 수락 여부 선택), binary 메시지 수신, ping/pong, close 만 처리합니다.
+ * 수신한 메시지(압축 해제 후)는 {@link #received} 에, 압축 여부(RSV1)는 {@link #compressed} 에 저장합니다.
+ */
+public class WebSocketTestServer implements AutoCloseable {
+
+	public final LinkedBlockingQueue<byte[]>	received			= new LinkedBlockingQueue<>();
+	public final LinkedBlockingQueue<Boolean>	compressed			= new LinkedBlockingQueue<>();
+	public final LinkedBlockingQueue<String>	requests			= new LinkedBlockingQueue<>();
+	public final LinkedBlockingQueue<byte[]>	pongs				= new LinkedBlockingQueue<>();
+	public final AtomicInteger					pingCount			= new AtomicInteger();
+
+	/** permessage-deflate 수락 시 응답할 확장 헤더 값 (null 이면 수락하지 않음) */
+	public volatile String						deflateResponse		= "permessage-deflate";
+	/** 클라이언트 ping 에 pong 응답 여부 */
+	public volatile boolean						replyPing			= true;
+	/** 101 이외의 응답 상태 코드 (0 이면 정상 응답) */
+	public volatile int							rejectStatus		= 0;
+
+	private final ServerSocket					serverSocket;
+	private final List<Socket>					sockets				= new CopyOnWriteArrayList<>();
+	private final List<Connection>				connections			= new CopyOnWriteArrayList<>();
+	private volatile boolean					running				= true;
+
+	public WebSocketTestServer() throws IOException {
+		this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		Thread t = new Thread(this::accept, "webSocketTestServer");
+		t.setDaemon(true);
+		t.start();
+	}
+
+	/**
+	 * @return "ws://127.0.0.1:{port}"
+	 */
+	public String getServerAddr() {
+		return "ws://127.0.0.1:" + serverSocket.getLocalPort();
+	}
+
+	private void accept() {
+		while (running) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				sockets.add(socket);
+				Thread t = new Thread(() -> handle(socket), "webSocketTestServer-conn");
+				t.setDaemon(true);
+				t.start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void handle(Socket socket) {
+		Connection conn = null;
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+
+			// 핸드셰이크
+			StringBuilder request = new StringBuilder();
+			String key = null;
+			boolean deflateRequested = false;
+			for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+				request.append(line).append("\n");
+				if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+					key = line.substring(line.indexOf(':') + 1).trim();
+				} else if (line.toLowerCase().startsWith("sec-websocket-extensions:")) {
+					deflateRequested = line.contains("permessage-deflate");
+				}
+			}
+			requests.add(request.toString());
+			if (rejectStatus > 0) {
+				out.write(("HTTP/1.1 " + rejectStatus + " Rejected\r\nContent-Length: 0\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+				out.flush();
+				return;
+			}
+			boolean deflate = deflateRequested && deflateResponse != null;
+			StringBuilder response = new StringBuilder("HTTP/1.1 101 Switching Protocols\r\n");
+			response.append("Upgrade: websocket\r\nConnection: Upgrade\r\n");
+			response.append("Sec-WebSocket-Accept: ").append(WebSocketProtocol.acceptKey(key)).append("\r\n");
+			if (deflate) {
+				response.append("Sec-WebSocket-Extensions: ").append(deflateResponse).append("\r\n");
+			}
+			response.append("\r\n");
+			out.write(response.toString().getBytes(StandardCharsets.ISO_8859_1));
+			out.flush();
+
+			conn = new Connection(out, deflate, deflate && deflateResponse.contains("server_no_context_takeover"));
+			connections.add(conn);
+			Inflater inflater = new Inflater(true);
+
+			while (running) {
+				int b0 = in.read();
+				if (b0 < 0) {
+					return;
+				}
+				int b1 = in.readUnsignedByte();
+				if ((b1 & 0x80) == 0) {
+					throw new IOException("Client frame is not masked");
+				}
+				long length = b1 & 0x7F;
+				if (length == 126) {
+					length = in.readUnsignedShort();
+				} else if (length == 127) {
+					length = in.readLong();
+				}
+				byte[] mask = new byte[4];
+				in.readFully(mask);
+				byte[] payload = new byte[(int) length];
+				in.readFully(payload);
+				for (int i = 0; i < payload.length; i++) {
+					payload[i] ^= mask[i & 3];
+				}
+
+				boolean rsv1 = (b0 & 0x40) != 0;
+				switch (b0 & 0x0F) {
+					case 0x2: // binary
+						if (rsv1) {
+							byte[] input = new byte[payload.length + 4];
+							System.arraycopy(payload, 0, input, 0, payload.length);
+							input[payload.length + 2] = (byte) 0xFF;
+							input[payload.length + 3] = (byte) 0xFF;
+							inflater.setInput(input);
+							ByteArrayOutputStream result = new ByteArrayOutputStream();
+							byte[] buf = new byte[1024];
+							int n;
+							while ((n = inflater.inflate(buf)) > 0) {
+								result.write(buf, 0, n);
+							}
+							payload = result.toByteArray();
+						}
+						compressed.add(rsv1);
+						received.add(payload);
+						break;
+					case 0x8: // close
+						conn.write(0x8, payload, false);
+						return;
+					case 0x9: // ping
+						pingCount.incrementAndGet();
+						if (replyPing) {
+							conn.write(0xA, payload, false);
+						}
+						break;
+					case 0xA: // pong
+						pongs.add(payload);
+						break;
+					default:
+						break;
+				}
+			}
+		} catch (Exception e) {
+			// 연결 종료
+		} finally {
+			sockets.remove(socket);
+			connections.remove(conn);
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private static String readLine(DataInputStream in) throws IOException {
+		StringBuilder line = new StringBuilder();
+		int b;
+		while ((b = in.read()) != '\n') {
+			if (b < 0) {
+				throw new IOException("EOF");
+			}
+			if (b != '\r') {
+				line.append((char) b);
+			}
+		}
+		return line.toString();
+	}
+
+	/**
+	 * 연결된 클라이언트에게 binary 메시지를 전송합니다. (permessage-deflate 사용 시 compress 에 따라 압축)
+	 */
+	public void sendToClients(byte[] payload, boolean compress) throws IOException {
+		for (Connection conn : connections) {
+			conn.write(0x2, payload, compress && conn.deflate);
+		}
+	}
+
+	/**
+	 * 연결된 클라이언트에게 ping 을 전송합니다.
+	 */
+	public void pingClients(byte[] payload) throws IOException {
+		for (Connection conn : connections) {
+			conn.write(0x9, payload, false);
+		}
+	}
+
+	private static final class Connection {
+		final OutputStream	out;
+		final boolean		deflate;
+		final boolean		noContextTakeover;
+		final Deflater		deflater	= new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+		Connection(OutputStream out, boolean deflate, boolean noContextTakeover) {
+			this.out = out;
+			this.deflate = deflate;
+			this.noContextTakeover = noContextTakeover;
+		}
+
+		synchronized void write(int opcode, byte[] payload, boolean compress) throws IOException {
+			byte[] data = payload;
+			if (compress) {
+				deflater.setInput(payload);
+				ByteArrayOutputStream result = new ByteArrayOutputStream();
+				byte[] buf = new byte[1024];
+				int n;
+				do {
+					n = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+					result.write(buf, 0, n);
+				} while (n == buf.length);
+				if (noContextTakeover) {
+					deflater.reset();
+				}
+				byte[] all = result.toByteArray();
+				data = new byte[all.length - 4];
+				System.arraycopy(all, 0, data, 0, data.length);
+			}
+			out.write(0x80 | (compress ? 0x40 : 0) | opcode);
+			if (data.length > 0xFFFF) {
+				out.write(127);
+				for (int i = 7; i >= 0; i--) {
+					out.write((int) ((long) data.length >> (8 * i)));
+				}
+			} else if (data.length > 125) {
+				out.write(126);
+				out.write(data.length >> 8);
+				out.write(data.length);
+			} else {
+				out.write(data.length);
+			}
+			out.write(data);
+			out.flush();
+		}
+	}
+
+	/**
+	 * 연결된 클라이언트의 연결을 모두 끊습니다.
+	 */
+	public void dropConnections() {
+		for (Socket socket : sockets) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		running = false;
+		serverSocket.close();
+		dropConnections();
+	}
+}